@@ -0,0 +1,68 @@
+package com.example.transactionmanager.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the JMH benchmarks once per thread count and writes one JSON result file per run,
+ * so results can be diffed between releases (e.g. with https://jmh.morethan.io).
+ *
+ * Arguments: {@code <outputDir> [threads=1,4,16] [prof=gc,footprint] [include regex...]}. From Maven:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="threads=1,8 TransactionServiceBenchmark.list"
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="threads=4 prof=gc,footprint StoreBenchmark"
+ * </pre>
+ * {@code prof} names JMH profilers to attach, plus {@code footprint} for {@link FootprintProfiler}.
+ */
+public class BenchmarkRunner {
+    private static final String DEFAULT_INCLUDE = "com\\.example\\.transactionmanager\\..*";
+
+    public static void main(String[] args) throws RunnerException {
+        File outputDirectory = new File(args.length > 0 ? args[0] : "target/jmh");
+        int[] threadCounts = {1, 4, 16};
+        List<String> includes = new ArrayList<>();
+        List<String> profilers = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("threads=")) {
+                String[] counts = args[i].substring("threads=".length()).split(",");
+                threadCounts = new int[counts.length];
+                for (int j = 0; j < counts.length; j++) {
+                    threadCounts[j] = Integer.parseInt(counts[j].trim());
+                }
+            } else if (args[i].startsWith("prof=")) {
+                for (String profiler : args[i].substring("prof=".length()).split(",")) {
+                    profilers.add(profiler.trim());
+                }
+            } else if (!args[i].isBlank()) {
+                includes.add(args[i]);
+            }
+        }
+        if (includes.isEmpty()) {
+            includes.add(DEFAULT_INCLUDE);
+        }
+        outputDirectory.mkdirs();
+
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(outputDirectory, "results-threads-" + threads + ".json").getPath());
+            includes.forEach(options::include);
+            for (String profiler : profilers) {
+                if (profiler.equals("footprint")) {
+                    options.addProfiler(FootprintProfiler.class);
+                } else {
+                    options.addProfiler(profiler);
+                }
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.transactionmanager.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports what a benchmark's state holds and how long the collector stopped it: the heap still
+ * in use after full collections at the end of each iteration, the direct buffers allocated, and
+ * the longest and total GC pause during the iteration. JMH's own {@code gc} profiler reports
+ * allocation rates but neither the live heap nor single pauses.
+ *
+ * Enable it with {@code prof=footprint} in the {@code BenchmarkRunner} arguments. The live heap
+ * includes JMH itself, a few megabytes, so compare it between parameters rather than reading it
+ * as the state's size.
+ */
+public class FootprintProfiler implements InternalProfiler {
+    private final List<Long> pauses = Collections.synchronizedList(new ArrayList<>());
+    private final NotificationListener listener = (notification, handback) -> {
+        if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+            pauses.add(GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData())
+                    .getGcInfo().getDuration());
+        }
+    };
+
+    @Override
+    public String getDescription() {
+        return "Live heap after GC, direct memory and GC pauses";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        pauses.clear();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        // Stop listening first, so the collections forced below don't count as pauses
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            try {
+                ((NotificationEmitter) collector).removeNotificationListener(listener);
+            } catch (Exception e) {
+                // Not registered
+            }
+        }
+        List<Long> iterationPauses = new ArrayList<>(pauses);
+        long directBytes = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                directBytes = pool.getMemoryUsed();
+            }
+        }
+        return List.of(
+                new ScalarResult("footprint.heap.live", usedHeapAfterGc() / 1048576.0, "MB", AggregationPolicy.AVG),
+                new ScalarResult("footprint.direct", directBytes / 1048576.0, "MB", AggregationPolicy.AVG),
+                new ScalarResult("footprint.gc.pause.max",
+                        iterationPauses.stream().mapToLong(Long::longValue).max().orElse(0), "ms", AggregationPolicy.MAX),
+                new ScalarResult("footprint.gc.pause.total",
+                        iterationPauses.stream().mapToLong(Long::longValue).sum(), "ms", AggregationPolicy.AVG));
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
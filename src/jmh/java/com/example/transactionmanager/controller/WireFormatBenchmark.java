@@ -0,0 +1,99 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.cache.ListPage;
+import com.example.transactionmanager.cache.PageEncoder;
+import com.example.transactionmanager.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU per {@code GET /transactions} page body, as JSON and as CBOR, without the HTTP stack:
+ * <ul>
+ *   <li>{@code cachedPage} - a cache hit, writing the page's stored encoding between the envelope</li>
+ *   <li>{@code uncachedPage} - the cache disabled, so every page is encoded from its objects again</li>
+ *   <li>{@code mappedResponse} - the whole response mapped by Jackson, as before pages were kept encoded</li>
+ * </ul>
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="threads=1 WireFormatBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    String format;
+
+    @Param({"50"})
+    int pageSize;
+
+    final TransactionListMessageConverter converter =
+            new TransactionListMessageConverter(new PageEncoder(new ObjectMapper(), new CBORMapper()));
+    MediaType mediaType;
+    ObjectMapper mapper;
+    List<Transaction> items;
+    TransactionListResponse cached;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mediaType = format.equals("cbor") ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+        mapper = format.equals("cbor") ? new CBORMapper() : new ObjectMapper();
+        items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            items.add(new Transaction(UUID.randomUUID().toString(), "Benchmark transaction " + i,
+                    ThreadLocalRandom.current().nextInt(100_000) / 100.0));
+        }
+        cached = response(ListPage.of(items));
+        write(cached);
+    }
+
+    @Benchmark
+    public byte[] cachedPage() throws IOException {
+        return write(cached);
+    }
+
+    @Benchmark
+    public byte[] uncachedPage() throws IOException {
+        return write(response(ListPage.of(items)));
+    }
+
+    @Benchmark
+    public byte[] mappedResponse() throws IOException {
+        return mapper.writeValueAsBytes(response(ListPage.of(items)));
+    }
+
+    private TransactionListResponse response(ListPage page) {
+        return new TransactionListResponse(page, 3, 100_000, 100_000 / pageSize);
+    }
+
+    private byte[] write(TransactionListResponse response) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(response, mediaType, message);
+        return message.getBodyAsBytes();
+    }
+}
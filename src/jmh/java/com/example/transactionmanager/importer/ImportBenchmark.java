@@ -0,0 +1,101 @@
+package com.example.transactionmanager.importer;
+
+import com.example.transactionmanager.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bulk import into an empty in-memory service, one whole file per operation. Divide the rows by
+ * the reported time for rows per second.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="threads=1 ImportBenchmark"
+ * </pre>
+ * {@code parallelism} is the import's own thread count (0 for one per processor); run it on one
+ * benchmark thread. The file is generated once into the temporary directory and kept for later
+ * runs. Every hundredth row is invalid, so the error report is exercised too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ImportBenchmark {
+
+    @Param({"csv", "ndjson"})
+    String format;
+
+    @Param({"1000000"})
+    int rows;
+
+    @Param({"0"})
+    int parallelism;
+
+    Path file;
+    ImportFormat importFormat;
+    BulkImporter importer;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        importFormat = ImportFormat.of(format);
+        file = Path.of(System.getProperty("java.io.tmpdir"),
+                "import-benchmark-" + rows + "." + importFormat.name().toLowerCase(Locale.ROOT));
+        if (!Files.exists(file)) {
+            write(file, importFormat, rows);
+        }
+    }
+
+    // Each import starts from an empty store
+    @Setup(Level.Iteration)
+    public void emptyService() {
+        ImportProperties properties = new ImportProperties();
+        properties.setParallelism(parallelism);
+        importer = new BulkImporter(new TransactionService(), properties);
+    }
+
+    @Benchmark
+    public ImportReport importFile() throws IOException {
+        return importer.importFile(file, importFormat);
+    }
+
+    private static void write(Path file, ImportFormat format, int rows) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (format == ImportFormat.CSV) {
+                out.write("id,accountId,description,amount\n");
+            }
+            for (int i = 0; i < rows; i++) {
+                String id = String.format("t%09d", i);
+                String account = "acct-" + (i % 1000);
+                String description = "Imported transaction " + i;
+                // Negative amounts fail validation
+                double amount = i % 100 == 99 ? -1 : ThreadLocalRandom.current().nextInt(1, 100_000) / 100.0;
+                if (format == ImportFormat.CSV) {
+                    out.write(id + "," + account + ",\"" + description + ", batch\"," + amount + "\n");
+                } else {
+                    out.write("{\"id\":\"" + id + "\",\"accountId\":\"" + account + "\",\"description\":\""
+                            + description + "\",\"amount\":" + amount + "}\n");
+                }
+            }
+        }
+    }
+}
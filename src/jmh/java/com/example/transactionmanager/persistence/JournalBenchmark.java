@@ -0,0 +1,153 @@
+package com.example.transactionmanager.persistence;
+
+import com.example.transactionmanager.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Journal write throughput per durability mode, and recovery time. Writer threads are varied by
+ * {@code BenchmarkRunner}, which is where group commit differs from {@code sync}:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="threads=1,16 JournalBenchmark"
+ * </pre>
+ * Recovery runs on one benchmark thread and replays with one thread per processor. Half its
+ * records are written before a snapshot and half after it, so recovery loads a snapshot and
+ * replays a log tail of the same size.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JournalBenchmark {
+
+    /**
+     * An open journal that writers append to.
+     */
+    @State(Scope.Benchmark)
+    public static class Journal {
+        @Param({"SYNC", "GROUP", "ASYNC"})
+        DurabilityMode durability;
+
+        Path directory;
+        PersistenceEngine engine;
+        final ConcurrentMap<String, Transaction> store = new ConcurrentHashMap<>();
+        final AtomicLong next = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void open() throws IOException {
+            directory = Files.createTempDirectory("journal-benchmark");
+            engine = new PersistenceEngine(properties(directory, durability));
+            engine.open((id, transaction) -> { }, () -> store.values().iterator());
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            engine.close();
+            deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public Transaction write(Journal journal) {
+        return append(journal.engine, journal.store, journal.next.getAndIncrement());
+    }
+
+    /**
+     * A journal written once per trial and recovered by every invocation.
+     */
+    @State(Scope.Benchmark)
+    public static class Written {
+        @Param({"10000000"})
+        long records;
+
+        Path directory;
+        PersistenceProperties properties;
+
+        @Setup(Level.Trial)
+        public void write() throws IOException {
+            directory = Files.createTempDirectory("journal-recovery-benchmark");
+            properties = properties(directory, DurabilityMode.ASYNC);
+            ConcurrentMap<String, Transaction> store = new ConcurrentHashMap<>();
+            PersistenceEngine engine = new PersistenceEngine(properties);
+            engine.open((id, transaction) -> { }, () -> store.values().iterator());
+            for (long i = 0; i < records; i++) {
+                if (i == records / 2) {
+                    engine.snapshot();
+                }
+                append(engine, store, i);
+            }
+            engine.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    public int recover(Written written) {
+        ConcurrentMap<String, Transaction> recovered = new ConcurrentHashMap<>();
+        PersistenceEngine recovering = new PersistenceEngine(written.properties);
+        recovering.open((id, transaction) -> {
+            if (transaction == null) {
+                recovered.remove(id);
+            } else {
+                recovered.put(id, transaction);
+            }
+        }, () -> recovered.values().iterator());
+        recovering.close();
+        return recovered.size();
+    }
+
+    static Transaction append(PersistenceEngine engine, ConcurrentMap<String, Transaction> store, long i) {
+        Transaction transaction = new Transaction(String.format("%012d", i), "Benchmark transaction " + i, i % 10_000);
+        return engine.record(() -> store.compute(transaction.getId(), (key, existing) -> {
+            engine.appendPut(transaction);
+            return transaction;
+        }));
+    }
+
+    static PersistenceProperties properties(Path directory, DurabilityMode durability) {
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setDurability(durability);
+        properties.setSnapshotThreshold(Long.MAX_VALUE);
+        return properties;
+    }
+
+    static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path child : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.transactionmanager.service;
+
+import com.example.transactionmanager.admission.AdaptiveAdmissionController;
+import com.example.transactionmanager.admission.GradientLimit;
+import com.example.transactionmanager.admission.OperationClass;
+import com.example.transactionmanager.admission.ServiceOverloadedException;
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.example.transactionmanager.metrics.TransactionMetrics;
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.persistence.TransactionJournal;
+import com.example.transactionmanager.stats.TransactionStatistics;
+import com.example.transactionmanager.store.HeapTransactionStore;
+import com.example.transactionmanager.store.SlabTransactionStore;
+import com.example.transactionmanager.store.TransactionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hot paths of {@link TransactionService} at several dataset sizes, without the HTTP stack.
+ * Thread counts are varied by {@code BenchmarkRunner}.
+ *
+ * Create and delete change the dataset, so they run as single-shot batches: each measured
+ * iteration applies exactly {@link #BATCH} operations prepared (or cleaned up) outside the
+ * measurement, keeping the dataset at its nominal size between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TransactionServiceBenchmark {
+    static final int BATCH = 10_000;
+    static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "100000", "1000000"})
+    int datasetSize;
+
+    // Override with -p store=slab to measure the off-heap store
+    @Param({"heap"})
+    String store;
+
+    TransactionService service;
+    TransactionPageCache pageCache;
+    AdaptiveAdmissionController admission;
+    final AtomicLong freshIds = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pageCache = new TransactionPageCache(TransactionPageCache.DEFAULT_MAX_CACHED_TRANSACTIONS);
+        admission = new AdaptiveAdmissionController(Map.of(
+                OperationClass.READ, new GradientLimit(200, 20, 2000),
+                OperationClass.WRITE, new GradientLimit(100, 10, 1000)), Duration.ofSeconds(1));
+        TransactionStore transactions = store.equals("slab") ? new SlabTransactionStore() : new HeapTransactionStore();
+        service = new TransactionService(transactions, pageCache, TransactionJournal.NONE, TransactionMetrics.unexported(),
+                admission);
+        List<Transaction> batch = new ArrayList<>(1000);
+        for (int i = 0; i < datasetSize; i++) {
+            batch.add(new Transaction(existingId(i), "Benchmark transaction " + i, i % 10_000));
+            if (batch.size() == 1000) {
+                service.createTransactions(batch);
+                batch = new ArrayList<>(1000);
+            }
+        }
+        if (!batch.isEmpty()) {
+            service.createTransactions(batch);
+        }
+    }
+
+    static String existingId(int i) {
+        return String.format("%012d", i);
+    }
+
+    String randomExistingId() {
+        return existingId(ThreadLocalRandom.current().nextInt(datasetSize));
+    }
+
+    // Ids that are never part of the preloaded dataset
+    String freshId() {
+        return "new-" + freshIds.getAndIncrement();
+    }
+
+    @Benchmark
+    public Transaction modify() {
+        String id = randomExistingId();
+        return service.modifyTransaction(id, new Transaction(id, "Modified", ThreadLocalRandom.current().nextDouble(10_000)));
+    }
+
+    // Read, then replace only if unchanged, as an If-Match client does. Conflicts count as completed operations.
+    @Benchmark
+    public Transaction modifyIfMatch() {
+        String id = randomExistingId();
+        Transaction current = service.getTransaction(id).get();
+        try {
+            return service.modifyTransaction(id, new Transaction(id, "Modified", ThreadLocalRandom.current().nextDouble(10_000)),
+                    current.getVersion());
+        } catch (VersionConflictException e) {
+            return current;
+        }
+    }
+
+    @Benchmark
+    public Transaction get() {
+        return service.getTransaction(randomExistingId()).orElse(null);
+    }
+
+    @Benchmark
+    public TransactionStatistics.Snapshot stats() {
+        return service.getStatistics();
+    }
+
+    // Matches one transaction: the number token in its description is unique
+    @Benchmark
+    public TransactionService.SearchPage searchSelective() {
+        return service.searchTransactions(Integer.toString(ThreadLocalRandom.current().nextInt(datasetSize)), 0, PAGE_SIZE);
+    }
+
+    // Matches every transaction, so the whole posting list is ranked for one page
+    @Benchmark
+    public TransactionService.SearchPage searchCommon() {
+        return service.searchTransactions("benchmark transaction", 0, PAGE_SIZE);
+    }
+
+    // Amounts are spread evenly over [0, 10000), so this range holds 1% of the dataset
+    @Benchmark
+    public TransactionService.SearchPage amountRangePage() {
+        double from = ThreadLocalRandom.current().nextInt(9_900);
+        return service.listTransactionsByAmount(from, from + 100, false, 0, PAGE_SIZE);
+    }
+
+    // What clients did before the amount index: page through everything by id, then filter and sort
+    @Benchmark
+    public List<Transaction> amountRangeScanBaseline() {
+        double from = ThreadLocalRandom.current().nextInt(9_900);
+        List<Transaction> matching = new ArrayList<>();
+        String after = null;
+        List<Transaction> page;
+        do {
+            page = service.listTransactionsAfter(after, 1000);
+            for (Transaction transaction : page) {
+                if (transaction.getAmount() >= from && transaction.getAmount() <= from + 100) {
+                    matching.add(transaction);
+                }
+            }
+            after = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == 1000);
+        matching.sort(Comparator.comparingDouble(Transaction::getAmount).thenComparing(Transaction::getId));
+        return matching.subList(0, Math.min(PAGE_SIZE, matching.size()));
+    }
+
+    @Benchmark
+    public List<Transaction> listCacheHit() {
+        return service.listTransactions(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Transaction> listCacheMiss() {
+        pageCache.clear();
+        int pages = Math.max(1, datasetSize / PAGE_SIZE);
+        return service.listTransactions(ThreadLocalRandom.current().nextInt(pages), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Transaction> listAfterCursor() {
+        return service.listTransactionsAfter(randomExistingId(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public boolean acquireRelease() {
+        try {
+            admission.acquire(OperationClass.WRITE).release();
+            return true;
+        } catch (ServiceOverloadedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Per-thread batches of prepared creates and deletes.
+     */
+    @State(Scope.Thread)
+    public static class Batch {
+        final List<Transaction> toCreate = new ArrayList<>(BATCH);
+        final List<String> created = new ArrayList<>(BATCH);
+        final List<String> toDelete = new ArrayList<>(BATCH);
+
+        @Setup(Level.Iteration)
+        public void prepare(TransactionServiceBenchmark benchmark) {
+            toCreate.clear();
+            toDelete.clear();
+            List<Transaction> deletable = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                toCreate.add(new Transaction(benchmark.freshId(), "Created", i));
+                Transaction victim = new Transaction(benchmark.freshId(), "Deleted", i);
+                deletable.add(victim);
+                toDelete.add(victim.getId());
+            }
+            benchmark.service.createTransactions(deletable);
+        }
+
+        @TearDown(Level.Iteration)
+        public void cleanUp(TransactionServiceBenchmark benchmark) {
+            // Drop whatever the iteration created or left behind so the dataset size stays fixed
+            List<String> leftovers = new ArrayList<>(created);
+            leftovers.addAll(toDelete);
+            for (int from = 0; from < leftovers.size(); from += 1000) {
+                benchmark.service.deleteTransactions(leftovers.subList(from, Math.min(from + 1000, leftovers.size())));
+            }
+            created.clear();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    @OperationsPerInvocation(BATCH)
+    public void create(Batch batch, Blackhole blackhole) {
+        for (Transaction transaction : batch.toCreate) {
+            blackhole.consume(service.createTransaction(transaction));
+            batch.created.add(transaction.getId());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    @OperationsPerInvocation(BATCH)
+    public void createInBatches(Batch batch, Blackhole blackhole) {
+        for (int from = 0; from < BATCH; from += 100) {
+            blackhole.consume(service.createTransactions(batch.toCreate.subList(from, from + 100)));
+        }
+        batch.toCreate.forEach(transaction -> batch.created.add(transaction.getId()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    @OperationsPerInvocation(BATCH)
+    public void delete(Batch batch, Blackhole blackhole) {
+        for (String id : batch.toDelete) {
+            blackhole.consume(service.deleteTransaction(id));
+        }
+    }
+}
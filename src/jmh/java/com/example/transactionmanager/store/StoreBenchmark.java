@@ -0,0 +1,84 @@
+package com.example.transactionmanager.store;
+
+import com.example.transactionmanager.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory footprint and GC pauses of the heap and slab transaction stores under churn. JMH forks
+ * a JVM per store, so neither inherits the other's heap.
+ *
+ * Run with the footprint profiler, which reports the live heap after GC, the direct memory the
+ * slab store allocated, and the pauses while threads replace random transactions and read others
+ * back, the same mix a busy service produces:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="threads=4 prof=gc,footprint StoreBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 6, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StoreBenchmark {
+
+    @Param({"heap", "slab"})
+    String store;
+
+    @Param({"5000000"})
+    int count;
+
+    TransactionStore transactions;
+
+    @Setup(Level.Trial)
+    public void load() {
+        transactions = store.equals("slab") ? new SlabTransactionStore() : new HeapTransactionStore();
+        for (int i = 0; i < count; i++) {
+            transactions.put(new Transaction(id(i), description(i), amount()));
+        }
+    }
+
+    // One write for every four reads
+    @Benchmark
+    public Object churn() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String id = id(random.nextInt(count));
+        if (random.nextInt(5) == 0) {
+            return transactions.put(new Transaction(id, description(random.nextInt()), amount()));
+        }
+        return transactions.get(id);
+    }
+
+    @Benchmark
+    public Transaction get() {
+        return transactions.get(id(ThreadLocalRandom.current().nextInt(count)));
+    }
+
+    // Random-looking but reproducible UUIDs, so the benchmark threads need no id array on the heap
+    static String id(int i) {
+        return new UUID(i * 0x9E3779B97F4A7C15L, ~i * 0xC2B2AE3D27D4EB4FL).toString();
+    }
+
+    static String description(int i) {
+        return "Benchmark transaction " + (i & 0xFFFF);
+    }
+
+    static double amount() {
+        return ThreadLocalRandom.current().nextInt(1_000_000) / 100.0;
+    }
+}
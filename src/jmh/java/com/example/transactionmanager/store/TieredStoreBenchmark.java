@@ -0,0 +1,131 @@
+package com.example.transactionmanager.store;
+
+import com.example.transactionmanager.admission.AdaptiveAdmissionController;
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.example.transactionmanager.metrics.TransactionMetrics;
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.persistence.TransactionJournal;
+import com.example.transactionmanager.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.example.transactionmanager.store.StoreBenchmark.amount;
+import static com.example.transactionmanager.store.StoreBenchmark.description;
+import static com.example.transactionmanager.store.StoreBenchmark.id;
+
+/**
+ * Heap footprint and read latency of a whole {@link TransactionService} over the heap and tiered
+ * stores, with ten cold transactions for every hot one. JMH forks a JVM per store, so neither
+ * inherits the other's heap.
+ *
+ * Run with the footprint profiler for the live heap after GC:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="threads=1 prof=footprint TieredStoreBenchmark"
+ * </pre>
+ * The live heap is the process's, so it includes the service's indexes, which are not tiered: the
+ * sorted ids, the amount index, the description index and the account partitions hold every
+ * transaction's id on the heap whichever store is used. Only the transactions themselves move to
+ * disk.
+ *
+ * The cold transactions are loaded first and, for the tiered store, moved to disk before the hot
+ * ones are loaded. Reads pick uniformly random ids, so cold reads mostly miss the block cache and
+ * show the cost of reading and inflating a block; the page cache still holds the segment files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TieredStoreBenchmark {
+
+    @Param({"heap", "tiered"})
+    String store;
+
+    @Param({"100000"})
+    int hotCount;
+
+    int coldCount;
+    TieredStoreProperties properties;
+    TransactionStore transactions;
+    TransactionService service;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        coldCount = hotCount * 10;
+        properties = new TieredStoreProperties();
+        properties.setDirectory(Files.createTempDirectory("tiered-benchmark").toString());
+        properties.setHotMaxTransactions(hotCount);
+        properties.setDemotionInterval(Duration.ofHours(1));
+        transactions = store.equals("tiered") ? new TieredTransactionStore(properties) : new HeapTransactionStore();
+        service = new TransactionService(transactions,
+                new TransactionPageCache(TransactionPageCache.DEFAULT_MAX_CACHED_TRANSACTIONS), TransactionJournal.NONE,
+                TransactionMetrics.unexported(), AdaptiveAdmissionController.fixed(1000));
+
+        create(0, coldCount);
+        if (transactions instanceof TieredTransactionStore tiered) {
+            // Everything loaded so far is idle by now
+            Thread.sleep(10);
+            properties.setColdAfter(Duration.ZERO);
+            tiered.demoteNow();
+            properties.setColdAfter(Duration.ofHours(1));
+        }
+        create(coldCount, coldCount + hotCount);
+    }
+
+    // In batches through the service, so its indexes hold what a loaded instance's would
+    private void create(int from, int to) {
+        List<Transaction> batch = new ArrayList<>(1000);
+        for (int i = from; i < to; i++) {
+            batch.add(new Transaction(id(i), "acct-" + (i % 1000), description(i), amount()));
+            if (batch.size() == 1000 || i == to - 1) {
+                service.createTransactions(batch);
+                batch = new ArrayList<>(1000);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        if (transactions instanceof TieredTransactionStore tiered) {
+            tiered.close();
+        }
+        try (Stream<Path> files = Files.walk(Path.of(properties.getDirectory()))) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Transaction hotRead() {
+        return service.getTransaction(id(coldCount + ThreadLocalRandom.current().nextInt(hotCount))).orElseThrow();
+    }
+
+    @Benchmark
+    public Transaction coldRead() {
+        return service.getTransaction(id(ThreadLocalRandom.current().nextInt(coldCount))).orElseThrow();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.transactionmanager.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Reference results of a load test, stored as properties ({@code <scenario>.p50}, {@code .p99} and
+ * {@code .p999} in milliseconds, {@code .throughput} in requests per second), and the check of a
+ * new run against them.
+ */
+final class Baseline {
+    private static final String[] PERCENTILE_KEYS = {"p50", "p99", "p999"};
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+
+    private final Properties values;
+
+    private Baseline(Properties values) {
+        this.values = values;
+    }
+
+    static Baseline of(List<OpenModelLoad.Result> results) {
+        Properties values = new Properties();
+        for (OpenModelLoad.Result result : results) {
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                values.setProperty(result.scenario() + "." + PERCENTILE_KEYS[i],
+                        String.format("%.3f", result.millis(PERCENTILES[i])));
+            }
+            values.setProperty(result.scenario() + ".throughput", String.format("%.1f", result.throughput()));
+        }
+        return new Baseline(values);
+    }
+
+    static Baseline read(Path file) throws IOException {
+        Properties values = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            values.load(in);
+        }
+        return new Baseline(values);
+    }
+
+    void write(Path file, String comment) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(file)) {
+            values.store(out, comment);
+        }
+    }
+
+    /**
+     * Describes every way the results fall short of this baseline, or returns an empty list if they
+     * don't. A latency regresses when it exceeds the baseline by more than {@code threshold} (0.2 for
+     * 20%) and by more than {@code minLatencyMillis}, so sub-millisecond jitter never fails a run.
+     * Throughput regresses when it is below the baseline by more than {@code threshold}. Scenarios
+     * missing from the baseline are not checked.
+     */
+    List<String> regressions(List<OpenModelLoad.Result> results, double threshold, double minLatencyMillis) {
+        List<String> regressions = new ArrayList<>();
+        for (OpenModelLoad.Result result : results) {
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                String key = result.scenario() + "." + PERCENTILE_KEYS[i];
+                String stored = values.getProperty(key);
+                if (stored == null) {
+                    continue;
+                }
+                double expected = Double.parseDouble(stored);
+                double actual = result.millis(PERCENTILES[i]);
+                if (actual > expected * (1 + threshold) && actual - expected > minLatencyMillis) {
+                    regressions.add(String.format("%s: %.3f ms, baseline %.3f ms", key, actual, expected));
+                }
+            }
+            String key = result.scenario() + ".throughput";
+            String stored = values.getProperty(key);
+            if (stored != null) {
+                double expected = Double.parseDouble(stored);
+                if (result.throughput() < expected * (1 - threshold)) {
+                    regressions.add(String.format("%s: %.1f/s, baseline %.1f/s", key, result.throughput(), expected));
+                }
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.transactionmanager.loadtest;
+
+import com.example.transactionmanager.TransactionManagerApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Fan-out of the change feed: many subscribers follow {@code GET /transactions/changes} while
+ * writers modify transactions at a fixed rate, and every delivered event's latency from the write
+ * is measured.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.transactionmanager.loadtest.ChangeFeedBenchmark \
+ *     -Dloadtest.args="100,1000,5000 500 30"
+ * </pre>
+ * Arguments are the subscriber counts, the writes per second and the measured seconds per run.
+ * Each write's description carries its send time, so latency covers the write, the feed and the
+ * stream. Client and server share the process; 5000 subscribers need an open file limit of at
+ * least 12k ({@code ulimit -n}).
+ */
+public class ChangeFeedBenchmark {
+    private static final Pattern SENT_AT = Pattern.compile("\"description\":\"sent (\\d+)\"");
+
+    public static void main(String[] args) throws Exception {
+        int[] subscriberCounts = Arrays.stream((args.length > 0 ? args[0] : "100,1000,5000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int writesPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        List<String> results = new ArrayList<>();
+        for (int subscribers : subscriberCounts) {
+            results.add(run(subscribers, writesPerSecond, Duration.ofSeconds(seconds)));
+        }
+        System.out.printf("%nwrites/s=%d duration=%ds%n", writesPerSecond, seconds);
+        System.out.printf("%11s %12s %13s %9s %9s %9s %8s%n",
+                "subscribers", "writes", "events/s out", "p50 ms", "p99 ms", "max ms", "resets");
+        results.forEach(System.out::println);
+    }
+
+    private static String run(int subscribers, int writesPerSecond, Duration duration) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(TransactionManagerApplication.class,
+                "--server.port=0",
+                "--server.tomcat.max-connections=" + (subscribers + 1000),
+                "--transactionmanager.admission.algorithm=fixed",
+                "--transactionmanager.admission.write.initial-limit=10000",
+                "--transactionmanager.feed.max-subscribers=" + (subscribers + 1),
+                "--logging.level.root=warn");
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/transactions";
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            Delivery delivery = new Delivery();
+            long written;
+            double elapsedSeconds;
+            try (ExecutorService streams = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int s = 0; s < subscribers; s++) {
+                    streams.execute(() -> follow(client, baseUrl, delivery));
+                }
+                // Let every subscriber connect before writing
+                while (delivery.connected.sum() < subscribers) {
+                    Thread.sleep(100);
+                }
+                long start = System.nanoTime();
+                written = write(client, baseUrl, writesPerSecond, duration);
+                // Give the last writes time to arrive
+                Thread.sleep(1000);
+                elapsedSeconds = (System.nanoTime() - start) / 1e9;
+                streams.shutdownNow();
+            }
+            return delivery.report(subscribers, written, elapsedSeconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void follow(HttpClient client, String baseUrl, Delivery delivery) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/changes")).GET().build();
+        try {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            delivery.connected.increment();
+            try (Stream<String> lines = response.body()) {
+                lines.forEach(line -> {
+                    if (line.startsWith("event: reset")) {
+                        delivery.resets.increment();
+                    } else if (line.startsWith("data: ")) {
+                        Matcher sentAt = SENT_AT.matcher(line);
+                        if (sentAt.find()) {
+                            delivery.record(System.nanoTime() - Long.parseLong(sentAt.group(1)));
+                        }
+                    }
+                });
+            }
+        } catch (Exception e) {
+            // Closed at the end of the run
+        }
+    }
+
+    private static long write(HttpClient client, String baseUrl, int writesPerSecond, Duration duration) throws Exception {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / writesPerSecond;
+        long total = duration.getSeconds() * writesPerSecond;
+        long start = System.nanoTime();
+        AtomicLong written = new AtomicLong();
+        try (ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long due = start + i * intervalNanos;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                String id = "feed-" + (i % 1000);
+                writers.execute(() -> {
+                    String body = "{\"id\":\"" + id + "\",\"description\":\"sent " + System.nanoTime() + "\",\"amount\":1}";
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                    try {
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                        written.incrementAndGet();
+                    } catch (Exception e) {
+                        // Counted as not written
+                    }
+                });
+            }
+        }
+        return written.get();
+    }
+
+    /**
+     * Latency samples from every subscriber, in a fixed set of microsecond buckets so thousands
+     * of subscribers can record without contending on one list.
+     */
+    private static final class Delivery {
+        private static final int MAX_MICROS = 10_000_000;
+        private final LongAdder[] micros = new LongAdder[MAX_MICROS / 100 + 1];
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder connected = new LongAdder();
+        private final LongAdder resets = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Delivery() {
+            for (int i = 0; i < micros.length; i++) {
+                micros[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            micros[(int) Math.min(micros.length - 1, TimeUnit.NANOSECONDS.toMicros(nanos) / 100)].increment();
+            delivered.increment();
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        String report(int subscribers, long written, double elapsedSeconds) {
+            return String.format("%11d %12d %13.0f %9.2f %9.2f %9.2f %8d", subscribers, written,
+                    delivered.sum() / elapsedSeconds, millis(0.50), millis(0.99), maxNanos.get() / 1e6, resets.sum());
+        }
+
+        private double millis(double quantile) {
+            long total = delivered.sum();
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < micros.length; i++) {
+                seen += micros[i].sum();
+                if (seen >= rank) {
+                    return (i + 1) * 0.1;
+                }
+            }
+            return MAX_MICROS / 1000.0;
+        }
+    }
+}
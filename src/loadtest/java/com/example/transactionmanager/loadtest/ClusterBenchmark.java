@@ -0,0 +1,242 @@
+package com.example.transactionmanager.loadtest;
+
+import com.example.transactionmanager.TransactionManagerApplication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of a cluster of 1, 2, 4... nodes, each a separate JVM on a localhost port, with the
+ * client spreading requests over the nodes round-robin the way a load balancer would.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.transactionmanager.loadtest.ClusterBenchmark \
+ *     -Dloadtest.args="1,2,4 2 256 20 0.2 2"
+ * </pre>
+ * Arguments are the node counts, the replication factor, the client connections, the measured
+ * seconds per run, the fraction of requests that are writes, and the processors each node may use
+ * ({@code -XX:ActiveProcessorCount}). Each read is served by whichever replica it reaches, or
+ * forwarded once; each write costs one call per extra replica, so write throughput per node falls
+ * as the replication factor grows while read throughput grows with the node count.
+ *
+ * All nodes and the client share one machine, so the numbers only show scaling while the machine
+ * has idle cores; give each node a processor budget that fits.
+ */
+public class ClusterBenchmark {
+    private static final int PRELOADED = 10_000;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        int[] nodeCounts = Arrays.stream((args.length > 0 ? args[0] : "1,2,4").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int replicationFactor = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        double writeRatio = args.length > 4 ? Double.parseDouble(args[4]) : 0.2;
+        int processorsPerNode = args.length > 5 ? Integer.parseInt(args[5]) : 2;
+
+        List<String> results = new ArrayList<>();
+        for (int nodes : nodeCounts) {
+            results.add(run(nodes, replicationFactor, connections, Duration.ofSeconds(seconds), writeRatio,
+                    processorsPerNode));
+        }
+        System.out.printf("%nreplication=%d connections=%d writes=%.0f%% processors/node=%d duration=%ds%n",
+                replicationFactor, connections, writeRatio * 100, processorsPerNode, seconds);
+        System.out.printf("%-6s %12s %9s %9s %8s%n", "nodes", "requests/s", "p50 ms", "p99 ms", "errors");
+        results.forEach(System.out::println);
+    }
+
+    private static String run(int nodes, int replicationFactor, int connections, Duration duration,
+                              double writeRatio, int processorsPerNode) throws Exception {
+        int[] ports = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                ports[i] = socket.getLocalPort();
+            }
+        }
+        List<String> members = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            members.add("node-" + i + "=http://localhost:" + ports[i]);
+        }
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (int i = 0; i < nodes; i++) {
+                processes.add(new ProcessBuilder(java,
+                        "-XX:ActiveProcessorCount=" + processorsPerNode,
+                        "-cp", System.getProperty("java.class.path"),
+                        TransactionManagerApplication.class.getName(),
+                        "--server.port=" + ports[i],
+                        "--logging.level.root=warn",
+                        "--transactionmanager.admission.algorithm=fixed",
+                        "--transactionmanager.admission.read.initial-limit=" + (connections * 2),
+                        "--transactionmanager.admission.write.initial-limit=" + (connections * 2),
+                        "--transactionmanager.cluster.enabled=" + (nodes > 1),
+                        "--transactionmanager.cluster.node-id=node-" + i,
+                        "--transactionmanager.cluster.nodes=" + String.join(",", members),
+                        "--transactionmanager.cluster.replication-factor=" + replicationFactor,
+                        "--transactionmanager.cluster.secret=benchmark")
+                        .inheritIO()
+                        .start());
+            }
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            String[] baseUrls = new String[nodes];
+            for (int i = 0; i < nodes; i++) {
+                baseUrls[i] = "http://localhost:" + ports[i] + "/transactions";
+                awaitStarted(client, baseUrls[i]);
+            }
+            for (int i = 0; i < PRELOADED; i += 500) {
+                StringBuilder batch = new StringBuilder("[");
+                for (int j = i; j < i + 500; j++) {
+                    batch.append(j == i ? "" : ",").append(body(String.format("%08d", j)));
+                }
+                client.send(HttpRequest.newBuilder(URI.create(baseUrls[0] + "/batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(batch.append(']').toString()))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+            }
+
+            new Load(client, baseUrls, connections, writeRatio).drive(WARMUP);
+            Load measured = new Load(client, baseUrls, connections, writeRatio);
+            long start = System.nanoTime();
+            measured.drive(duration);
+            return measured.report(nodes, (System.nanoTime() - start) / 1e9);
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+                process.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static void awaitStarted(HttpClient client, String baseUrl) throws Exception {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (true) {
+            try {
+                client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/stats")).GET().build(),
+                        HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    private static String body(String id) {
+        return "{\"id\":\"" + id + "\",\"description\":\"Benchmark transaction\",\"amount\":"
+                + ThreadLocalRandom.current().nextInt(10_000) + "}";
+    }
+
+    /**
+     * One virtual thread per connection, each sending single-transaction reads and writes back to
+     * back to the nodes in turn.
+     */
+    private static final class Load {
+        private final HttpClient client;
+        private final String[] baseUrls;
+        private final int connections;
+        private final double writeRatio;
+        private final long[][] latencies;
+        private final int[] counts;
+        private final AtomicLong errors = new AtomicLong();
+
+        Load(HttpClient client, String[] baseUrls, int connections, double writeRatio) {
+            this.client = client;
+            this.baseUrls = baseUrls;
+            this.connections = connections;
+            this.writeRatio = writeRatio;
+            this.latencies = new long[connections][];
+            this.counts = new int[connections];
+        }
+
+        void drive(Duration duration) {
+            long deadline = System.nanoTime() + duration.toNanos();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < connections; c++) {
+                    int connection = c;
+                    clients.execute(() -> loop(connection, deadline));
+                }
+            }
+        }
+
+        private void loop(int connection, long deadline) {
+            long[] samples = new long[1024];
+            int count = 0;
+            int next = connection;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                String baseUrl = baseUrls[next++ % baseUrls.length];
+                String id = String.format("%08d", random.nextInt(PRELOADED));
+                HttpRequest request = random.nextDouble() < writeRatio
+                        ? HttpRequest.newBuilder(URI.create(baseUrl + "/" + id))
+                                .header("Content-Type", "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString(body(id)))
+                                .build()
+                        : HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build();
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                } catch (IOException e) {
+                    errors.incrementAndGet();
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (count == samples.length) {
+                    samples = Arrays.copyOf(samples, count * 2);
+                }
+                samples[count++] = System.nanoTime() - start;
+            }
+            latencies[connection] = samples;
+            counts[connection] = count;
+        }
+
+        String report(int nodes, double elapsedSeconds) {
+            int total = Arrays.stream(counts).sum();
+            long[] all = new long[total];
+            int offset = 0;
+            for (int c = 0; c < connections; c++) {
+                System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+                offset += counts[c];
+            }
+            Arrays.sort(all);
+            return String.format("%-6d %12.0f %9.2f %9.2f %8d", nodes, total / elapsedSeconds,
+                    millis(all, 0.50), millis(all, 0.99), errors.get());
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]) / 1000.0;
+        }
+    }
+}
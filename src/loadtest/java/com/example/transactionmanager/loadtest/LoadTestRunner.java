@@ -0,0 +1,226 @@
+package com.example.transactionmanager.loadtest;
+
+import com.example.transactionmanager.TransactionManagerApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replays the scenarios of {@code performance-test/TransactionManager.jmx} against an embedded
+ * instance at fixed arrival rates, reports HdrHistogram percentiles and throughput per scenario,
+ * and fails if they regress against a stored baseline.
+ *
+ * Arguments: {@code <outputDir> [key=value...] [--application.property=value...]}. From Maven:
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="duration=120 rates=create:500,list:1000 record=true"
+ * </pre>
+ * Options:
+ * <ul>
+ *   <li>{@code warmup}, {@code duration} - seconds of unmeasured and measured load (10, 60)</li>
+ *   <li>{@code rates} - requests per second per scenario, as {@code name:rate,...}; unlisted
+ *   scenarios keep their default rate, and a rate of 0 leaves a scenario out</li>
+ *   <li>{@code baseline} - the baseline file ({@code performance-test/baseline.properties})</li>
+ *   <li>{@code record} - {@code true} to write the results as the new baseline instead of checking</li>
+ *   <li>{@code threshold} - the fraction by which a latency may rise or throughput fall (0.2)</li>
+ *   <li>{@code min-latency} - milliseconds a latency must rise by before it counts (1)</li>
+ *   <li>{@code max-error-rate} - the fraction of failed requests allowed per scenario (0.01)</li>
+ * </ul>
+ * Arguments starting with {@code --} configure the application, e.g.
+ * {@code --spring.profiles.active=reactive} or {@code --transactionmanager.persistence.enabled=true}.
+ *
+ * Exits with status 1 on a regression or too many errors, which fails the Maven build.
+ */
+public class LoadTestRunner {
+    // Transactions the modify scenario picks from
+    private static final int PRELOADED = 10_000;
+    private static final int PRELOAD_BATCH = 500;
+
+    private static final Map<String, Double> DEFAULT_RATES = new LinkedHashMap<>();
+
+    static {
+        // The Complete Transaction Flow group
+        DEFAULT_RATES.put("create", 200.0);
+        DEFAULT_RATES.put("list", 200.0);
+        DEFAULT_RATES.put("modify", 200.0);
+        DEFAULT_RATES.put("delete", 200.0);
+        // The High Concurrency Batch Group
+        DEFAULT_RATES.put("batch-create", 500.0);
+        DEFAULT_RATES.put("batch-list", 500.0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path outputDirectory = Path.of(args.length > 0 ? args[0] : "target/loadtest");
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArguments = new ArrayList<>(List.of("--server.port=0", "--logging.level.root=warn"));
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                applicationArguments.add(args[i]);
+            } else if (args[i].contains("=")) {
+                options.put(args[i].substring(0, args[i].indexOf('=')), args[i].substring(args[i].indexOf('=') + 1));
+            } else if (!args[i].isBlank()) {
+                throw new IllegalArgumentException("Expected key=value or --property=value: " + args[i]);
+            }
+        }
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Path baselineFile = Path.of(options.getOrDefault("baseline", "performance-test/baseline.properties"));
+        boolean record = Boolean.parseBoolean(options.getOrDefault("record", "false"));
+        double threshold = Double.parseDouble(options.getOrDefault("threshold", "0.2"));
+        double minLatencyMillis = Double.parseDouble(options.getOrDefault("min-latency", "1"));
+        double maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+        Map<String, Double> rates = rates(options.get("rates"));
+
+        List<OpenModelLoad.Result> results;
+        ConfigurableApplicationContext context = SpringApplication.run(TransactionManagerApplication.class,
+                applicationArguments.toArray(String[]::new));
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/transactions";
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            // Enough for every delete of the run, with some to spare
+            long deletable = (long) (rates.getOrDefault("delete", 0.0) * (warmup.toSeconds() + duration.toSeconds()) * 1.1);
+            ConcurrentLinkedQueue<String> deletes = new ConcurrentLinkedQueue<>();
+            preload(client, baseUrl, "m", PRELOADED, null);
+            preload(client, baseUrl, "d", deletable, deletes);
+
+            results = new OpenModelLoad(client, scenarios(baseUrl, rates, deletes)).run(warmup, duration);
+        } finally {
+            context.close();
+        }
+
+        report(System.out, results, duration);
+        Files.createDirectories(outputDirectory);
+        for (OpenModelLoad.Result result : results) {
+            try (PrintStream out = new PrintStream(outputDirectory.resolve(result.scenario() + ".hgrm").toFile())) {
+                // Scaled to milliseconds, for HdrHistogram's plotter
+                result.latencies().outputPercentileDistribution(out, 1e6);
+            }
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (OpenModelLoad.Result result : results) {
+            if (result.errorRate() > maxErrorRate) {
+                failures.add(String.format("%s: %.2f%% of requests failed", result.scenario(), result.errorRate() * 100));
+            }
+        }
+        if (record) {
+            Baseline.of(results).write(baselineFile, "Load test baseline: warmup=" + warmup.toSeconds()
+                    + "s duration=" + duration.toSeconds() + "s rates=" + rates);
+            System.out.println("Baseline written to " + baselineFile);
+        } else if (Files.exists(baselineFile)) {
+            failures.addAll(Baseline.read(baselineFile).regressions(results, threshold, minLatencyMillis));
+        } else {
+            System.out.println("No baseline at " + baselineFile + "; run with record=true to create one");
+        }
+        if (!failures.isEmpty()) {
+            System.out.println("\nLoad test failed:");
+            failures.forEach(failure -> System.out.println("  " + failure));
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Double> rates(String overrides) {
+        Map<String, Double> rates = new LinkedHashMap<>(DEFAULT_RATES);
+        if (overrides != null && !overrides.isBlank()) {
+            for (String override : overrides.split(",")) {
+                String[] parts = override.split(":");
+                if (parts.length != 2 || !rates.containsKey(parts[0].trim())) {
+                    throw new IllegalArgumentException("Expected one of " + DEFAULT_RATES.keySet() + " as name:rate: " + override);
+                }
+                rates.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+        rates.values().removeIf(rate -> rate <= 0);
+        return rates;
+    }
+
+    private static List<Scenario> scenarios(String baseUrl, Map<String, Double> rates, ConcurrentLinkedQueue<String> deletes) {
+        List<Scenario> scenarios = new ArrayList<>();
+        rates.forEach((name, rate) -> scenarios.add(new Scenario(name, rate, switch (name) {
+            case "create" -> () -> post(baseUrl, body(UUID.randomUUID().toString(), "Load Test Transaction", 100, 10_000));
+            case "list" -> () -> get(baseUrl + "?page=0&size=10");
+            case "modify" -> () -> {
+                String id = String.format("m%08d", ThreadLocalRandom.current().nextInt(PRELOADED));
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/" + id))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body(id, "Modified Transaction", 1000, 50_000)))
+                        .build();
+            };
+            case "delete" -> () -> {
+                // Once the pool runs out the deletes find nothing, and count as errors
+                String id = deletes.poll();
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/" + (id != null ? id : "exhausted"))).DELETE().build();
+            };
+            case "batch-create" -> () -> post(baseUrl, body(UUID.randomUUID().toString(), "High Concurrency Test", 1000, 100_000));
+            case "batch-list" -> () -> get(baseUrl + "?page=0&size=5");
+            default -> throw new IllegalArgumentException(name);
+        })));
+        return scenarios;
+    }
+
+    private static void preload(HttpClient client, String baseUrl, String prefix, long count,
+                                ConcurrentLinkedQueue<String> ids) throws IOException, InterruptedException {
+        for (long i = 0; i < count; i += PRELOAD_BATCH) {
+            StringBuilder batch = new StringBuilder("[");
+            for (long j = i; j < Math.min(count, i + PRELOAD_BATCH); j++) {
+                String id = String.format("%s%08d", prefix, j);
+                batch.append(j == i ? "" : ",").append(body(id, "Load Test Transaction", 100, 10_000));
+                if (ids != null) {
+                    ids.add(id);
+                }
+            }
+            HttpResponse<Void> response = client.send(post(baseUrl + "/batch", batch.append(']').toString()),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Preloading failed with status " + response.statusCode());
+            }
+        }
+    }
+
+    private static String body(String id, String description, int minAmount, int maxAmount) {
+        return "{\"id\":\"" + id + "\",\"description\":\"" + description + " " + System.currentTimeMillis()
+                + "\",\"amount\":" + ThreadLocalRandom.current().nextInt(minAmount, maxAmount) + "}";
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static void report(PrintStream out, List<OpenModelLoad.Result> results, Duration duration) {
+        out.printf("%nduration=%ds%n", duration.toSeconds());
+        out.printf("%-13s %12s %9s %9s %9s %9s %8s%n",
+                "scenario", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (OpenModelLoad.Result result : results) {
+            out.printf("%-13s %12.0f %9.2f %9.2f %9.2f %9.2f %8d%n", result.scenario(), result.throughput(),
+                    result.millis(50), result.millis(99), result.millis(99.9),
+                    result.latencies().getMaxValue() / 1e6, result.errors());
+        }
+    }
+}
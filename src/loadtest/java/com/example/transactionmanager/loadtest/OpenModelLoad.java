@@ -0,0 +1,134 @@
+package com.example.transactionmanager.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives scenarios at fixed arrival rates (an open workload model). Each scenario has a thread
+ * that starts request {@code i} at {@code start + i * interval} on a virtual thread of its own,
+ * without waiting for earlier responses. Latency is measured from that intended start, so a stalled
+ * server shows up as the queueing delay clients would see rather than as fewer, faster samples
+ * (coordinated omission).
+ */
+final class OpenModelLoad {
+    // Latencies above this are recorded as this; a minute is far past any useful response
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient client;
+    private final List<Scenario> scenarios;
+
+    OpenModelLoad(HttpClient client, List<Scenario> scenarios) {
+        this.client = client;
+        this.scenarios = scenarios;
+    }
+
+    /**
+     * Runs every scenario for {@code warmup} and then {@code duration}, and returns what was
+     * measured after the warmup, in the order of the scenarios. Requests started during the
+     * measured window are waited for, so slow ones at the end are counted rather than dropped.
+     */
+    List<Result> run(Duration warmup, Duration duration) throws InterruptedException {
+        List<Recording> recordings = new ArrayList<>();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        // Closing the executors waits for the dispatchers, then for every request in flight
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            try (ExecutorService dispatchers = Executors.newFixedThreadPool(scenarios.size())) {
+                for (Scenario scenario : scenarios) {
+                    Recording recording = new Recording(scenario);
+                    recordings.add(recording);
+                    dispatchers.execute(() -> dispatch(recording, requests, start, measureFrom, end));
+                }
+            }
+        }
+        List<Result> results = new ArrayList<>();
+        for (Recording recording : recordings) {
+            results.add(new Result(recording.scenario.name(), recording.latencies, recording.errors.sum(),
+                    duration.toNanos() / 1e9));
+        }
+        return results;
+    }
+
+    private void dispatch(Recording recording, ExecutorService requests, long start, long measureFrom, long end) {
+        long interval = recording.scenario.intervalNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            HttpRequest request = recording.scenario.requests().get();
+            boolean measured = intended >= measureFrom;
+            requests.execute(() -> send(recording, request, intended, measured));
+        }
+    }
+
+    private void send(Recording recording, HttpRequest request, long intended, boolean measured) {
+        boolean ok;
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            ok = status >= 200 && status < 300;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (!measured) {
+            return;
+        }
+        if (ok) {
+            recording.latencies.recordValue(Math.min(System.nanoTime() - intended, HIGHEST_TRACKABLE_NANOS));
+        } else {
+            recording.errors.increment();
+        }
+    }
+
+    private static final class Recording {
+        final Scenario scenario;
+        final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        final LongAdder errors = new LongAdder();
+
+        Recording(Scenario scenario) {
+            this.scenario = scenario;
+        }
+    }
+
+    /**
+     * Successful requests' latencies in nanoseconds, and the number of failed requests (non-2xx
+     * responses and I/O errors), over the measured window.
+     */
+    record Result(String scenario, Histogram latencies, long errors, double seconds) {
+
+        double throughput() {
+            return latencies.getTotalCount() / seconds;
+        }
+
+        double errorRate() {
+            long total = latencies.getTotalCount() + errors;
+            return total == 0 ? 0 : (double) errors / total;
+        }
+
+        double millis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+}
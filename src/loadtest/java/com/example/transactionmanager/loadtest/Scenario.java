@@ -0,0 +1,24 @@
+package com.example.transactionmanager.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.function.Supplier;
+
+/**
+ * One request type of the load, sent at a fixed arrival rate whatever the response times.
+ *
+ * @param name identifies the scenario in reports and in the baseline
+ * @param ratePerSecond requests started per second
+ * @param requests builds the next request; called on the dispatching thread, so it must not block
+ */
+public record Scenario(String name, double ratePerSecond, Supplier<HttpRequest> requests) {
+
+    public Scenario {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate of " + name + " must be positive: " + ratePerSecond);
+        }
+    }
+
+    public long intervalNanos() {
+        return (long) (1e9 / ratePerSecond);
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.transactionmanager.loadtest;
+
+import com.example.transactionmanager.TransactionManagerApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Compares the servlet stack (Tomcat's platform-thread pool) with the reactive stack (WebFlux on
+ * Netty's event loops) on the scenarios of {@code performance-test/TransactionManager.jmx}, at
+ * several numbers of concurrent connections.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.transactionmanager.loadtest.StackBenchmark \
+ *     -Dloadtest.args="1000,10000 30 group"
+ * </pre>
+ * Arguments are the connection counts, the measured seconds per run and the journal durability
+ * mode ({@code none} keeps the store in memory only).
+ *
+ * Scenarios, as in the JMeter plan:
+ * <ul>
+ *   <li>{@code flow} - each connection creates a transaction, lists the first page of 10, modifies
+ *   the transaction and deletes it</li>
+ *   <li>{@code burst} - each connection creates a transaction and lists the first page of 5</li>
+ * </ul>
+ *
+ * Each run starts a fresh application on a random port. Client and server share the process,
+ * so 10k connections need an open file limit of at least 25k ({@code ulimit -n}).
+ */
+public class StackBenchmark {
+    private static final int PRELOADED = 10_000;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private enum Scenario { FLOW, BURST }
+
+    public static void main(String[] args) throws Exception {
+        int[] connectionCounts = Arrays.stream((args.length > 0 ? args[0] : "1000,10000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        String durability = args.length > 2 ? args[2] : "none";
+
+        List<String> results = new ArrayList<>();
+        for (Scenario scenario : Scenario.values()) {
+            for (int connections : connectionCounts) {
+                for (boolean reactive : new boolean[] {false, true}) {
+                    results.add(run(reactive, scenario, connections, Duration.ofSeconds(seconds), durability));
+                }
+            }
+        }
+        System.out.printf("%ndurability=%s duration=%ds%n", durability, seconds);
+        System.out.printf("%-9s %-6s %11s %12s %9s %9s %9s %9s %8s%n",
+                "stack", "flow", "connections", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        results.forEach(System.out::println);
+    }
+
+    private static String run(boolean reactive, Scenario scenario, int connections, Duration duration,
+                              String durability) throws Exception {
+        Path directory = Files.createTempDirectory("stack-benchmark");
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--server.tomcat.max-connections=" + (connections + 1000),
+                "--server.tomcat.accept-count=" + connections,
+                "--transactionmanager.admission.algorithm=fixed",
+                "--transactionmanager.admission.read.initial-limit=" + (connections * 2),
+                "--transactionmanager.admission.write.initial-limit=" + (connections * 2),
+                "--logging.level.root=warn"));
+        if (reactive) {
+            arguments.add("--spring.profiles.active=reactive");
+        }
+        if (!durability.equals("none")) {
+            arguments.add("--transactionmanager.persistence.enabled=true");
+            arguments.add("--transactionmanager.persistence.directory=" + directory);
+            arguments.add("--transactionmanager.persistence.durability=" + durability);
+        }
+        ConfigurableApplicationContext context = SpringApplication.run(TransactionManagerApplication.class,
+                arguments.toArray(String[]::new));
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/transactions";
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            for (int i = 0; i < PRELOADED; i += 500) {
+                StringBuilder batch = new StringBuilder("[");
+                for (int j = i; j < i + 500; j++) {
+                    batch.append(j == i ? "" : ",").append(body(String.format("%08d", j)));
+                }
+                client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(batch.append(']').toString()))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+            }
+
+            Load load = new Load(client, baseUrl, scenario, connections);
+            load.drive(WARMUP);
+            Load measured = new Load(client, baseUrl, scenario, connections);
+            long start = System.nanoTime();
+            measured.drive(duration);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            return measured.report(reactive ? "reactive" : "servlet", elapsedSeconds);
+        } finally {
+            context.close();
+            deleteRecursively(directory);
+        }
+    }
+
+    private static String body(String id) {
+        return "{\"id\":\"" + id + "\",\"description\":\"Load Test Transaction\",\"amount\":"
+                + ThreadLocalRandom.current().nextInt(100, 10_000) + "}";
+    }
+
+    /**
+     * One virtual thread per connection, each running the scenario back to back. Every request is
+     * a sample; a scenario stops at its first failed request and starts over.
+     */
+    private static final class Load {
+        private final HttpClient client;
+        private final String baseUrl;
+        private final Scenario scenario;
+        private final int connections;
+        private final long[][] latencies;
+        private final int[] counts;
+        private final AtomicLong errors = new AtomicLong();
+
+        Load(HttpClient client, String baseUrl, Scenario scenario, int connections) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.scenario = scenario;
+            this.connections = connections;
+            this.latencies = new long[connections][];
+            this.counts = new int[connections];
+        }
+
+        void drive(Duration duration) {
+            long deadline = System.nanoTime() + duration.toNanos();
+            // Closing the executor waits for every connection loop to finish
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < connections; c++) {
+                    int connection = c;
+                    clients.execute(() -> loop(connection, deadline));
+                }
+            }
+        }
+
+        private void loop(int connection, long deadline) {
+            Samples samples = new Samples();
+            try {
+                while (System.nanoTime() < deadline) {
+                    String id = UUID.randomUUID().toString();
+                    if (!send(samples, HttpRequest.newBuilder(URI.create(baseUrl))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body(id))))) {
+                        continue;
+                    }
+                    if (scenario == Scenario.BURST) {
+                        send(samples, HttpRequest.newBuilder(URI.create(baseUrl + "?page=0&size=5")).GET());
+                        continue;
+                    }
+                    if (send(samples, HttpRequest.newBuilder(URI.create(baseUrl + "?page=0&size=10")).GET())
+                            && send(samples, HttpRequest.newBuilder(URI.create(baseUrl + "/" + id))
+                                    .header("Content-Type", "application/json")
+                                    .PUT(HttpRequest.BodyPublishers.ofString(body(id))))) {
+                        send(samples, HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).DELETE());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            latencies[connection] = samples.values;
+            counts[connection] = samples.count;
+        }
+
+        private boolean send(Samples samples, HttpRequest.Builder request) throws InterruptedException {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                    return false;
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                return false;
+            }
+            samples.add(System.nanoTime() - start);
+            return true;
+        }
+
+        String report(String stack, double elapsedSeconds) {
+            int total = Arrays.stream(counts).sum();
+            long[] all = new long[total];
+            int offset = 0;
+            for (int c = 0; c < connections; c++) {
+                System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+                offset += counts[c];
+            }
+            Arrays.sort(all);
+            return String.format("%-9s %-6s %11d %12.0f %9.2f %9.2f %9.2f %9.2f %8d", stack,
+                    scenario.name().toLowerCase(), connections, total / elapsedSeconds, millis(all, 0.50),
+                    millis(all, 0.99), millis(all, 0.999), millis(all, 1.0), errors.get());
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]) / 1000.0;
+        }
+    }
+
+    private static final class Samples {
+        long[] values = new long[1024];
+        int count;
+
+        void add(long nanos) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = nanos;
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path child : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.transactionmanager.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how quickly container images start serving, and how much memory they hold once they
+ * do: the image built by {@code Dockerfile} against the AOT/CDS one built by
+ * {@code Dockerfile.aot}, or any other image of the service such as a native one.
+ *
+ * Run with:
+ * <pre>
+ * make build build-aot
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.transactionmanager.loadtest.StartupBenchmark \
+ *     -Dloadtest.args="10 transaction-manager:latest transaction-manager:aot"
+ * </pre>
+ * Arguments are the number of starts per image and the images. Each start runs a fresh container
+ * with the CPU and memory limits of {@code k8s/deployment.yaml} (pass {@code -Dcpus} and
+ * {@code -Dmemory} in {@code loadtest.jvmArgs} to change them) and times from {@code docker run}
+ * until {@code GET /transactions} first answers 200, the point a readiness probe could pass. RSS
+ * is then summed over the container's processes. Images take turns, so drift on the host affects each alike.
+ */
+public class StartupBenchmark {
+    private static final String CPUS = System.getProperty("cpus", "0.5");
+    private static final String MEMORY = System.getProperty("memory", "512m");
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        int starts = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        List<String> images = args.length > 1
+                ? Arrays.asList(args).subList(1, args.length)
+                : List.of("transaction-manager:latest", "transaction-manager:aot");
+
+        long[][] startMillis = new long[images.size()][starts];
+        long[][] rssKilobytes = new long[images.size()][starts];
+        // One unmeasured start per image, so the first measured one doesn't pay for a cold disk cache
+        for (String image : images) {
+            start(image);
+        }
+        for (int run = 0; run < starts; run++) {
+            for (int i = 0; i < images.size(); i++) {
+                long[] result = start(images.get(i));
+                startMillis[i][run] = result[0];
+                rssKilobytes[i][run] = result[1];
+                System.out.printf("%s run %d: %d ms, %d MB%n", images.get(i), run + 1, result[0], result[1] >> 10);
+            }
+        }
+
+        System.out.printf("%ncpus=%s memory=%s starts=%d%n", CPUS, MEMORY, starts);
+        System.out.printf("%-36s %12s %12s %12s %12s%n", "image", "p50 ms", "max ms", "p50 RSS MB", "max RSS MB");
+        for (int i = 0; i < images.size(); i++) {
+            Arrays.sort(startMillis[i]);
+            Arrays.sort(rssKilobytes[i]);
+            System.out.printf("%-36s %12d %12d %12d %12d%n", images.get(i),
+                    startMillis[i][starts / 2], startMillis[i][starts - 1],
+                    rssKilobytes[i][starts / 2] >> 10, rssKilobytes[i][starts - 1] >> 10);
+        }
+    }
+
+    // Returns the milliseconds to the first successful request and the RSS in KB at that point
+    private static long[] start(String image) throws Exception {
+        long started = System.nanoTime();
+        String container = docker("run", "-d", "--rm", "--cpus", CPUS, "--memory", MEMORY, "-p", "127.0.0.1::8080", image);
+        try {
+            String mapping = docker("port", container, "8080/tcp").lines().findFirst().orElseThrow();
+            URI uri = URI.create("http://" + mapping + "/transactions?page=0&size=1");
+            long deadline = started + TIMEOUT.toNanos();
+            while (!ready(uri)) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(image + " did not answer within " + TIMEOUT);
+                }
+                Thread.sleep(5);
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            return new long[]{millis, rss(container)};
+        } finally {
+            docker("rm", "-f", container);
+        }
+    }
+
+    private static boolean ready(URI uri) throws InterruptedException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).GET().build();
+            return CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            // Refused, or accepted and dropped by Docker's proxy until the container listens
+            return false;
+        }
+    }
+
+    // Runs ps inside the container's namespace from the host, so images without a shell work too
+    private static long rss(String container) throws IOException, InterruptedException {
+        long total = 0;
+        List<String> lines = docker("top", container, "-o", "rss").lines().toList();
+        for (String line : lines.subList(1, lines.size())) {
+            total += Long.parseLong(line.trim());
+        }
+        return total;
+    }
+
+    private static String docker(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of("docker"));
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(String.join(" ", command) + " failed: " + output);
+        }
+        return output;
+    }
+}
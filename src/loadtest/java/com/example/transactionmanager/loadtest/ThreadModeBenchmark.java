@@ -0,0 +1,224 @@
+package com.example.transactionmanager.loadtest;
+
+import com.example.transactionmanager.TransactionManagerApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Compares serving requests on the Tomcat platform-thread pool with serving them on virtual
+ * threads, at several numbers of concurrent connections.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.transactionmanager.loadtest.ThreadModeBenchmark \
+ *     -Dloadtest.args="1000,10000 30 0.2 group"
+ * </pre>
+ * Arguments are the connection counts, the measured seconds per run, the fraction of requests
+ * that are writes, and the journal durability mode ({@code none} keeps the store in memory only).
+ * Writes with a journal block on I/O, which is where virtual threads differ most.
+ *
+ * Each run starts a fresh application on a random port. Client and server share the process,
+ * so 10k connections need an open file limit of at least 25k ({@code ulimit -n}).
+ */
+public class ThreadModeBenchmark {
+    private static final int PRELOADED = 10_000;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        int[] connectionCounts = Arrays.stream((args.length > 0 ? args[0] : "1000,10000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        double writeRatio = args.length > 2 ? Double.parseDouble(args[2]) : 0.2;
+        String durability = args.length > 3 ? args[3] : "none";
+
+        List<String> results = new ArrayList<>();
+        for (int connections : connectionCounts) {
+            for (boolean virtual : new boolean[] {false, true}) {
+                results.add(run(virtual, connections, Duration.ofSeconds(seconds), writeRatio, durability));
+            }
+        }
+        System.out.printf("%nwrites=%.0f%% durability=%s duration=%ds%n", writeRatio * 100, durability, seconds);
+        System.out.printf("%-9s %11s %12s %9s %9s %9s %9s %8s%n",
+                "threads", "connections", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        results.forEach(System.out::println);
+    }
+
+    private static String run(boolean virtual, int connections, Duration duration, double writeRatio,
+                              String durability) throws Exception {
+        Path directory = Files.createTempDirectory("thread-mode-benchmark");
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.max-connections=" + (connections + 1000),
+                "--server.tomcat.accept-count=" + connections,
+                "--transactionmanager.admission.algorithm=fixed",
+                "--transactionmanager.admission.read.initial-limit=" + (connections * 2),
+                "--transactionmanager.admission.write.initial-limit=" + (connections * 2),
+                "--logging.level.root=warn"));
+        if (!durability.equals("none")) {
+            arguments.add("--transactionmanager.persistence.enabled=true");
+            arguments.add("--transactionmanager.persistence.directory=" + directory);
+            arguments.add("--transactionmanager.persistence.durability=" + durability);
+        }
+        ConfigurableApplicationContext context = SpringApplication.run(TransactionManagerApplication.class,
+                arguments.toArray(String[]::new));
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/transactions";
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            for (int i = 0; i < PRELOADED; i += 500) {
+                StringBuilder batch = new StringBuilder("[");
+                for (int j = i; j < i + 500; j++) {
+                    batch.append(j == i ? "" : ",").append(body(String.format("%08d", j)));
+                }
+                client.send(post(baseUrl + "/batch", batch.append(']').toString()), HttpResponse.BodyHandlers.discarding());
+            }
+
+            Load load = new Load(client, baseUrl, connections, writeRatio);
+            load.drive(WARMUP);
+            Load measured = new Load(client, baseUrl, connections, writeRatio);
+            long start = System.nanoTime();
+            measured.drive(duration);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            return measured.report(virtual ? "virtual" : "platform", elapsedSeconds);
+        } finally {
+            context.close();
+            deleteRecursively(directory);
+        }
+    }
+
+    private static String body(String id) {
+        return "{\"id\":\"" + id + "\",\"description\":\"Benchmark transaction\",\"amount\":"
+                + ThreadLocalRandom.current().nextInt(10_000) + "}";
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    /**
+     * One virtual thread per connection, each sending requests back to back.
+     */
+    private static final class Load {
+        private final HttpClient client;
+        private final String baseUrl;
+        private final int connections;
+        private final double writeRatio;
+        private final long[][] latencies;
+        private final int[] counts;
+        private final AtomicLong errors = new AtomicLong();
+
+        Load(HttpClient client, String baseUrl, int connections, double writeRatio) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.connections = connections;
+            this.writeRatio = writeRatio;
+            this.latencies = new long[connections][];
+            this.counts = new int[connections];
+        }
+
+        void drive(Duration duration) {
+            long deadline = System.nanoTime() + duration.toNanos();
+            // Closing the executor waits for every connection loop to finish
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < connections; c++) {
+                    int connection = c;
+                    clients.execute(() -> loop(connection, deadline));
+                }
+            }
+        }
+
+        private void loop(int connection, long deadline) {
+            long[] samples = new long[1024];
+            int count = 0;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                HttpRequest request;
+                if (random.nextDouble() < writeRatio) {
+                    String id = String.format("%08d", random.nextInt(PRELOADED));
+                    request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + id))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(body(id)))
+                            .build();
+                } else {
+                    String after = String.format("%08d", random.nextInt(PRELOADED));
+                    request = HttpRequest.newBuilder(URI.create(baseUrl + "?after=" + after + "&size=20")).GET().build();
+                }
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                } catch (IOException e) {
+                    errors.incrementAndGet();
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (count == samples.length) {
+                    samples = Arrays.copyOf(samples, count * 2);
+                }
+                samples[count++] = System.nanoTime() - start;
+            }
+            latencies[connection] = samples;
+            counts[connection] = count;
+        }
+
+        String report(String threads, double elapsedSeconds) {
+            int total = Arrays.stream(counts).sum();
+            long[] all = new long[total];
+            int offset = 0;
+            for (int c = 0; c < connections; c++) {
+                System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+                offset += counts[c];
+            }
+            Arrays.sort(all);
+            return String.format("%-9s %11d %12.0f %9.2f %9.2f %9.2f %9.2f %8d", threads, connections,
+                    total / elapsedSeconds, millis(all, 0.50), millis(all, 0.99), millis(all, 0.999),
+                    millis(all, 1.0), errors.get());
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]) / 1000.0;
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path child : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(child);
+            }
+        }
+    }
+}
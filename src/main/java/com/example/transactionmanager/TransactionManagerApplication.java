@@ -2,10 +2,8 @@ package com.example.transactionmanager;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cache.annotation.EnableCaching;
 
 @SpringBootApplication
-@EnableCaching
 public class TransactionManagerApplication {
     public static void main(String[] args) {
         SpringApplication.run(TransactionManagerApplication.class, args);
@@ -0,0 +1,47 @@
+package com.example.transactionmanager.account;
+
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ids of one account's transactions in sorted order and their count. Listing an account
+ * walks only its ids, so accounts never contend on each other's index.
+ *
+ * Ids are added and removed only through {@link AccountPartitions}, which drops the partition
+ * when its last id goes.
+ */
+public final class AccountPartition {
+    private final ConcurrentSkipListSet<String> ids = new ConcurrentSkipListSet<>();
+    // The skip list counts by walking, so the size is kept alongside
+    private final AtomicLong count = new AtomicLong();
+
+    AccountPartition() {
+    }
+
+    public NavigableSet<String> ids() {
+        return ids;
+    }
+
+    public long size() {
+        return count.get();
+    }
+
+    // Returns whether the id was new to the account
+    boolean add(String id) {
+        if (ids.add(id)) {
+            count.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    // Returns whether the id was in the account
+    boolean remove(String id) {
+        if (ids.remove(id)) {
+            count.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.transactionmanager.account;
+
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One {@link AccountPartition} per account that currently holds a transaction, and page caches
+ * for the accounts listed most recently.
+ *
+ * A partition is created with the account's first transaction and dropped with its last. Both
+ * happen inside the map's compute for the account, as do all other adds and removes, so a writer
+ * never adds to a partition that has just been dropped.
+ *
+ * Page caches are created on an account's first listing and held for at most
+ * {@code max-cached-accounts} accounts, least recently used going first, so accounts that are
+ * written but never listed cost no cache, and memory is bounded however many accounts there are.
+ * A write evicts only its own account's pages.
+ */
+@Component
+public class AccountPartitions implements MeterBinder {
+    public static final long DEFAULT_MAX_CACHED_TRANSACTIONS = 1000;
+    public static final long DEFAULT_MAX_CACHED_ACCOUNTS = 256;
+
+    private final ConcurrentMap<String, AccountPartition> partitions = new ConcurrentHashMap<>();
+    private final Cache<String, TransactionPageCache> pageCaches;
+    private final long maxCachedTransactions;
+
+    public AccountPartitions(@Value("${transactionmanager.accounts.max-cached-transactions:1000}") long maxCachedTransactions,
+                             @Value("${transactionmanager.accounts.max-cached-accounts:256}") long maxCachedAccounts) {
+        this.maxCachedTransactions = maxCachedTransactions;
+        this.pageCaches = Caffeine.newBuilder()
+                .maximumSize(maxCachedAccounts)
+                .build();
+    }
+
+    /**
+     * The account's partition, or {@code null} if it holds no transactions.
+     */
+    public AccountPartition get(String accountId) {
+        return partitions.get(accountId);
+    }
+
+    /**
+     * The account's page cache, created if the account has none cached. Capture
+     * {@link TransactionPageCache#currentVersion()} from it before reading the partition.
+     */
+    public TransactionPageCache pageCache(String accountId) {
+        return pageCaches.get(accountId, id -> new TransactionPageCache(maxCachedTransactions));
+    }
+
+    public void onAdded(String accountId, String id) {
+        partitions.compute(accountId, (account, partition) -> {
+            AccountPartition updated = partition != null ? partition : new AccountPartition();
+            if (updated.add(id)) {
+                onInsertedOrRemoved(account, id);
+            }
+            return updated;
+        });
+    }
+
+    public void onRemoved(String accountId, String id) {
+        partitions.computeIfPresent(accountId, (account, partition) -> {
+            if (partition.remove(id)) {
+                onInsertedOrRemoved(account, id);
+            }
+            if (partition.size() > 0) {
+                return partition;
+            }
+            pageCaches.invalidate(account);
+            return null;
+        });
+    }
+
+    public void onModified(String accountId, String id) {
+        TransactionPageCache pageCache = pageCaches.getIfPresent(accountId);
+        if (pageCache != null) {
+            pageCache.onModified(id);
+        }
+    }
+
+    private void onInsertedOrRemoved(String accountId, String id) {
+        TransactionPageCache pageCache = pageCaches.getIfPresent(accountId);
+        if (pageCache != null) {
+            pageCache.onInsertedOrRemoved(id);
+        }
+    }
+
+    public int size() {
+        return partitions.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transactions.accounts", partitions, ConcurrentMap::size)
+                .description("Accounts holding transactions")
+                .register(registry);
+    }
+}
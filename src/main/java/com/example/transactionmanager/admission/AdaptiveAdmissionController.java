@@ -0,0 +1,138 @@
+package com.example.transactionmanager.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control with an independent, adaptive limit per operation class. A request is
+ * admitted if the in-flight count for its class is below the current limit, otherwise it is
+ * rejected immediately; nothing ever waits for a permit.
+ */
+public class AdaptiveAdmissionController implements AdmissionController, MeterBinder {
+    private final Map<OperationClass, Limiter> limiters = new EnumMap<>(OperationClass.class);
+    private final Duration retryAfter;
+
+    public AdaptiveAdmissionController(AdmissionProperties properties) {
+        this.retryAfter = properties.getRetryAfter();
+        for (OperationClass operationClass : OperationClass.values()) {
+            limiters.put(operationClass, new Limiter(operationClass, algorithmFor(properties, operationClass)));
+        }
+    }
+
+    public AdaptiveAdmissionController(Map<OperationClass, LimitAlgorithm> algorithms, Duration retryAfter) {
+        this.retryAfter = retryAfter;
+        for (OperationClass operationClass : OperationClass.values()) {
+            limiters.put(operationClass, new Limiter(operationClass, algorithms.get(operationClass)));
+        }
+    }
+
+    /**
+     * Fixed limits per class, for services built outside Spring.
+     */
+    public static AdaptiveAdmissionController fixed(int limit) {
+        Map<OperationClass, LimitAlgorithm> algorithms = new EnumMap<>(OperationClass.class);
+        for (OperationClass operationClass : OperationClass.values()) {
+            algorithms.put(operationClass, new FixedLimit(limit));
+        }
+        return new AdaptiveAdmissionController(algorithms, Duration.ofSeconds(1));
+    }
+
+    private static LimitAlgorithm algorithmFor(AdmissionProperties properties, OperationClass operationClass) {
+        AdmissionProperties.Limits limits = properties.limitsFor(operationClass);
+        return switch (properties.getAlgorithm()) {
+            case GRADIENT -> new GradientLimit(limits.getInitialLimit(), limits.getMinLimit(), limits.getMaxLimit());
+            case AIMD -> new AimdLimit(limits.getInitialLimit(), limits.getMinLimit(), limits.getMaxLimit(),
+                    properties.getAimdLatencyThreshold().toNanos());
+            case FIXED -> new FixedLimit(limits.getInitialLimit());
+        };
+    }
+
+    @Override
+    public Permit acquire(OperationClass operationClass) {
+        Limiter limiter = limiters.get(operationClass);
+        if (!limiter.tryAcquire()) {
+            limiter.rejected.increment();
+            throw new ServiceOverloadedException(operationClass, retryAfter);
+        }
+        long start = System.nanoTime();
+        return new Permit() {
+            @Override
+            public void release() {
+                limiter.release(System.nanoTime() - start, false);
+            }
+
+            @Override
+            public void releaseDropped() {
+                limiter.release(System.nanoTime() - start, true);
+            }
+        };
+    }
+
+    public int getLimit(OperationClass operationClass) {
+        return limiters.get(operationClass).algorithm.getLimit();
+    }
+
+    public int getInflight(OperationClass operationClass) {
+        return limiters.get(operationClass).inflight.get();
+    }
+
+    public long getRejected(OperationClass operationClass) {
+        return limiters.get(operationClass).rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Limiter limiter : limiters.values()) {
+            String tag = limiter.operationClass.name().toLowerCase();
+            Gauge.builder("transactions.admission.limit", limiter.algorithm, LimitAlgorithm::getLimit)
+                    .description("Current concurrency limit")
+                    .tag("class", tag)
+                    .register(registry);
+            Gauge.builder("transactions.admission.inflight", limiter.inflight, AtomicInteger::get)
+                    .description("Requests currently holding a permit")
+                    .tag("class", tag)
+                    .register(registry);
+            FunctionCounter.builder("transactions.admission.rejected", limiter.rejected, LongAdder::sum)
+                    .description("Requests rejected with 429 because the limit was reached")
+                    .tag("class", tag)
+                    .register(registry);
+        }
+    }
+
+    private static final class Limiter {
+        final OperationClass operationClass;
+        final LimitAlgorithm algorithm;
+        final AtomicInteger inflight = new AtomicInteger();
+        final LongAdder rejected = new LongAdder();
+
+        Limiter(OperationClass operationClass, LimitAlgorithm algorithm) {
+            this.operationClass = operationClass;
+            this.algorithm = algorithm;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inflight.get();
+                if (current >= algorithm.getLimit()) {
+                    return false;
+                }
+                if (inflight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release(long rttNanos, boolean dropped) {
+            int current = inflight.getAndDecrement();
+            algorithm.onSample(rttNanos, current, dropped);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.transactionmanager.admission;
+
+/**
+ * Decides whether a request may start. Implementations must never block: a request either gets
+ * a permit immediately or is rejected.
+ */
+public interface AdmissionController {
+
+    /**
+     * @throws ServiceOverloadedException if the limit for the operation class is reached
+     */
+    Permit acquire(OperationClass operationClass);
+
+    interface Permit {
+
+        // Request completed normally; its latency feeds the limit
+        void release();
+
+        // Request failed in a way that signals overload, such as a timeout
+        void releaseDropped();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.transactionmanager.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "transactionmanager.admission")
+public class AdmissionProperties {
+
+    public enum Algorithm {
+        GRADIENT,
+        AIMD,
+        FIXED
+    }
+
+    private Algorithm algorithm = Algorithm.GRADIENT;
+
+    // Value of the Retry-After header sent with 429 responses
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // AIMD treats requests slower than this as a congestion signal
+    private Duration aimdLatencyThreshold = Duration.ofMillis(50);
+
+    private Limits read = new Limits(200, 20, 2000);
+
+    private Limits write = new Limits(100, 10, 1000);
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getAimdLatencyThreshold() {
+        return aimdLatencyThreshold;
+    }
+
+    public void setAimdLatencyThreshold(Duration aimdLatencyThreshold) {
+        this.aimdLatencyThreshold = aimdLatencyThreshold;
+    }
+
+    public Limits getRead() {
+        return read;
+    }
+
+    public void setRead(Limits read) {
+        this.read = read;
+    }
+
+    public Limits getWrite() {
+        return write;
+    }
+
+    public void setWrite(Limits write) {
+        this.write = write;
+    }
+
+    Limits limitsFor(OperationClass operationClass) {
+        return operationClass == OperationClass.READ ? read : write;
+    }
+
+    public static class Limits {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        public Limits() {
+        }
+
+        public Limits(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.transactionmanager.admission;
+
+/**
+ * Additive increase, multiplicative decrease: grow by one while requests stay under the latency
+ * threshold and the limit is actually being used, back off when a request is slow or dropped.
+ */
+public class AimdLimit implements LimitAlgorithm {
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private volatile int limit;
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inflight, boolean dropped) {
+        // Racing updates may lose an increment, which only makes growth slightly slower
+        int current = limit;
+        if (dropped || rttNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, (int) (current * BACKOFF_RATIO));
+        } else if (inflight * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+}
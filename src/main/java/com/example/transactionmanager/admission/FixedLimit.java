@@ -0,0 +1,21 @@
+package com.example.transactionmanager.admission;
+
+/**
+ * A constant limit, equivalent to a plain semaphore without queueing.
+ */
+public class FixedLimit implements LimitAlgorithm {
+    private final int limit;
+
+    public FixedLimit(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inflight, boolean dropped) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.transactionmanager.admission;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient limit in the style of Netflix concurrency-limits: compares a long-term average
+ * latency with the latest one. When latency rises above the long-term average, requests are
+ * queueing and the limit shrinks in proportion; while it holds, the limit grows by a small
+ * queue allowance.
+ *
+ * Samples are folded in under a tryLock, so a sample that arrives while another thread is
+ * updating is simply skipped rather than blocking the releasing request.
+ */
+public class GradientLimit implements LimitAlgorithm {
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_WINDOW = 600;
+    // Absorbs scheduling jitter so near-identical latencies don't count as queueing
+    private static final double TOLERANCE = 1.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inflight, boolean dropped) {
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            if (dropped) {
+                estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+                limit = (int) estimatedLimit;
+                return;
+            }
+
+            // Exponential moving average over roughly the last LONG_WINDOW samples
+            samples++;
+            double weight = samples < LONG_WINDOW ? 1.0 / samples : 1.0 / LONG_WINDOW;
+            longRttNanos = longRttNanos + (rttNanos - longRttNanos) * weight;
+
+            // Don't grow a limit the traffic isn't using
+            if (inflight * 2 < estimatedLimit) {
+                return;
+            }
+
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * longRttNanos / Math.max(1, rttNanos)));
+            double queueAllowance = Math.sqrt(estimatedLimit);
+            double newLimit = estimatedLimit * gradient + queueAllowance;
+            newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+            limit = (int) estimatedLimit;
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.transactionmanager.admission;
+
+/**
+ * Computes a concurrency limit from observed request latencies.
+ */
+public interface LimitAlgorithm {
+
+    int getLimit();
+
+    /**
+     * Feeds one completed request into the algorithm.
+     *
+     * @param rttNanos time the request held its permit
+     * @param inflight requests in flight when it completed, including itself
+     * @param dropped  whether the request failed in a way that signals overload
+     */
+    void onSample(long rttNanos, int inflight, boolean dropped);
+}
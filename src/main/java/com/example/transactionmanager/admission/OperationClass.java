@@ -0,0 +1,9 @@
+package com.example.transactionmanager.admission;
+
+/**
+ * Operations are admitted against separate limits, so a burst of writes cannot starve reads.
+ */
+public enum OperationClass {
+    READ,
+    WRITE
+}
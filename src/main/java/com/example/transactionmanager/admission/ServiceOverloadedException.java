@@ -0,0 +1,24 @@
+package com.example.transactionmanager.admission;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is rejected by admission control. Mapped to HTTP 429 with a Retry-After header.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(OperationClass operationClass, Duration retryAfter) {
+        this("Service is overloaded, please try again later (" + operationClass.name().toLowerCase() + " limit reached)",
+                retryAfter);
+    }
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.transactionmanager.cache;
+
+import com.example.transactionmanager.model.Transaction;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The transactions of one list page, with each wire format's encoding of them made on first use
+ * and kept for as long as the page is cached. A cache hit then writes stored bytes instead of
+ * mapping objects again.
+ */
+public final class ListPage {
+    public static final ListPage EMPTY = new ListPage(List.of());
+
+    private final List<Transaction> items;
+    private final AtomicReferenceArray<byte[]> encoded = new AtomicReferenceArray<>(PageFormat.values().length);
+
+    private ListPage(List<Transaction> items) {
+        this.items = items;
+    }
+
+    public static ListPage of(List<Transaction> items) {
+        return new ListPage(items);
+    }
+
+    public List<Transaction> items() {
+        return items;
+    }
+
+    /**
+     * The items as an array in the given format, encoded by {@code encoder} on first use. The
+     * bytes are shared and must not be modified.
+     */
+    public byte[] encoded(PageFormat format, PageEncoder encoder) {
+        byte[] bytes = encoded.get(format.ordinal());
+        if (bytes == null) {
+            // Concurrent first readers may each encode; they produce the same bytes
+            bytes = encoder.encode(format, items);
+            encoded.set(format.ordinal(), bytes);
+        }
+        return bytes;
+    }
+}
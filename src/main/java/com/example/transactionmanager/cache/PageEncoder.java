@@ -0,0 +1,36 @@
+package com.example.transactionmanager.cache;
+
+import com.example.transactionmanager.model.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Encodes a page's transactions in each {@link PageFormat} with the mappers the message
+ * converters use, so a page written from its cached bytes matches one mapped from objects,
+ * whatever {@code spring.jackson.*} settings and modules the application has.
+ */
+public class PageEncoder {
+    private final ObjectWriter[] writers = new ObjectWriter[PageFormat.values().length];
+
+    public PageEncoder(ObjectMapper jsonMapper, ObjectMapper cborMapper) {
+        writers[PageFormat.JSON.ordinal()] = writerFor(jsonMapper);
+        writers[PageFormat.CBOR.ordinal()] = writerFor(cborMapper);
+    }
+
+    private static ObjectWriter writerFor(ObjectMapper mapper) {
+        return mapper.writerFor(new TypeReference<List<Transaction>>() { });
+    }
+
+    byte[] encode(PageFormat format, List<Transaction> items) {
+        try {
+            return writers[format.ordinal()].writeValueAsBytes(items);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
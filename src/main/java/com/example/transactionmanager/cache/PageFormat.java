@@ -0,0 +1,21 @@
+package com.example.transactionmanager.cache;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Wire formats a cached list page is kept encoded in, each as the bytes of the transactions array.
+ */
+public enum PageFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    PageFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.transactionmanager.cache;
+
+import com.example.transactionmanager.model.Transaction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded cache of id-ordered list pages. Each page also keeps its encodings in the wire formats
+ * it has been served in, so a hit costs a buffer write rather than object mapping.
+ *
+ * Each entry remembers the id range it covers, so a mutation only evicts the pages it can
+ * actually change: a modify evicts the page holding the id, while an insert or delete evicts
+ * the pages at or after the id's position (everything before it keeps the same contents).
+ * Full pages are indexed by page size and last id, so a mutation finds the pages it affects
+ * with a lookup instead of testing every cached page.
+ *
+ * Mutations are also recorded in a small ring keyed by a version number. A page computed
+ * while a conflicting mutation was in flight is dropped on {@link #put} instead of being
+ * cached stale.
+ */
+@Component
+public class TransactionPageCache implements MeterBinder {
+    public static final long DEFAULT_MAX_CACHED_TRANSACTIONS = 100_000;
+    private static final int MUTATION_LOG_SIZE = 1024;
+
+    private final Cache<PageKey, CachedPage> pages;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReferenceArray<Mutation> mutationLog = new AtomicReferenceArray<>(MUTATION_LOG_SIZE);
+    private final ConcurrentMap<Integer, SizeIndex> indexes = new ConcurrentHashMap<>();
+
+    public TransactionPageCache(@Value("${transactionmanager.list-cache.max-cached-transactions:100000}") long maxCachedTransactions) {
+        // Weight is the number of transactions held, which tracks memory far better than the entry count
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxCachedTransactions)
+                .weigher((PageKey key, CachedPage page) -> page.items().size() + 1)
+                .recordStats()
+                .evictionListener((PageKey key, CachedPage page, RemovalCause cause) -> {
+                    if (page != null) {
+                        unindex(page);
+                    }
+                })
+                .build();
+    }
+
+    public List<Transaction> get(int page, int size) {
+        ListPage cached = getPage(page, size);
+        return cached != null ? cached.items() : null;
+    }
+
+    public ListPage getPage(int page, int size) {
+        CachedPage cached = pages.getIfPresent(new PageKey(page, size));
+        return cached != null ? cached.page() : null;
+    }
+
+    /**
+     * Version to capture before reading the index for a page that will be passed to {@link #put}.
+     */
+    public long currentVersion() {
+        return version.get();
+    }
+
+    public List<Transaction> put(int page, int size, List<Transaction> items, long readVersion) {
+        return putPage(page, size, items, readVersion).items();
+    }
+
+    /**
+     * Caches a compact copy of the page and returns it. A page that raced with a conflicting
+     * mutation is returned without being cached.
+     */
+    public ListPage putPage(int page, int size, List<Transaction> items, long readVersion) {
+        PageKey key = new PageKey(page, size);
+        CachedPage cached = new CachedPage(key, ListPage.of(List.copyOf(items)));
+        // Indexed before it can be found in the cache, so a mutation that misses it in the index
+        // is one that started after the put below, and is caught by the check after it
+        index(cached);
+        CachedPage previous = pages.asMap().put(key, cached);
+        if (previous != null) {
+            unindex(previous);
+        }
+
+        // Mutations recorded after this point will see the entry and evict it themselves,
+        // so only those that raced with the read need to be checked here
+        long latest = version.get();
+        if (latest - readVersion > MUTATION_LOG_SIZE) {
+            remove(cached);
+            return cached.page();
+        }
+        for (long v = readVersion + 1; v <= latest; v++) {
+            Mutation mutation = mutationLog.get((int) (v % MUTATION_LOG_SIZE));
+            if (mutation == null || mutation.version() != v || cached.affectedBy(mutation)) {
+                remove(cached);
+                break;
+            }
+        }
+        return cached.page();
+    }
+
+    /**
+     * Evicts the page holding the id; its position in the ordering is unchanged.
+     */
+    public void onModified(String id) {
+        invalidate(Collections.emptyNavigableSet(), new TreeSet<>(List.of(id)));
+    }
+
+    /**
+     * Evicts the pages at or after the id's position, which shift when an id is added or removed.
+     */
+    public void onInsertedOrRemoved(String id) {
+        invalidate(new TreeSet<>(List.of(id)), Collections.emptyNavigableSet());
+    }
+
+    /**
+     * Applies a whole batch of changes as a single invalidation pass.
+     */
+    public void onBatch(Collection<String> insertedOrRemoved, Collection<String> modified) {
+        if (insertedOrRemoved.isEmpty() && modified.isEmpty()) {
+            return;
+        }
+        invalidate(new TreeSet<>(insertedOrRemoved), new TreeSet<>(modified));
+    }
+
+    public void clear() {
+        invalidate(null, null);
+    }
+
+    // Exposes hit/miss/eviction counts as cache.* meters tagged cache=transactionsList
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pages, "transactionsList");
+    }
+
+    public PageCacheStats stats() {
+        CacheStats stats = pages.stats();
+        return new PageCacheStats(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), pages.estimatedSize());
+    }
+
+    private void invalidate(NavigableSet<String> shifted, NavigableSet<String> modified) {
+        long v = version.incrementAndGet();
+        Mutation mutation = new Mutation(v, shifted, modified);
+        mutationLog.set((int) (v % MUTATION_LOG_SIZE), mutation);
+        if (shifted == null) {
+            pages.asMap().values().forEach(this::remove);
+            return;
+        }
+        for (SizeIndex index : indexes.values()) {
+            // Shifts change every page from the first shifted id on, and every partial page
+            if (!shifted.isEmpty()) {
+                index.full().tailMap(new IndexKey(shifted.first(), Integer.MIN_VALUE)).values().forEach(this::remove);
+                index.partial().forEach(this::remove);
+            }
+            // Full pages of one size cover disjoint ranges, so only the first ending at or after
+            // the id can hold it
+            for (String id : modified) {
+                Map.Entry<IndexKey, CachedPage> holder = index.full().ceilingEntry(new IndexKey(id, Integer.MIN_VALUE));
+                if (holder != null && holder.getValue().firstId().compareTo(id) <= 0) {
+                    remove(holder.getValue());
+                }
+            }
+            if (!modified.isEmpty()) {
+                for (CachedPage page : index.partial()) {
+                    if (page.affectedBy(mutation)) {
+                        remove(page);
+                    }
+                }
+            }
+        }
+    }
+
+    private void remove(CachedPage page) {
+        pages.asMap().remove(page.key(), page);
+        unindex(page);
+    }
+
+    private void index(CachedPage page) {
+        SizeIndex index = indexes.computeIfAbsent(page.key().size(), size -> new SizeIndex());
+        if (page.isPartial()) {
+            index.partial().add(page);
+        } else {
+            index.full().put(page.indexKey(), page);
+        }
+    }
+
+    private void unindex(CachedPage page) {
+        SizeIndex index = indexes.get(page.key().size());
+        if (index == null) {
+            return;
+        }
+        if (page.isPartial()) {
+            index.partial().remove(page);
+        } else {
+            index.full().remove(page.indexKey(), page);
+        }
+    }
+
+    private record PageKey(int page, int size) {
+    }
+
+    // Full pages of one size by last id; partial and empty pages, which any shift changes, apart
+    private record SizeIndex(ConcurrentSkipListMap<IndexKey, CachedPage> full, Set<CachedPage> partial) {
+        SizeIndex() {
+            this(new ConcurrentSkipListMap<>(), ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    private record IndexKey(String lastId, int page) implements Comparable<IndexKey> {
+        private static final Comparator<IndexKey> ORDER =
+                Comparator.comparing(IndexKey::lastId).thenComparingInt(IndexKey::page);
+
+        @Override
+        public int compareTo(IndexKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    // Null id sets mean everything changed
+    private record Mutation(long version, NavigableSet<String> shifted, NavigableSet<String> modified) {
+    }
+
+    // Compared by identity, so the index only ever removes the exact entry it holds
+    private static final class CachedPage {
+        private final PageKey key;
+        private final ListPage page;
+
+        CachedPage(PageKey key, ListPage page) {
+            this.key = key;
+            this.page = page;
+        }
+
+        PageKey key() {
+            return key;
+        }
+
+        ListPage page() {
+            return page;
+        }
+
+        List<Transaction> items() {
+            return page.items();
+        }
+
+        // A partial or empty page is the tail of the ordering and absorbs any shift
+        boolean isPartial() {
+            return items().size() < key.size();
+        }
+
+        IndexKey indexKey() {
+            return new IndexKey(lastId(), key.page());
+        }
+
+        boolean affectedBy(Mutation mutation) {
+            if (mutation.shifted() == null) {
+                return true;
+            }
+            if (!mutation.shifted().isEmpty()) {
+                if (isPartial()) {
+                    return true;
+                }
+                if (mutation.shifted().first().compareTo(lastId()) <= 0) {
+                    return true;
+                }
+            }
+            if (items().isEmpty()) {
+                return false;
+            }
+            String firstModified = mutation.modified().ceiling(firstId());
+            return firstModified != null && firstModified.compareTo(lastId()) <= 0;
+        }
+
+        String firstId() {
+            return items().get(0).getId();
+        }
+
+        private String lastId() {
+            return items().get(items().size() - 1).getId();
+        }
+    }
+
+    public record PageCacheStats(long hitCount, long missCount, double hitRate, long evictionCount, long size) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.transactionmanager.cluster;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This node's view of the cluster: which nodes hold each id, and which nodes recently failed.
+ *
+ * Membership is static, read from configuration. A node that fails a call is skipped for the
+ * down backoff and then tried again, so a restarted node rejoins without coordination.
+ */
+public class Cluster implements MeterBinder {
+    private final ClusterNode self;
+    private final HashRing ring;
+    private final int replicationFactor;
+    private final long downBackoffNanos;
+    // Node id to the nanoTime it may be tried again
+    private final Map<String, Long> downUntil = new ConcurrentHashMap<>();
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder replicationFailures = new LongAdder();
+
+    public Cluster(ClusterProperties properties) {
+        List<ClusterNode> nodes = properties.parseNodes();
+        this.self = nodes.stream()
+                .filter(node -> node.id().equals(properties.getNodeId()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "transactionmanager.cluster.node-id " + properties.getNodeId() + " is not among the cluster nodes"));
+        this.ring = new HashRing(nodes, properties.getVirtualNodes());
+        this.replicationFactor = Math.max(1, properties.getReplicationFactor());
+        this.downBackoffNanos = properties.getDownBackoff().toNanos();
+    }
+
+    public ClusterNode self() {
+        return self;
+    }
+
+    public boolean isSelf(ClusterNode node) {
+        return node.id().equals(self.id());
+    }
+
+    /**
+     * The owner of the id followed by the nodes holding its replicas.
+     */
+    public List<ClusterNode> replicasFor(String id) {
+        return ring.replicasFor(id, replicationFactor);
+    }
+
+    public boolean holdsReplica(String id) {
+        for (ClusterNode node : replicasFor(id)) {
+            if (isSelf(node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replicas in the order they should be tried: the owner first, nodes in their down backoff
+     * last. This node is never considered down.
+     */
+    public List<ClusterNode> candidatesFor(String id) {
+        List<ClusterNode> replicas = replicasFor(id);
+        List<ClusterNode> up = new ArrayList<>(replicas.size());
+        List<ClusterNode> down = new ArrayList<>(0);
+        for (ClusterNode node : replicas) {
+            (isUp(node) ? up : down).add(node);
+        }
+        up.addAll(down);
+        return up;
+    }
+
+    public boolean isUp(ClusterNode node) {
+        if (isSelf(node)) {
+            return true;
+        }
+        Long until = downUntil.get(node.id());
+        return until == null || System.nanoTime() - until >= 0;
+    }
+
+    public void markDown(ClusterNode node) {
+        downUntil.put(node.id(), System.nanoTime() + downBackoffNanos);
+    }
+
+    public void markUp(ClusterNode node) {
+        downUntil.remove(node.id());
+    }
+
+    public List<ClusterNode> nodes() {
+        return ring.nodes();
+    }
+
+    public void recordForwarded() {
+        forwarded.increment();
+    }
+
+    public void recordReplicationFailures(int changes) {
+        replicationFailures.add(changes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("transactions.cluster.forwarded", forwarded, LongAdder::sum)
+                .description("Requests forwarded to the node owning the transaction")
+                .register(registry);
+        FunctionCounter.builder("transactions.cluster.replication.failures", replicationFailures, LongAdder::sum)
+                .description("Changes a replica could not be sent")
+                .register(registry);
+        Gauge.builder("transactions.cluster.nodes.up", this, cluster -> cluster.nodes().stream().filter(cluster::isUp).count())
+                .description("Cluster nodes not currently skipped after a failed call")
+                .register(registry);
+    }
+}
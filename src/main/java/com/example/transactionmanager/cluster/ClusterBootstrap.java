@@ -0,0 +1,103 @@
+package com.example.transactionmanager.cluster;
+
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.service.TransactionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies this node's share of the transactions from the other nodes at startup. Runners finish
+ * before the application reports itself ready, so a node that restarted with an empty store, or
+ * missed writes while it was down, takes no traffic until it has caught up. Without this, lists,
+ * search and statistics, which every node answers from its own copy, would leave out whatever
+ * the node missed until each id was next written.
+ *
+ * Each other node streams its {@code /transactions/export}, and the rows this node holds a
+ * replica of are applied as replicated changes, so they keep the version they were written with
+ * and a newer write that arrives meanwhile is never overwritten. Every node is asked, since with
+ * fewer replicas than nodes no single one holds all of this node's share. Ids deleted while the
+ * node was down are in no export, so they stay deleted only if the node had lost them too.
+ *
+ * A node that can't be reached is skipped, as when the whole cluster starts together.
+ */
+public class ClusterBootstrap implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ClusterBootstrap.class);
+    private static final String EXPORT_PATH = ClusterRoutingFilter.TRANSACTIONS_PATH + "/export";
+    private static final int BATCH_SIZE = 1000;
+    private static final ObjectReader ROW_READER = new ObjectMapper().readerFor(JsonNode.class);
+
+    private final Cluster cluster;
+    private final PeerClient peers;
+    private final TransactionService transactionService;
+
+    public ClusterBootstrap(Cluster cluster, PeerClient peers, TransactionService transactionService) {
+        this.cluster = cluster;
+        this.peers = peers;
+        this.transactionService = transactionService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (ClusterNode node : cluster.nodes()) {
+            if (cluster.isSelf(node)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                long copied = copyFrom(node);
+                log.info("Copied {} transactions from node {} in {} ms", copied, node.id(),
+                        (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException | IllegalArgumentException e) {
+                // Not marked down: at a cluster start the others are only slower to come up
+                log.warn("Could not copy transactions from node {}: {}", node.id(), e.getMessage());
+            }
+        }
+    }
+
+    // Returns the number of rows applied, whether or not each was newer than the local copy
+    private long copyFrom(ClusterNode node) throws IOException {
+        HttpResponse<InputStream> response = peers.stream(node, EXPORT_PATH);
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Export answered with status " + response.statusCode());
+            }
+            long copied = 0;
+            List<ReplicatedChange> batch = new ArrayList<>(BATCH_SIZE);
+            try (MappingIterator<JsonNode> rows = ROW_READER.readValues(body)) {
+                while (rows.hasNextValue()) {
+                    JsonNode row = rows.nextValue();
+                    String id = row.path("id").asText(null);
+                    if (id == null || !cluster.holdsReplica(id)) {
+                        continue;
+                    }
+                    batch.add(ReplicatedChange.put(new Transaction(id,
+                            row.hasNonNull("accountId") ? row.get("accountId").asText() : null,
+                            row.path("description").asText(null), row.path("amount").asDouble(),
+                            row.path("version").asLong())));
+                    if (batch.size() == BATCH_SIZE) {
+                        transactionService.applyReplicas(batch);
+                        copied += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                transactionService.applyReplicas(batch);
+                copied += batch.size();
+            }
+            return copied;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.transactionmanager.cluster;
+
+import java.net.URI;
+
+/**
+ * A member of the cluster and the base URL its API is served on.
+ */
+public record ClusterNode(String id, URI baseUrl) {
+}
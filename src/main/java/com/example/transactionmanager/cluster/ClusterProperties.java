@@ -0,0 +1,124 @@
+package com.example.transactionmanager.cluster;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "transactionmanager.cluster")
+public class ClusterProperties {
+
+    private boolean enabled = false;
+
+    // Id of this node; must be one of the ids in nodes
+    private String nodeId;
+
+    // Every node as id=base-url, e.g. node-0=http://transaction-manager-0.peers:8080
+    private List<String> nodes = new ArrayList<>();
+
+    // Nodes holding a copy of each partition, the owner included
+    private int replicationFactor = 2;
+
+    // Points per node on the hash ring; more points spread partitions more evenly
+    private int virtualNodes = 128;
+
+    // Timeout for a forwarded request or replication call to another node
+    private Duration requestTimeout = Duration.ofSeconds(2);
+
+    // How long a node that failed a call is skipped before it is tried again
+    private Duration downBackoff = Duration.ofSeconds(1);
+
+    // Shared by every node and sent on each call between them; requests without it are never
+    // treated as coming from a peer
+    private String secret;
+
+    // Copy this node's share of the transactions from the other nodes at startup, before
+    // reporting ready, so a node that restarted empty or missed writes doesn't serve partial lists
+    private boolean bootstrap = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<String> nodes) {
+        this.nodes = nodes;
+    }
+
+    public int getReplicationFactor() {
+        return replicationFactor;
+    }
+
+    public void setReplicationFactor(int replicationFactor) {
+        this.replicationFactor = replicationFactor;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Duration getDownBackoff() {
+        return downBackoff;
+    }
+
+    public void setDownBackoff(Duration downBackoff) {
+        this.downBackoff = downBackoff;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public boolean isBootstrap() {
+        return bootstrap;
+    }
+
+    public void setBootstrap(boolean bootstrap) {
+        this.bootstrap = bootstrap;
+    }
+
+    public List<ClusterNode> parseNodes() {
+        List<ClusterNode> parsed = new ArrayList<>(nodes.size());
+        for (String node : nodes) {
+            int separator = node.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Cluster node must be id=base-url: " + node);
+            }
+            parsed.add(new ClusterNode(node.substring(0, separator).trim(), URI.create(node.substring(separator + 1).trim())));
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.transactionmanager.cluster;
+
+import com.example.transactionmanager.id.IdGenerator;
+import com.example.transactionmanager.web.BufferedBodyRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends each request for a single transaction to a node holding it, before it reaches the
+ * controller. Writes go to the id's owner, or the next replica while the owner is down; reads are
+ * served locally by any replica. Batch requests are split by owner, sent on, and their per-item
+ * results merged back into request order.
+ *
+ * Creates without an id get one here, since the id decides where the transaction lives. Requests
+ * that arrive from another node carry {@link PeerClient#FORWARDED_HEADER} and are always served
+ * locally, so a request is forwarded at most once; {@link PeerAuthenticationFilter} has already
+ * removed the header from requests that don't carry the cluster secret.
+ *
+ * A replica that restarted with an empty store, or missed a change while down, answers reads for
+ * ids it should hold with 404. So a local 404 is retried on the id's other replicas before it is
+ * returned.
+ */
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+    static final String TRANSACTIONS_PATH = "/transactions";
+    static final String BATCH_PATH = TRANSACTIONS_PATH + "/batch";
+
+    // Fixed paths under /transactions that are not transaction ids
+    private static final Set<String> RESERVED_SEGMENTS = Set.of("batch", "export", "stats", "search", "changes", "cache-stats");
+
+    // Headers the JDK client sets itself or that only apply to one connection
+    private static final Set<String> UNFORWARDED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "upgrade", "transfer-encoding", "keep-alive", "te", "trailer", "accept-encoding", "http2-settings",
+            PeerClient.FORWARDED_HEADER.toLowerCase(Locale.ROOT), PeerClient.SECRET_HEADER.toLowerCase(Locale.ROOT),
+            PeerClient.KEY_HOME_HEADER.toLowerCase(Locale.ROOT));
+
+    private final Cluster cluster;
+    private final PeerClient peers;
+    private final ObjectMapper objectMapper;
+    private final IdGenerator idGenerator;
+
+    public ClusterRoutingFilter(Cluster cluster, PeerClient peers, ObjectMapper objectMapper, IdGenerator idGenerator) {
+        this.cluster = cluster;
+        this.peers = peers;
+        this.objectMapper = objectMapper;
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getHeader(PeerClient.FORWARDED_HEADER) != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+
+        if (path.equals(BATCH_PATH) && !method.equals("GET")) {
+            routeBatch(request, response, chain);
+        } else if (path.equals(TRANSACTIONS_PATH) && method.equals("POST")) {
+            routeCreate(request, response, chain);
+        } else if (path.startsWith(TRANSACTIONS_PATH + "/")) {
+            String segment = path.substring(TRANSACTIONS_PATH.length() + 1);
+            if (segment.isEmpty() || segment.contains("/") || RESERVED_SEGMENTS.contains(segment)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            String id = UriUtils.decode(segment, StandardCharsets.UTF_8);
+            byte[] body = request.getInputStream().readAllBytes();
+            routeSingle(id, method.equals("GET"), new BufferedBodyRequest(request, body), body, response, chain);
+        } else {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private void routeCreate(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        JsonNode transaction = readTree(body);
+        if (!(transaction instanceof ObjectNode object)) {
+            // Let the controller reject it
+            chain.doFilter(new BufferedBodyRequest(request, body), response);
+            return;
+        }
+        String id = assignIdIfMissing(object);
+        if (id == null) {
+            body = objectMapper.writeValueAsBytes(object);
+            id = object.get("id").asText();
+        }
+        routeSingle(id, false, new BufferedBodyRequest(request, body), body, response, chain);
+    }
+
+    // Reads stay local on any replica; writes go to the first reachable replica, the owner when it is up
+    private void routeSingle(String id, boolean read, HttpServletRequest request, byte[] body,
+                             HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        if (read && cluster.holdsReplica(id)) {
+            ContentCachingResponseWrapper local = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, local);
+            if (local.getStatus() != HttpStatus.NOT_FOUND.value() || !readFromOtherReplica(id, request, response)) {
+                local.copyBodyToResponse();
+            }
+            return;
+        }
+        for (ClusterNode node : cluster.candidatesFor(id)) {
+            if (cluster.isSelf(node)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            try {
+                HttpResponse<byte[]> forwarded = peers.send(node, request.getMethod(), pathAndQuery(request),
+                        forwardedHeaders(request), body);
+                cluster.markUp(node);
+                cluster.recordForwarded();
+                copy(forwarded, response);
+                return;
+            } catch (IOException e) {
+                cluster.markDown(node);
+            }
+        }
+        writeError(response, HttpStatus.SERVICE_UNAVAILABLE, "No replica of transaction " + id + " is reachable");
+    }
+
+    // Returns whether another replica had the id, in which case its response was written
+    private boolean readFromOtherReplica(String id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        for (ClusterNode node : cluster.replicasFor(id)) {
+            if (cluster.isSelf(node) || !cluster.isUp(node)) {
+                continue;
+            }
+            try {
+                HttpResponse<byte[]> forwarded = peers.send(node, request.getMethod(), pathAndQuery(request),
+                        forwardedHeaders(request), null);
+                cluster.markUp(node);
+                if (forwarded.statusCode() != HttpStatus.NOT_FOUND.value()) {
+                    cluster.recordForwarded();
+                    response.reset();
+                    copy(forwarded, response);
+                    return true;
+                }
+            } catch (IOException e) {
+                cluster.markDown(node);
+            }
+        }
+        return false;
+    }
+
+    private void routeBatch(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        JsonNode tree = readTree(body);
+        if (!(tree instanceof ArrayNode items) || items.isEmpty()) {
+            chain.doFilter(new BufferedBodyRequest(request, body), response);
+            return;
+        }
+        boolean deletes = request.getMethod().equals("DELETE");
+        boolean creates = request.getMethod().equals("POST");
+        String[] ids = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            JsonNode item = items.get(i);
+            if (deletes) {
+                ids[i] = item.isTextual() ? item.asText() : null;
+            } else if (item instanceof ObjectNode object) {
+                if (creates) {
+                    assignIdIfMissing(object);
+                }
+                JsonNode id = object.get("id");
+                ids[i] = id != null && id.isTextual() && !id.asText().isEmpty() ? id.asText() : null;
+            }
+        }
+
+        JsonNode[] results = new JsonNode[items.size()];
+        List<Integer> local = new ArrayList<>();
+        List<Integer> remaining = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            // Items without an id can only be rejected, which any node can do
+            (ids[i] == null ? local : remaining).add(i);
+        }
+        Set<String> failed = new HashSet<>();
+        while (!remaining.isEmpty()) {
+            Map<ClusterNode, List<Integer>> groups = new LinkedHashMap<>();
+            for (int index : remaining) {
+                ClusterNode target = null;
+                for (ClusterNode node : cluster.candidatesFor(ids[index])) {
+                    if (!failed.contains(node.id())) {
+                        target = node;
+                        break;
+                    }
+                }
+                if (target == null) {
+                    results[index] = unavailable(index, ids[index], "No replica is reachable");
+                } else if (cluster.isSelf(target)) {
+                    local.add(index);
+                } else {
+                    groups.computeIfAbsent(target, node -> new ArrayList<>()).add(index);
+                }
+            }
+            remaining = new ArrayList<>();
+            for (Map.Entry<ClusterNode, List<Integer>> group : groups.entrySet()) {
+                ClusterNode node = group.getKey();
+                List<Integer> indices = group.getValue();
+                try {
+                    HttpResponse<byte[]> forwarded = peers.send(node, request.getMethod(), pathAndQuery(request),
+                            forwardedHeaders(request), objectMapper.writeValueAsBytes(subset(items, indices)));
+                    cluster.markUp(node);
+                    cluster.recordForwarded();
+                    merge(forwarded.statusCode(), forwarded.body(), indices, ids, results, node.id());
+                } catch (IOException e) {
+                    cluster.markDown(node);
+                    failed.add(node.id());
+                    remaining.addAll(indices);
+                }
+            }
+        }
+
+        if (!local.isEmpty()) {
+            Collections.sort(local);
+            ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+            byte[] subBatch = objectMapper.writeValueAsBytes(subset(items, local));
+            chain.doFilter(new BufferedBodyRequest(request, subBatch), captured);
+            if (local.size() == items.size()) {
+                // Nothing was sent elsewhere, so the local response is the whole answer
+                captured.copyBodyToResponse();
+                return;
+            }
+            merge(captured.getStatus(), captured.getContentAsByteArray(), local, ids, results, cluster.self().id());
+            captured.resetBuffer();
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(results));
+    }
+
+    // Results refer to positions in the sub-batch; map them back to the original request
+    private void merge(int status, byte[] body, List<Integer> indices, String[] ids, JsonNode[] results, String nodeId) {
+        JsonNode parsed = status == HttpStatus.OK.value() ? readTree(body) : null;
+        if (parsed instanceof ArrayNode array && array.size() == indices.size()) {
+            for (int i = 0; i < indices.size(); i++) {
+                ObjectNode result = (ObjectNode) array.get(i);
+                result.put("index", indices.get(i));
+                results[indices.get(i)] = result;
+            }
+            return;
+        }
+        for (int index : indices) {
+            results[index] = unavailable(index, ids[index], "Node " + nodeId + " responded with status " + status);
+        }
+    }
+
+    private ObjectNode unavailable(int index, String id, String error) {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("index", index);
+        result.put("id", id);
+        result.put("status", "UNAVAILABLE");
+        result.put("error", error);
+        result.putNull("transaction");
+        return result;
+    }
+
+    private ArrayNode subset(ArrayNode items, List<Integer> indices) {
+        ArrayNode subset = objectMapper.createArrayNode();
+        for (int index : indices) {
+            subset.add(items.get(index));
+        }
+        return subset;
+    }
+
+    // Returns the id if one was present, or null after assigning a new one
+    private String assignIdIfMissing(ObjectNode transaction) {
+        JsonNode id = transaction.get("id");
+        if (id != null && id.isTextual() && !id.asText().isEmpty()) {
+            return id.asText();
+        }
+        transaction.put("id", idGenerator.nextId());
+        return null;
+    }
+
+    private JsonNode readTree(byte[] body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static String pathAndQuery(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return request.getQueryString() == null ? path : path + "?" + request.getQueryString();
+    }
+
+    static Map<String, String> forwardedHeaders(HttpServletRequest request) {
+        Map<String, String> headers = new HashMap<>();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (!UNFORWARDED_HEADERS.contains(lower) && !lower.startsWith("proxy-")) {
+                headers.put(name, request.getHeader(name));
+            }
+        }
+        return headers;
+    }
+
+    static void copy(HttpResponse<byte[]> forwarded, HttpServletResponse response) throws IOException {
+        response.setStatus(forwarded.statusCode());
+        forwarded.headers().map().forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (!UNFORWARDED_HEADERS.contains(lower) && !lower.equals("date") && !lower.startsWith(":")) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.getOutputStream().write(forwarded.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(Map.of("error", message)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.transactionmanager.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consistent hash ring with virtual nodes. A key belongs to the first point at or after its
+ * hash, and its replicas are the next distinct nodes clockwise from there. Adding or removing a
+ * node moves only the keys next to that node's points, about 1/n of the total.
+ */
+public class HashRing {
+    private final List<ClusterNode> nodes;
+    private final long[] points;
+    private final int[] owners;
+
+    public HashRing(List<ClusterNode> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Hash ring needs at least one node");
+        }
+        this.nodes = List.copyOf(nodes);
+        int size = nodes.size() * virtualNodes;
+        long[][] entries = new long[size][];
+        for (int n = 0; n < nodes.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[n * virtualNodes + v] = new long[] {hash(nodes.get(n).id() + "#" + v), n};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    /**
+     * The owner of the key followed by up to {@code count - 1} further distinct nodes.
+     */
+    public List<ClusterNode> replicasFor(String key, int count) {
+        int wanted = Math.min(count, nodes.size());
+        List<ClusterNode> replicas = new ArrayList<>(wanted);
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        boolean[] taken = new boolean[nodes.size()];
+        for (int step = 0; step < points.length && replicas.size() < wanted; step++) {
+            int owner = owners[(index + step) % points.length];
+            if (!taken[owner]) {
+                taken[owner] = true;
+                replicas.add(nodes.get(owner));
+            }
+        }
+        return replicas;
+    }
+
+    public List<ClusterNode> nodes() {
+        return nodes;
+    }
+
+    // FNV-1a over UTF-8, then a 64-bit finalizer so similar ids land far apart
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
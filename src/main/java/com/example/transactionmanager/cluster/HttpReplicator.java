@@ -0,0 +1,75 @@
+package com.example.transactionmanager.cluster;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes every local change synchronously to the other nodes holding the id, so a read served by
+ * any replica sees it once the write has returned. The changes of a batch go to each replica in a
+ * single call. A replica that can't be reached misses the change; it is counted and logged, and the
+ * replica catches up on the id's next write.
+ */
+public class HttpReplicator implements TransactionReplicator {
+    private static final Logger log = LoggerFactory.getLogger(HttpReplicator.class);
+    private static final ObjectWriter CHANGES_WRITER = new ObjectMapper()
+            .writerFor(new TypeReference<List<ReplicatedChange>>() { });
+    static final String REPLICAS_PATH = "/internal/cluster/replicas";
+
+    private final Cluster cluster;
+    private final PeerClient peers;
+
+    public HttpReplicator(Cluster cluster, PeerClient peers) {
+        this.cluster = cluster;
+        this.peers = peers;
+    }
+
+    @Override
+    public boolean replicate(List<ReplicatedChange> changes) {
+        Map<ClusterNode, List<ReplicatedChange>> byNode = new LinkedHashMap<>();
+        for (ReplicatedChange change : changes) {
+            for (ClusterNode node : cluster.replicasFor(change.id())) {
+                if (!cluster.isSelf(node)) {
+                    byNode.computeIfAbsent(node, key -> new ArrayList<>()).add(change);
+                }
+            }
+        }
+        boolean answered = true;
+        for (Map.Entry<ClusterNode, List<ReplicatedChange>> entry : byNode.entrySet()) {
+            answered &= send(entry.getKey(), entry.getValue());
+        }
+        return answered;
+    }
+
+    // Returns false only on a timeout; a node known to be down is skipped without waiting
+    private boolean send(ClusterNode node, List<ReplicatedChange> changes) {
+        if (!cluster.isUp(node)) {
+            cluster.recordReplicationFailures(changes.size());
+            return true;
+        }
+        try {
+            HttpResponse<byte[]> response = peers.send(node, "POST", REPLICAS_PATH,
+                    Map.of("Content-Type", "application/json"), CHANGES_WRITER.writeValueAsBytes(changes));
+            if (response.statusCode() / 100 != 2) {
+                cluster.recordReplicationFailures(changes.size());
+                log.warn("Replica {} rejected {} changes with status {}", node.id(), changes.size(), response.statusCode());
+            }
+        } catch (IOException e) {
+            cluster.markDown(node);
+            cluster.recordReplicationFailures(changes.size());
+            log.warn("Replica {} unreachable for {} changes: {}", node.id(), changes.size(), e.toString());
+            return !(e instanceof HttpTimeoutException);
+        }
+        return true;
+    }
+}
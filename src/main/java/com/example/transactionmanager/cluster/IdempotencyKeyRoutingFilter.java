@@ -0,0 +1,64 @@
+package com.example.transactionmanager.cluster;
+
+import com.example.transactionmanager.idempotency.IdempotencyFilter;
+import com.example.transactionmanager.web.BufferedBodyRequest;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+
+/**
+ * Sends each create carrying an {@code Idempotency-Key} to the node the key hashes to, ahead of
+ * {@link IdempotencyFilter}. Keys are only remembered by the node that saw them, so without this a
+ * retry that reaches another node would create the transaction again.
+ *
+ * The key's node handles the request as if the client had called it: it checks the key, then
+ * routes the create to the owner of its id. Relayed requests carry
+ * {@link PeerClient#KEY_HOME_HEADER} and are never relayed again. While none of the key's nodes
+ * can be reached, the request is handled where it arrived, and a retry elsewhere may run twice.
+ */
+public class IdempotencyKeyRoutingFilter extends OncePerRequestFilter {
+    private final Cluster cluster;
+    private final PeerClient peers;
+
+    public IdempotencyKeyRoutingFilter(Cluster cluster, PeerClient peers) {
+        this.cluster = cluster;
+        this.peers = peers;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IdempotencyFilter.IDEMPOTENCY_KEY) == null
+                || request.getHeader(PeerClient.FORWARDED_HEADER) != null
+                || request.getHeader(PeerClient.KEY_HOME_HEADER) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        // Scoped like IdempotencyFilter scopes keys, so a key's node is the one that remembers it
+        String key = request.getRequestURI() + " " + request.getHeader(IdempotencyFilter.IDEMPOTENCY_KEY).trim();
+        for (ClusterNode node : cluster.candidatesFor(key)) {
+            if (cluster.isSelf(node)) {
+                break;
+            }
+            try {
+                HttpResponse<byte[]> relayed = peers.relay(node, request.getMethod(),
+                        ClusterRoutingFilter.pathAndQuery(request), ClusterRoutingFilter.forwardedHeaders(request), body);
+                cluster.markUp(node);
+                cluster.recordForwarded();
+                ClusterRoutingFilter.copy(relayed, response);
+                return;
+            } catch (IOException e) {
+                cluster.markDown(node);
+            }
+        }
+        chain.doFilter(new BufferedBodyRequest(request, body), response);
+    }
+}
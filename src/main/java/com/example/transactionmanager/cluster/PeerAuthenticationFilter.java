@@ -0,0 +1,83 @@
+package com.example.transactionmanager.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Tells peer traffic from client traffic on the shared port. A request comes from another node
+ * only if it carries the cluster secret. Without it, the internal endpoints answer 403, and the
+ * cluster headers are hidden from the rest of the chain, so a client can't set
+ * {@link PeerClient#FORWARDED_HEADER} to skip routing or the Idempotency-Key check.
+ */
+public class PeerAuthenticationFilter extends OncePerRequestFilter {
+    static final String INTERNAL_PATH = "/internal/cluster/";
+
+    private final PeerClient peers;
+
+    public PeerAuthenticationFilter(PeerClient peers) {
+        this.peers = peers;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (peers.isPeerSecret(request.getHeader(PeerClient.SECRET_HEADER))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(INTERNAL_PATH)) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write("{\"error\":\"Cluster endpoints only accept calls from other nodes\"}"
+                    .getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        if (Collections.list(request.getHeaderNames()).stream().anyMatch(ClientRequest::isClusterHeader)) {
+            chain.doFilter(new ClientRequest(request), response);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    // The request as the client sent it, minus any cluster headers it claimed
+    private static final class ClientRequest extends HttpServletRequestWrapper {
+        ClientRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isClusterHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isClusterHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(ClientRequest::isClusterHeader);
+            return Collections.enumeration(names);
+        }
+
+        private static boolean isClusterHeader(String name) {
+            return name.equalsIgnoreCase(PeerClient.FORWARDED_HEADER) || name.equalsIgnoreCase(PeerClient.SECRET_HEADER)
+                    || name.equalsIgnoreCase(PeerClient.KEY_HOME_HEADER);
+        }
+    }
+}
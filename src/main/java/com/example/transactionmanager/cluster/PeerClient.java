@@ -0,0 +1,95 @@
+package com.example.transactionmanager.cluster;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * HTTP calls from this node to the others. Every call carries {@link #SECRET_HEADER}, which proves
+ * it comes from a node rather than a client. Sent calls also carry {@link #FORWARDED_HEADER}, so
+ * the receiving node serves them itself instead of routing them again; relayed ones carry
+ * {@link #KEY_HOME_HEADER} instead and are handled like a client's request.
+ */
+public class PeerClient {
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded";
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+    public static final String KEY_HOME_HEADER = "X-Cluster-Key-Home";
+
+    private final HttpClient http;
+    private final Duration timeout;
+    private final String selfId;
+    private final byte[] secret;
+
+    public PeerClient(ClusterProperties properties) {
+        if (properties.getSecret() == null || properties.getSecret().isBlank()) {
+            throw new IllegalArgumentException("transactionmanager.cluster.secret must be set when the cluster is enabled");
+        }
+        this.timeout = properties.getRequestTimeout();
+        this.selfId = properties.getNodeId();
+        this.secret = properties.getSecret().getBytes(StandardCharsets.UTF_8);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Sends a request to a node and returns its response, whatever the status. Throws
+     * IOException when the node can't be reached or doesn't answer within the timeout.
+     */
+    public HttpResponse<byte[]> send(ClusterNode node, String method, String pathAndQuery, Map<String, String> headers,
+                                     byte[] body) throws IOException {
+        return call(node, FORWARDED_HEADER, method, pathAndQuery, headers, body, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * A GET whose body is read as it arrives rather than buffered, for responses too large to
+     * hold. The timeout covers only the wait for the status line and headers.
+     */
+    public HttpResponse<InputStream> stream(ClusterNode node, String pathAndQuery) throws IOException {
+        return call(node, FORWARDED_HEADER, "GET", pathAndQuery, Map.of(), null, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    /**
+     * Like {@link #send}, but the node handles the request as if the client had called it
+     * directly, routing included. Used to bring every use of an idempotency key to one node.
+     */
+    public HttpResponse<byte[]> relay(ClusterNode node, String method, String pathAndQuery, Map<String, String> headers,
+                                      byte[] body) throws IOException {
+        return call(node, KEY_HOME_HEADER, method, pathAndQuery, headers, body, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private <T> HttpResponse<T> call(ClusterNode node, String markHeader, String method, String pathAndQuery,
+                                     Map<String, String> headers, byte[] body, HttpResponse.BodyHandler<T> handler)
+            throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node.baseUrl() + pathAndQuery))
+                .timeout(timeout)
+                .header(markHeader, selfId)
+                .header(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8))
+                .method(method, body == null || body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        headers.forEach(request::header);
+        try {
+            return http.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted calling node " + node.id(), e);
+        }
+    }
+
+    /**
+     * Whether a request's {@link #SECRET_HEADER} value is the cluster secret. Compared in
+     * constant time, so response timing doesn't reveal how much of a guess was right.
+     */
+    public boolean isPeerSecret(String value) {
+        return value != null && MessageDigest.isEqual(secret, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
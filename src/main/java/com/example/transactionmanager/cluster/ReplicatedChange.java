@@ -0,0 +1,18 @@
+package com.example.transactionmanager.cluster;
+
+import com.example.transactionmanager.model.Transaction;
+
+/**
+ * One change sent to the other replicas of an id: the new transaction with the version its owner
+ * gave it, or for a delete no transaction and the version that was deleted.
+ */
+public record ReplicatedChange(String id, long version, Transaction transaction) {
+
+    public static ReplicatedChange put(Transaction transaction) {
+        return new ReplicatedChange(transaction.getId(), transaction.getVersion(), transaction);
+    }
+
+    public static ReplicatedChange delete(Transaction removed) {
+        return new ReplicatedChange(removed.getId(), removed.getVersion(), null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.transactionmanager.cluster;
+
+import java.util.List;
+
+/**
+ * Replication hook for the transaction store. Called once a write is durable locally and before
+ * it is acknowledged, outside the per-key locks, so a slow replica never holds up other writers.
+ * Changes may therefore reach a replica out of order; replicas apply them by version.
+ */
+public interface TransactionReplicator {
+
+    TransactionReplicator NONE = changes -> true;
+
+    /**
+     * Returns false if a replica did not answer within the request timeout, which the caller
+     * takes as a sign of overload.
+     */
+    boolean replicate(List<ReplicatedChange> changes);
+}
@@ -0,0 +1,18 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.admission.AdaptiveAdmissionController;
+import com.example.transactionmanager.admission.AdmissionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+
+    // Also a MeterBinder, so Actuator picks up the limit, in-flight and rejection meters
+    @Bean
+    public AdaptiveAdmissionController admissionController(AdmissionProperties properties) {
+        return new AdaptiveAdmissionController(properties);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.cluster.Cluster;
+import com.example.transactionmanager.cluster.ClusterBootstrap;
+import com.example.transactionmanager.cluster.ClusterProperties;
+import com.example.transactionmanager.cluster.ClusterRoutingFilter;
+import com.example.transactionmanager.cluster.HttpReplicator;
+import com.example.transactionmanager.cluster.PeerAuthenticationFilter;
+import com.example.transactionmanager.cluster.PeerClient;
+import com.example.transactionmanager.cluster.TransactionReplicator;
+import com.example.transactionmanager.id.IdGenerator;
+import com.example.transactionmanager.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfig {
+
+    @Bean
+    public TransactionReplicator transactionReplicator(ClusterProperties properties, ObjectProvider<Cluster> cluster,
+                                                       ObjectProvider<PeerClient> peers) {
+        return properties.isEnabled() ? new HttpReplicator(cluster.getObject(), peers.getObject()) : TransactionReplicator.NONE;
+    }
+
+    // Also a MeterBinder, so Actuator picks up the forwarding, replication and node meters
+    @Bean
+    @ConditionalOnProperty(prefix = "transactionmanager.cluster", name = "enabled", havingValue = "true")
+    public Cluster cluster(ClusterProperties properties) {
+        return new Cluster(properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transactionmanager.cluster", name = "enabled", havingValue = "true")
+    public PeerClient peerClient(ClusterProperties properties) {
+        return new PeerClient(properties);
+    }
+
+    // A runner, so the node reports ready only once it has caught up with the others
+    @Bean
+    @ConditionalOnProperty(prefix = "transactionmanager.cluster", name = {"enabled", "bootstrap"}, havingValue = "true")
+    public ClusterBootstrap clusterBootstrap(Cluster cluster, PeerClient peers, TransactionService transactionService) {
+        return new ClusterBootstrap(cluster, peers, transactionService);
+    }
+
+    // Ahead of every other filter, so none of them sees cluster headers a client made up
+    @Bean
+    @ConditionalOnProperty(prefix = "transactionmanager.cluster", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<PeerAuthenticationFilter> peerAuthenticationFilter(PeerClient peers) {
+        FilterRegistrationBean<PeerAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(new PeerAuthenticationFilter(peers));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transactionmanager.cluster", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<ClusterRoutingFilter> clusterRoutingFilter(Cluster cluster, PeerClient peers,
+                                                                             ObjectMapper objectMapper,
+                                                                             IdGenerator idGenerator) {
+        FilterRegistrationBean<ClusterRoutingFilter> registration =
+                new FilterRegistrationBean<>(new ClusterRoutingFilter(cluster, peers, objectMapper, idGenerator));
+        registration.addUrlPatterns("/transactions", "/transactions/*");
+        return registration;
+    }
+}
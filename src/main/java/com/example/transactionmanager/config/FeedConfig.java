@@ -0,0 +1,24 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.feed.ChangeFeed;
+import com.example.transactionmanager.feed.ChangeStreams;
+import com.example.transactionmanager.feed.FeedProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FeedProperties.class)
+public class FeedConfig {
+
+    // Both are MeterBinders, so Actuator picks up the event, subscriber and slow consumer meters
+    @Bean(destroyMethod = "close")
+    public ChangeFeed changeFeed(FeedProperties properties) {
+        return new ChangeFeed(Math.max(properties.getCapacity(), properties.getSubscriberBuffer()));
+    }
+
+    @Bean(destroyMethod = "close")
+    public ChangeStreams changeStreams(ChangeFeed changeFeed, FeedProperties properties) {
+        return new ChangeStreams(changeFeed, properties);
+    }
+}
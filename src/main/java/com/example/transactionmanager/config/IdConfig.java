@@ -0,0 +1,29 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.cluster.ClusterProperties;
+import com.example.transactionmanager.id.IdGenerator;
+import com.example.transactionmanager.id.IdProperties;
+import com.example.transactionmanager.id.TimeOrderedIdGenerator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdProperties.class)
+public class IdConfig {
+
+    @Bean
+    public IdGenerator idGenerator(IdProperties properties, ClusterProperties cluster) {
+        if (properties.getGenerator() == IdProperties.Generator.UUID) {
+            return IdGenerator.RANDOM_UUID;
+        }
+        if (properties.getNode() != null) {
+            return new TimeOrderedIdGenerator(properties.getNode());
+        }
+        // Cluster nodes have distinct ids, so their hashes keep their generated ids apart
+        if (cluster.isEnabled() && cluster.getNodeId() != null) {
+            return new TimeOrderedIdGenerator(cluster.getNodeId().hashCode() & 0xFFFF);
+        }
+        return new TimeOrderedIdGenerator();
+    }
+}
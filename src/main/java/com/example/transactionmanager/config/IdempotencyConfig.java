@@ -0,0 +1,54 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.cluster.Cluster;
+import com.example.transactionmanager.cluster.IdempotencyKeyRoutingFilter;
+import com.example.transactionmanager.cluster.PeerClient;
+import com.example.transactionmanager.idempotency.IdempotencyCache;
+import com.example.transactionmanager.idempotency.IdempotencyFilter;
+import com.example.transactionmanager.idempotency.IdempotencyProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// A servlet filter, so the reactive stack takes no Idempotency-Key
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "transactionmanager.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    // Also a MeterBinder, so Actuator picks up the key cache's size, hits and misses
+    @Bean
+    public IdempotencyCache idempotencyCache(IdempotencyProperties properties) {
+        return new IdempotencyCache(properties);
+    }
+
+    // Ahead of cluster routing, so a retry to the same node is answered without forwarding
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyCache cache,
+                                                                       IdempotencyProperties properties,
+                                                                       ObjectMapper objectMapper) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(cache, properties, objectMapper));
+        registration.addUrlPatterns("/transactions", "/transactions/batch");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+
+    // Ahead of the key check, so every use of a key is checked on the same node
+    @Bean
+    @ConditionalOnProperty(prefix = "transactionmanager.cluster", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<IdempotencyKeyRoutingFilter> idempotencyKeyRoutingFilter(Cluster cluster,
+                                                                                           PeerClient peers) {
+        FilterRegistrationBean<IdempotencyKeyRoutingFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyKeyRoutingFilter(cluster, peers));
+        registration.addUrlPatterns("/transactions", "/transactions/batch");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+        return registration;
+    }
+}
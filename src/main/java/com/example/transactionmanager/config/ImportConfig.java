@@ -0,0 +1,24 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.importer.BulkImporter;
+import com.example.transactionmanager.importer.ImportProperties;
+import com.example.transactionmanager.importer.StartupImport;
+import com.example.transactionmanager.service.TransactionService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ImportProperties.class)
+public class ImportConfig {
+
+    @Bean
+    public BulkImporter bulkImporter(TransactionService transactionService, ImportProperties properties) {
+        return new BulkImporter(transactionService, properties);
+    }
+
+    @Bean
+    public StartupImport startupImport(BulkImporter importer, ImportProperties properties) {
+        return new StartupImport(importer, properties.getFiles());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.persistence.PersistenceEngine;
+import com.example.transactionmanager.persistence.PersistenceProperties;
+import com.example.transactionmanager.persistence.TransactionJournal;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PersistenceProperties.class)
+public class PersistenceConfig {
+
+    @Bean(destroyMethod = "close")
+    public TransactionJournal transactionJournal(PersistenceProperties properties) {
+        return properties.isEnabled() ? new PersistenceEngine(properties) : TransactionJournal.NONE;
+    }
+}
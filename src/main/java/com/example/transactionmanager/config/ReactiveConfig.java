@@ -0,0 +1,52 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.cache.PageEncoder;
+import com.example.transactionmanager.cluster.ClusterProperties;
+import com.example.transactionmanager.controller.TransactionListHttpMessageWriter;
+import com.example.transactionmanager.persistence.TransactionJournal;
+import com.example.transactionmanager.service.ReactiveTransactionService;
+import com.example.transactionmanager.service.TransactionService;
+import com.example.transactionmanager.store.TransactionStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Beans of the reactive stack, selected with spring.main.web-application-type=reactive (the reactive profile)
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    // Tomcat is on the classpath for the servlet stack and would otherwise be picked first
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // Only the blocking paths leave the event loop: durable writes wait on the journal, tiered reads on disk
+    @Bean(destroyMethod = "close")
+    public ReactiveTransactionService reactiveTransactionService(TransactionService transactionService,
+                                                                 TransactionJournal journal, TransactionStore store,
+                                                                 ClusterProperties clusterProperties) {
+        // Forwarding and replica endpoints are servlet filters and controllers
+        if (clusterProperties.isEnabled()) {
+            throw new IllegalStateException("Cluster mode requires the servlet stack; "
+                    + "unset spring.main.web-application-type=reactive or transactionmanager.cluster.enabled");
+        }
+        return new ReactiveTransactionService(transactionService, journal != TransactionJournal.NONE,
+                store.readsMayBlock());
+    }
+
+    // Ahead of the Jackson encoder, so list pages skip object mapping as on the servlet stack. Pages are
+    // encoded with mappers from the context's builder, so spring.jackson.* applies to cached pages too.
+    @Bean
+    public CodecCustomizer transactionListCodecCustomizer(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        PageEncoder encoder = new PageEncoder(objectMapper, cborMapper);
+        return configurer -> configurer.customCodecs().register(new TransactionListHttpMessageWriter(encoder));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.cluster.ReplicatedChange;
+import com.example.transactionmanager.feed.ChangeEvent;
+import com.example.transactionmanager.importer.ImportReport;
+import com.example.transactionmanager.model.BatchItemResult;
+import com.example.transactionmanager.model.Transaction;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.info.Contact;
+import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.info.License;
+import io.swagger.v3.oas.models.servers.Server;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Types that are only ever read or written by Jackson through reflection, for AOT-processed and
+ * native builds. Request and response bodies declared on controller methods are found by the AOT
+ * processor itself; these are the ones it can't see: types written by the service's own
+ * ObjectMappers (the export, change feed, list page encodings, replication and imports), bodies
+ * behind a wildcard response type, and the OpenAPI model built by {@link OpenApiConfig}.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+        Transaction.class,
+        BatchItemResult.class,
+        ChangeEvent.class,
+        ReplicatedChange.class,
+        ImportReport.class,
+        OpenAPI.class,
+        Info.class,
+        Contact.class,
+        License.class,
+        Server.class
+})
+public class RuntimeHintsConfig {
+}
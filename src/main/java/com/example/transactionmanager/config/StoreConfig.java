@@ -0,0 +1,34 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.store.HeapTransactionStore;
+import com.example.transactionmanager.store.SlabTransactionStore;
+import com.example.transactionmanager.store.TieredStoreProperties;
+import com.example.transactionmanager.store.TieredTransactionStore;
+import com.example.transactionmanager.store.TransactionStore;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TieredStoreProperties.class)
+public class StoreConfig {
+
+    @Bean
+    public TransactionStore transactionStore(@Value("${transactionmanager.store.type:heap}") String type,
+                                             TieredStoreProperties tieredProperties) {
+        return switch (type.toLowerCase()) {
+            case "heap" -> new HeapTransactionStore();
+            case "slab" -> new SlabTransactionStore();
+            case "tiered" -> new TieredTransactionStore(tieredProperties);
+            default -> throw new IllegalArgumentException("Unknown transactionmanager.store.type: " + type);
+        };
+    }
+
+    // The store bean is declared as the interface, so Actuator wouldn't find a store's own meters
+    @Bean
+    public MeterBinder transactionStoreMeters(TransactionStore store) {
+        return store instanceof MeterBinder binder ? binder : registry -> { };
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.transactionmanager.config;
+
+import com.example.transactionmanager.cache.PageEncoder;
+import com.example.transactionmanager.controller.TransactionListMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebConfig {
+
+    // Replaces the default CBOR converter, which ignores spring.jackson.* and the context's modules
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // Converter beans go ahead of the default Jackson converters, so list pages skip object mapping
+    @Bean
+    public TransactionListMessageConverter transactionListMessageConverter(ObjectMapper objectMapper,
+                                                                           MappingJackson2CborHttpMessageConverter cbor) {
+        return new TransactionListMessageConverter(new PageEncoder(objectMapper, cbor.getObjectMapper()));
+    }
+}
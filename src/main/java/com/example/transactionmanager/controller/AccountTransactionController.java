@@ -0,0 +1,79 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.cache.ListPage;
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.service.TransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/accounts/{accountId}/transactions")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Tag(name = "Transaction Management", description = "Transaction Management System API")
+public class AccountTransactionController {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @Operation(summary = "Query Account Transaction List", description = "Query one account's transaction "
+            + "records in pages, ordered by ID. Served as JSON, or as CBOR for Accept: application/cbor")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved transaction list",
+                    content = @Content(schema = @Schema(implementation = TransactionListResponse.class)))
+    })
+    public ResponseEntity<TransactionListResponse> listAccountTransactions(
+            @PathVariable String accountId,
+            @Parameter(description = "Page number (starting from 0)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "10") int size) {
+        ListPage transactions = transactionService.listAccountTransactionPage(accountId, page, size);
+        long total = transactionService.getAccountTransactionCount(accountId);
+        return ResponseEntity.ok(new TransactionListResponse(transactions, page, total, (total + size - 1) / size));
+    }
+
+    @GetMapping(params = "after")
+    @Operation(summary = "Query Account Transaction List by Cursor",
+            description = "Query one account's transaction records ordered by ID, starting after the given cursor")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved transaction list",
+                    content = @Content(schema = @Schema(implementation = Map.class)))
+    })
+    public ResponseEntity<Map<String, Object>> listAccountTransactionsAfter(
+            @PathVariable String accountId,
+            @Parameter(description = "Return transactions whose ID sorts after this cursor")
+            @RequestParam String after,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "10") int size) {
+        List<Transaction> transactions = transactionService.listAccountTransactionsAfter(accountId, after, size);
+        String nextCursor = transactions.size() == size && !transactions.isEmpty()
+                ? transactions.get(transactions.size() - 1).getId()
+                : null;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("transactions", transactions);
+        response.put("nextCursor", nextCursor);
+        response.put("totalItems", transactionService.getAccountTransactionCount(accountId));
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.importer.BulkImporter;
+import com.example.transactionmanager.importer.ImportFormat;
+import com.example.transactionmanager.importer.ImportProperties;
+import com.example.transactionmanager.importer.ImportReport;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/import")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "transactionmanager.import", name = "directory")
+@Tag(name = "Administration", description = "Operations for running the service")
+public class ImportController {
+
+    @Autowired
+    private BulkImporter importer;
+
+    @Autowired
+    private ImportProperties properties;
+
+    @PostMapping
+    @Operation(summary = "Bulk Import Transactions", description = "Load a CSV or NDJSON file from the "
+            + "import directory, parsing and storing it in parallel. Rows that fail are skipped and reported")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "File imported; see the report for rejected rows",
+                    content = @Content(schema = @Schema(implementation = ImportReport.class))),
+        @ApiResponse(responseCode = "400", description = "File outside the import directory, or unknown format"),
+        @ApiResponse(responseCode = "404", description = "No such file")
+    })
+    public ResponseEntity<?> importFile(
+            @Parameter(description = "File name, relative to the import directory")
+            @RequestParam String file,
+            @Parameter(description = "csv or ndjson; taken from the file name if left out")
+            @RequestParam(required = false) String format) throws IOException {
+        try {
+            Path path = resolve(properties.getDirectory(), file);
+            return ResponseEntity.ok(format == null ? importer.importFile(path)
+                    : importer.importFile(path, ImportFormat.of(format)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No such file: " + file));
+        }
+    }
+
+    // Only files under the directory can be named, so the endpoint can't read the rest of the disk
+    static Path resolve(String directory, String file) {
+        Path base = Path.of(directory).toAbsolutePath().normalize();
+        Path path = base.resolve(file).normalize();
+        if (!path.startsWith(base) || path.equals(base)) {
+            throw new IllegalArgumentException("File must be inside the import directory: " + file);
+        }
+        return path;
+    }
+}
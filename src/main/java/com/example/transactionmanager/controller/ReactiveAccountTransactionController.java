@@ -0,0 +1,58 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.service.ReactiveTransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code /accounts/{accountId}/transactions} API on the reactive stack, as documented by
+ * {@link AccountTransactionController}.
+ */
+@RestController
+@RequestMapping("/accounts/{accountId}/transactions")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountTransactionController {
+
+    @Autowired
+    private ReactiveTransactionService transactionService;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<TransactionListResponse>> listAccountTransactions(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        // Written by TransactionListHttpMessageWriter from the page's cached encoding
+        return transactionService.listAccountTransactionPage(accountId, page, size).map(transactions -> {
+            long total = transactionService.getAccountTransactionCount(accountId);
+            return ResponseEntity.ok(new TransactionListResponse(transactions, page, total, (total + size - 1) / size));
+        });
+    }
+
+    @GetMapping(params = "after")
+    public Mono<Map<String, Object>> listAccountTransactionsAfter(@PathVariable String accountId,
+                                                                  @RequestParam String after,
+                                                                  @RequestParam(defaultValue = "10") int size) {
+        return transactionService.listAccountTransactionsAfter(accountId, after, size).map(transactions -> {
+            String nextCursor = transactions.size() == size && !transactions.isEmpty()
+                    ? transactions.get(transactions.size() - 1).getId()
+                    : null;
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("transactions", transactions);
+            response.put("nextCursor", nextCursor);
+            response.put("totalItems", transactionService.getAccountTransactionCount(accountId));
+            return response;
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.importer.BulkImporter;
+import com.example.transactionmanager.importer.ImportFormat;
+import com.example.transactionmanager.importer.ImportProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * {@link ImportController} on the reactive stack. The import blocks for as long as it takes, so it
+ * runs off the event loop.
+ */
+@RestController
+@RequestMapping("/admin/import")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(prefix = "transactionmanager.import", name = "directory")
+public class ReactiveImportController {
+
+    @Autowired
+    private BulkImporter importer;
+
+    @Autowired
+    private ImportProperties properties;
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> importFile(@RequestParam String file,
+                                              @RequestParam(required = false) String format) {
+        Mono<ResponseEntity<?>> imported = Mono.fromCallable(() -> {
+            Path path = ImportController.resolve(properties.getDirectory(), file);
+            return ResponseEntity.ok(format == null ? importer.importFile(path)
+                    : importer.importFile(path, ImportFormat.of(format)));
+        });
+        return imported
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(Map.of("error", e.getMessage()))))
+                .onErrorResume(NoSuchFileException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No such file: " + file))))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.example.transactionmanager.feed.ChangeStreams;
+import com.example.transactionmanager.model.BatchItemResult;
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.service.ReactiveTransactionService;
+import com.example.transactionmanager.service.TransactionService;
+import com.example.transactionmanager.stats.TransactionStatistics;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.transactionmanager.controller.TransactionController.*;
+
+/**
+ * The {@code /transactions} API on the reactive stack, with the same paths, parameters, status
+ * codes and bodies as {@link TransactionController}, which documents them. Handlers return as soon
+ * as the work is set up, so a request holds an event loop only while it runs, never while it waits.
+ */
+@RestController
+@RequestMapping("/transactions")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransactionController {
+
+    @Autowired
+    private ReactiveTransactionService transactionService;
+
+    @Autowired
+    private ChangeStreams changeStreams;
+
+    @PostMapping
+    public Mono<Transaction> createTransaction(@Valid @RequestBody Transaction transaction) {
+        return transactionService.createTransaction(transaction);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Transaction>> deleteTransaction(@PathVariable String id) {
+        return transactionService.deleteTransaction(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Transaction>> getTransaction(@PathVariable String id) {
+        return transactionService.getTransaction(id)
+                .map(transaction -> ResponseEntity.ok().eTag(etag(transaction)).body(transaction))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Transaction>> modifyTransaction(
+            @PathVariable String id,
+            @Valid @RequestBody Transaction transaction,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long expectedVersion = ifMatch == null ? TransactionService.ANY_VERSION : parseIfMatch(ifMatch);
+        if (expectedVersion == UNMATCHABLE) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+        }
+        return transactionService.modifyTransaction(id, transaction, expectedVersion)
+                .map(modified -> ResponseEntity.ok().eTag(etag(modified)).body(modified))
+                // If-Match: * requires a current representation
+                .defaultIfEmpty(ifMatch != null && expectedVersion == TransactionService.ANY_VERSION
+                        ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()
+                        : ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<BatchItemResult>>> createTransactions(@RequestBody List<Transaction> transactions) {
+        if (transactions.isEmpty() || transactions.size() > MAX_BATCH_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return transactionService.createTransactions(transactions).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/batch")
+    public Mono<ResponseEntity<List<BatchItemResult>>> modifyTransactions(@RequestBody List<Transaction> transactions) {
+        if (transactions.isEmpty() || transactions.size() > MAX_BATCH_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return transactionService.modifyTransactions(transactions).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/batch")
+    public Mono<ResponseEntity<List<BatchItemResult>>> deleteTransactions(@RequestBody List<String> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return transactionService.deleteTransactions(ids).map(ResponseEntity::ok);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<? extends ResponseEntity<?>> listTransactions(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor) {
+        if (minAmount != null || maxAmount != null || cursor != null || (sort != null && !sort.equals(SORT_BY_ID))) {
+            return listTransactionsByAmount(page, size, minAmount, maxAmount, sort, cursor);
+        }
+        // Written by TransactionListHttpMessageWriter from the page's cached encoding
+        return transactionService.listTransactionPage(page, size).map(transactions -> {
+            long total = transactionService.getTotalTransactions();
+            return ResponseEntity.ok(new TransactionListResponse(transactions, page, total, (total + size - 1) / size));
+        });
+    }
+
+    private Mono<ResponseEntity<Map<String, Object>>> listTransactionsByAmount(int page, int size, Double minAmount,
+                                                                               Double maxAmount, String sort,
+                                                                               String cursor) {
+        boolean descending;
+        if (sort == null || sort.equals(SORT_BY_AMOUNT)) {
+            descending = false;
+        } else if (sort.equals("-" + SORT_BY_AMOUNT)) {
+            descending = true;
+        } else {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        double min = minAmount != null ? minAmount : Double.NEGATIVE_INFINITY;
+        double max = maxAmount != null ? maxAmount : Double.POSITIVE_INFINITY;
+
+        // Cursor pages carry no total: counting the range would cost more than the page
+        Mono<TransactionService.SearchPage> results;
+        if (cursor != null) {
+            int separator = cursor.indexOf(AMOUNT_CURSOR_SEPARATOR);
+            double afterAmount;
+            try {
+                afterAmount = separator > 0 ? Double.parseDouble(cursor.substring(0, separator)) : Double.NaN;
+            } catch (NumberFormatException e) {
+                afterAmount = Double.NaN;
+            }
+            if (Double.isNaN(afterAmount)) {
+                return Mono.just(ResponseEntity.badRequest().build());
+            }
+            results = transactionService.listTransactionsByAmountAfter(min, max, descending, afterAmount,
+                    cursor.substring(separator + 1), size)
+                    .map(transactions -> new TransactionService.SearchPage(transactions, 0));
+        } else {
+            results = transactionService.listTransactionsByAmount(min, max, descending, page, size);
+        }
+        return results.map(found -> {
+            List<Transaction> transactions = found.transactions();
+            String nextCursor = transactions.size() == size && !transactions.isEmpty()
+                    ? amountCursor(transactions.get(transactions.size() - 1))
+                    : null;
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("transactions", transactions);
+            response.put("nextCursor", nextCursor);
+            if (cursor == null) {
+                response.put("currentPage", page);
+                response.put("totalItems", found.totalMatches());
+                response.put("totalPages", size > 0 ? (found.totalMatches() + size - 1) / size : 0);
+                response.put("totalApproximate", found.totalApproximate());
+            }
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    @GetMapping(params = "after")
+    public Mono<Map<String, Object>> listTransactionsAfter(@RequestParam String after,
+                                                           @RequestParam(defaultValue = "10") int size) {
+        return transactionService.listTransactionsAfter(after, size).map(transactions -> {
+            String nextCursor = transactions.size() == size && !transactions.isEmpty()
+                    ? transactions.get(transactions.size() - 1).getId()
+                    : null;
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("transactions", transactions);
+            response.put("nextCursor", nextCursor);
+            response.put("totalItems", transactionService.getTotalTransactions());
+            return response;
+        });
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Map<String, Object>>> searchTransactions(@RequestParam String q,
+                                                                        @RequestParam(defaultValue = "0") int page,
+                                                                        @RequestParam(defaultValue = "10") int size) {
+        if (q.isBlank() || page < 0 || size <= 0 || (long) (page + 1) * size > MAX_SEARCH_WINDOW) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return transactionService.searchTransactions(q, page, size).map(results -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("transactions", results.transactions());
+            response.put("currentPage", page);
+            response.put("totalItems", results.totalMatches());
+            response.put("totalPages", (results.totalMatches() + size - 1) / size);
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    @GetMapping("/stats")
+    public Mono<TransactionStatistics.Snapshot> getStatistics() {
+        return transactionService.getStatistics();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> exportTransactions(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            ServerHttpResponse serverResponse) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(transactionService.exportTransactions(serverResponse.bufferFactory(), gzip));
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> streamChanges(
+            @RequestParam(required = false) Long after,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId,
+            ServerHttpResponse serverResponse) {
+        if (after == null && lastEventId != null) {
+            try {
+                after = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // Not one of ours, so the client can't have followed this feed
+                after = UNKNOWN_SEQUENCE;
+            }
+        }
+        // Already framed, so written as they are rather than wrapped as data of further events
+        DataBufferFactory buffers = serverResponse.bufferFactory();
+        Flux<DataBuffer> frames = changeStreams.frames(after)
+                .map(chunk -> buffers.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(frames);
+    }
+
+    @GetMapping("/cache-stats")
+    public TransactionPageCache.PageCacheStats getListCacheStats() {
+        return transactionService.getListCacheStats();
+    }
+}
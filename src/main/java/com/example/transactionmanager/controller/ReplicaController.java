@@ -0,0 +1,36 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.cluster.ReplicatedChange;
+import com.example.transactionmanager.service.TransactionService;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Receives changes replicated from the other nodes in cluster mode; not part of the public API
+@Hidden
+@RestController
+@RequestMapping("/internal/cluster/replicas")
+@ConditionalOnProperty(prefix = "transactionmanager.cluster", name = "enabled", havingValue = "true")
+public class ReplicaController {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    // Only reachable with the cluster secret; PeerAuthenticationFilter refuses everything else
+    @PostMapping
+    public ResponseEntity<Void> applyReplicas(@RequestBody List<ReplicatedChange> changes) {
+        try {
+            transactionService.applyReplicas(changes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,8 +1,14 @@
 // src/main/java/com/example/transactionmanager/controller/TransactionController.java
 package com.example.transactionmanager.controller;
 
+import com.example.transactionmanager.cache.ListPage;
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.example.transactionmanager.feed.ChangeEvent;
+import com.example.transactionmanager.feed.ChangeStreams;
+import com.example.transactionmanager.model.BatchItemResult;
 import com.example.transactionmanager.model.Transaction;
 import com.example.transactionmanager.service.TransactionService;
+import com.example.transactionmanager.stats.TransactionStatistics;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,22 +18,54 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.HashMap;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/transactions")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Transaction Management", description = "Transaction Management System API") 
 public class TransactionController {
 
+    // Upper bound on items per batch request
+    static final int MAX_BATCH_SIZE = 1000;
+
+    static final String SORT_BY_ID = "id";
+    static final String SORT_BY_AMOUNT = "amount";
+    static final String AMOUNT_CURSOR_SEPARATOR = ":";
+
+    // Deepest search hit a client can page to; ranking cost grows with page * size
+    static final int MAX_SEARCH_WINDOW = 10_000;
+
+    // Compression buffer for exports; large enough that deflate works on whole blocks of rows
+    static final int EXPORT_GZIP_BUFFER = 64 * 1024;
+
+    // If-Match value that no version can satisfy
+    static final long UNMATCHABLE = -2;
+
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+    // Resume position older than any feed holds, so the stream starts with a reset
+    static final long UNKNOWN_SEQUENCE = -1;
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private ChangeStreams changeStreams;
+
     @PostMapping
     @Operation(summary = "Create New Transaction", description = "Create a new transaction record")
     @ApiResponses(value = {
@@ -54,42 +92,356 @@ public class TransactionController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}")
+    @Operation(summary = "Get Transaction", description = "Get a transaction record by ID, with its version as the ETag")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved transaction",
+                    content = @Content(schema = @Schema(implementation = Transaction.class))),
+        @ApiResponse(responseCode = "404", description = "Transaction not found")
+    })
+    public ResponseEntity<Transaction> getTransaction(
+            @Parameter(description = "Transaction ID", required = true)
+            @PathVariable String id) {
+        return transactionService.getTransaction(id)
+                .map(transaction -> ResponseEntity.ok().eTag(etag(transaction)).body(transaction))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PutMapping("/{id}")
-    @Operation(summary = "Modify Transaction", description = "Modify a transaction record by ID")
+    @Operation(summary = "Modify Transaction", description = "Modify a transaction record by ID. "
+            + "With If-Match, the change only applies if the transaction still has that ETag")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully modified transaction", 
                     content = @Content(schema = @Schema(implementation = Transaction.class))),
         @ApiResponse(responseCode = "404", description = "Transaction not found"),
-        @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+        @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+        @ApiResponse(responseCode = "412", description = "Transaction was modified since the If-Match ETag")
     })
     public ResponseEntity<Transaction> modifyTransaction(
             @Parameter(description = "Transaction ID", required = true) 
             @PathVariable String id, 
-            @Valid @RequestBody Transaction transaction) {
-        Transaction modifiedTransaction = transactionService.modifyTransaction(id, transaction);
-        return modifiedTransaction != null ? ResponseEntity.ok(modifiedTransaction) : ResponseEntity.notFound().build();
+            @Valid @RequestBody Transaction transaction,
+            @Parameter(description = "ETag the update is based on, or * for any existing version")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Transaction modifiedTransaction;
+        if (ifMatch == null) {
+            modifiedTransaction = transactionService.modifyTransaction(id, transaction);
+        } else {
+            long expectedVersion = parseIfMatch(ifMatch);
+            if (expectedVersion == UNMATCHABLE) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            modifiedTransaction = transactionService.modifyTransaction(id, transaction, expectedVersion);
+            if (modifiedTransaction == null && expectedVersion == TransactionService.ANY_VERSION) {
+                // If-Match: * requires a current representation
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        return modifiedTransaction != null
+                ? ResponseEntity.ok().eTag(etag(modifiedTransaction)).body(modifiedTransaction)
+                : ResponseEntity.notFound().build();
     }
 
-    @GetMapping
-    @Operation(summary = "Query Transaction List", description = "Query transaction records in pages")
+    static String etag(Transaction transaction) {
+        return "\"" + transaction.getVersion() + "\"";
+    }
+
+    // Accepts * or a single strong ETag. Weak or malformed tags can never match under the strong
+    // comparison If-Match requires.
+    static long parseIfMatch(String ifMatch) {
+        String value = ifMatch.trim();
+        if (value.equals("*")) {
+            return TransactionService.ANY_VERSION;
+        }
+        if (value.length() < 3 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            return UNMATCHABLE;
+        }
+        try {
+            long version = Long.parseLong(value.substring(1, value.length() - 1));
+            return version >= 0 ? version : UNMATCHABLE;
+        } catch (NumberFormatException e) {
+            return UNMATCHABLE;
+        }
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Create Transactions in Batch", description = "Create many transaction records in one call")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Per-item results in request order"),
+        @ApiResponse(responseCode = "400", description = "Empty batch or more than " + MAX_BATCH_SIZE + " items")
+    })
+    public ResponseEntity<List<BatchItemResult>> createTransactions(@RequestBody List<Transaction> transactions) {
+        if (transactions.isEmpty() || transactions.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(transactionService.createTransactions(transactions));
+    }
+
+    @PutMapping("/batch")
+    @Operation(summary = "Modify Transactions in Batch", description = "Modify many transaction records, identified by their IDs, in one call")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Per-item results in request order"),
+        @ApiResponse(responseCode = "400", description = "Empty batch or more than " + MAX_BATCH_SIZE + " items")
+    })
+    public ResponseEntity<List<BatchItemResult>> modifyTransactions(@RequestBody List<Transaction> transactions) {
+        if (transactions.isEmpty() || transactions.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(transactionService.modifyTransactions(transactions));
+    }
+
+    @DeleteMapping("/batch")
+    @Operation(summary = "Delete Transactions in Batch", description = "Delete many transaction records by ID in one call")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Per-item results in request order"),
+        @ApiResponse(responseCode = "400", description = "Empty batch or more than " + MAX_BATCH_SIZE + " items")
+    })
+    public ResponseEntity<List<BatchItemResult>> deleteTransactions(@RequestBody List<String> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(transactionService.deleteTransactions(ids));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @Operation(summary = "Query Transaction List", description = "Query transaction records in pages, "
+            + "ordered by ID, or by amount when an amount range or sort=amount is given. "
+            + "Served as JSON, or as CBOR for Accept: application/cbor")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved transaction list", 
-                    content = @Content(schema = @Schema(implementation = Map.class)))
+                    content = @Content(schema = @Schema(implementation = TransactionListResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown sort or malformed cursor")
     })
-    public ResponseEntity<Map<String, Object>> listTransactions(
+    public ResponseEntity<?> listTransactions(
             @Parameter(description = "Page number (starting from 0)") 
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") 
-            @RequestParam(defaultValue = "10") int size) {
-        List<Transaction> transactions = transactionService.listTransactions(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Only transactions with at least this amount")
+            @RequestParam(required = false) Double minAmount,
+            @Parameter(description = "Only transactions with at most this amount")
+            @RequestParam(required = false) Double maxAmount,
+            @Parameter(description = "id, amount or -amount (descending); amount ranges default to amount")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "nextCursor of the previous amount-ordered page, instead of page")
+            @RequestParam(required = false) String cursor) {
+        if (minAmount != null || maxAmount != null || cursor != null || (sort != null && !sort.equals(SORT_BY_ID))) {
+            return listTransactionsByAmount(page, size, minAmount, maxAmount, sort, cursor);
+        }
+        // Cached pages carry their encoded transactions, so the converter only adds the totals
+        ListPage transactions = transactionService.listTransactionPage(page, size);
         long total = transactionService.getTotalTransactions();
-        
+        return ResponseEntity.ok(new TransactionListResponse(transactions, page, total, (total + size - 1) / size));
+    }
+
+    private ResponseEntity<Map<String, Object>> listTransactionsByAmount(int page, int size, Double minAmount,
+                                                                         Double maxAmount, String sort, String cursor) {
+        boolean descending;
+        if (sort == null || sort.equals(SORT_BY_AMOUNT)) {
+            descending = false;
+        } else if (sort.equals("-" + SORT_BY_AMOUNT)) {
+            descending = true;
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        double min = minAmount != null ? minAmount : Double.NEGATIVE_INFINITY;
+        double max = maxAmount != null ? maxAmount : Double.POSITIVE_INFINITY;
+
+        // Cursor pages carry no total: counting the range would cost more than the page
+        List<Transaction> transactions;
+        TransactionService.SearchPage results = null;
+        if (cursor != null) {
+            int separator = cursor.indexOf(AMOUNT_CURSOR_SEPARATOR);
+            double afterAmount;
+            try {
+                afterAmount = separator > 0 ? Double.parseDouble(cursor.substring(0, separator)) : Double.NaN;
+            } catch (NumberFormatException e) {
+                afterAmount = Double.NaN;
+            }
+            if (Double.isNaN(afterAmount)) {
+                return ResponseEntity.badRequest().build();
+            }
+            transactions = transactionService.listTransactionsByAmountAfter(min, max, descending, afterAmount,
+                    cursor.substring(separator + 1), size);
+        } else {
+            results = transactionService.listTransactionsByAmount(min, max, descending, page, size);
+            transactions = results.transactions();
+        }
+        String nextCursor = transactions.size() == size && !transactions.isEmpty()
+                ? amountCursor(transactions.get(transactions.size() - 1))
+                : null;
+
         Map<String, Object> response = new HashMap<>();
         response.put("transactions", transactions);
+        response.put("nextCursor", nextCursor);
+        if (results != null) {
+            response.put("currentPage", page);
+            response.put("totalItems", results.totalMatches());
+            response.put("totalPages", size > 0 ? (results.totalMatches() + size - 1) / size : 0);
+            response.put("totalApproximate", results.totalApproximate());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    // Amount and id of the last row; the amount never contains the separator, the id may
+    static String amountCursor(Transaction transaction) {
+        return transaction.getAmount() + AMOUNT_CURSOR_SEPARATOR + transaction.getId();
+    }
+
+    @GetMapping(params = "after")
+    @Operation(summary = "Query Transaction List by Cursor",
+            description = "Query transaction records ordered by ID, starting after the given cursor")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved transaction list",
+                    content = @Content(schema = @Schema(implementation = Map.class)))
+    })
+    public ResponseEntity<Map<String, Object>> listTransactionsAfter(
+            @Parameter(description = "Return transactions whose ID sorts after this cursor")
+            @RequestParam String after,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "10") int size) {
+        List<Transaction> transactions = transactionService.listTransactionsAfter(after, size);
+        String nextCursor = transactions.size() == size && !transactions.isEmpty()
+                ? transactions.get(transactions.size() - 1).getId()
+                : null;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("transactions", transactions);
+        response.put("nextCursor", nextCursor);
+        response.put("totalItems", transactionService.getTotalTransactions());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search Transactions",
+            description = "Find transactions whose description contains every query word, or a word starting with it, ranked by relevance")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully searched transactions",
+                    content = @Content(schema = @Schema(implementation = Map.class))),
+        @ApiResponse(responseCode = "400", description = "Empty query, or page beyond the first " + MAX_SEARCH_WINDOW + " hits")
+    })
+    public ResponseEntity<Map<String, Object>> searchTransactions(
+            @Parameter(description = "Words to search for in descriptions", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Page number (starting from 0)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "10") int size) {
+        if (q.isBlank() || page < 0 || size <= 0 || (long) (page + 1) * size > MAX_SEARCH_WINDOW) {
+            return ResponseEntity.badRequest().build();
+        }
+        TransactionService.SearchPage results = transactionService.searchTransactions(q, page, size);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("transactions", results.transactions());
         response.put("currentPage", page);
-        response.put("totalItems", total);
-        response.put("totalPages", (total + size - 1) / size);
-        
+        response.put("totalItems", results.totalMatches());
+        response.put("totalPages", (results.totalMatches() + size - 1) / size);
+
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Transaction Statistics",
+            description = "Count, sum, mean, min/max, percentiles and a mergeable histogram of amounts, maintained on every write")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics",
+                    content = @Content(schema = @Schema(implementation = TransactionStatistics.Snapshot.class)))
+    })
+    public TransactionStatistics.Snapshot getStatistics() {
+        return transactionService.getStatistics();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export Transactions",
+            description = "Stream every transaction as newline-delimited JSON in ID order, gzip-compressed if the client accepts it")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "One transaction per line"),
+        @ApiResponse(responseCode = "429", description = "Too many requests in flight")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        TransactionService.Export export = transactionService.exportTransactions();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = gzip
+                ? out -> {
+                    try (GZIPOutputStream compressed = new GZIPOutputStream(out, EXPORT_GZIP_BUFFER)) {
+                        export.writeTo(compressed);
+                    }
+                }
+                : export::writeTo;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // Gzip only if it is acceptable, named or through *, with q > 0, and the client doesn't rank
+    // an uncompressed response above it. Without the header the response is left uncompressed.
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double identity = -1;
+        double any = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (parts[0].trim().toLowerCase(Locale.ROOT)) {
+                case "gzip", "x-gzip" -> gzip = Math.max(gzip, q);
+                case "identity" -> identity = q;
+                case "*" -> any = q;
+                default -> {
+                }
+            }
+        }
+        double gzipQuality = gzip >= 0 ? gzip : any;
+        return gzipQuality > 0 && gzipQuality >= identity;
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow Changes",
+            description = "Server-Sent Events stream of every create, modify and delete in order, each event's id being its sequence number. "
+                    + "A reset event means changes were missed: reload, then keep following")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream of change and reset events",
+                    content = @Content(schema = @Schema(implementation = ChangeEvent.class))),
+        @ApiResponse(responseCode = "429", description = "Too many open change streams")
+    })
+    public SseEmitter streamChanges(
+            @Parameter(description = "Sequence number of the last change already seen; new changes only if absent")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Sent by reconnecting EventSource clients; used when after is absent")
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        if (after == null && lastEventId != null) {
+            try {
+                after = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // Not one of ours, so the client can't have followed this feed
+                after = UNKNOWN_SEQUENCE;
+            }
+        }
+        return changeStreams.subscribe(after);
+    }
+
+    @GetMapping("/cache-stats")
+    @Operation(summary = "List Cache Statistics", description = "Report hit/miss counts and hit ratio of the list page cache")
+    public TransactionPageCache.PageCacheStats getListCacheStats() {
+        return transactionService.getListCacheStats();
+    }
 }
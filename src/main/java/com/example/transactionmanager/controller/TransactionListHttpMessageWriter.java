@@ -0,0 +1,57 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.cache.PageEncoder;
+import com.example.transactionmanager.cache.PageFormat;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.HttpMessageWriter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The reactive stack's counterpart of {@link TransactionListMessageConverter}: writes the same
+ * envelope around the page's cached encoding, as three buffers that wrap the bytes without copying.
+ */
+public class TransactionListHttpMessageWriter implements HttpMessageWriter<TransactionListResponse> {
+    private static final List<MediaType> MEDIA_TYPES = List.of(PageFormat.JSON.mediaType(), PageFormat.CBOR.mediaType());
+
+    private final PageEncoder encoder;
+
+    public TransactionListHttpMessageWriter(PageEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return TransactionListResponse.class.isAssignableFrom(elementType.toClass())
+                && (mediaType == null || MEDIA_TYPES.stream().anyMatch(mediaType::isCompatibleWith));
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<? extends TransactionListResponse> inputStream, ResolvableType elementType,
+                            MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        return Mono.from(inputStream).flatMap(response -> {
+            // Without a concrete type negotiated, JSON as on the servlet stack
+            PageFormat format = mediaType != null && mediaType.isConcrete()
+                    ? TransactionListMessageConverter.formatFor(mediaType) : PageFormat.JSON;
+            byte[] prefix = TransactionListMessageConverter.prefix(format);
+            byte[] transactions = response.page().encoded(format, encoder);
+            byte[] suffix = TransactionListMessageConverter.suffix(response, format);
+            message.getHeaders().setContentType(format.mediaType());
+            message.getHeaders().setContentLength(prefix.length + transactions.length + suffix.length);
+            DataBufferFactory buffers = message.bufferFactory();
+            return message.writeWith(Flux.just(buffers.wrap(prefix), buffers.wrap(transactions), buffers.wrap(suffix)));
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.cache.PageEncoder;
+import com.example.transactionmanager.cache.PageFormat;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes list pages as JSON or CBOR by copying the page's cached encoding of its transactions
+ * between a few bytes of envelope, so only the totals are encoded per request. The output is
+ * what Jackson would write for {@link TransactionListResponse}.
+ */
+public class TransactionListMessageConverter extends AbstractHttpMessageConverter<TransactionListResponse> {
+    private static final String[] FIELDS = {"transactions", "currentPage", "totalItems", "totalPages"};
+
+    // CBOR major types
+    private static final int CBOR_UNSIGNED = 0;
+    private static final int CBOR_TEXT = 3;
+    private static final int CBOR_MAP = 5;
+
+    private final PageEncoder encoder;
+
+    public TransactionListMessageConverter(PageEncoder encoder) {
+        super(PageFormat.JSON.mediaType(), PageFormat.CBOR.mediaType());
+        this.encoder = encoder;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TransactionListResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TransactionListResponse readInternal(Class<? extends TransactionListResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("List pages are only written", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(TransactionListResponse response, MediaType contentType) {
+        return (long) envelopeLength(response, formatFor(contentType));
+    }
+
+    @Override
+    protected void writeInternal(TransactionListResponse response, HttpOutputMessage outputMessage) throws IOException {
+        PageFormat format = formatFor(outputMessage.getHeaders().getContentType());
+        OutputStream out = outputMessage.getBody();
+        out.write(prefix(format));
+        out.write(response.page().encoded(format, encoder));
+        out.write(suffix(response, format));
+    }
+
+    static PageFormat formatFor(MediaType contentType) {
+        return contentType != null && PageFormat.CBOR.mediaType().isCompatibleWith(contentType)
+                ? PageFormat.CBOR : PageFormat.JSON;
+    }
+
+    private int envelopeLength(TransactionListResponse response, PageFormat format) {
+        return prefix(format).length + response.page().encoded(format, encoder).length + suffix(response, format).length;
+    }
+
+    // The envelope around the transactions, shared with the reactive stack's writer
+    static byte[] prefix(PageFormat format) {
+        return format == PageFormat.CBOR ? CborEnvelope.PREFIX : JsonEnvelope.PREFIX;
+    }
+
+    static byte[] suffix(TransactionListResponse response, PageFormat format) {
+        if (format == PageFormat.JSON) {
+            return (",\"" + FIELDS[1] + "\":" + response.currentPage()
+                    + ",\"" + FIELDS[2] + "\":" + response.totalItems()
+                    + ",\"" + FIELDS[3] + "\":" + response.totalPages() + "}").getBytes(StandardCharsets.US_ASCII);
+        }
+        ByteArrayOutputStream suffix = new ByteArrayOutputStream(64);
+        CborEnvelope.writeText(suffix, FIELDS[1]);
+        CborEnvelope.writeHead(suffix, CBOR_UNSIGNED, response.currentPage());
+        CborEnvelope.writeText(suffix, FIELDS[2]);
+        CborEnvelope.writeHead(suffix, CBOR_UNSIGNED, response.totalItems());
+        CborEnvelope.writeText(suffix, FIELDS[3]);
+        CborEnvelope.writeHead(suffix, CBOR_UNSIGNED, response.totalPages());
+        return suffix.toByteArray();
+    }
+
+    private static final class JsonEnvelope {
+        static final byte[] PREFIX = ("{\"" + FIELDS[0] + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // A definite-length map of the four fields, with the transactions first
+    private static final class CborEnvelope {
+        static final byte[] PREFIX;
+
+        static {
+            ByteArrayOutputStream prefix = new ByteArrayOutputStream();
+            writeHead(prefix, CBOR_MAP, FIELDS.length);
+            writeText(prefix, FIELDS[0]);
+            PREFIX = prefix.toByteArray();
+        }
+
+        static void writeText(ByteArrayOutputStream out, String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeHead(out, CBOR_TEXT, bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        // The type and argument of a data item in the shortest form, as RFC 8949 section 3 lays out
+        static void writeHead(ByteArrayOutputStream out, int majorType, long value) {
+            int type = majorType << 5;
+            if (value < 24) {
+                out.write(type | (int) value);
+            } else if (value < 1L << 8) {
+                out.write(type | 24);
+                out.write((int) value);
+            } else if (value < 1L << 16) {
+                out.write(type | 25);
+                writeBigEndian(out, value, 2);
+            } else if (value < 1L << 32) {
+                out.write(type | 26);
+                writeBigEndian(out, value, 4);
+            } else {
+                out.write(type | 27);
+                writeBigEndian(out, value, 8);
+            }
+        }
+
+        private static void writeBigEndian(ByteArrayOutputStream out, long value, int bytes) {
+            for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift) & 0xFF);
+            }
+        }
+    }
+}
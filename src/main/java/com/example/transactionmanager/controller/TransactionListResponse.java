@@ -0,0 +1,22 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.cache.ListPage;
+import com.example.transactionmanager.model.Transaction;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * Body of an offset list page. {@link TransactionListMessageConverter} writes it from the page's
+ * cached encoding; any other converter maps it to the same fields.
+ */
+@JsonPropertyOrder({"transactions", "currentPage", "totalItems", "totalPages"})
+public record TransactionListResponse(@JsonIgnore ListPage page, int currentPage, long totalItems, long totalPages) {
+
+    @JsonProperty
+    public List<Transaction> transactions() {
+        return page.items();
+    }
+}
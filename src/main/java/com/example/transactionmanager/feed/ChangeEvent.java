@@ -0,0 +1,19 @@
+package com.example.transactionmanager.feed;
+
+import com.example.transactionmanager.model.Transaction;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "One change to a transaction, as sent on the change feed")
+public record ChangeEvent(
+        @Schema(description = "Position in the feed; each change is one higher than the one before", example = "1718000000000042")
+        long sequence,
+        @Schema(description = "Kind of change", example = "UPDATED") Type type,
+        @Schema(description = "Transaction ID", example = "1234-5678-90ab-cdef") String id,
+        @Schema(description = "The transaction after the change, or as it was when deleted") Transaction transaction) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
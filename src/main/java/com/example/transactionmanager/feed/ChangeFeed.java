@@ -0,0 +1,214 @@
+package com.example.transactionmanager.feed;
+
+import com.example.transactionmanager.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ordered log of the most recent changes, shared by every subscriber. Writers publish from inside
+ * the key's critical section, so the feed order is the order changes were applied and each id's
+ * events appear in version order.
+ *
+ * Events live in a ring indexed by sequence number. Publishing takes a sequence number and fills
+ * its slot without locking; readers follow with their own cursors and find out they fell too far
+ * behind when the slot they want holds a later event. Sequence numbers start from the startup time
+ * in microseconds, so a cursor from an earlier run is always out of range rather than pointing at
+ * unrelated events.
+ *
+ * Waiting readers are woken by a single notifier thread, so a burst of writes costs one wake-up per
+ * reader instead of one per write, and writers don't touch the wait lock at all.
+ */
+public class ChangeFeed implements MeterBinder {
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final long firstSequence;
+    private final AtomicLong lastSequence;
+
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition published = waitLock.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private volatile Thread notifier;
+    private volatile boolean closed;
+
+    public ChangeFeed(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.firstSequence = System.currentTimeMillis() * 1000;
+        this.lastSequence = new AtomicLong(firstSequence - 1);
+    }
+
+    /**
+     * Records the change from {@code previous} to {@code current}, either of which may be null.
+     */
+    public void publish(String id, Transaction previous, Transaction current) {
+        ChangeEvent.Type type = previous == null ? ChangeEvent.Type.CREATED
+                : current == null ? ChangeEvent.Type.DELETED : ChangeEvent.Type.UPDATED;
+        long sequence = lastSequence.incrementAndGet();
+        slots.set((int) sequence & mask, new Entry(new ChangeEvent(sequence, type, id, current != null ? current : previous)));
+        if (waiting.get() > 0 && wakeupPending.compareAndSet(false, true)) {
+            LockSupport.unpark(notifier);
+        }
+    }
+
+    public long lastSequence() {
+        return lastSequence.get();
+    }
+
+    public long oldestSequence() {
+        return Math.max(firstSequence, lastSequence.get() - mask);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds up to {@code max} consecutive events starting at {@code from} and returns how many were
+     * added: fewer than asked, possibly none, once it reaches the newest published event. Returns
+     * -1 if {@code from} is no longer in the ring.
+     */
+    public int read(long from, int max, List<Entry> out) {
+        if (from < firstSequence) {
+            return -1;
+        }
+        int read = 0;
+        for (long sequence = from; read < max; sequence++) {
+            Entry entry = slots.get((int) sequence & mask);
+            if (entry == null || entry.event.sequence() < sequence) {
+                // Not published yet, or taken but not yet filled in by its writer
+                break;
+            }
+            if (entry.event.sequence() > sequence) {
+                return read > 0 ? read : -1;
+            }
+            out.add(entry);
+            read++;
+        }
+        return read;
+    }
+
+    /**
+     * Waits until the event at {@code sequence} has been published, or the timeout passes.
+     */
+    public boolean awaitPublished(long sequence, Duration timeout) throws InterruptedException {
+        startNotifier();
+        long remaining = timeout.toNanos();
+        waiting.incrementAndGet();
+        waitLock.lock();
+        try {
+            // The notifier signals under this lock, so a publish after this check wakes us
+            while (!isPublished(sequence) && remaining > 0 && !closed) {
+                remaining = published.awaitNanos(remaining);
+            }
+            return isPublished(sequence);
+        } finally {
+            waitLock.unlock();
+            waiting.decrementAndGet();
+        }
+    }
+
+    private boolean isPublished(long sequence) {
+        Entry entry = slots.get((int) sequence & mask);
+        return entry != null && entry.event.sequence() >= sequence;
+    }
+
+    private void startNotifier() {
+        if (notifier == null) {
+            synchronized (this) {
+                if (notifier == null && !closed) {
+                    Thread thread = new Thread(this::notifyWaiters, "change-feed-notifier");
+                    thread.setDaemon(true);
+                    thread.start();
+                    notifier = thread;
+                }
+            }
+        }
+    }
+
+    private void notifyWaiters() {
+        while (!closed) {
+            // A publish before the park leaves a permit, so it returns at once
+            LockSupport.park(this);
+            wakeupPending.set(false);
+            if (waiting.get() > 0) {
+                waitLock.lock();
+                try {
+                    published.signalAll();
+                } finally {
+                    waitLock.unlock();
+                }
+            }
+        }
+    }
+
+    public void close() {
+        closed = true;
+        Thread thread = notifier;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        waitLock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("transactions.feed.events", this, feed -> feed.lastSequence() - feed.firstSequence + 1)
+                .description("Changes published to the change feed")
+                .register(registry);
+    }
+
+    /**
+     * A published event with its Server-Sent Events frame, serialized once for all subscribers.
+     */
+    public static final class Entry {
+        private static final ObjectWriter EVENT_WRITER = new ObjectMapper().writerFor(ChangeEvent.class);
+
+        private final ChangeEvent event;
+        private volatile String frame;
+
+        Entry(ChangeEvent event) {
+            this.event = event;
+        }
+
+        public ChangeEvent event() {
+            return event;
+        }
+
+        public String frame() {
+            String result = frame;
+            if (result == null) {
+                try {
+                    result = "id: " + event.sequence() + "\nevent: change\ndata: " + EVENT_WRITER.writeValueAsString(event) + "\n\n";
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                frame = result;
+            }
+            return result;
+        }
+    }
+}
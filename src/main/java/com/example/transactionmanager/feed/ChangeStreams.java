@@ -0,0 +1,261 @@
+package com.example.transactionmanager.feed;
+
+import com.example.transactionmanager.admission.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams the change feed to Server-Sent Events subscribers, through an {@link SseEmitter} on the
+ * servlet stack or a {@link Flux} on the reactive one. Each subscriber gets a virtual thread
+ * that follows the shared ring with its own cursor, so a subscriber costs a cursor and a blocked
+ * thread rather than a copy of every event. Whatever has been published since its last write goes
+ * out in one chunk with one flush.
+ *
+ * A subscriber more than {@code subscriber-buffer} changes behind the newest is a slow consumer:
+ * its stream is closed, or it is sent a {@code reset} event and moved to the newest change,
+ * depending on {@code slow-consumer}. Either way it never holds back writers or other subscribers.
+ */
+public class ChangeStreams implements MeterBinder {
+    // Upper bound on events written and flushed together
+    static final int MAX_EVENTS_PER_WRITE = 256;
+    private static final Duration REJECTED_RETRY_AFTER = Duration.ofSeconds(5);
+    private static final MediaType FRAME_TYPE = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private final ChangeFeed feed;
+    private final FeedProperties properties;
+    private final long maxLag;
+    private final ExecutorService streams = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("change-stream-", 0).factory());
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final LongAdder slowConsumers = new LongAdder();
+
+    public ChangeStreams(ChangeFeed feed, FeedProperties properties) {
+        this.feed = feed;
+        this.properties = properties;
+        // The ring can't hold more than its capacity, whatever the configured buffer
+        this.maxLag = Math.min(properties.getSubscriberBuffer(), feed.capacity());
+    }
+
+    /**
+     * Opens a stream of the changes after {@code after}, or of new changes only if it is null. A
+     * position that is no longer held, too far behind, or not from this feed, starts with a
+     * {@code reset} event.
+     *
+     * @throws ServiceOverloadedException if {@code max-subscribers} streams are already open
+     */
+    public SseEmitter subscribe(Long after) {
+        admit();
+        SseEmitter emitter = new SseEmitter();
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+        start(new FrameSink() {
+            @Override
+            public void send(String frames) throws IOException {
+                emitter.send(Set.of(new ResponseBodyEmitter.DataWithMediaType(frames, FRAME_TYPE)));
+            }
+
+            @Override
+            public void complete() {
+                emitter.complete();
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open.get();
+            }
+        }, after);
+        return emitter;
+    }
+
+    /**
+     * The same stream as {@link #subscribe} for non-blocking servers, as Server-Sent Events
+     * frames. The stream opens when the flux is subscribed, and fails with
+     * {@link ServiceOverloadedException} if {@code max-subscribers} streams are already open. Its
+     * thread waits for demand before each write, so a client that stops reading falls behind the
+     * feed like any other slow consumer.
+     */
+    public Flux<String> frames(Long after) {
+        return Flux.create(sink -> {
+            try {
+                admit();
+            } catch (ServiceOverloadedException e) {
+                sink.error(e);
+                return;
+            }
+            start(new DemandSink(sink), after);
+        });
+    }
+
+    private void admit() {
+        if (subscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw new ServiceOverloadedException("Too many change feed subscribers", REJECTED_RETRY_AFTER);
+        }
+    }
+
+    private void start(FrameSink sink, Long after) {
+        long last = feed.lastSequence();
+        // A reconnecting slow consumer is still too far behind, so it starts over as well
+        boolean inRange = after == null
+                || (after >= Math.max(feed.oldestSequence() - 1, last - maxLag) && after <= last);
+        long next = after == null || !inRange ? last + 1 : after + 1;
+        try {
+            streams.execute(() -> stream(sink, next, !inRange));
+        } catch (RuntimeException e) {
+            subscribers.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void stream(FrameSink sink, long next, boolean reset) {
+        List<ChangeFeed.Entry> batch = new ArrayList<>(MAX_EVENTS_PER_WRITE);
+        StringBuilder chunk = new StringBuilder();
+        try {
+            if (reset) {
+                sink.send(reset(next - 1));
+            } else {
+                // Sends the headers now rather than with the first change
+                sink.send(": subscribed\n\n");
+            }
+            while (sink.isOpen()) {
+                batch.clear();
+                int read = feed.lastSequence() - next >= maxLag ? -1 : feed.read(next, MAX_EVENTS_PER_WRITE, batch);
+                if (read < 0) {
+                    slowConsumers.increment();
+                    if (properties.getSlowConsumer() == FeedProperties.SlowConsumerPolicy.DISCONNECT) {
+                        sink.complete();
+                        return;
+                    }
+                    long last = feed.lastSequence();
+                    sink.send(reset(last));
+                    next = last + 1;
+                    continue;
+                }
+                if (read == 0) {
+                    if (!feed.awaitPublished(next, properties.getHeartbeat())) {
+                        sink.send(": heartbeat\n\n");
+                    }
+                    continue;
+                }
+                chunk.setLength(0);
+                for (ChangeFeed.Entry entry : batch) {
+                    chunk.append(entry.frame());
+                }
+                sink.send(chunk.toString());
+                next += read;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the stream was closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    // Tells the client to reload its state; its next change follows this sequence number
+    private static String reset(long sequence) {
+        return "id: " + sequence + "\nevent: reset\ndata: {\"sequence\":" + sequence + "}\n\n";
+    }
+
+    public void close() {
+        streams.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transactions.feed.subscribers", subscribers, AtomicInteger::get)
+                .description("Open change feed streams")
+                .register(registry);
+        FunctionCounter.builder("transactions.feed.slow.consumers", slowConsumers, LongAdder::sum)
+                .description("Times a subscriber fell too far behind and was disconnected or reset")
+                .register(registry);
+    }
+
+    // Where a subscriber's frames go: a servlet emitter or a reactive sink
+    private interface FrameSink {
+
+        void send(String frames) throws IOException;
+
+        void complete();
+
+        boolean isOpen();
+    }
+
+    private static final class DemandSink implements FrameSink {
+        private final FluxSink<String> sink;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition demand = lock.newCondition();
+        private volatile boolean open = true;
+
+        DemandSink(FluxSink<String> sink) {
+            this.sink = sink;
+            sink.onRequest(requested -> signal());
+            sink.onDispose(() -> {
+                open = false;
+                signal();
+            });
+        }
+
+        @Override
+        public void send(String frames) throws IOException {
+            lock.lock();
+            try {
+                while (open && sink.requestedFromDownstream() == 0) {
+                    demand.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for demand", e);
+            } finally {
+                lock.unlock();
+            }
+            if (!open) {
+                throw new IOException("Stream closed");
+            }
+            sink.next(frames);
+        }
+
+        @Override
+        public void complete() {
+            sink.complete();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        private void signal() {
+            lock.lock();
+            try {
+                demand.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
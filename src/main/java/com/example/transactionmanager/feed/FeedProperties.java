@@ -0,0 +1,70 @@
+package com.example.transactionmanager.feed;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "transactionmanager.feed")
+public class FeedProperties {
+
+    public enum SlowConsumerPolicy {
+        // Close the stream; the client reconnects with Last-Event-ID and resumes if still in range
+        DISCONNECT,
+        // Send a reset event and continue from the latest change
+        SKIP
+    }
+
+    // Recent changes kept for resuming subscribers; rounded up to a power of two
+    private int capacity = 65536;
+
+    // How many changes a subscriber may fall behind before the slow consumer policy applies
+    private int subscriberBuffer = 10000;
+
+    private SlowConsumerPolicy slowConsumer = SlowConsumerPolicy.DISCONNECT;
+
+    // Comment sent on an idle stream, so proxies keep it open and dead clients are noticed
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    // Open streams beyond this are rejected with 429
+    private int maxSubscribers = 10000;
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getSubscriberBuffer() {
+        return subscriberBuffer;
+    }
+
+    public void setSubscriberBuffer(int subscriberBuffer) {
+        this.subscriberBuffer = subscriberBuffer;
+    }
+
+    public SlowConsumerPolicy getSlowConsumer() {
+        return slowConsumer;
+    }
+
+    public void setSlowConsumer(SlowConsumerPolicy slowConsumer) {
+        this.slowConsumer = slowConsumer;
+    }
+
+    public Duration getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void setHeartbeat(Duration heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+}
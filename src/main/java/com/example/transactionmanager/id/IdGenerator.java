@@ -0,0 +1,14 @@
+package com.example.transactionmanager.id;
+
+import java.util.UUID;
+
+/**
+ * Source of ids for transactions created without one.
+ */
+public interface IdGenerator {
+
+    // Random UUIDs, as ids were generated before time-ordered ids
+    IdGenerator RANDOM_UUID = () -> UUID.randomUUID().toString();
+
+    String nextId();
+}
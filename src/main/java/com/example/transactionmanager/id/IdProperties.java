@@ -0,0 +1,35 @@
+package com.example.transactionmanager.id;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "transactionmanager.ids")
+public class IdProperties {
+
+    public enum Generator {
+        // ULID-style ids that sort in creation order
+        TIME_ORDERED,
+        // Random UUIDs
+        UUID
+    }
+
+    private Generator generator = Generator.TIME_ORDERED;
+
+    // 16-bit node part of time-ordered ids; derived from the cluster node id, or random, when unset
+    private Integer node;
+
+    public Generator getGenerator() {
+        return generator;
+    }
+
+    public void setGenerator(Generator generator) {
+        this.generator = generator;
+    }
+
+    public Integer getNode() {
+        return node;
+    }
+
+    public void setNode(Integer node) {
+        this.node = node;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.transactionmanager.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ULID-compatible ids that sort in creation order. The 128 bits are:
+ * <pre>
+ * 48 bits  milliseconds since the epoch
+ * 16 bits  sequence within the millisecond
+ * 16 bits  node
+ * 48 bits  random
+ * </pre>
+ * The time and sequence come from one atomic counter that never goes backwards: each id takes
+ * the current millisecond with sequence 0 or, if that was already used, the previous value plus
+ * one. More than 65536 ids in a millisecond borrow from the next one, so generation never waits
+ * and order is kept even when the clock steps back. There is no lock and no shared random source,
+ * unlike {@link java.util.UUID#randomUUID()}, whose SecureRandom serializes concurrent callers.
+ *
+ * The node keeps ids from different cluster nodes apart, and the random bits keep them unique
+ * across restarts if the clock has moved backwards in between.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+    static final int SEQUENCE_BITS = 16;
+    static final int NODE_BITS = 16;
+    private static final int RANDOM_BITS = 64 - NODE_BITS;
+
+    private final long nodeBits;
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    // A random node, for a single instance or one whose node isn't configured
+    public TimeOrderedIdGenerator() {
+        this(ThreadLocalRandom.current().nextInt(1 << NODE_BITS));
+    }
+
+    public TimeOrderedIdGenerator(int node) {
+        if (node < 0 || node >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("Id generator node must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+        this.nodeBits = (long) node << RANDOM_BITS;
+    }
+
+    @Override
+    public String nextId() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        long timeAndSequence = lastTimeAndSequence.accumulateAndGet(now, (last, next) -> Math.max(last + 1, next));
+        long random = ThreadLocalRandom.current().nextLong() >>> NODE_BITS;
+        return Ulid.format(timeAndSequence, nodeBits | random);
+    }
+
+    // Milliseconds since the epoch encoded in an id from this generator
+    static long timestampOf(String id) {
+        return Ulid.mostSignificantBits(id) >>> SEQUENCE_BITS;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.transactionmanager.id;
+
+/**
+ * The 26-character ULID text form of a 128-bit id: Crockford base32, most significant bits first,
+ * so ids of the same length sort as text in the same order as their bits.
+ */
+public final class Ulid {
+    public static final int LENGTH = 26;
+    private static final char[] DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        java.util.Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            VALUES[DIGITS[i]] = (byte) i;
+        }
+    }
+
+    private Ulid() {
+    }
+
+    public static String format(long msb, long lsb) {
+        char[] text = new char[LENGTH];
+        // 130 bits of text for 128 bits of id: the first digit carries only the top 3 bits
+        text[0] = DIGITS[(int) (msb >>> 61)];
+        for (int i = 1; i < LENGTH; i++) {
+            text[i] = DIGITS[digitAt(msb, lsb, i)];
+        }
+        return new String(text);
+    }
+
+    // Digit i holds bits 125 - 5i up to 129 - 5i, counting from bit 0 as the lowest of the lsb
+    private static int digitAt(long msb, long lsb, int i) {
+        int shift = 128 - 3 - 5 * i;
+        if (shift >= 64) {
+            return (int) (msb >>> (shift - 64)) & 31;
+        }
+        if (shift > 59) {
+            return (int) ((msb << (64 - shift)) | (lsb >>> shift)) & 31;
+        }
+        return (int) (lsb >>> shift) & 31;
+    }
+
+    /**
+     * True only for the exact form {@link #format} produces, so parsing and formatting again
+     * gives back the same string.
+     */
+    public static boolean isCanonical(String id) {
+        if (id.length() != LENGTH || id.charAt(0) > '7') {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = id.charAt(i);
+            if (c >= 128 || VALUES[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static long mostSignificantBits(String id) {
+        long msb = 0;
+        // 3 + 12 * 5 = 63 bits from the first 13 digits, then the top bit of the 14th
+        for (int i = 0; i < 13; i++) {
+            msb = (msb << (i == 0 ? 3 : 5)) | VALUES[id.charAt(i)];
+        }
+        return (msb << 1) | (VALUES[id.charAt(13)] >>> 4);
+    }
+
+    public static long leastSignificantBits(String id) {
+        // The low 4 bits of the 14th digit, then 12 digits of 5 bits
+        long lsb = VALUES[id.charAt(13)] & 15;
+        for (int i = 14; i < LENGTH; i++) {
+            lsb = (lsb << 5) | VALUES[id.charAt(i)];
+        }
+        return lsb;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.transactionmanager.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Responses by idempotency key, bounded in bytes and expiring a fixed time after they were first
+ * stored. The first request with a key claims it and executes; requests with the same key that
+ * arrive while it runs wait for its response instead of executing again, and later ones get the
+ * stored response. A response that is not worth keeping (the request can be retried safely)
+ * releases the key, and anyone waiting on it tries again.
+ *
+ * Keys whose request is still running are held apart from the stored responses and never
+ * evicted, so byte pressure can't free a key while its first request executes and let a retry
+ * run it again. There are at most as many of them as requests in flight.
+ */
+public class IdempotencyCache implements MeterBinder {
+    // Rough per-entry cost beyond the key and body: the entry, future, header map and cache node
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    // Completed entries only; claims move here when their response is stored
+    private final Cache<String, Entry> entries;
+    private final ConcurrentHashMap<String, Entry> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentStatsCounter stats = new ConcurrentStatsCounter();
+    private final LongAdder conflicts = new LongAdder();
+
+    public IdempotencyCache(IdempotencyProperties properties) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, Entry entry) -> entry.weight(key))
+                .recordStats(() -> stats)
+                .build();
+    }
+
+    /**
+     * Claims the key for a request with this fingerprint, or finds the entry of the request that
+     * already holds it. The caller executes the request only if the claim is {@link Claim#owner}.
+     */
+    public Claim claim(String key, byte[] fingerprint) {
+        Entry candidate = new Entry(fingerprint);
+        Entry[] found = new Entry[1];
+        // Under the key's lock in inFlight, so a completion can't move the entry in between
+        inFlight.compute(key, (k, running) -> {
+            if (running != null) {
+                // A collapsed duplicate counts as a hit, like a replay
+                stats.recordHits(1);
+                found[0] = running;
+                return running;
+            }
+            Entry stored = entries.getIfPresent(k);
+            found[0] = stored != null ? stored : candidate;
+            return stored != null ? null : candidate;
+        });
+        Entry entry = found[0];
+        return new Claim(key, entry, entry == candidate, Arrays.equals(entry.fingerprint, fingerprint));
+    }
+
+    /**
+     * Stores the owner's response, or releases the key if the response is null.
+     */
+    public void complete(Claim claim, StoredResponse response) {
+        if (response != null) {
+            // Before it moves, so the cache weighs it with its response
+            claim.entry().response.complete(response);
+        }
+        inFlight.computeIfPresent(claim.key(), (key, running) -> {
+            if (running == claim.entry() && response != null) {
+                entries.put(key, running);
+            }
+            return running == claim.entry() ? null : running;
+        });
+        if (response == null) {
+            // Waiters find the key free when they wake
+            claim.entry().response.complete(null);
+        }
+    }
+
+    void recordConflict() {
+        conflicts.increment();
+    }
+
+    public long size() {
+        return entries.estimatedSize() + inFlight.size();
+    }
+
+    // Hits are replays and collapsed concurrent duplicates; misses are first executions
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "idempotencyKeys");
+        FunctionCounter.builder("transactions.idempotency.conflicts", conflicts, LongAdder::sum)
+                .description("Idempotency keys reused with a different request body")
+                .register(registry);
+    }
+
+    /**
+     * A request's hold on a key: either it executes and completes the entry ({@code owner}), or it
+     * waits for the owner's response. {@code sameRequest} is false when the key was first used
+     * with a different request body.
+     */
+    public record Claim(String key, Entry entry, boolean owner, boolean sameRequest) {
+
+        /**
+         * Waits for the owner's response; null if the owner released the key.
+         */
+        public StoredResponse awaitResponse() {
+            return entry.response.join();
+        }
+    }
+
+    public static final class Entry {
+        private final byte[] fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+        private Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private int weight(String key) {
+            StoredResponse stored = response.getNow(null);
+            return ENTRY_OVERHEAD_BYTES + 2 * key.length() + fingerprint.length + (stored != null ? stored.weight() : 0);
+        }
+    }
+
+    /**
+     * A response as it was first sent, to be sent again for replays.
+     */
+    public record StoredResponse(int status, Map<String, List<String>> headers, byte[] body) {
+
+        int weight() {
+            int bytes = body.length;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                bytes += header.getKey().length() * 2;
+                for (String value : header.getValue()) {
+                    bytes += value.length() * 2;
+                }
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.transactionmanager.idempotency;
+
+import com.example.transactionmanager.cluster.PeerClient;
+import com.example.transactionmanager.web.BufferedBodyRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes creates safe to retry: a POST carrying an {@code Idempotency-Key} header executes once,
+ * and every other request with the same key and body gets the first response back, marked with
+ * {@code Idempotent-Replayed: true}. A duplicate that arrives while the first is still running
+ * waits for it rather than executing alongside it.
+ *
+ * Only responses that settle the outcome are kept: 429 and 5xx mean the request did not run, or
+ * may not have, so they release the key and the next retry executes. Reusing a key with a
+ * different body is rejected with 422.
+ *
+ * Requests forwarded by another cluster node were already checked on the node their key hashes
+ * to, so they pass straight through.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Set by the container for each response, so never replayed
+    private static final List<String> UNSTORED_HEADERS = List.of(HttpHeaders.DATE, HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION);
+
+    private final IdempotencyCache cache;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(IdempotencyCache cache, IdempotencyProperties properties, ObjectMapper objectMapper) {
+        this.cache = cache;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY) == null
+                || request.getHeader(PeerClient.FORWARDED_HEADER) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > properties.getMaxKeyLength()) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY + " must be between 1 and " + properties.getMaxKeyLength() + " characters");
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        // Scoped to the endpoint, so the same key on create and batch create doesn't collide
+        String scopedKey = request.getRequestURI() + " " + key;
+        byte[] fingerprint = sha256(body);
+
+        while (true) {
+            IdempotencyCache.Claim claim = cache.claim(scopedKey, fingerprint);
+            if (!claim.sameRequest()) {
+                cache.recordConflict();
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY + " was already used with a different request");
+                return;
+            }
+            if (claim.owner()) {
+                execute(claim, new BufferedBodyRequest(request, body), response, chain);
+                return;
+            }
+            IdempotencyCache.StoredResponse stored = claim.awaitResponse();
+            if (stored != null) {
+                replay(stored, response);
+                return;
+            }
+            // The first attempt didn't settle anything, so try to claim the key again
+        }
+    }
+
+    private void execute(IdempotencyCache.Claim claim, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain chain) throws ServletException, IOException {
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        IdempotencyCache.StoredResponse stored = null;
+        try {
+            chain.doFilter(request, captured);
+            if (isFinal(captured.getStatus())) {
+                stored = new IdempotencyCache.StoredResponse(captured.getStatus(), headers(captured),
+                        captured.getContentAsByteArray());
+            }
+        } finally {
+            // Also releases the key if the chain threw, so waiters don't hang
+            cache.complete(claim, stored);
+        }
+        captured.copyBodyToResponse();
+    }
+
+    // Overload and server errors can be retried, so they don't use up the key
+    private static boolean isFinal(int status) {
+        return status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private static Map<String, List<String>> headers(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            // Content-Type is taken from getContentType below, whether or not it is listed here
+            if (UNSTORED_HEADERS.stream().noneMatch(name::equalsIgnoreCase) && !name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)) {
+                headers.put(name, List.copyOf(response.getHeaders(name)));
+            }
+        }
+        if (response.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(response.getContentType()));
+        }
+        return headers;
+    }
+
+    private static void replay(IdempotencyCache.StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(Map.of("error", message)));
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.transactionmanager.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "transactionmanager.idempotency")
+public class IdempotencyProperties {
+
+    // Honour Idempotency-Key on POST /transactions and POST /transactions/batch
+    private boolean enabled = true;
+
+    // How long a key replays its first response
+    private Duration ttl = Duration.ofHours(24);
+
+    // Upper bound on the stored responses, keys included; least recently used keys go first
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    // Longest key accepted
+    private int maxKeyLength = 255;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxKeyLength() {
+        return maxKeyLength;
+    }
+
+    public void setMaxKeyLength(int maxKeyLength) {
+        this.maxKeyLength = maxKeyLength;
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.transactionmanager.importer;
+
+import com.example.transactionmanager.model.BatchItemResult;
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.service.TransactionService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads a CSV or NDJSON file into the service in parallel. The file is cut into chunks of about
+ * {@code chunk-size} bytes, each ending on a line break, and every chunk is memory-mapped, parsed
+ * and stored as one batch on a fork-join pool. Rows are stored with
+ * {@link TransactionService#beginImport()}, so the list cache is cleared once for the whole file
+ * rather than per row.
+ *
+ * Rows that don't parse or fail validation are skipped and reported by line number; the rest of
+ * the file is still loaded. Rows without an id get a generated one, so loading the same file
+ * twice stores those rows twice.
+ */
+public class BulkImporter {
+    // A chunk is mapped as one buffer, which can't exceed 2 GB; leave room for the line it ends on
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final TransactionService service;
+    private final int parallelism;
+    private final long chunkSize;
+    private final int maxReportedErrors;
+
+    public BulkImporter(TransactionService service, ImportProperties properties) {
+        this.service = service;
+        this.parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = properties.getChunkSize().toBytes();
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("transactionmanager.import.chunk-size must be between 1B and 1GB");
+        }
+        this.maxReportedErrors = properties.getMaxReportedErrors();
+    }
+
+    /**
+     * Imports the file in the format its name implies ({@code .csv}, {@code .ndjson} or {@code .jsonl}).
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        return importFile(file, ImportFormat.forFileName(file.getFileName().toString()));
+    }
+
+    public ImportReport importFile(Path file, ImportFormat format) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = startsWith(channel, UTF8_BOM) ? UTF8_BOM.length : 0;
+            String header = null;
+            if (format.hasHeader()) {
+                long headerEnd = nextLineStart(channel, position, size);
+                header = readLine(channel, position, headerEnd);
+                position = headerEnd;
+            }
+            ImportFormat.RowParser parser = format.parser(header);
+
+            List<Chunk> chunks = new ArrayList<>();
+            while (position < size) {
+                long end = size - position <= chunkSize ? size : nextLineStart(channel, position + chunkSize, size);
+                chunks.add(new Chunk(channel, position, end, parser));
+                position = end;
+            }
+
+            TransactionService.BulkLoad load = service.beginImport();
+            List<ChunkResult> results = new ArrayList<>(chunks.size());
+            try (ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, Math.max(1, chunks.size())))) {
+                List<Callable<ChunkResult>> tasks = chunks.stream().map(chunk -> chunk.loadInto(load)).toList();
+                for (Future<ChunkResult> result : pool.invokeAll(tasks)) {
+                    results.add(result.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import of " + file + " was interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+            } finally {
+                load.finish();
+            }
+            return report(file, format, results, start);
+        }
+    }
+
+    // Numbers each chunk's lines from where the previous chunks ended
+    private ImportReport report(Path file, ImportFormat format, List<ChunkResult> results, long start) {
+        long rows = 0;
+        long created = 0;
+        long updated = 0;
+        long failed = 0;
+        long linesBefore = format.hasHeader() ? 1 : 0;
+        List<ImportReport.RowError> errors = new ArrayList<>();
+        for (ChunkResult result : results) {
+            rows += result.rows;
+            created += result.created;
+            updated += result.updated;
+            failed += result.failed;
+            for (ImportReport.RowError error : result.errors) {
+                errors.add(new ImportReport.RowError(linesBefore + error.line(), error.error()));
+            }
+            linesBefore += result.lines;
+        }
+        errors.sort(Comparator.comparingLong(ImportReport.RowError::line));
+        return new ImportReport(file.toString(), rows, created, updated, failed,
+                errors.subList(0, Math.min(errors.size(), maxReportedErrors)),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static boolean startsWith(FileChannel channel, byte[] prefix) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(prefix.length);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            // Read until full or at the end of the file
+        }
+        return !buffer.hasRemaining() && Arrays.equals(buffer.array(), prefix);
+    }
+
+    // The position just after the next line break at or after the given one, or the end of the file
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static String readLine(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+            // Read the whole line
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).strip();
+    }
+
+    // One chunk's row counts and errors, with lines numbered from the start of the chunk
+    private static final class ChunkResult {
+        long lines;
+        long rows;
+        long created;
+        long updated;
+        long failed;
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+    }
+
+    private final class Chunk {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final ImportFormat.RowParser parser;
+
+        Chunk(FileChannel channel, long start, long end, ImportFormat.RowParser parser) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.parser = parser;
+        }
+
+        Callable<ChunkResult> loadInto(TransactionService.BulkLoad load) {
+            return () -> {
+                MappedByteBuffer buffer;
+                try {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                ChunkResult result = new ChunkResult();
+                List<Transaction> rows = new ArrayList<>();
+                // The line each parsed row came from, to report the rows the service rejects
+                long[] rowLines = new long[1024];
+                byte[] line = new byte[256];
+                int position = 0;
+                int limit = buffer.limit();
+                while (position < limit) {
+                    int lineEnd = position;
+                    while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                        lineEnd++;
+                    }
+                    int length = lineEnd - position;
+                    if (length > 0 && buffer.get(lineEnd - 1) == '\r') {
+                        length--;
+                    }
+                    if (length > line.length) {
+                        line = new byte[Math.max(length, line.length * 2)];
+                    }
+                    buffer.get(position, line, 0, length);
+                    position = lineEnd + 1;
+                    result.lines++;
+                    if (isBlank(line, length)) {
+                        continue;
+                    }
+                    result.rows++;
+                    try {
+                        Transaction transaction = parser.parse(line, length);
+                        if (rows.size() == rowLines.length) {
+                            rowLines = Arrays.copyOf(rowLines, rowLines.length * 2);
+                        }
+                        rowLines[rows.size()] = result.lines;
+                        rows.add(transaction);
+                    } catch (IllegalArgumentException e) {
+                        fail(result, result.lines, e.getMessage());
+                    }
+                }
+
+                for (BatchItemResult item : load.add(rows)) {
+                    switch (item.getStatus()) {
+                        case CREATED -> result.created++;
+                        case UPDATED -> result.updated++;
+                        default -> fail(result, rowLines[item.getIndex()], item.getError());
+                    }
+                }
+                return result;
+            };
+        }
+
+        // A chunk keeps no more errors than a report lists; the rest are only counted
+        private void fail(ChunkResult result, long line, String error) {
+            result.failed++;
+            if (result.errors.size() < maxReportedErrors) {
+                result.errors.add(new ImportReport.RowError(line, error));
+            }
+        }
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.transactionmanager.importer;
+
+import com.example.transactionmanager.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Reads CSV rows whose columns are named by the header. Fields are split on commas; a field in
+ * double quotes may hold commas, and {@code ""} inside it stands for one quote. Leading and
+ * trailing spaces around the amount are ignored, and an empty id or account counts as absent.
+ */
+final class CsvRowParser implements ImportFormat.RowParser {
+    private static final String ID = "id";
+    private static final String ACCOUNT_ID = "accountid";
+    private static final String DESCRIPTION = "description";
+    private static final String AMOUNT = "amount";
+
+    private final int columns;
+    private final int idColumn;
+    private final int accountIdColumn;
+    private final int descriptionColumn;
+    private final int amountColumn;
+
+    private CsvRowParser(int columns, int idColumn, int accountIdColumn, int descriptionColumn, int amountColumn) {
+        this.columns = columns;
+        this.idColumn = idColumn;
+        this.accountIdColumn = accountIdColumn;
+        this.descriptionColumn = descriptionColumn;
+        this.amountColumn = amountColumn;
+    }
+
+    static CsvRowParser forHeader(String header) {
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("CSV file has no header row");
+        }
+        byte[] bytes = header.getBytes(StandardCharsets.UTF_8);
+        String[] names = split(bytes, bytes.length, -1);
+        int id = -1;
+        int accountId = -1;
+        int description = -1;
+        int amount = -1;
+        for (int i = 0; i < names.length; i++) {
+            switch (names[i].trim().toLowerCase(Locale.ROOT)) {
+                case ID -> id = i;
+                case ACCOUNT_ID -> accountId = i;
+                case DESCRIPTION -> description = i;
+                case AMOUNT -> amount = i;
+                default -> throw new IllegalArgumentException("Unknown CSV column " + names[i].trim()
+                        + "; expected id, accountId, description and amount");
+            }
+        }
+        if (description < 0 || amount < 0) {
+            throw new IllegalArgumentException("CSV header must name the description and amount columns: " + header);
+        }
+        return new CsvRowParser(names.length, id, accountId, description, amount);
+    }
+
+    @Override
+    public Transaction parse(byte[] line, int length) {
+        String[] fields = split(line, length, columns);
+        String amount = fields[amountColumn].trim();
+        double parsedAmount;
+        try {
+            parsedAmount = Double.parseDouble(amount);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + amount);
+        }
+        return new Transaction(idColumn < 0 ? null : emptyToNull(fields[idColumn]),
+                accountIdColumn < 0 ? null : emptyToNull(fields[accountIdColumn]),
+                fields[descriptionColumn], parsedAmount);
+    }
+
+    // Splits into exactly the expected number of fields, or as many as there are when it is -1
+    private static String[] split(byte[] line, int length, int expected) {
+        String[] fields = new String[expected < 0 ? 8 : expected];
+        int count = 0;
+        int position = 0;
+        while (true) {
+            String field;
+            if (position < length && line[position] == '"') {
+                StringBuilder quoted = null;
+                int start = position + 1;
+                int end = start;
+                while (true) {
+                    if (end >= length) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    if (line[end] == '"') {
+                        if (end + 1 < length && line[end + 1] == '"') {
+                            // An escaped quote: keep one and carry on
+                            quoted = (quoted == null ? new StringBuilder() : quoted)
+                                    .append(new String(line, start, end + 1 - start, StandardCharsets.UTF_8));
+                            start = end + 2;
+                            end = start;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                String tail = new String(line, start, end - start, StandardCharsets.UTF_8);
+                field = quoted == null ? tail : quoted.append(tail).toString();
+                position = end + 1;
+                if (position < length && line[position] != ',') {
+                    throw new IllegalArgumentException("Unexpected text after a quoted field");
+                }
+            } else {
+                int end = position;
+                while (end < length && line[end] != ',') {
+                    end++;
+                }
+                field = new String(line, position, end - position, StandardCharsets.UTF_8);
+                position = end;
+            }
+
+            if (count == fields.length) {
+                if (expected >= 0) {
+                    throw new IllegalArgumentException("Expected " + expected + " fields, found more");
+                }
+                fields = Arrays.copyOf(fields, count * 2);
+            }
+            fields[count++] = field;
+            if (position >= length) {
+                break;
+            }
+            // Skip the comma
+            position++;
+        }
+        if (expected >= 0 && count != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " fields, found " + count);
+        }
+        return expected < 0 ? Arrays.copyOf(fields, count) : fields;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.transactionmanager.importer;
+
+import com.example.transactionmanager.model.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.Locale;
+
+public enum ImportFormat {
+    // A header row naming the columns (description and amount required, id and accountId optional),
+    // then one transaction per line. Fields may be quoted, but not span lines.
+    CSV(true),
+    // One JSON transaction per line, as written by GET /transactions/export
+    NDJSON(false);
+
+    // Exports carry the version, which the store assigns afresh
+    private static final ObjectReader JSON_READER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(Transaction.class);
+
+    private final boolean hasHeader;
+
+    ImportFormat(boolean hasHeader) {
+        this.hasHeader = hasHeader;
+    }
+
+    public boolean hasHeader() {
+        return hasHeader;
+    }
+
+    /**
+     * Parses one line into a transaction, or throws {@link IllegalArgumentException} saying why it
+     * can't. Parsers hold no state between lines, so chunks can share one.
+     */
+    @FunctionalInterface
+    interface RowParser {
+        Transaction parse(byte[] line, int length);
+    }
+
+    RowParser parser(String header) {
+        if (this == CSV) {
+            return CsvRowParser.forHeader(header);
+        }
+        return (line, length) -> {
+            try {
+                Transaction transaction = JSON_READER.readValue(line, 0, length);
+                if (transaction == null) {
+                    throw new IllegalArgumentException("Expected a JSON object");
+                }
+                return transaction;
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid JSON: " + e.getMessage());
+            }
+        };
+    }
+
+    public static ImportFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown import format " + name + "; expected csv or ndjson");
+        }
+    }
+
+    public static ImportFormat forFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Can't tell the format of " + fileName + "; name it .csv or .ndjson, "
+                + "or give the format");
+    }
+}
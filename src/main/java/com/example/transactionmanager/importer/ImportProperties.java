@@ -0,0 +1,65 @@
+package com.example.transactionmanager.importer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "transactionmanager.import")
+public class ImportProperties {
+    // Files loaded at startup, before the service reports ready
+    private List<String> files = new ArrayList<>();
+
+    // Directory POST /admin/import may read from; the endpoint is off unless this is set
+    private String directory;
+
+    // Threads parsing and storing chunks (0 = available processors)
+    private int parallelism = 0;
+
+    // Bytes per chunk; each chunk is mapped, parsed and stored as one batch
+    private DataSize chunkSize = DataSize.ofMegabytes(16);
+
+    // Row errors listed in a report; the rest are only counted
+    private int maxReportedErrors = 1000;
+
+    public List<String> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<String> files) {
+        this.files = files;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public DataSize getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(DataSize chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxReportedErrors() {
+        return maxReportedErrors;
+    }
+
+    public void setMaxReportedErrors(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.transactionmanager.importer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of a bulk import")
+public record ImportReport(
+        @Schema(description = "File that was imported") String file,
+        @Schema(description = "Non-blank rows read, excluding a CSV header") long rows,
+        @Schema(description = "Rows stored under a new ID") long created,
+        @Schema(description = "Rows that replaced a transaction with the same ID") long updated,
+        @Schema(description = "Rows that could not be parsed or failed validation") long failed,
+        @Schema(description = "The first failed rows, in file order") List<RowError> errors,
+        @Schema(description = "Time taken to import, in milliseconds") long elapsedMillis) {
+
+    @Schema(description = "A row that was not imported")
+    public record RowError(
+            @Schema(description = "Line number in the file, starting from 1") long line,
+            @Schema(description = "Why the row was rejected") String error) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.transactionmanager.importer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Imports {@code transactionmanager.import.files} once the journal has been recovered. Runners
+ * finish before the application reports itself ready, so no traffic is routed here until the
+ * files are in. A file that can't be read stops startup; rejected rows are only logged.
+ */
+public class StartupImport implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(StartupImport.class);
+
+    private final BulkImporter importer;
+    private final List<String> files;
+
+    public StartupImport(BulkImporter importer, List<String> files) {
+        this.importer = importer;
+        this.files = files;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        for (String file : files) {
+            ImportReport report = importer.importFile(Path.of(file));
+            log.info("Imported {}: {} rows, {} created, {} updated, {} failed in {} ms", file, report.rows(),
+                    report.created(), report.updated(), report.failed(), report.elapsedMillis());
+            for (ImportReport.RowError error : report.errors()) {
+                log.warn("{} line {}: {}", file, error.line(), error.error());
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.transactionmanager.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the transaction service hot paths. Timers are created once up front, so recording
+ * is a couple of nanoTime calls plus lock-free histogram updates and can stay on under load.
+ */
+@Component
+public class TransactionMetrics {
+    private final MeterRegistry registry;
+
+    private final Timer getLatency;
+    private final Timer createLatency;
+    private final Timer modifyLatency;
+    private final Timer deleteLatency;
+    private final Timer listLatency;
+    private final Timer listAfterLatency;
+    private final Timer listAmountLatency;
+    private final Timer listAccountLatency;
+    private final Timer listScan;
+    private final Timer batchCreateLatency;
+    private final Timer batchModifyLatency;
+    private final Timer batchDeleteLatency;
+    private final Timer statsLatency;
+    private final Timer searchLatency;
+    private final Timer exportLatency;
+    private final Counter exportedRows;
+    private final Timer importLatency;
+    private final Counter importedRows;
+
+    public TransactionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.getLatency = operationTimer("get");
+        this.createLatency = operationTimer("create");
+        this.modifyLatency = operationTimer("modify");
+        this.deleteLatency = operationTimer("delete");
+        this.listLatency = operationTimer("list");
+        this.listAfterLatency = operationTimer("list.after");
+        this.listAmountLatency = operationTimer("list.amount");
+        this.listAccountLatency = operationTimer("list.account");
+        this.batchCreateLatency = operationTimer("batch.create");
+        this.batchModifyLatency = operationTimer("batch.modify");
+        this.batchDeleteLatency = operationTimer("batch.delete");
+        this.statsLatency = operationTimer("stats");
+        this.searchLatency = operationTimer("search");
+        this.exportLatency = operationTimer("export");
+        this.exportedRows = Counter.builder("transactions.export.rows")
+                .description("Transactions written by NDJSON exports")
+                .register(registry);
+        this.importLatency = operationTimer("import");
+        this.importedRows = Counter.builder("transactions.import.rows")
+                .description("Rows offered to the store by bulk imports, valid or not")
+                .register(registry);
+        this.listScan = Timer.builder("transactions.list.scan")
+                .description("Time spent walking the sorted index to build a page on a cache miss")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Metrics that are recorded but never exported, for services built outside Spring.
+     */
+    public static TransactionMetrics unexported() {
+        return new TransactionMetrics(new SimpleMeterRegistry());
+    }
+
+    private Timer operationTimer(String operation) {
+        return Timer.builder("transactions.operation")
+                .description("Latency of transaction service operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void monitorStore(Supplier<Number> storedTransactions, Supplier<Number> offHeapBytes) {
+        Gauge.builder("transactions.stored", storedTransactions)
+                .description("Number of transactions held by the service")
+                .register(registry);
+        Gauge.builder("transactions.store.offheap", offHeapBytes)
+                .description("Direct memory allocated by the transaction store")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public void monitorSearchIndex(Supplier<Number> estimatedBytes, Supplier<Number> tokens, Supplier<Number> postings) {
+        Gauge.builder("transactions.search.index", estimatedBytes)
+                .description("Estimated heap held by the description search index")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("transactions.search.tokens", tokens)
+                .description("Distinct tokens in the description search index")
+                .register(registry);
+        Gauge.builder("transactions.search.postings", postings)
+                .description("Token to transaction entries in the description search index")
+                .register(registry);
+    }
+
+    public void recordGet(long startNanos) {
+        record(getLatency, startNanos);
+    }
+
+    public void recordCreate(long startNanos) {
+        record(createLatency, startNanos);
+    }
+
+    public void recordModify(long startNanos) {
+        record(modifyLatency, startNanos);
+    }
+
+    public void recordDelete(long startNanos) {
+        record(deleteLatency, startNanos);
+    }
+
+    public void recordList(long startNanos) {
+        record(listLatency, startNanos);
+    }
+
+    public void recordListAfter(long startNanos) {
+        record(listAfterLatency, startNanos);
+    }
+
+    public void recordListAmount(long startNanos) {
+        record(listAmountLatency, startNanos);
+    }
+
+    public void recordListAccount(long startNanos) {
+        record(listAccountLatency, startNanos);
+    }
+
+    public void recordListScan(long startNanos) {
+        record(listScan, startNanos);
+    }
+
+    public void recordBatchCreate(long startNanos) {
+        record(batchCreateLatency, startNanos);
+    }
+
+    public void recordBatchModify(long startNanos) {
+        record(batchModifyLatency, startNanos);
+    }
+
+    public void recordBatchDelete(long startNanos) {
+        record(batchDeleteLatency, startNanos);
+    }
+
+    public void recordStats(long startNanos) {
+        record(statsLatency, startNanos);
+    }
+
+    public void recordSearch(long startNanos) {
+        record(searchLatency, startNanos);
+    }
+
+    public void recordExport(long startNanos, long rows) {
+        record(exportLatency, startNanos);
+        exportedRows.increment(rows);
+    }
+
+    public void recordImport(long startNanos, long rows) {
+        record(importLatency, startNanos);
+        importedRows.increment(rows);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
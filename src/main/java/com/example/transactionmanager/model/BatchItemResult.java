@@ -0,0 +1,72 @@
+package com.example.transactionmanager.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of one item in a batch request")
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID,
+        // The node holding the transaction could not be reached in cluster mode
+        UNAVAILABLE
+    }
+
+    @Schema(description = "Position of the item in the request", example = "0")
+    private final int index;
+
+    @Schema(description = "Transaction ID", example = "1234-5678-90ab-cdef")
+    private final String id;
+
+    @Schema(description = "Outcome of the item", example = "CREATED")
+    private final Status status;
+
+    @Schema(description = "Validation error, if the item was rejected")
+    private final String error;
+
+    @Schema(description = "Resulting transaction, if the item was applied")
+    private final Transaction transaction;
+
+    public BatchItemResult(int index, String id, Status status, String error, Transaction transaction) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+        this.transaction = transaction;
+    }
+
+    public static BatchItemResult of(int index, Status status, Transaction transaction) {
+        return new BatchItemResult(index, transaction.getId(), status, null, transaction);
+    }
+
+    public static BatchItemResult notFound(int index, String id) {
+        return new BatchItemResult(index, id, Status.NOT_FOUND, null, null);
+    }
+
+    public static BatchItemResult invalid(int index, String id, String error) {
+        return new BatchItemResult(index, id, Status.INVALID, error, null);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+}
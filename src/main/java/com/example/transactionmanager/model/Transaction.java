@@ -1,57 +1,103 @@
 // src/main/java/com/example/transactionmanager/model/Transaction.java
 package com.example.transactionmanager.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 
+/**
+ * Immutable, so a stored transaction can be handed to any number of readers and cached pages
+ * without copying. Changes store a new instance with a higher version.
+ */
 @Schema(description = "Transaction data model")
-public class Transaction {
+public final class Transaction {
+    public static final int MAX_ID_LENGTH = 128;
+    public static final int MAX_ACCOUNT_ID_LENGTH = 64;
+
     @Schema(description = "Transaction ID", example = "1234-5678-90ab-cdef", required = true)
     @NotBlank(message = "Transaction ID cannot be blank")
-    private String id;
+    @Size(max = MAX_ID_LENGTH, message = "Transaction ID cannot exceed 128 characters")
+    private final String id;
+
+    @Schema(description = "Account the transaction belongs to; listed under /accounts/{accountId}/transactions",
+            example = "acct-42")
+    @Size(min = 1, max = MAX_ACCOUNT_ID_LENGTH, message = "Account ID must be between 1 and 64 characters")
+    private final String accountId;
     
     @Schema(description = "Transaction description", example = "Purchase of Apple iPhone", required = true)
     @NotBlank(message = "Description cannot be blank")
     @Size(min = 1, max = 255, message = "Description must be between 1 and 255 characters")
-    private String description;
+    private final String description;
     
     @Schema(description = "Transaction amount", example = "1299.99", minimum = "0")
     @NotNull(message = "Amount cannot be null")
     @PositiveOrZero(message = "Amount cannot be negative")
-    private double amount;
+    private final double amount;
 
-    public Transaction() {}
+    @Schema(description = "Version assigned by the server on every change, also sent as the ETag",
+            example = "42", accessMode = Schema.AccessMode.READ_ONLY)
+    private final long version;
 
     public Transaction(String id, String description, double amount) {
+        this(id, null, description, amount, 0);
+    }
+
+    @JsonCreator
+    public Transaction(@JsonProperty("id") String id,
+                       @JsonProperty("accountId") String accountId,
+                       @JsonProperty("description") String description,
+                       @JsonProperty("amount") double amount) {
+        this(id, accountId, description, amount, 0);
+    }
+
+    public Transaction(String id, String description, double amount, long version) {
+        this(id, null, description, amount, version);
+    }
+
+    public Transaction(String id, String accountId, String description, double amount, long version) {
         this.id = id;
+        this.accountId = accountId;
         this.description = description;
         this.amount = amount;
+        this.version = version;
     }
 
     public String getId() {
         return id;
     }
 
-    public void setId(String id) {
-        this.id = id;
+    // Left out of the JSON when absent, so transactions without an account look as they always have
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getAccountId() {
+        return accountId;
     }
 
     public String getDescription() {
         return description;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
     public double getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
-        this.amount = amount;
+    public long getVersion() {
+        return version;
+    }
+
+    public Transaction withId(String id) {
+        return new Transaction(id, accountId, description, amount, version);
+    }
+
+    public Transaction withAccountId(String accountId) {
+        return new Transaction(id, accountId, description, amount, version);
+    }
+
+    public Transaction withVersion(long version) {
+        return new Transaction(id, accountId, description, amount, version);
     }
 }
@@ -0,0 +1,13 @@
+package com.example.transactionmanager.persistence;
+
+/**
+ * When a journaled mutation is considered durable.
+ */
+public enum DurabilityMode {
+    // Every append forces its segment to disk before returning
+    SYNC,
+    // Concurrent writers share one force: the first waiter flushes everything appended so far
+    GROUP,
+    // Appends return immediately and a background task forces the log periodically
+    ASYNC
+}
@@ -0,0 +1,109 @@
+package com.example.transactionmanager.persistence;
+
+import com.example.transactionmanager.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * A single journaled mutation.
+ *
+ * On disk a record is {@code [int length][int crc32c][payload]}, where the payload is
+ * {@code [byte type][long sequence][int idLength][id][int descriptionLength][description][double amount][long version]},
+ * followed by {@code [int accountIdLength][accountId]} for a transaction with an account. Records
+ * written before versions existed end after the amount and read back as version 0.
+ * A zero length marks the end of the written part of a preallocated segment.
+ */
+record LogRecord(byte type, long sequence, String id, String description, double amount, long version,
+                 String accountId) {
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    static LogRecord put(long sequence, Transaction transaction) {
+        return new LogRecord(PUT, sequence, transaction.getId(), transaction.getDescription(), transaction.getAmount(),
+                transaction.getVersion(), transaction.getAccountId());
+    }
+
+    static LogRecord delete(long sequence, String id) {
+        return new LogRecord(DELETE, sequence, id, null, 0, 0, null);
+    }
+
+    Transaction toTransaction() {
+        return new Transaction(id, accountId, description, amount, version);
+    }
+
+    byte[] encodePayload() {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        byte[] descriptionBytes = description == null ? new byte[0] : description.getBytes(StandardCharsets.UTF_8);
+        byte[] accountIdBytes = accountId == null ? null : accountId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + idBytes.length
+                + Integer.BYTES + descriptionBytes.length + Double.BYTES + Long.BYTES
+                + (accountIdBytes == null ? 0 : Integer.BYTES + accountIdBytes.length));
+        payload.put(type)
+                .putLong(sequence)
+                .putInt(idBytes.length)
+                .put(idBytes)
+                .putInt(descriptionBytes.length)
+                .put(descriptionBytes)
+                .putDouble(amount)
+                .putLong(version);
+        if (accountIdBytes != null) {
+            payload.putInt(accountIdBytes.length).put(accountIdBytes);
+        }
+        return payload.array();
+    }
+
+    static void write(ByteBuffer target, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        target.putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload);
+    }
+
+    /**
+     * Reads the record at the buffer's position, or returns null at the end of the log or at a torn write.
+     */
+    static LogRecord read(ByteBuffer source) {
+        if (source.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = source.getInt(source.position());
+        if (length <= 0 || length > source.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        int expectedCrc = source.getInt(source.position() + Integer.BYTES);
+        byte[] payload = new byte[length];
+        source.get(source.position() + HEADER_BYTES, payload);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        if ((int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+        source.position(source.position() + HEADER_BYTES + length);
+        return decodePayload(ByteBuffer.wrap(payload));
+    }
+
+    private static LogRecord decodePayload(ByteBuffer payload) {
+        byte type = payload.get();
+        long sequence = payload.getLong();
+        byte[] idBytes = new byte[payload.getInt()];
+        payload.get(idBytes);
+        byte[] descriptionBytes = new byte[payload.getInt()];
+        payload.get(descriptionBytes);
+        double amount = payload.getDouble();
+        long version = payload.remaining() >= Long.BYTES ? payload.getLong() : 0;
+        String accountId = null;
+        if (payload.remaining() >= Integer.BYTES) {
+            byte[] accountIdBytes = new byte[payload.getInt()];
+            payload.get(accountIdBytes);
+            accountId = new String(accountIdBytes, StandardCharsets.UTF_8);
+        }
+        String description = type == PUT ? new String(descriptionBytes, StandardCharsets.UTF_8) : null;
+        return new LogRecord(type, sequence, new String(idBytes, StandardCharsets.UTF_8), description, amount, version,
+                accountId);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.transactionmanager.persistence;
+
+import com.example.transactionmanager.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Journal backed by a memory-mapped write-ahead log plus periodic compacted snapshots.
+ *
+ * Writers hold the shared side of a checkpoint lock while they append and apply a change.
+ * A snapshot takes the exclusive side only long enough to read the last sequence and roll the
+ * log, so every change up to that sequence is already visible in the store it then iterates.
+ * Changes that land during the iteration are also in the log tail and are replayed on top.
+ */
+public class PersistenceEngine implements TransactionJournal {
+    private static final Logger log = LoggerFactory.getLogger(PersistenceEngine.class);
+
+    private final PersistenceProperties properties;
+    private final Path directory;
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    // Highest sequence appended by the current mutation, so record() knows what to wait for
+    private final ThreadLocal<long[]> appendedSequence = ThreadLocal.withInitial(() -> new long[1]);
+
+    private WriteAheadLog writeAheadLog;
+    private Supplier<Iterator<Transaction>> snapshotSource;
+    private ScheduledExecutorService maintenance;
+    private volatile long lastSnapshotSequence;
+
+    public PersistenceEngine(PersistenceProperties properties) {
+        this.properties = properties;
+        this.directory = Paths.get(properties.getDirectory());
+    }
+
+    @Override
+    public void open(RecoverySink sink, Supplier<Iterator<Transaction>> snapshotSource) {
+        this.snapshotSource = snapshotSource;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal directory " + directory, e);
+        }
+        long start = System.nanoTime();
+        long lastSequence = recover(sink);
+        log.info("Recovered journal up to sequence {} in {} ms", lastSequence,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        writeAheadLog = new WriteAheadLog(directory, (int) properties.getSegmentSize().toBytes(),
+                properties.getDurability(), lastSequence + 1);
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (properties.getDurability() == DurabilityMode.ASYNC) {
+            long interval = properties.getAsyncFlushInterval().toMillis();
+            maintenance.scheduleWithFixedDelay(writeAheadLog::flush, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        maintenance.scheduleWithFixedDelay(this::snapshotIfNeeded, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public <T> T record(Supplier<T> mutation) {
+        long[] appended = appendedSequence.get();
+        appended[0] = 0;
+        T result;
+        checkpointLock.readLock().lock();
+        try {
+            result = mutation.get();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        if (appended[0] > 0) {
+            writeAheadLog.awaitDurable(appended[0]);
+        }
+        return result;
+    }
+
+    @Override
+    public void appendPut(Transaction transaction) {
+        appendedSequence.get()[0] = writeAheadLog.appendPut(transaction);
+    }
+
+    @Override
+    public void appendDelete(String id) {
+        appendedSequence.get()[0] = writeAheadLog.appendDelete(id);
+    }
+
+    /**
+     * Writes a compacted snapshot of the store and drops the log segments and snapshots it supersedes.
+     */
+    public void snapshot() {
+        if (!snapshotRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long cutoff;
+            checkpointLock.writeLock().lock();
+            try {
+                cutoff = writeAheadLog.lastSequence();
+                writeAheadLog.rollSegment();
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+            long start = System.nanoTime();
+            SnapshotFiles.write(directory, cutoff, snapshotSource.get(), properties.effectiveRecoveryThreads());
+            // Only once the snapshot is durably in place, which write syncs before returning
+            writeAheadLog.deleteSegmentsBefore(cutoff + 1);
+            SnapshotFiles.deleteOlderThan(directory, cutoff);
+            lastSnapshotSequence = cutoff;
+            log.info("Wrote snapshot at sequence {} in {} ms", cutoff,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            snapshotRunning.set(false);
+        }
+    }
+
+    private void snapshotIfNeeded() {
+        try {
+            if (writeAheadLog.lastSequence() - lastSnapshotSequence >= properties.getSnapshotThreshold()) {
+                snapshot();
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the log still holds everything
+            log.warn("Snapshot failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        if (writeAheadLog != null) {
+            writeAheadLog.close();
+        }
+    }
+
+    private long recover(RecoverySink sink) {
+        int threads = properties.effectiveRecoveryThreads();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long cutoff = 0;
+            SnapshotFiles.Snapshot snapshot = SnapshotFiles.findLatest(directory);
+            if (snapshot != null) {
+                cutoff = snapshot.sequence();
+                // Ids are unique within a snapshot, so parts can be loaded in any order
+                List<Future<?>> loads = new ArrayList<>();
+                for (Path part : snapshot.parts()) {
+                    loads.add(pool.submit(() -> SnapshotFiles.readPart(part, t -> sink.restore(t.getId(), t))));
+                }
+                awaitAll(loads);
+            }
+            lastSnapshotSequence = cutoff;
+
+            // Decode segments in parallel, then replay partitioned by id so each key keeps its log order
+            long afterSequence = cutoff;
+            List<Future<List<LogRecord>>> decoded = new ArrayList<>();
+            for (Path segment : WriteAheadLog.listSegments(directory)) {
+                decoded.add(pool.submit(() -> WriteAheadLog.readSegment(segment, afterSequence)));
+            }
+            List<List<LogRecord>> partitions = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                partitions.add(new ArrayList<>());
+            }
+            long lastSequence = cutoff;
+            for (Future<List<LogRecord>> segment : decoded) {
+                for (LogRecord record : await(segment)) {
+                    partitions.get(Math.floorMod(record.id().hashCode(), threads)).add(record);
+                    lastSequence = Math.max(lastSequence, record.sequence());
+                }
+            }
+            List<Future<?>> replays = new ArrayList<>();
+            for (List<LogRecord> partition : partitions) {
+                replays.add(pool.submit(() -> partition.forEach(record -> sink.restore(record.id(),
+                        record.type() == LogRecord.PUT ? record.toTransaction() : null))));
+            }
+            awaitAll(replays);
+            return lastSequence;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void awaitAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            await(future);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during journal recovery", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Journal recovery failed", e.getCause());
+        }
+    }
+}
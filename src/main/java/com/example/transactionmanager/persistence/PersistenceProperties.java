@@ -0,0 +1,88 @@
+package com.example.transactionmanager.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "transactionmanager.persistence")
+public class PersistenceProperties {
+    // Keep everything in memory only unless explicitly enabled
+    private boolean enabled = false;
+
+    private String directory = "data";
+
+    private DurabilityMode durability = DurabilityMode.GROUP;
+
+    // Size of each preallocated, memory-mapped log segment
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    // How often the log is forced in ASYNC mode
+    private Duration asyncFlushInterval = Duration.ofMillis(100);
+
+    // Number of log records after which a compacted snapshot is taken
+    private long snapshotThreshold = 1_000_000;
+
+    // Threads used to load snapshot parts and replay the log tail (0 = available processors)
+    private int recoveryThreads = 0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DurabilityMode getDurability() {
+        return durability;
+    }
+
+    public void setDurability(DurabilityMode durability) {
+        this.durability = durability;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public Duration getAsyncFlushInterval() {
+        return asyncFlushInterval;
+    }
+
+    public void setAsyncFlushInterval(Duration asyncFlushInterval) {
+        this.asyncFlushInterval = asyncFlushInterval;
+    }
+
+    public long getSnapshotThreshold() {
+        return snapshotThreshold;
+    }
+
+    public void setSnapshotThreshold(long snapshotThreshold) {
+        this.snapshotThreshold = snapshotThreshold;
+    }
+
+    public int getRecoveryThreads() {
+        return recoveryThreads;
+    }
+
+    public void setRecoveryThreads(int recoveryThreads) {
+        this.recoveryThreads = recoveryThreads;
+    }
+
+    int effectiveRecoveryThreads() {
+        return recoveryThreads > 0 ? recoveryThreads : Runtime.getRuntime().availableProcessors();
+    }
+}
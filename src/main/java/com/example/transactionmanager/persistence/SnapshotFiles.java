@@ -0,0 +1,190 @@
+package com.example.transactionmanager.persistence;
+
+import com.example.transactionmanager.model.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Compacted snapshots of the store. A snapshot is a directory {@code snapshot-<sequence>} of
+ * part files written round-robin, so recovery can load the parts in parallel. The directory is
+ * written under a temporary name and renamed once complete, so a crash mid-snapshot leaves the
+ * previous one in place. The rename is synced before {@link #write} returns, so the log segments
+ * and snapshots it supersedes can be deleted afterwards.
+ */
+final class SnapshotFiles {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // Each entry starts with a marker byte; parts written before versions existed use ENTRY.
+    // ACCOUNT_ENTRY is a VERSIONED_ENTRY followed by the account id.
+    private static final byte END = 0;
+    private static final byte ENTRY = 1;
+    private static final byte VERSIONED_ENTRY = 2;
+    private static final byte ACCOUNT_ENTRY = 3;
+
+    private SnapshotFiles() {
+    }
+
+    record Snapshot(long sequence, List<Path> parts) {
+    }
+
+    static void write(Path directory, long sequence, Iterator<Transaction> transactions, int partCount) {
+        Path target = directory.resolve(snapshotName(sequence));
+        Path temp = directory.resolve(snapshotName(sequence) + TEMP_SUFFIX);
+        try {
+            deleteRecursively(temp);
+            Files.createDirectories(temp);
+            FileOutputStream[] files = new FileOutputStream[partCount];
+            DataOutputStream[] parts = new DataOutputStream[partCount];
+            try {
+                for (int i = 0; i < partCount; i++) {
+                    files[i] = new FileOutputStream(temp.resolve(partName(i)).toFile());
+                    parts[i] = new DataOutputStream(new BufferedOutputStream(files[i], BUFFER_SIZE));
+                }
+                int next = 0;
+                while (transactions.hasNext()) {
+                    Transaction transaction = transactions.next();
+                    DataOutputStream part = parts[next];
+                    part.writeByte(transaction.getAccountId() == null ? VERSIONED_ENTRY : ACCOUNT_ENTRY);
+                    part.writeUTF(transaction.getId());
+                    part.writeUTF(transaction.getDescription());
+                    part.writeDouble(transaction.getAmount());
+                    part.writeLong(transaction.getVersion());
+                    if (transaction.getAccountId() != null) {
+                        part.writeUTF(transaction.getAccountId());
+                    }
+                    next = (next + 1) % partCount;
+                }
+                for (int i = 0; i < partCount; i++) {
+                    parts[i].writeByte(END);
+                    parts[i].flush();
+                    files[i].getFD().sync();
+                }
+            } finally {
+                for (DataOutputStream part : parts) {
+                    if (part != null) {
+                        part.close();
+                    }
+                }
+            }
+            // The parts' directory entries, then the rename; otherwise a crash can undo either
+            syncDirectory(temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + sequence, e);
+        }
+    }
+
+    static Snapshot findLatest(Path directory) {
+        return listSnapshots(directory).stream()
+                .max(Comparator.comparingLong(SnapshotFiles::sequenceOf))
+                .map(path -> new Snapshot(sequenceOf(path), listParts(path)))
+                .orElse(null);
+    }
+
+    static void readPart(Path part, Consumer<Transaction> sink) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(part), BUFFER_SIZE))) {
+            byte marker;
+            while ((marker = in.readByte()) != END) {
+                String id = in.readUTF();
+                String description = in.readUTF();
+                double amount = in.readDouble();
+                long version = marker == ENTRY ? 0 : in.readLong();
+                String accountId = marker == ACCOUNT_ENTRY ? in.readUTF() : null;
+                sink.accept(new Transaction(id, accountId, description, amount, version));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot part " + part, e);
+        }
+    }
+
+    /**
+     * Removes snapshots older than the given sequence and any unfinished temporary snapshot.
+     */
+    static void deleteOlderThan(Path directory, long sequence) {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                if (!name.startsWith(SNAPSHOT_PREFIX)) {
+                    continue;
+                }
+                if (name.endsWith(TEMP_SUFFIX) || sequenceOf(path) < sequence) {
+                    deleteRecursively(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clean up snapshots in " + directory, e);
+        }
+    }
+
+    private static List<Path> listSnapshots(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && !name.endsWith(TEMP_SUFFIX) && Files.isDirectory(path);
+            }).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list snapshots in " + directory, e);
+        }
+    }
+
+    private static List<Path> listParts(Path snapshot) {
+        try (Stream<Path> files = Files.list(snapshot)) {
+            return files.sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list snapshot parts in " + snapshot, e);
+        }
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        String digits = name.substring(SNAPSHOT_PREFIX.length());
+        if (digits.endsWith(TEMP_SUFFIX)) {
+            digits = digits.substring(0, digits.length() - TEMP_SUFFIX.length());
+        }
+        return Long.parseLong(digits);
+    }
+
+    private static String snapshotName(long sequence) {
+        return String.format("%s%020d", SNAPSHOT_PREFIX, sequence);
+    }
+
+    private static String partName(int index) {
+        return String.format("part-%04d.dat", index);
+    }
+
+    static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path child : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.transactionmanager.persistence;
+
+import com.example.transactionmanager.model.Transaction;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+/**
+ * Durability hook for the transaction store. Mutations run through {@link #record} and append
+ * their change with {@link #appendPut}/{@link #appendDelete} from inside the per-key critical
+ * section, so the log order matches the order changes are applied.
+ */
+public interface TransactionJournal {
+
+    TransactionJournal NONE = new TransactionJournal() {
+        @Override
+        public void open(RecoverySink sink, Supplier<Iterator<Transaction>> snapshotSource) {
+        }
+
+        @Override
+        public <T> T record(Supplier<T> mutation) {
+            return mutation.get();
+        }
+
+        @Override
+        public void appendPut(Transaction transaction) {
+        }
+
+        @Override
+        public void appendDelete(String id) {
+        }
+    };
+
+    /**
+     * Replays the durable state into the sink, then starts accepting appends.
+     * The snapshot source is iterated when the log is compacted.
+     */
+    void open(RecoverySink sink, Supplier<Iterator<Transaction>> snapshotSource);
+
+    /**
+     * Runs a mutation and returns once everything it appended is as durable as the configured mode requires.
+     */
+    <T> T record(Supplier<T> mutation);
+
+    void appendPut(Transaction transaction);
+
+    void appendDelete(String id);
+
+    default void close() {
+    }
+
+    @FunctionalInterface
+    interface RecoverySink {
+        // A null transaction means the id was deleted
+        void restore(String id, Transaction transaction);
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.transactionmanager.persistence;
+
+import com.example.transactionmanager.model.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log made of preallocated, memory-mapped segment files named after the sequence
+ * number of their first record. Appends are copies into the mapped buffer; durability comes
+ * from forcing the mapping, either per write, shared by a group of waiters, or periodically.
+ */
+class WriteAheadLog {
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final DurabilityMode durability;
+
+    // Appends are serialized; the lock is only held for the copy into the mapping
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // Held by the writer that forces on behalf of a whole group
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    private Segment current;
+    // Range already forced in the segment last forced by a group leader, guarded by forceLock
+    private Segment forcedSegment;
+    private int forcedPosition;
+    private volatile long lastSequence;
+    private volatile long durableSequence;
+
+    WriteAheadLog(Path directory, int segmentSize, DurabilityMode durability, long nextSequence) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.durability = durability;
+        this.lastSequence = nextSequence - 1;
+        this.durableSequence = nextSequence - 1;
+        // A segment already named after the next sequence can only hold a torn first record
+        Path first = segmentPath(directory, nextSequence);
+        deleteQuietly(first);
+        this.current = Segment.create(first, segmentSize);
+    }
+
+    long appendPut(Transaction transaction) {
+        appendLock.lock();
+        try {
+            return append(LogRecord.put(lastSequence + 1, transaction));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    long appendDelete(String id) {
+        appendLock.lock();
+        try {
+            return append(LogRecord.delete(lastSequence + 1, id));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long append(LogRecord record) {
+        byte[] payload = record.encodePayload();
+        int recordSize = LogRecord.HEADER_BYTES + payload.length;
+        // Leave room for the zero length that terminates the segment
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + recordSize + " bytes exceeds the segment size");
+        }
+        if (current.buffer.remaining() < recordSize + Integer.BYTES) {
+            roll();
+        }
+        LogRecord.write(current.buffer, payload);
+        lastSequence = record.sequence();
+        if (durability == DurabilityMode.SYNC) {
+            current.buffer.force();
+            durableSequence = record.sequence();
+        }
+        return record.sequence();
+    }
+
+    /**
+     * Blocks until the given sequence is on disk. Only GROUP mode waits here: SYNC appends are
+     * already forced and ASYNC appends are flushed in the background.
+     */
+    void awaitDurable(long sequence) {
+        if (durability != DurabilityMode.GROUP || durableSequence >= sequence) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            // A previous leader may have covered this sequence while we queued
+            if (durableSequence < sequence) {
+                forceAll();
+            }
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    void flush() {
+        forceLock.lock();
+        try {
+            forceAll();
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void forceAll() {
+        Segment segment;
+        long target;
+        int position;
+        appendLock.lock();
+        try {
+            segment = current;
+            target = lastSequence;
+            position = segment.buffer.position();
+        } finally {
+            appendLock.unlock();
+        }
+        // Earlier segments were forced when they were rolled, and only the unforced tail of this one is dirty
+        int from = segment == forcedSegment ? forcedPosition : 0;
+        if (position > from) {
+            segment.buffer.force(from, position - from);
+        }
+        forcedSegment = segment;
+        forcedPosition = position;
+        if (target > durableSequence) {
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * Seals the current segment and starts a new one, so that a snapshot taken at
+     * {@code lastSequence()} makes every earlier segment obsolete.
+     */
+    void rollSegment() {
+        appendLock.lock();
+        try {
+            roll();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void roll() {
+        if (current.buffer.position() == 0) {
+            return;
+        }
+        current.buffer.force();
+        if (lastSequence > durableSequence) {
+            durableSequence = lastSequence;
+        }
+        current = Segment.create(segmentPath(directory, lastSequence + 1), segmentSize);
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Deletes segments whose records all have a sequence below the given one.
+     */
+    void deleteSegmentsBefore(long sequence) {
+        // The segment the log rolled to must be durably listed before the ones it follows are gone
+        try {
+            SnapshotFiles.syncDirectory(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to sync journal directory " + directory, e);
+        }
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequence(segments.get(i + 1)) <= sequence) {
+                deleteQuietly(segments.get(i));
+            }
+        }
+    }
+
+    void close() {
+        flush();
+    }
+
+    static List<Path> listSegments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(WriteAheadLog::firstSequence))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list journal segments in " + directory, e);
+        }
+    }
+
+    /**
+     * Decodes the records of one segment with a sequence above the given one, stopping at the
+     * end of the written data or at the first torn record.
+     */
+    static List<LogRecord> readSegment(Path segment, long afterSequence) {
+        List<LogRecord> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            LogRecord record;
+            while ((record = LogRecord.read(buffer)) != null) {
+                if (record.sequence() > afterSequence) {
+                    records.add(record);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read journal segment " + segment, e);
+        }
+        return records;
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Left for the next compaction
+        }
+    }
+
+    private record Segment(Path path, MappedByteBuffer buffer) {
+
+        static Segment create(Path path, int size) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed
+                return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create journal segment " + path, e);
+            }
+        }
+    }
+}
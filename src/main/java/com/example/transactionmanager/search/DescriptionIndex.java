@@ -0,0 +1,445 @@
+package com.example.transactionmanager.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory inverted index from description tokens to transaction ids.
+ *
+ * Tokens are kept in a sorted map so a query term also matches every token it is a prefix of.
+ * Each token's postings are an open-addressing set of id references, about four to eight bytes
+ * per posting with compressed oops; the id strings themselves are the ones the transactions
+ * already hold.
+ *
+ * Callers serialize updates per transaction id (the service's key lock), so an id's postings
+ * never race with themselves. Postings for a token are guarded by that token's monitor, and
+ * queries read them without blocking writers for longer than one set operation. Results are
+ * weakly consistent with concurrent writes; the service re-checks each returned transaction.
+ */
+public class DescriptionIndex {
+    // Longer tokens are truncated; nobody types 64 characters to find a word
+    static final int MAX_TOKEN_LENGTH = 64;
+    // A short prefix can match a huge vocabulary; only the first expansions are consulted
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+    static final int MAX_QUERY_TERMS = 8;
+    // A token only matched by prefix counts for less than a whole-word match
+    static final double PREFIX_WEIGHT = 0.5;
+    // Postings are copied out in chunks of this many ids, so a query never holds a set's monitor
+    // for longer than one chunk, however broad it is
+    private static final int POSTING_CHUNK = 256;
+
+    // Rough JVM object sizes for the memory estimate, assuming compressed oops
+    private static final long SKIP_LIST_ENTRY_BYTES = 56;
+    private static final long STRING_BYTES = 40;
+    private static final long POSTING_SET_BYTES = 32;
+    private static final long REFERENCE_BYTES = 4;
+
+    private final ConcurrentSkipListMap<String, PostingSet> tokens = new ConcurrentSkipListMap<>();
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder postings = new LongAdder();
+    private final LongAdder estimatedBytes = new LongAdder();
+
+    public void add(String id, String description) {
+        for (String token : tokenize(description)) {
+            addPosting(token, id);
+        }
+        documents.increment();
+    }
+
+    public void remove(String id, String description) {
+        for (String token : tokenize(description)) {
+            removePosting(token, id);
+        }
+        documents.decrement();
+    }
+
+    // Only the tokens that differ are touched, so a description edit that keeps most words is cheap
+    public void replace(String id, String oldDescription, String newDescription) {
+        if (oldDescription.equals(newDescription)) {
+            return;
+        }
+        Set<String> before = tokenize(oldDescription);
+        Set<String> after = tokenize(newDescription);
+        for (String token : before) {
+            if (!after.contains(token)) {
+                removePosting(token, id);
+            }
+        }
+        for (String token : after) {
+            if (!before.contains(token)) {
+                addPosting(token, id);
+            }
+        }
+    }
+
+    /**
+     * Ids of transactions whose description has, for every query term, a token equal to or
+     * starting with the term. Hits are ranked by the summed inverse document frequency of the
+     * matched tokens, then by id, and the requested page is cut from the top
+     * {@code (page + 1) * size} hits.
+     *
+     * Every posting of the rarest term is read, so the ranking and the total are exact, and a broad
+     * query costs time in proportion to its matches. Only hits that can still make the page are
+     * kept, in a heap of {@code (page + 1) * size}, so its memory is bounded by the page depth.
+     */
+    public SearchResult search(List<String> terms, int page, int size) {
+        double totalDocuments = Math.max(1, documents.sum());
+        List<Term> resolved = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Term t = resolve(term, totalDocuments);
+            if (t.documentFrequency() == 0) {
+                return new SearchResult(List.of(), 0);
+            }
+            resolved.add(t);
+        }
+        if (resolved.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+        // Drive from the rarest term; every other term is only probed for membership
+        Term driver = resolved.get(0);
+        for (Term term : resolved) {
+            if (term.documentFrequency() < driver.documentFrequency()) {
+                driver = term;
+            }
+        }
+
+        int wanted = (page + 1) * size;
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(wanted, 1024) + 1, Hit.WORST_FIRST);
+        // With a single posting set the driver's own score is known without probing it
+        boolean singleSetDriver = driver.sets().size() == 1;
+        // Only the ids in the heap are tracked, so memory follows the page depth, not the match count.
+        // A set resized between chunks can hand out an id twice; this keeps it off the page twice.
+        Set<String> ranked = new HashSet<>();
+        String[] chunk = new String[POSTING_CHUNK];
+        long matches = 0;
+        List<PostingSet> driverSets = driver.sets();
+        for (int s = 0; s < driverSets.size(); s++) {
+            int next = 0;
+            while (next >= 0) {
+                next = driverSets.get(s).copyFrom(next, chunk);
+                for (String id : chunk) {
+                    if (id == null) {
+                        break;
+                    }
+                    // An id under several expansions of the driver counts in the first one only
+                    if (inAnyBefore(driverSets, s, id)) {
+                        continue;
+                    }
+                    double score = singleSetDriver ? driver.weights()[0] : 0;
+                    for (Term term : resolved) {
+                        if (singleSetDriver && term == driver) {
+                            continue;
+                        }
+                        double termScore = term.score(id);
+                        if (termScore == 0) {
+                            score = 0;
+                            break;
+                        }
+                        score += termScore;
+                    }
+                    if (score == 0 || ranked.contains(id)) {
+                        continue;
+                    }
+                    matches++;
+                    // Most hits of a broad query can't make the page; skip them before allocating
+                    Hit worst = top.size() == wanted ? top.peek() : null;
+                    if (worst == null || score > worst.score() || score == worst.score() && id.compareTo(worst.id()) < 0) {
+                        top.add(new Hit(id, score));
+                        ranked.add(id);
+                        if (top.size() > wanted) {
+                            ranked.remove(top.poll().id());
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Hit> best = new ArrayList<>(top);
+        best.sort(Hit.WORST_FIRST.reversed());
+        List<String> ids = new ArrayList<>(size);
+        for (int i = page * size; i < best.size(); i++) {
+            ids.add(best.get(i).id());
+        }
+        return new SearchResult(ids, matches);
+    }
+
+    private static boolean inAnyBefore(List<PostingSet> sets, int index, String id) {
+        for (int i = 0; i < index; i++) {
+            if (sets.get(i).contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Weights are fixed for the whole query, from the posting sizes seen when it starts
+    private Term resolve(String term, double totalDocuments) {
+        List<PostingSet> sets = new ArrayList<>();
+        double[] weights = new double[MAX_PREFIX_EXPANSIONS];
+        long frequency = 0;
+        ConcurrentNavigableMap<String, PostingSet> matching = tokens.subMap(term, true, term + Character.MAX_VALUE, false);
+        for (Map.Entry<String, PostingSet> entry : matching.entrySet()) {
+            if (sets.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            PostingSet set = entry.getValue();
+            int setSize = set.size();
+            double idf = Math.log(1 + totalDocuments / Math.max(1, setSize));
+            weights[sets.size()] = entry.getKey().equals(term) ? idf : idf * PREFIX_WEIGHT;
+            sets.add(set);
+            frequency += setSize;
+        }
+        return new Term(sets, weights, frequency);
+    }
+
+    /**
+     * Splits on anything that isn't a letter or digit and lowercases, keeping each token once.
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        if (text == null) {
+            return result;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = text.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)).toLowerCase(Locale.ROOT);
+                result.add(token);
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether a description still satisfies every query term, for re-checking hits against the
+     * current transaction.
+     */
+    public static boolean matches(String description, List<String> terms) {
+        Set<String> descriptionTokens = tokenize(description);
+        for (String term : terms) {
+            boolean found = false;
+            for (String token : descriptionTokens) {
+                if (token.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static List<String> queryTerms(String query) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        return terms.size() > MAX_QUERY_TERMS ? terms.subList(0, MAX_QUERY_TERMS) : terms;
+    }
+
+    public long documentCount() {
+        return documents.sum();
+    }
+
+    public long tokenCount() {
+        return tokens.size();
+    }
+
+    public long postingCount() {
+        return postings.sum();
+    }
+
+    /**
+     * Approximate heap held by the index: token entries plus posting tables.
+     */
+    public long estimatedBytes() {
+        return estimatedBytes.sum();
+    }
+
+    private void addPosting(String token, String id) {
+        while (true) {
+            PostingSet set = tokens.get(token);
+            if (set == null) {
+                PostingSet created = new PostingSet();
+                set = tokens.putIfAbsent(token, created);
+                if (set == null) {
+                    set = created;
+                    estimatedBytes.add(SKIP_LIST_ENTRY_BYTES + STRING_BYTES + token.length() + POSTING_SET_BYTES);
+                }
+            }
+            synchronized (set) {
+                // An emptied set is being unlinked; start over with a fresh one
+                if (set.retired) {
+                    continue;
+                }
+                if (set.add(id)) {
+                    postings.increment();
+                }
+                return;
+            }
+        }
+    }
+
+    private void removePosting(String token, String id) {
+        PostingSet set = tokens.get(token);
+        if (set == null) {
+            return;
+        }
+        synchronized (set) {
+            if (!set.remove(id)) {
+                return;
+            }
+            postings.decrement();
+            if (set.size == 0) {
+                set.retired = true;
+                tokens.remove(token, set);
+                estimatedBytes.add(-(SKIP_LIST_ENTRY_BYTES + STRING_BYTES + token.length() + POSTING_SET_BYTES));
+                estimatedBytes.add(-REFERENCE_BYTES * set.table.length);
+            }
+        }
+    }
+
+    public record SearchResult(List<String> ids, long totalMatches) {
+    }
+
+    private record Hit(String id, double score) {
+        // Lowest score first, and among equal scores the largest id, so the heap drops those first
+        static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+                .thenComparing(Hit::id, Comparator.reverseOrder());
+    }
+
+    private record Term(List<PostingSet> sets, double[] weights, long documentFrequency) {
+
+        // Best weight among the tokens this term matches in the document, 0 if none
+        double score(String id) {
+            double best = 0;
+            for (int i = 0; i < sets.size(); i++) {
+                if (weights[i] > best && sets.get(i).contains(id)) {
+                    best = weights[i];
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Linear-probing set of id references with backward-shift deletion, so removals leave no
+     * tombstones behind. All methods synchronize on the set.
+     */
+    private final class PostingSet {
+        private String[] table = new String[4];
+        private int size;
+        private boolean retired;
+
+        PostingSet() {
+            estimatedBytes.add(REFERENCE_BYTES * table.length);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized boolean contains(String id) {
+            int mask = table.length - 1;
+            for (int i = spread(id.hashCode()) & mask; table[i] != null; i = (i + 1) & mask) {
+                if (table[i].equals(id)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Fills the buffer with ids from table slots at or after the given one, null-terminated if
+        // it runs short, and returns the slot to continue from, or -1 once the table is exhausted
+        synchronized int copyFrom(int slot, String[] into) {
+            int n = 0;
+            int i = slot;
+            for (; i < table.length && n < into.length; i++) {
+                if (table[i] != null) {
+                    into[n++] = table[i];
+                }
+            }
+            if (n < into.length) {
+                into[n] = null;
+            }
+            return i < table.length ? i : -1;
+        }
+
+        synchronized boolean add(String id) {
+            if ((size + 1) * 4 > table.length * 3) {
+                resize(table.length * 2);
+            }
+            int mask = table.length - 1;
+            int i = spread(id.hashCode()) & mask;
+            while (table[i] != null) {
+                if (table[i].equals(id)) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = id;
+            size++;
+            return true;
+        }
+
+        synchronized boolean remove(String id) {
+            int mask = table.length - 1;
+            int i = spread(id.hashCode()) & mask;
+            while (table[i] != null && !table[i].equals(id)) {
+                i = (i + 1) & mask;
+            }
+            if (table[i] == null) {
+                return false;
+            }
+            // Shift later entries of the probe chain back into the hole
+            int hole = i;
+            for (int j = (hole + 1) & mask; table[j] != null; j = (j + 1) & mask) {
+                int home = spread(table[j].hashCode()) & mask;
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    table[hole] = table[j];
+                    hole = j;
+                }
+            }
+            table[hole] = null;
+            size--;
+            if (size * 8 < table.length && table.length > 4) {
+                resize(table.length / 2);
+            }
+            return true;
+        }
+
+        private void resize(int capacity) {
+            String[] old = table;
+            estimatedBytes.add(REFERENCE_BYTES * (capacity - old.length));
+            table = new String[capacity];
+            int mask = capacity - 1;
+            for (String id : old) {
+                if (id != null) {
+                    int i = spread(id.hashCode()) & mask;
+                    while (table[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    table[i] = id;
+                }
+            }
+        }
+
+        private static int spread(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.transactionmanager.service;
+
+/**
+ * Entry of the amount index: transactions ordered by amount, then by id so equal amounts
+ * still have a total order to page through.
+ */
+record AmountKey(double amount, String id) implements Comparable<AmountKey> {
+    // Sorts before every id, for range bounds that must include all ids at an amount
+    static final String LOWEST_ID = "";
+
+    @Override
+    public int compareTo(AmountKey other) {
+        int byAmount = Double.compare(amount, other.amount);
+        return byAmount != 0 ? byAmount : id.compareTo(other.id);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.transactionmanager.service;
+
+import com.example.transactionmanager.cache.ListPage;
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.example.transactionmanager.model.BatchItemResult;
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.stats.TransactionStatistics;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Non-blocking view of {@link TransactionService} for the reactive stack.
+ *
+ * Most operations only touch memory and finish in microseconds, so they run on the calling event
+ * loop with no thread hop. Operations that can wait run on a virtual thread each instead: writes
+ * when a journal waits for the disk, reads when the store may read from disk. So does any work
+ * whose size the client picks: searches, and offset pages past the first that miss the cache. Admission happens
+ * inside the service as on the servlet stack; it never waits, and a rejection arrives as a
+ * {@link com.example.transactionmanager.admission.ServiceOverloadedException} error signal. A
+ * request handed to a virtual thread starts at once, so the admission limit also bounds how much
+ * blocked work is outstanding.
+ */
+public class ReactiveTransactionService implements AutoCloseable {
+    // Compression buffer for exports; large enough that deflate works on whole blocks of rows
+    private static final int EXPORT_GZIP_BUFFER = 64 * 1024;
+    // Bytes gathered into each buffer of an export; the default 1KB would cost a write per few rows
+    private static final int EXPORT_CHUNK_SIZE = 32 * 1024;
+
+    private final TransactionService service;
+    private final ExecutorService blockingExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("reactive-blocking-", 0).factory());
+    private final Scheduler blocking = Schedulers.fromExecutorService(blockingExecutor, "reactive-blocking");
+    private final boolean writesMayBlock;
+    private final boolean readsMayBlock;
+
+    public ReactiveTransactionService(TransactionService service, boolean writesMayBlock, boolean readsMayBlock) {
+        this.service = service;
+        this.writesMayBlock = writesMayBlock;
+        this.readsMayBlock = readsMayBlock;
+    }
+
+    public Mono<Transaction> createTransaction(Transaction transaction) {
+        return write(() -> service.createTransaction(transaction));
+    }
+
+    public Mono<Transaction> getTransaction(String id) {
+        return read(() -> service.getTransaction(id).orElse(null));
+    }
+
+    public Mono<Transaction> deleteTransaction(String id) {
+        return write(() -> service.deleteTransaction(id).orElse(null));
+    }
+
+    /**
+     * Empty if there is no such transaction.
+     *
+     * @see TransactionService#modifyTransaction(String, Transaction, long)
+     */
+    public Mono<Transaction> modifyTransaction(String id, Transaction transaction, long expectedVersion) {
+        return write(() -> service.modifyTransaction(id, transaction, expectedVersion));
+    }
+
+    public Mono<List<BatchItemResult>> createTransactions(List<Transaction> batch) {
+        return write(() -> service.createTransactions(batch));
+    }
+
+    public Mono<List<BatchItemResult>> modifyTransactions(List<Transaction> batch) {
+        return write(() -> service.modifyTransactions(batch));
+    }
+
+    public Mono<List<BatchItemResult>> deleteTransactions(List<String> ids) {
+        return write(() -> service.deleteTransactions(ids));
+    }
+
+    public Mono<ListPage> listTransactionPage(int page, int size) {
+        return Mono.defer(() -> {
+            ListPage cached = service.getCachedTransactionPage(page, size);
+            return cached != null ? Mono.just(cached) : walk(page, () -> service.listTransactionPage(page, size));
+        });
+    }
+
+    public Mono<List<Transaction>> listTransactionsAfter(String after, int size) {
+        return read(() -> service.listTransactionsAfter(after, size));
+    }
+
+    public Mono<ListPage> listAccountTransactionPage(String accountId, int page, int size) {
+        return Mono.defer(() -> {
+            ListPage cached = service.getCachedAccountTransactionPage(accountId, page, size);
+            return cached != null ? Mono.just(cached)
+                    : walk(page, () -> service.listAccountTransactionPage(accountId, page, size));
+        });
+    }
+
+    public Mono<List<Transaction>> listAccountTransactionsAfter(String accountId, String after, int size) {
+        return read(() -> service.listAccountTransactionsAfter(accountId, after, size));
+    }
+
+    public long getAccountTransactionCount(String accountId) {
+        return service.getAccountTransactionCount(accountId);
+    }
+
+    public Mono<TransactionService.SearchPage> listTransactionsByAmount(double minAmount, double maxAmount,
+                                                                        boolean descending, int page, int size) {
+        return walk(page, () -> service.listTransactionsByAmount(minAmount, maxAmount, descending, page, size));
+    }
+
+    public Mono<List<Transaction>> listTransactionsByAmountAfter(double minAmount, double maxAmount,
+                                                                 boolean descending, double afterAmount,
+                                                                 String afterId, int size) {
+        return read(() -> service.listTransactionsByAmountAfter(minAmount, maxAmount, descending, afterAmount,
+                afterId, size));
+    }
+
+    // Ranking reads postings until the page is filled, which can be far more than a microsecond of
+    // work, so it never runs on the event loop even when reads are otherwise served there
+    public Mono<TransactionService.SearchPage> searchTransactions(String query, int page, int size) {
+        return Mono.fromSupplier(() -> service.searchTransactions(query, page, size)).subscribeOn(blocking);
+    }
+
+    // Maintained aggregates only, never the store
+    public Mono<TransactionStatistics.Snapshot> getStatistics() {
+        return Mono.fromSupplier(service::getStatistics);
+    }
+
+    public long getTotalTransactions() {
+        return service.getTotalTransactions();
+    }
+
+    public TransactionPageCache.PageCacheStats getListCacheStats() {
+        return service.getListCacheStats();
+    }
+
+    /**
+     * Every transaction as newline-delimited JSON, optionally gzip-compressed. The export is
+     * admitted when the flux is subscribed, and written by a virtual thread that waits for demand,
+     * so a slow client holds back the walk instead of buffering rows.
+     */
+    public Flux<DataBuffer> exportTransactions(DataBufferFactory bufferFactory, boolean gzip) {
+        return Mono.fromSupplier(service::exportTransactions)
+                .flatMapMany(export -> DataBufferUtils.outputStreamPublisher(out -> {
+                    try {
+                        if (gzip) {
+                            try (OutputStream compressed = new GZIPOutputStream(out, EXPORT_GZIP_BUFFER)) {
+                                export.writeTo(compressed);
+                            }
+                        } else {
+                            export.writeTo(out);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, bufferFactory, blockingExecutor, EXPORT_CHUNK_SIZE));
+    }
+
+    @Override
+    public void close() {
+        blocking.dispose();
+    }
+
+    private <T> Mono<T> read(Supplier<T> operation) {
+        Mono<T> result = Mono.fromSupplier(operation);
+        return readsMayBlock ? result.subscribeOn(blocking) : result;
+    }
+
+    // Offset pages past the first walk page * size entries before reaching their own, a cost the
+    // client chooses, so they leave the event loop whatever the store. The first page walks no
+    // more than a cursor page does.
+    private <T> Mono<T> walk(int page, Supplier<T> operation) {
+        return page > 0 ? Mono.fromSupplier(operation).subscribeOn(blocking) : read(operation);
+    }
+
+    private <T> Mono<T> write(Supplier<T> operation) {
+        Mono<T> result = Mono.fromSupplier(operation);
+        return writesMayBlock ? result.subscribeOn(blocking) : result;
+    }
+}
@@ -1,118 +1,1027 @@
 package com.example.transactionmanager.service;
 
+import com.example.transactionmanager.account.AccountPartition;
+import com.example.transactionmanager.account.AccountPartitions;
+import com.example.transactionmanager.admission.AdaptiveAdmissionController;
+import com.example.transactionmanager.admission.AdmissionController;
+import com.example.transactionmanager.admission.OperationClass;
+import com.example.transactionmanager.cache.ListPage;
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.example.transactionmanager.cluster.ReplicatedChange;
+import com.example.transactionmanager.cluster.TransactionReplicator;
+import com.example.transactionmanager.feed.ChangeFeed;
+import com.example.transactionmanager.id.IdGenerator;
+import com.example.transactionmanager.id.TimeOrderedIdGenerator;
+import com.example.transactionmanager.metrics.TransactionMetrics;
+import com.example.transactionmanager.model.BatchItemResult;
 import com.example.transactionmanager.model.Transaction;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import com.example.transactionmanager.persistence.TransactionJournal;
+import com.example.transactionmanager.search.DescriptionIndex;
+import com.example.transactionmanager.stats.TransactionStatistics;
+import com.example.transactionmanager.store.HeapTransactionStore;
+import com.example.transactionmanager.store.TransactionStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 @Service
 public class TransactionService {
-    // Use ConcurrentHashMap for thread safety
-    private final ConcurrentMap<String, Transaction> transactions = new ConcurrentHashMap<>();
+    // Expected version that matches any current version
+    public static final long ANY_VERSION = -1;
 
-    // Add rate limiting control
-    private final Semaphore semaphore = new Semaphore(1000); // Maximum concurrent requests
-    private final AtomicInteger activeRequests = new AtomicInteger(0);
-    private static final int MAX_ACTIVE_REQUESTS = 1000;
-    private static final long TIMEOUT_MS = 1000; // 1 second timeout
+    // Furthest a replicated version may run ahead of this node's clock: weeks of writes at a
+    // million per second, while a forged Long.MAX_VALUE would leave no versions to hand out
+    static final long MAX_REPLICA_VERSION_LEAD = 1L << 40;
 
-    // Consider cache eviction/update strategies if caching list results
-    @CacheEvict(value = "transactionsList", allEntries = true)
-    public Transaction createTransaction(Transaction transaction) {
-        if (!acquirePermit()) {
-            throw new RuntimeException("Service is overloaded, please try again later");
+    // Transactions by id, on the heap or packed off-heap depending on transactionmanager.store.type
+    private final TransactionStore transactions;
+
+    // Ids kept in sorted order so pages can be served without copying and sorting the map.
+    // Only updated under the key's lock, so it stays in step with the map per key.
+    private final ConcurrentSkipListSet<String> sortedIds = new ConcurrentSkipListSet<>();
+
+    // The same ids ordered by amount, for range queries. Maintained with the statistics below.
+    private final ConcurrentSkipListSet<AmountKey> amountIndex = new ConcurrentSkipListSet<>();
+
+    // Serialize writers per key. The journal append can block on I/O, so it must not run inside
+    // a map compute function: those hold a monitor, which pins a virtual thread to its carrier
+    // for the whole append. ReentrantLock lets a blocked virtual thread unmount.
+    private static final int KEY_LOCK_STRIPES = 1024;
+    private final ReentrantLock[] keyLocks = new ReentrantLock[KEY_LOCK_STRIPES];
+
+    // Every change takes the next version from one clock, so a deleted and recreated id never
+    // reuses a version an old If-Match could still hold
+    private final AtomicLong versions = new AtomicLong();
+
+    // Count, sum and amount histogram, maintained by every write under the key's lock
+    private final TransactionStatistics statistics = new TransactionStatistics();
+
+    // Description tokens to ids, maintained alongside the statistics
+    private final DescriptionIndex descriptionIndex = new DescriptionIndex();
+
+    // Each account's ids, count and list pages, maintained alongside the statistics
+    private final AccountPartitions accounts;
+
+    // Adaptive per-class concurrency limits; rejects immediately instead of queueing
+    private final AdmissionController admission;
+
+    // Caches list pages and evicts only the pages a mutation can change
+    private final TransactionPageCache pageCache;
+
+    // Write-ahead journal; a no-op unless persistence is enabled
+    private final TransactionJournal journal;
+
+    private final TransactionMetrics metrics;
+
+    // Sends each change to the other replicas of its id; a no-op unless cluster mode is enabled
+    private final TransactionReplicator replicator;
+
+    // Every applied change in order, for change feed subscribers; published under the key's lock
+    private final ChangeFeed changeFeed;
+
+    // Ids for transactions created without one; time-ordered unless configured otherwise
+    private final IdGenerator idGenerator;
+
+    // Versions of ids recently deleted by a replicated change, so an older write arriving after
+    // the delete doesn't bring the transaction back. Kept far longer than a replication call can take.
+    private static final Duration REPLICA_TOMBSTONE_TTL = Duration.ofMinutes(1);
+    private final Cache<String, Long> replicaTombstones = Caffeine.newBuilder()
+            .expireAfterWrite(REPLICA_TOMBSTONE_TTL)
+            .build();
+
+    // One JSON object per line; flushing is left to the generator's buffer, not done per row
+    private static final ObjectWriter NDJSON_WRITER = new ObjectMapper()
+            .writerFor(Transaction.class)
+            .withRootValueSeparator("\n")
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    public TransactionService() {
+        this(new HeapTransactionStore(), new TransactionPageCache(TransactionPageCache.DEFAULT_MAX_CACHED_TRANSACTIONS),
+                TransactionJournal.NONE, TransactionMetrics.unexported(), AdaptiveAdmissionController.fixed(1000));
+    }
+
+    public TransactionService(TransactionStore transactions, TransactionPageCache pageCache, TransactionJournal journal,
+                              TransactionMetrics metrics, AdmissionController admission) {
+        this(transactions, pageCache, journal, metrics, admission, TransactionReplicator.NONE,
+                new ChangeFeed(ChangeFeed.DEFAULT_CAPACITY), new TimeOrderedIdGenerator());
+    }
+
+    public TransactionService(TransactionStore transactions, TransactionPageCache pageCache, TransactionJournal journal,
+                              TransactionMetrics metrics, AdmissionController admission, TransactionReplicator replicator,
+                              ChangeFeed changeFeed, IdGenerator idGenerator) {
+        this(transactions, pageCache, journal, metrics, admission, replicator, changeFeed, idGenerator,
+                new AccountPartitions(AccountPartitions.DEFAULT_MAX_CACHED_TRANSACTIONS,
+                        AccountPartitions.DEFAULT_MAX_CACHED_ACCOUNTS));
+    }
+
+    @Autowired
+    public TransactionService(TransactionStore transactions, TransactionPageCache pageCache, TransactionJournal journal,
+                              TransactionMetrics metrics, AdmissionController admission, TransactionReplicator replicator,
+                              ChangeFeed changeFeed, IdGenerator idGenerator, AccountPartitions accounts) {
+        this.transactions = transactions;
+        this.pageCache = pageCache;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.admission = admission;
+        this.replicator = replicator;
+        this.changeFeed = changeFeed;
+        this.idGenerator = idGenerator;
+        this.accounts = accounts;
+        for (int i = 0; i < KEY_LOCK_STRIPES; i++) {
+            keyLocks[i] = new ReentrantLock();
         }
+        metrics.monitorStore(transactions::size, transactions::offHeapBytes);
+        metrics.monitorSearchIndex(descriptionIndex::estimatedBytes, descriptionIndex::tokenCount,
+                descriptionIndex::postingCount);
+    }
+
+    // Rebuild the map and index from the journal before serving requests
+    @PostConstruct
+    public void openJournal() {
+        journal.open(this::restore, transactions::iterator);
+        // Deletes and snapshots don't keep the versions of removed transactions, so continue from
+        // the restart time in microseconds: ahead of any version the previous run could have issued
+        // unless it sustained over a million writes per second
+        versions.accumulateAndGet(System.currentTimeMillis() * 1000, Math::max);
+    }
+
+    public Transaction createTransaction(Transaction transaction) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.WRITE);
+        boolean[] dropped = new boolean[1];
         try {
             // Perform additional validation
             validateTransaction(transaction);
-            
-            if (transaction.getId() == null || transaction.getId().isEmpty()) {
-                transaction.setId(java.util.UUID.randomUUID().toString());
+            Transaction candidate = withIdAssigned(transaction);
+
+            boolean[] inserted = new boolean[1];
+            Transaction stored = record(() -> putInternal(candidate, inserted), dropped);
+            dropped[0] = !replicator.replicate(List.of(ReplicatedChange.put(stored)));
+            if (inserted[0]) {
+                pageCache.onInsertedOrRemoved(stored.getId());
+            } else {
+                pageCache.onModified(stored.getId());
             }
-            transactions.put(transaction.getId(), transaction);
-            return transaction;
+            return stored;
         } finally {
-            releasePermit();
+            release(permit, dropped[0]);
+            metrics.recordCreate(start);
         }
     }
 
-    @CacheEvict(value = "transactionsList", allEntries = true)
-    public Optional<Transaction> deleteTransaction(String id) {
-        if (!acquirePermit()) {
-            throw new RuntimeException("Service is overloaded, please try again later");
+    // Lock-free: stored transactions are immutable, so the stored instance is returned as is
+    public Optional<Transaction> getTransaction(String id) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.READ);
+        try {
+            return Optional.ofNullable(transactions.get(id));
+        } finally {
+            permit.release();
+            metrics.recordGet(start);
         }
+    }
+
+    public Optional<Transaction> deleteTransaction(String id) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.WRITE);
+        boolean[] dropped = new boolean[1];
         try {
-            // remove() is atomic
-            Transaction removed = transactions.remove(id);
+            Transaction removed = record(() -> removeInternal(id), dropped);
+            if (removed != null) {
+                dropped[0] = !replicator.replicate(List.of(ReplicatedChange.delete(removed)));
+                pageCache.onInsertedOrRemoved(id);
+            }
             return Optional.ofNullable(removed);
         } finally {
-            releasePermit();
+            release(permit, dropped[0]);
+            metrics.recordDelete(start);
         }
     }
 
-    // Use CachePut to update the cache for a specific item if needed, 
-    // or just evict list cache
-    @CacheEvict(value = "transactionsList", allEntries = true) 
     public Transaction modifyTransaction(String id, Transaction modifiedTransaction) {
-        if (!acquirePermit()) {
-            throw new RuntimeException("Service is overloaded, please try again later");
-        }
+        return modifyTransaction(id, modifiedTransaction, ANY_VERSION);
+    }
+
+    /**
+     * Replaces the transaction only if its current version is {@code expectedVersion}, or
+     * unconditionally for {@link #ANY_VERSION}. Returns null if there is no such transaction.
+     *
+     * @throws VersionConflictException if another writer changed it since that version
+     */
+    public Transaction modifyTransaction(String id, Transaction modifiedTransaction, long expectedVersion) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.WRITE);
+        boolean[] dropped = new boolean[1];
         try {
             // Perform additional validation
             validateTransaction(modifiedTransaction);
-            
-            // computeIfPresent ensures atomicity for the get-and-update operation
-            return transactions.computeIfPresent(id, (key, existingTransaction) -> {
-                existingTransaction.setDescription(modifiedTransaction.getDescription());
-                existingTransaction.setAmount(modifiedTransaction.getAmount());
-                return existingTransaction;
-            });
+
+            Transaction updated = record(() -> modifyInternal(id, modifiedTransaction, expectedVersion), dropped);
+            if (updated != null) {
+                dropped[0] = !replicator.replicate(List.of(ReplicatedChange.put(updated)));
+                pageCache.onModified(id);
+            }
+            return updated;
+        } finally {
+            release(permit, dropped[0]);
+            metrics.recordModify(start);
+        }
+    }
+
+    // Batch variants take one write permit, journal the whole batch under one durability wait
+    // and evict the list cache once. Items are validated and reported individually.
+    public List<BatchItemResult> createTransactions(List<Transaction> batch) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.WRITE);
+        boolean[] dropped = new boolean[1];
+        try {
+            List<String> inserted = new ArrayList<>();
+            List<String> modified = new ArrayList<>();
+            List<BatchItemResult> results = putAll(batch, inserted, modified, dropped);
+            pageCache.onBatch(inserted, modified);
+            return results;
+        } finally {
+            release(permit, dropped[0]);
+            metrics.recordBatchCreate(start);
+        }
+    }
+
+    /**
+     * A bulk load in progress. Rows are added in batches, from any number of threads at once.
+     */
+    public interface BulkLoad {
+        // Validated and stored like a batch create, but leaving the list cache alone
+        List<BatchItemResult> add(List<Transaction> rows);
+
+        // Evicts every cached list page once all rows are in, and records the load
+        void finish();
+    }
+
+    // Admitted like any write, but like an export the permit is not held for the whole load.
+    // List pages read during the load may miss rows until it finishes.
+    public BulkLoad beginImport() {
+        admission.acquire(OperationClass.WRITE).release();
+        long start = System.nanoTime();
+        AtomicLong rows = new AtomicLong();
+        return new BulkLoad() {
+            @Override
+            public List<BatchItemResult> add(List<Transaction> batch) {
+                rows.addAndGet(batch.size());
+                return putAll(batch, null, null, new boolean[1]);
+            }
+
+            @Override
+            public void finish() {
+                pageCache.clear();
+                metrics.recordImport(start, rows.get());
+            }
+        };
+    }
+
+    // Validates and stores a batch under one journal durability wait, collecting the inserted and
+    // modified ids when lists are given
+    private List<BatchItemResult> putAll(List<Transaction> batch, List<String> inserted, List<String> modified,
+                                         boolean[] dropped) {
+        BatchItemResult[] results = new BatchItemResult[batch.size()];
+        Transaction[] candidates = new Transaction[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Transaction transaction = batch.get(i);
+            String error = validationError(transaction);
+            if (error != null) {
+                results[i] = BatchItemResult.invalid(i, transaction == null ? null : transaction.getId(), error);
+                continue;
+            }
+            candidates[i] = withIdAssigned(transaction);
+        }
+
+        record(() -> {
+            boolean[] isNew = new boolean[1];
+            for (int i = 0; i < candidates.length; i++) {
+                if (candidates[i] == null) {
+                    continue;
+                }
+                Transaction stored = putInternal(candidates[i], isNew);
+                if (isNew[0]) {
+                    if (inserted != null) {
+                        inserted.add(stored.getId());
+                    }
+                    results[i] = BatchItemResult.of(i, BatchItemResult.Status.CREATED, stored);
+                } else {
+                    if (modified != null) {
+                        modified.add(stored.getId());
+                    }
+                    results[i] = BatchItemResult.of(i, BatchItemResult.Status.UPDATED, stored);
+                }
+            }
+            return null;
+        }, dropped);
+        dropped[0] = !replicate(results);
+        return Arrays.asList(results);
+    }
+
+    public List<BatchItemResult> modifyTransactions(List<Transaction> batch) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.WRITE);
+        boolean[] dropped = new boolean[1];
+        try {
+            BatchItemResult[] results = new BatchItemResult[batch.size()];
+            List<Integer> accepted = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Transaction transaction = batch.get(i);
+                String error = validationError(transaction);
+                if (error == null && (transaction.getId() == null || transaction.getId().isEmpty())) {
+                    error = "Transaction ID cannot be blank";
+                }
+                if (error != null) {
+                    results[i] = BatchItemResult.invalid(i, transaction == null ? null : transaction.getId(), error);
+                    continue;
+                }
+                accepted.add(i);
+            }
+
+            List<String> modified = new ArrayList<>();
+            record(() -> {
+                for (int i : accepted) {
+                    Transaction transaction = batch.get(i);
+                    Transaction updated = modifyInternal(transaction.getId(), transaction, ANY_VERSION);
+                    if (updated != null) {
+                        modified.add(updated.getId());
+                        results[i] = BatchItemResult.of(i, BatchItemResult.Status.UPDATED, updated);
+                    } else {
+                        results[i] = BatchItemResult.notFound(i, transaction.getId());
+                    }
+                }
+                return null;
+            }, dropped);
+            dropped[0] = !replicate(results);
+            pageCache.onBatch(Collections.emptyList(), modified);
+            return Arrays.asList(results);
+        } finally {
+            release(permit, dropped[0]);
+            metrics.recordBatchModify(start);
+        }
+    }
+
+    public List<BatchItemResult> deleteTransactions(List<String> ids) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.WRITE);
+        boolean[] dropped = new boolean[1];
+        try {
+            BatchItemResult[] results = new BatchItemResult[ids.size()];
+            List<String> removedIds = new ArrayList<>();
+            record(() -> {
+                for (int i = 0; i < ids.size(); i++) {
+                    String id = ids.get(i);
+                    Transaction removed = id == null ? null : removeInternal(id);
+                    if (removed != null) {
+                        removedIds.add(id);
+                        results[i] = BatchItemResult.of(i, BatchItemResult.Status.DELETED, removed);
+                    } else {
+                        results[i] = BatchItemResult.notFound(i, id);
+                    }
+                }
+                return null;
+            }, dropped);
+            dropped[0] = !replicate(results);
+            pageCache.onBatch(removedIds, Collections.emptyList());
+            return Arrays.asList(results);
+        } finally {
+            release(permit, dropped[0]);
+            metrics.recordBatchDelete(start);
+        }
+    }
+
+    // Stores a new version of the transaction and reports whether its id is new. Must run inside journal.record().
+    private Transaction putInternal(Transaction transaction, boolean[] inserted) {
+        String id = transaction.getId();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Transaction stored = transaction.withVersion(versions.incrementAndGet());
+            journal.appendPut(stored);
+            Transaction previous = transactions.get(id);
+            inserted[0] = transactions.put(stored);
+            sortedIds.add(id);
+            onChanged(id, previous, stored);
+            changeFeed.publish(id, previous, stored);
+            return stored;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Transaction removeInternal(String id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            if (!transactions.containsKey(id)) {
+                return null;
+            }
+            journal.appendDelete(id);
+            sortedIds.remove(id);
+            Transaction removed = transactions.remove(id);
+            onChanged(id, removed, null);
+            changeFeed.publish(id, removed, null);
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The version check and the replacement happen under the key's lock, so two writers holding
+    // the same version cannot both succeed
+    private Transaction modifyInternal(String id, Transaction modifiedTransaction, long expectedVersion) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Transaction current = transactions.get(id);
+            if (current == null) {
+                return null;
+            }
+            if (expectedVersion != ANY_VERSION && current.getVersion() != expectedVersion) {
+                throw new VersionConflictException(id, current.getVersion());
+            }
+            // A modify without an account keeps the current one
+            String accountId = modifiedTransaction.getAccountId() != null
+                    ? modifiedTransaction.getAccountId() : current.getAccountId();
+            Transaction updated = new Transaction(id, accountId, modifiedTransaction.getDescription(),
+                    modifiedTransaction.getAmount(), versions.incrementAndGet());
+            journal.appendPut(updated);
+            transactions.put(updated);
+            onChanged(id, current, updated);
+            changeFeed.publish(id, current, updated);
+            return updated;
         } finally {
-            releasePermit();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies changes made on another node holding these ids. Each keeps the version it was given
+     * there and is skipped if this node already has that version or a newer one, so changes that
+     * arrive late or out of order never overwrite newer state. Deletes are remembered for a while
+     * for the same reason: a write the owner made before the delete can still be on its way.
+     *
+     * Changes are journaled like local writes but not replicated again, and not subject to
+     * admission: they were admitted where they were made. They are validated like local writes,
+     * all before any is applied, so a bad change rejects the whole call.
+     *
+     * @throws IllegalArgumentException if a change is invalid or its version is out of range
+     */
+    public void applyReplicas(List<ReplicatedChange> changes) {
+        long maxVersion = Math.max(versions.get(), System.currentTimeMillis() * 1000) + MAX_REPLICA_VERSION_LEAD;
+        for (ReplicatedChange change : changes) {
+            validateReplica(change, maxVersion);
+        }
+        List<String> insertedOrRemoved = new ArrayList<>();
+        List<String> modified = new ArrayList<>();
+        journal.record(() -> {
+            for (ReplicatedChange change : changes) {
+                applyReplicaInternal(change, insertedOrRemoved, modified);
+            }
+            return null;
+        });
+        pageCache.onBatch(insertedOrRemoved, modified);
+    }
+
+    private void applyReplicaInternal(ReplicatedChange change, List<String> insertedOrRemoved, List<String> modified) {
+        String id = change.id();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Transaction previous = transactions.get(id);
+            if (change.transaction() == null) {
+                replicaTombstones.asMap().merge(id, change.version(), Math::max);
+                if (previous != null && previous.getVersion() <= change.version()) {
+                    journal.appendDelete(id);
+                    sortedIds.remove(id);
+                    transactions.remove(id);
+                    onChanged(id, previous, null);
+                    changeFeed.publish(id, previous, null);
+                    insertedOrRemoved.add(id);
+                }
+                return;
+            }
+            Long deleted = replicaTombstones.getIfPresent(id);
+            if ((previous != null && previous.getVersion() >= change.version())
+                    || (deleted != null && deleted >= change.version())) {
+                return;
+            }
+            Transaction transaction = change.transaction().withId(id).withVersion(change.version());
+            journal.appendPut(transaction);
+            transactions.put(transaction);
+            sortedIds.add(id);
+            versions.accumulateAndGet(transaction.getVersion(), Math::max);
+            onChanged(id, previous, transaction);
+            changeFeed.publish(id, previous, transaction);
+            (previous == null ? insertedOrRemoved : modified).add(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void validateReplica(ReplicatedChange change, long maxVersion) {
+        if (change == null || change.id() == null || change.id().isEmpty()) {
+            throw new IllegalArgumentException("Replicated change must have a transaction ID");
+        }
+        if (change.version() <= 0 || change.version() > maxVersion) {
+            throw new IllegalArgumentException("Replicated version " + change.version() + " of transaction "
+                    + change.id() + " is out of range");
+        }
+        if (change.transaction() != null) {
+            validateTransaction(change.transaction().withId(change.id()));
+        }
+    }
+
+    // Returns false if a replica timed out
+    private boolean replicate(BatchItemResult[] results) {
+        List<ReplicatedChange> changes = new ArrayList<>(results.length);
+        for (BatchItemResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED, UPDATED -> changes.add(ReplicatedChange.put(result.getTransaction()));
+                case DELETED -> changes.add(ReplicatedChange.delete(result.getTransaction()));
+                default -> {
+                }
+            }
+        }
+        return changes.isEmpty() || replicator.replicate(changes);
+    }
+
+    // Runs a mutation through the journal, flagging the request as dropped if the durability
+    // wait fails, so the admission limit backs off rather than learning from the failure's latency
+    private <T> T record(Supplier<T> mutation, boolean[] dropped) {
+        try {
+            return journal.record(mutation);
+        } catch (UncheckedIOException e) {
+            dropped[0] = true;
+            throw e;
+        }
+    }
+
+    private static void release(AdmissionController.Permit permit, boolean dropped) {
+        if (dropped) {
+            permit.releaseDropped();
+        } else {
+            permit.release();
+        }
+    }
+
+    private ReentrantLock lockFor(String id) {
+        int hash = id.hashCode();
+        return keyLocks[(hash ^ (hash >>> 16)) & (KEY_LOCK_STRIPES - 1)];
+    }
+
+    private Transaction withIdAssigned(Transaction transaction) {
+        if (transaction.getId() == null || transaction.getId().isEmpty()) {
+            return transaction.withId(idGenerator.nextId());
         }
+        return transaction;
     }
 
-    // Cache the list result. Eviction happens on create/delete/modify
-    @Cacheable("transactionsList")
     public List<Transaction> listTransactions(int page, int size) {
-        if (!acquirePermit()) {
-            throw new RuntimeException("Service is overloaded, please try again later");
+        return listTransactionPage(page, size).items();
+    }
+
+    // Cache the list result. Mutations evict only the pages they touch.
+    // Offset pages walk the sorted index, so the cost is O(page * size + size) with no copy of the map.
+    public ListPage listTransactionPage(int page, int size) {
+        ListPage cached = getCachedTransactionPage(page, size);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.READ);
+        try {
+            long readVersion = pageCache.currentVersion();
+            long scanStart = System.nanoTime();
+            Iterator<String> ids = sortedIds.iterator();
+            long toSkip = (long) page * size;
+            while (toSkip > 0 && ids.hasNext()) {
+                ids.next();
+                toSkip--;
+            }
+            List<Transaction> result = toSkip > 0 ? Collections.emptyList() : collectPage(ids, size);
+            metrics.recordListScan(scanStart);
+            return pageCache.putPage(page, size, result, readVersion);
+        } finally {
+            permit.release();
+            metrics.recordList(start);
+        }
+    }
+
+    // The page if it can be answered without walking the index, otherwise null
+    public ListPage getCachedTransactionPage(int page, int size) {
+        long start = System.nanoTime();
+        if (page < 0 || size <= 0) {
+            return ListPage.EMPTY;
+        }
+        ListPage cached = pageCache.getPage(page, size);
+        if (cached != null) {
+            metrics.recordList(start);
+        }
+        return cached;
+    }
+
+    // Keyset pagination: returns up to size transactions whose id sorts strictly after the cursor.
+    // A null cursor starts from the beginning. Cost is O(log n + size).
+    public List<Transaction> listTransactionsAfter(String after, int size) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.READ);
+        try {
+            if (size <= 0) {
+                return Collections.emptyList();
+            }
+            NavigableSet<String> tail = after == null ? sortedIds : sortedIds.tailSet(after, false);
+            return collectPage(tail.iterator(), size);
+        } finally {
+            permit.release();
+            metrics.recordListAfter(start);
+        }
+    }
+
+    // Offset page of one account's transactions in id order. Walks and caches only the account's
+    // own ids, so the cost is O(page * size + size) however many other accounts hold.
+    public ListPage listAccountTransactionPage(String accountId, int page, int size) {
+        ListPage cached = getCachedAccountTransactionPage(accountId, page, size);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        TransactionPageCache pageCache = accounts.pageCache(accountId);
+        AdmissionController.Permit permit = admission.acquire(OperationClass.READ);
+        try {
+            long readVersion = pageCache.currentVersion();
+            // Read after the version, in case the account emptied and was dropped meanwhile
+            AccountPartition partition = accounts.get(accountId);
+            if (partition == null) {
+                return ListPage.EMPTY;
+            }
+            Iterator<String> ids = partition.ids().iterator();
+            long toSkip = (long) page * size;
+            while (toSkip > 0 && ids.hasNext()) {
+                ids.next();
+                toSkip--;
+            }
+            List<Transaction> result = toSkip > 0 ? Collections.emptyList() : collectAccountPage(accountId, ids, size);
+            return pageCache.putPage(page, size, result, readVersion);
+        } finally {
+            permit.release();
+            metrics.recordListAccount(start);
+        }
+    }
+
+    // The account's page if it can be answered without walking its ids, otherwise null
+    public ListPage getCachedAccountTransactionPage(String accountId, int page, int size) {
+        long start = System.nanoTime();
+        if (accounts.get(accountId) == null || page < 0 || size <= 0) {
+            return ListPage.EMPTY;
+        }
+        ListPage cached = accounts.pageCache(accountId).getPage(page, size);
+        if (cached != null) {
+            metrics.recordListAccount(start);
+        }
+        return cached;
+    }
+
+    // Keyset page of one account's transactions after the cursor: O(log m + size) for an account of m
+    public List<Transaction> listAccountTransactionsAfter(String accountId, String after, int size) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.READ);
+        try {
+            AccountPartition partition = accounts.get(accountId);
+            if (partition == null || size <= 0) {
+                return Collections.emptyList();
+            }
+            NavigableSet<String> tail = after == null ? partition.ids() : partition.ids().tailSet(after, false);
+            return collectAccountPage(accountId, tail.iterator(), size);
+        } finally {
+            permit.release();
+            metrics.recordListAccount(start);
+        }
+    }
+
+    public long getAccountTransactionCount(String accountId) {
+        AccountPartition partition = accounts.get(accountId);
+        return partition == null ? 0 : partition.size();
+    }
+
+    /**
+     * An admitted export, written out when the response body is.
+     */
+    public interface Export {
+        long writeTo(OutputStream out) throws IOException;
+    }
+
+    // Admitted like any read, but the permit is not held while streaming: a single sample
+    // minutes long would collapse the read limit for everyone else.
+    public Export exportTransactions() {
+        admission.acquire(OperationClass.READ).release();
+        return this::writeExport;
+    }
+
+    // Walks the sorted index, so rows come out in id order and only one transaction is held at a
+    // time. The walk is weakly consistent: rows changed during the export may appear in either
+    // version, and rows removed before they are reached are skipped. Writes block while the
+    // client is slow to read, so a slow client holds back the walk instead of buffering rows.
+    private long writeExport(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (JsonGenerator generator = NDJSON_WRITER.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (String id : sortedIds) {
+                Transaction transaction = transactions.get(id);
+                if (transaction != null) {
+                    NDJSON_WRITER.writeValue(generator, transaction);
+                    rows++;
+                }
+            }
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+        } finally {
+            metrics.recordExport(start, rows);
+        }
+        return rows;
+    }
+
+    // Reads the maintained aggregates; the cost doesn't depend on how many transactions are stored
+    public TransactionStatistics.Snapshot getStatistics() {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.READ);
+        try {
+            // The ends of the amount index are the extremes; a replace briefly holds both amounts
+            Iterator<AmountKey> lowest = amountIndex.iterator();
+            Iterator<AmountKey> highest = amountIndex.descendingIterator();
+            return statistics.snapshot(lowest.hasNext() ? lowest.next().amount() : null,
+                    highest.hasNext() ? highest.next().amount() : null);
+        } finally {
+            permit.release();
+            metrics.recordStats(start);
+        }
+    }
+
+    // Offset page of the transactions with minAmount <= amount <= maxAmount, ordered by amount
+    // (then id). The range is located in O(log n) and walked only as far as the page. The total is
+    // exact when the page reaches the end of the range or the range is unbounded, and otherwise
+    // estimated from the amount histogram rather than counted by walking the whole range.
+    public SearchPage listTransactionsByAmount(double minAmount, double maxAmount, boolean descending, int page, int size) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.READ);
+        try {
+            NavigableSet<AmountKey> range = amountRange(minAmount, maxAmount, descending);
+            if (range.isEmpty()) {
+                return new SearchPage(Collections.emptyList(), 0);
+            }
+            if (page < 0 || size <= 0) {
+                return new SearchPage(Collections.emptyList(), estimateAmountRange(minAmount, maxAmount),
+                        !isUnbounded(minAmount, maxAmount));
+            }
+            Iterator<AmountKey> keys = range.iterator();
+            long toSkip = (long) page * size;
+            long skipped = 0;
+            while (skipped < toSkip && keys.hasNext()) {
+                keys.next();
+                skipped++;
+            }
+            List<Transaction> transactions = collectAmountPage(keys, size);
+            if (!keys.hasNext() && transactions.size() < size) {
+                return new SearchPage(transactions, skipped + transactions.size());
+            }
+            // At least one more entry follows this page
+            long seen = skipped + transactions.size() + 1;
+            return new SearchPage(transactions, Math.max(seen, estimateAmountRange(minAmount, maxAmount)),
+                    !isUnbounded(minAmount, maxAmount));
+        } finally {
+            permit.release();
+            metrics.recordListAmount(start);
         }
+    }
+
+    // Keyset page of the same range, continuing after the given amount and id: O(log n + size).
+    // No total: counting the range would cost more than the page, and a cursor client can't jump anyway.
+    public List<Transaction> listTransactionsByAmountAfter(double minAmount, double maxAmount, boolean descending,
+                                                           double afterAmount, String afterId, int size) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.READ);
         try {
-            List<Transaction> allTransactions = new ArrayList<>(transactions.values());
-            allTransactions.sort(Comparator.comparing(Transaction::getId));
-            int start = page * size;
-            int end = Math.min(start + size, allTransactions.size());
-            
-            if (start >= allTransactions.size()) {
+            if (size <= 0) {
                 return Collections.emptyList();
             }
-            
-            return allTransactions.subList(start, end);
+            NavigableSet<AmountKey> range = amountRange(minAmount, maxAmount, descending);
+            NavigableSet<AmountKey> rest = range.tailSet(new AmountKey(afterAmount, afterId), false);
+            return collectAmountPage(rest.iterator(), size);
         } finally {
-            releasePermit();
+            permit.release();
+            metrics.recordListAmount(start);
+        }
+    }
+
+    private long estimateAmountRange(double minAmount, double maxAmount) {
+        return isUnbounded(minAmount, maxAmount)
+                ? statistics.count()
+                : statistics.estimateCount(minAmount, maxAmount);
+    }
+
+    private static boolean isUnbounded(double minAmount, double maxAmount) {
+        return minAmount == Double.NEGATIVE_INFINITY && maxAmount == Double.POSITIVE_INFINITY;
+    }
+
+    private NavigableSet<AmountKey> amountRange(double minAmount, double maxAmount, boolean descending) {
+        if (Double.isNaN(minAmount) || Double.isNaN(maxAmount) || minAmount > maxAmount) {
+            return Collections.emptyNavigableSet();
+        }
+        AmountKey from = new AmountKey(minAmount, AmountKey.LOWEST_ID);
+        // Every id sorts at or after LOWEST_ID, so stopping before the next amount up keeps all of maxAmount
+        NavigableSet<AmountKey> range = maxAmount == Double.POSITIVE_INFINITY
+                ? amountIndex.tailSet(from, true)
+                : amountIndex.subSet(from, true, new AmountKey(Math.nextUp(maxAmount), AmountKey.LOWEST_ID), false);
+        return descending ? range.descendingSet() : range;
+    }
+
+    // A modify briefly leaves two entries for one id; only the one matching the stored amount is current
+    private List<Transaction> collectAmountPage(Iterator<AmountKey> keys, int size) {
+        List<Transaction> page = new ArrayList<>(Math.min(size, 64));
+        while (page.size() < size && keys.hasNext()) {
+            AmountKey key = keys.next();
+            Transaction transaction = transactions.get(key.id());
+            if (transaction != null && Double.compare(transaction.getAmount(), key.amount()) == 0) {
+                page.add(transaction);
+            }
         }
+        return page;
+    }
+
+    /**
+     * One page of search or range results and the number of transactions matching the query.
+     * Search totals are exact; amount range totals are an estimate when {@code totalApproximate}
+     * is set.
+     */
+    public record SearchPage(List<Transaction> transactions, long totalMatches, boolean totalApproximate) {
+        public SearchPage(List<Transaction> transactions, long totalMatches) {
+            this(transactions, totalMatches, false);
+        }
+    }
+
+    // Every query term must match a description token exactly or as a prefix. Hits are ranked in
+    // the index; each is then read from the store and re-checked, since a concurrent write may
+    // have changed or removed it after the index was read.
+    public SearchPage searchTransactions(String query, int page, int size) {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admission.acquire(OperationClass.READ);
+        try {
+            List<String> terms = DescriptionIndex.queryTerms(query);
+            if (terms.isEmpty() || page < 0 || size <= 0) {
+                return new SearchPage(Collections.emptyList(), 0);
+            }
+            DescriptionIndex.SearchResult result = descriptionIndex.search(terms, page, size);
+            List<Transaction> hits = new ArrayList<>(result.ids().size());
+            for (String id : result.ids()) {
+                Transaction transaction = transactions.get(id);
+                if (transaction != null && DescriptionIndex.matches(transaction.getDescription(), terms)) {
+                    hits.add(transaction);
+                }
+            }
+            return new SearchPage(hits, result.totalMatches());
+        } finally {
+            permit.release();
+            metrics.recordSearch(start);
+        }
+    }
+
+    public TransactionPageCache.PageCacheStats getListCacheStats() {
+        return pageCache.stats();
     }
 
     public long getTotalTransactions() {
         return transactions.size();
     }
 
+    // Applies a recovered journal entry; runs before the service takes traffic, so there is nothing to evict
+    private void restore(String id, Transaction transaction) {
+        Transaction previous = transactions.get(id);
+        if (transaction == null) {
+            transactions.remove(id);
+            sortedIds.remove(id);
+        } else {
+            transactions.put(transaction);
+            sortedIds.add(id);
+            versions.accumulateAndGet(transaction.getVersion(), Math::max);
+        }
+        onChanged(id, previous, transaction);
+    }
+
+    // Keeps the statistics and search index in step with the store. Runs under the key's lock
+    // (or during recovery), so the previous value is exactly what the derived state holds.
+    private void onChanged(String id, Transaction previous, Transaction current) {
+        if (previous == null && current != null) {
+            statistics.add(current.getAmount());
+            descriptionIndex.add(id, current.getDescription());
+            amountIndex.add(new AmountKey(current.getAmount(), id));
+        } else if (previous != null && current == null) {
+            statistics.remove(previous.getAmount());
+            descriptionIndex.remove(id, previous.getDescription());
+            amountIndex.remove(new AmountKey(previous.getAmount(), id));
+        } else if (previous != null) {
+            statistics.replace(previous.getAmount(), current.getAmount());
+            descriptionIndex.replace(id, previous.getDescription(), current.getDescription());
+            if (Double.compare(previous.getAmount(), current.getAmount()) != 0) {
+                // Add before removing, so a concurrent range scan sees the id at least once;
+                // the stale entry is filtered out when read
+                amountIndex.add(new AmountKey(current.getAmount(), id));
+                amountIndex.remove(new AmountKey(previous.getAmount(), id));
+            }
+        }
+        onAccountChanged(id, previous == null ? null : previous.getAccountId(),
+                current == null ? null : current.getAccountId());
+    }
+
+    // A transaction stays in its account unless a create or modify names another one
+    private void onAccountChanged(String id, String previousAccountId, String currentAccountId) {
+        if (Objects.equals(previousAccountId, currentAccountId)) {
+            if (currentAccountId != null) {
+                accounts.onModified(currentAccountId, id);
+            }
+            return;
+        }
+        if (previousAccountId != null) {
+            accounts.onRemoved(previousAccountId, id);
+        }
+        if (currentAccountId != null) {
+            accounts.onAdded(currentAccountId, id);
+        }
+    }
+
+    // The index is weakly consistent with the map, so ids removed mid-iteration are skipped
+    private List<Transaction> collectPage(Iterator<String> ids, int size) {
+        List<Transaction> page = new ArrayList<>(Math.min(size, 64));
+        while (page.size() < size && ids.hasNext()) {
+            Transaction transaction = transactions.get(ids.next());
+            if (transaction != null) {
+                page.add(transaction);
+            }
+        }
+        return page;
+    }
+
+    // As collectPage, also skipping transactions moved to another account since the index was read
+    private List<Transaction> collectAccountPage(String accountId, Iterator<String> ids, int size) {
+        List<Transaction> page = new ArrayList<>(Math.min(size, 64));
+        while (page.size() < size && ids.hasNext()) {
+            Transaction transaction = transactions.get(ids.next());
+            if (transaction != null && accountId.equals(transaction.getAccountId())) {
+                page.add(transaction);
+            }
+        }
+        return page;
+    }
+
+    private String validationError(Transaction transaction) {
+        try {
+            validateTransaction(transaction);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
     // Additional validation method for transaction data
     private void validateTransaction(Transaction transaction) {
         if (transaction == null) {
             throw new IllegalArgumentException("Transaction cannot be null");
         }
+
+        // Snapshots write ids with a 16-bit length, and no index wants unbounded keys
+        if (transaction.getId() != null && transaction.getId().length() > Transaction.MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Transaction ID cannot exceed "
+                    + Transaction.MAX_ID_LENGTH + " characters");
+        }
+
+        // NaN would pass the sign check below, and neither NaN nor infinity orders or sums sensibly
+        if (!Double.isFinite(transaction.getAmount())) {
+            throw new IllegalArgumentException("Transaction amount must be a finite number");
+        }
         
         if (transaction.getAmount() < 0) {
             throw new IllegalArgumentException("Transaction amount cannot be negative");
@@ -125,24 +1034,11 @@ public class TransactionService {
         if (transaction.getDescription().length() > 255) {
             throw new IllegalArgumentException("Transaction description cannot exceed 255 characters");
         }
-    }
 
-    private boolean acquirePermit() {
-        try {
-            if (activeRequests.incrementAndGet() > MAX_ACTIVE_REQUESTS) {
-                activeRequests.decrementAndGet();
-                return false;
-            }
-            return semaphore.tryAcquire(TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            activeRequests.decrementAndGet();
-            Thread.currentThread().interrupt();
-            return false;
+        String accountId = transaction.getAccountId();
+        if (accountId != null && (accountId.isBlank() || accountId.length() > Transaction.MAX_ACCOUNT_ID_LENGTH)) {
+            throw new IllegalArgumentException("Transaction account ID must be between 1 and "
+                    + Transaction.MAX_ACCOUNT_ID_LENGTH + " characters");
         }
     }
-
-    private void releasePermit() {
-        activeRequests.decrementAndGet();
-        semaphore.release();
-    }
 }
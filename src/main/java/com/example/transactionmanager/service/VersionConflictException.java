@@ -0,0 +1,17 @@
+package com.example.transactionmanager.service;
+
+/**
+ * Thrown when a conditional update names a version that is no longer current. Mapped to HTTP 412.
+ */
+public class VersionConflictException extends RuntimeException {
+    private final long currentVersion;
+
+    public VersionConflictException(String id, long currentVersion) {
+        super("Transaction " + id + " was modified concurrently; current version is " + currentVersion);
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
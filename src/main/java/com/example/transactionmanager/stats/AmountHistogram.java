@@ -0,0 +1,139 @@
+package com.example.transactionmanager.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-scale histogram of amounts with a fixed bucket layout, in the style of DDSketch: every
+ * bucket spans a constant ratio, so any quantile read from it is within {@link #RELATIVE_ACCURACY}
+ * of the true value. Because the layout never changes, histograms from different nodes merge by
+ * adding counts bucket by bucket.
+ *
+ * Counts are LongAdders, so concurrent writers to the same bucket don't contend on one cache
+ * line. Values can be removed as well as added, which lets the histogram follow modifies and
+ * deletes exactly.
+ */
+public class AmountHistogram {
+    public static final double RELATIVE_ACCURACY = 0.01;
+    // Amounts at or below this share bucket 0
+    public static final double MIN_INDEXED_AMOUNT = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // Reaches past 10^15; larger amounts are counted in the last bucket
+    static final int BUCKETS = 2048;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    public AmountHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void add(double amount) {
+        counts[indexOf(amount)].increment();
+    }
+
+    public void remove(double amount) {
+        counts[indexOf(amount)].decrement();
+    }
+
+    static int indexOf(double amount) {
+        if (!(amount > MIN_INDEXED_AMOUNT)) {
+            return 0;
+        }
+        double index = Math.ceil(Math.log(amount / MIN_INDEXED_AMOUNT) / LOG_GAMMA);
+        return (int) Math.min(BUCKETS - 1, index);
+    }
+
+    static double lowerBound(int index) {
+        return index == 0 ? 0 : MIN_INDEXED_AMOUNT * Math.pow(GAMMA, index - 1);
+    }
+
+    static double upperBound(int index) {
+        return index == BUCKETS - 1 ? Double.MAX_VALUE : MIN_INDEXED_AMOUNT * Math.pow(GAMMA, index);
+    }
+
+    /**
+     * Estimated number of amounts in {@code [min, max]}: the buckets inside the range, plus the
+     * share of each end bucket the range overlaps, as if amounts were spread evenly within it.
+     * Only the buckets the range touches are read.
+     */
+    public long estimateCount(double min, double max) {
+        if (!(min <= max)) {
+            return 0;
+        }
+        int first = indexOf(min);
+        int last = indexOf(max);
+        double estimate = 0;
+        for (int i = first; i <= last; i++) {
+            long count = counts[i].sum();
+            if (count <= 0) {
+                continue;
+            }
+            double lower = lowerBound(i);
+            double upper = upperBound(i);
+            if ((i == first || i == last) && i < BUCKETS - 1 && min != max) {
+                double overlap = (Math.min(upper, max) - Math.max(lower, min)) / (upper - lower);
+                estimate += count * Math.max(0, Math.min(1, overlap));
+            } else {
+                estimate += count;
+            }
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Reads every bucket once. Concurrent updates may or may not be included.
+     */
+    public long[] counts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Value at each quantile from one snapshot of the counts, using the midpoint of the bucket
+     * that holds the rank. Returns NaN for every quantile when the histogram is empty.
+     */
+    public static double[] quantiles(long[] counts, double... quantiles) {
+        long total = 0;
+        for (long count : counts) {
+            total += Math.max(0, count);
+        }
+        double[] values = new double[quantiles.length];
+        for (int q = 0; q < quantiles.length; q++) {
+            if (total == 0) {
+                values[q] = Double.NaN;
+                continue;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            long seen = 0;
+            int index = 0;
+            while (index < BUCKETS - 1 && (seen += Math.max(0, counts[index])) < rank) {
+                index++;
+            }
+            values[q] = index == 0 ? 0 : 2 * upperBound(index) / (GAMMA + 1);
+        }
+        return values;
+    }
+
+    public static List<Bucket> nonEmptyBuckets(long[] counts) {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                buckets.add(new Bucket(i, lowerBound(i), upperBound(i), counts[i]));
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Amounts in {@code (lowerBound, upperBound]}; bucket 0 also holds zero.
+     */
+    public record Bucket(int index, double lowerBound, double upperBound, long count) {
+    }
+}
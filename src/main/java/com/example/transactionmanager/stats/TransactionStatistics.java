@@ -0,0 +1,97 @@
+package com.example.transactionmanager.stats;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates over the amounts of all stored transactions, updated by every write instead of
+ * computed by scanning the store.
+ *
+ * Count, sum and the histogram are striped adders, so writers on different threads rarely touch
+ * the same cache line. Min and max are not kept here: the owner already orders transactions by
+ * amount, and passes the ends of that index to {@link #snapshot}.
+ *
+ * Each aggregate is updated atomically, but not all of them together, so a snapshot taken during
+ * writes can mix states a few operations apart.
+ */
+public class TransactionStatistics {
+    static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+    private final AmountHistogram histogram = new AmountHistogram();
+
+    public void add(double amount) {
+        count.increment();
+        sum.add(amount);
+        histogram.add(amount);
+    }
+
+    public void remove(double amount) {
+        count.decrement();
+        sum.add(-amount);
+        histogram.remove(amount);
+    }
+
+    public void replace(double oldAmount, double newAmount) {
+        if (Double.compare(oldAmount, newAmount) != 0) {
+            remove(oldAmount);
+            add(newAmount);
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Estimated number of stored amounts in {@code [min, max]}, from the histogram, so the cost
+     * does not grow with the number of matches.
+     */
+    public long estimateCount(double min, double max) {
+        return histogram.estimateCount(min, max);
+    }
+
+    /**
+     * @param min the smallest stored amount, or null if there are none
+     * @param max the largest stored amount, or null if there are none
+     */
+    public Snapshot snapshot(Double min, Double max) {
+        long n = count.sum();
+        long[] counts = histogram.counts();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        if (n > 0 && min != null && max != null) {
+            double[] values = AmountHistogram.quantiles(counts, QUANTILES);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                // The exact extremes are tighter than the bucket estimate at the ends
+                double value = Math.max(min, Math.min(max, values[i]));
+                percentiles.put("p" + Math.round(QUANTILES[i] * 100), value);
+            }
+        }
+        // Removing every amount can leave rounding residue in the sum
+        double total = n > 0 ? sum.sum() : 0;
+        return new Snapshot(n, total, n > 0 ? total / n : null,
+                min, max,
+                percentiles, AmountHistogram.RELATIVE_ACCURACY, AmountHistogram.nonEmptyBuckets(counts));
+    }
+
+    @Schema(description = "Aggregate statistics over the amounts of all transactions")
+    public record Snapshot(
+            @Schema(description = "Number of transactions") long count,
+            @Schema(description = "Sum of all amounts") double sum,
+            @Schema(description = "Mean amount, absent when there are no transactions") Double mean,
+            @Schema(description = "Smallest amount") Double min,
+            @Schema(description = "Largest amount") Double max,
+            @Schema(description = "Amount percentiles (p50, p90, p95, p99) estimated from the histogram")
+            Map<String, Double> percentiles,
+            @Schema(description = "Relative error bound of the histogram buckets and percentiles")
+            double relativeAccuracy,
+            @Schema(description = "Non-empty histogram buckets; buckets with the same index can be summed across nodes")
+            List<AmountHistogram.Bucket> histogram) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.transactionmanager.store;
+
+import com.example.transactionmanager.model.Transaction;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the transaction objects themselves in a {@link ConcurrentHashMap}.
+ */
+public class HeapTransactionStore implements TransactionStore {
+    private final ConcurrentMap<String, Transaction> transactions = new ConcurrentHashMap<>();
+
+    @Override
+    public Transaction get(String id) {
+        return transactions.get(id);
+    }
+
+    @Override
+    public boolean containsKey(String id) {
+        return transactions.containsKey(id);
+    }
+
+    @Override
+    public boolean put(Transaction transaction) {
+        return transactions.put(transaction.getId(), transaction) == null;
+    }
+
+    @Override
+    public Transaction remove(String id) {
+        return transactions.remove(id);
+    }
+
+    @Override
+    public long size() {
+        return transactions.size();
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return transactions.values().iterator();
+    }
+}
@@ -0,0 +1,433 @@
+package com.example.transactionmanager.store;
+
+import com.example.transactionmanager.model.Transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable file of transactions sorted by id, in independently compressed blocks. Its layout:
+ * <pre>
+ * block*     deflated: per transaction the id and description as int length + UTF-8, the amount
+ *            as a double, the version as a long and the account id as int length + UTF-8
+ *            (length -1 without an account)
+ * index      int blocks, then per block the first id (int length + UTF-8), long offset,
+ *            int compressed length, int raw length, int transactions
+ * bloom      int hash count, int words, long words
+ * trailer    long sequence, int transactions, long index offset, int magic
+ * </pre>
+ * Opening a segment reads only the index and bloom filter; a lookup that passes the filter
+ * binary-searches the first ids and reads a single block with a positional read, so any number of
+ * threads can read one segment without sharing a file position.
+ *
+ * The store holds one reference to each live segment and readers take another while they use it;
+ * a segment dropped by compaction is closed and deleted once the last reader lets go.
+ */
+final class SegmentFile {
+    private static final int MAGIC = 0x54534731;
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final int BLOOM_HASHES = 7;
+
+    private final Path path;
+    private final long fileId;
+    private final long sequence;
+    private final int count;
+    private final long fileBytes;
+    private final FileChannel channel;
+    private final String[] firstIds;
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] rawLengths;
+    private final int[] blockCounts;
+    private final long[] bloom;
+    private final int bloomHashes;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private SegmentFile(Path path, long fileId) throws IOException {
+        this.path = path;
+        this.fileId = fileId;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.fileBytes = channel.size();
+            ByteBuffer trailer = read(fileBytes - TRAILER_BYTES, TRAILER_BYTES);
+            this.sequence = trailer.getLong();
+            this.count = trailer.getInt();
+            long indexOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("Not a transaction segment: " + path);
+            }
+            DataInputStream footer = new DataInputStream(new ByteArrayInputStream(
+                    read(indexOffset, (int) (fileBytes - TRAILER_BYTES - indexOffset)).array()));
+            int blocks = footer.readInt();
+            this.firstIds = new String[blocks];
+            this.offsets = new long[blocks];
+            this.compressedLengths = new int[blocks];
+            this.rawLengths = new int[blocks];
+            this.blockCounts = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                firstIds[i] = readString(footer);
+                offsets[i] = footer.readLong();
+                compressedLengths[i] = footer.readInt();
+                rawLengths[i] = footer.readInt();
+                blockCounts[i] = footer.readInt();
+            }
+            this.bloomHashes = footer.readInt();
+            this.bloom = new long[footer.readInt()];
+            for (int i = 0; i < bloom.length; i++) {
+                bloom[i] = footer.readLong();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the transactions, which must be sorted by id with no duplicates, to a new segment
+     * file and opens it. {@code expectedCount} sizes the bloom filter and may overestimate.
+     */
+    static SegmentFile write(Path path, long fileId, long sequence, Iterator<Transaction> sorted,
+                             int expectedCount, int blockBytes) throws IOException {
+        long[] bloom = new long[Math.max(1, (int) (((long) expectedCount * BLOOM_BITS_PER_KEY + 63) / 64))];
+        List<String> firstIds = new ArrayList<>();
+        List<long[]> locations = new ArrayList<>();
+        int count = 0;
+        long offset = 0;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))) {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(blockBytes + 1024);
+            DataOutputStream block = new DataOutputStream(raw);
+            String firstId = null;
+            int records = 0;
+            while (sorted.hasNext()) {
+                Transaction transaction = sorted.next();
+                addToBloom(bloom, BLOOM_HASHES, transaction.getId());
+                if (firstId == null) {
+                    firstId = transaction.getId();
+                }
+                writeString(block, transaction.getId());
+                writeString(block, transaction.getDescription());
+                block.writeDouble(transaction.getAmount());
+                block.writeLong(transaction.getVersion());
+                writeNullableString(block, transaction.getAccountId());
+                records++;
+                count++;
+                if (raw.size() >= blockBytes || !sorted.hasNext()) {
+                    byte[] compressed = deflate(deflater, raw.toByteArray());
+                    file.write(compressed);
+                    firstIds.add(firstId);
+                    locations.add(new long[] {offset, compressed.length, raw.size(), records});
+                    offset += compressed.length;
+                    raw.reset();
+                    firstId = null;
+                    records = 0;
+                }
+            }
+            DataOutputStream footer = new DataOutputStream(file);
+            footer.writeInt(firstIds.size());
+            for (int i = 0; i < firstIds.size(); i++) {
+                writeString(footer, firstIds.get(i));
+                footer.writeLong(locations.get(i)[0]);
+                footer.writeInt((int) locations.get(i)[1]);
+                footer.writeInt((int) locations.get(i)[2]);
+                footer.writeInt((int) locations.get(i)[3]);
+            }
+            footer.writeInt(BLOOM_HASHES);
+            footer.writeInt(bloom.length);
+            for (long word : bloom) {
+                footer.writeLong(word);
+            }
+            footer.writeLong(sequence);
+            footer.writeInt(count);
+            footer.writeLong(offset);
+            footer.writeInt(MAGIC);
+            footer.flush();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        return open(path, fileId);
+    }
+
+    static SegmentFile open(Path path, long fileId) throws IOException {
+        return new SegmentFile(path, fileId);
+    }
+
+    // Distinguishes the blocks of this file from those of files that reuse its sequence
+    long fileId() {
+        return fileId;
+    }
+
+    /**
+     * Orders segments for reads: a segment's transactions are newer than those of every segment
+     * with a lower sequence.
+     */
+    long sequence() {
+        return sequence;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long fileBytes() {
+        return fileBytes;
+    }
+
+    int blockCount() {
+        return firstIds.length;
+    }
+
+    boolean mightContain(String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bits = bloom.length * 64L;
+        for (int i = 0; i < bloomHashes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the block that would hold the id, or -1 if the id sorts before the first one.
+     */
+    int blockFor(String id) {
+        int low = 0;
+        int high = firstIds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (firstIds[mid].compareTo(id) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    Block readBlock(int index) {
+        try {
+            ByteBuffer compressed = read(offsets[index], compressedLengths[index]);
+            byte[] raw = new byte[rawLengths[index]];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed.array());
+                int length = inflater.inflate(raw);
+                if (length != raw.length) {
+                    throw new IOException("Truncated block " + index + " in " + path);
+                }
+            } finally {
+                inflater.end();
+            }
+            return Block.decode(raw, blockCounts[index]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt block " + index + " in " + path, e));
+        }
+    }
+
+    /**
+     * Reads the transactions in id order, a block at a time, without going through a cache.
+     */
+    Iterator<Transaction> iterator() {
+        return new Iterator<>() {
+            private int nextBlock;
+            private Block current;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while ((current == null || position == current.size()) && nextBlock < firstIds.length) {
+                    current = readBlock(nextBlock++);
+                    position = 0;
+                }
+                return current != null && position < current.size();
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.transactions[position++];
+            }
+        };
+    }
+
+    // Fails once the segment has been released by its last holder
+    boolean retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of " + path);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] buffer = new byte[raw.length + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static void addToBloom(long[] bloom, int hashes, String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bits = bloom.length * 64L;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    // 64-bit FNV-1a over the chars, finished with a murmur mix so both halves are usable
+    private static long hash(String id) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A decompressed block: its transactions in id order.
+     */
+    static final class Block {
+        private final String[] ids;
+        private final Transaction[] transactions;
+        private final int rawBytes;
+
+        private Block(String[] ids, Transaction[] transactions, int rawBytes) {
+            this.ids = ids;
+            this.transactions = transactions;
+            this.rawBytes = rawBytes;
+        }
+
+        static Block decode(byte[] raw, int count) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            String[] ids = new String[count];
+            Transaction[] transactions = new Transaction[count];
+            for (int i = 0; i < count; i++) {
+                String id = readString(in);
+                String description = readString(in);
+                double amount = in.readDouble();
+                long version = in.readLong();
+                String accountId = readNullableString(in);
+                ids[i] = id;
+                transactions[i] = new Transaction(id, accountId, description, amount, version);
+            }
+            return new Block(ids, transactions, raw.length);
+        }
+
+        Transaction find(String id) {
+            int index = Arrays.binarySearch(ids, id);
+            return index >= 0 ? transactions[index] : null;
+        }
+
+        int size() {
+            return transactions.length;
+        }
+
+        // The decoded objects take about three times the raw bytes
+        int weight() {
+            return 3 * rawBytes + 16 * transactions.length;
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.example.transactionmanager.store;
+
+import com.example.transactionmanager.id.Ulid;
+import com.example.transactionmanager.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Packs transactions into off-heap slabs instead of keeping one object graph per record.
+ *
+ * Records are appended to direct-buffer slabs and located through an open-addressing table of
+ * primitive slab addresses, so the heap holds only two small arrays per segment no matter how
+ * many transactions are stored. A record is:
+ * <pre>
+ * byte   kind          0 = id packed as a UUID, 1 = id stored as UTF-8, 2 = id packed as a ULID
+ * long   msb, lsb      kinds 0 and 2 only
+ * short  id length     kind 1 only, followed by the UTF-8 id
+ * long   amount        raw IEEE 754 bits of the amount
+ * long   version
+ * short  description length, followed by the UTF-8 description
+ * short  account id length, followed by the UTF-8 account id; 0 without an account
+ * </pre>
+ * Updates append a new record and leave the old one as garbage; a segment compacts its slabs
+ * once garbage outweighs live data. Segments are locked independently with a {@link StampedLock},
+ * which parks rather than pins virtual threads. Reads are optimistic and take no lock unless
+ * they raced with a writer in the same segment.
+ */
+public class SlabTransactionStore implements TransactionStore {
+    private static final int SEGMENTS = 64;
+    private static final int SEGMENT_SHIFT = 6;
+    static final int SLAB_BYTES = 256 * 1024;
+
+    // Field lengths are stored as unsigned shorts
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+
+    private static final byte KIND_UUID = 0;
+    private static final byte KIND_UTF8 = 1;
+    private static final byte KIND_ULID = 2;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public SlabTransactionStore() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @Override
+    public Transaction get(String id) {
+        Key key = new Key(id);
+        return segments[key.hash & (SEGMENTS - 1)].get(key);
+    }
+
+    @Override
+    public boolean containsKey(String id) {
+        Key key = new Key(id);
+        return segments[key.hash & (SEGMENTS - 1)].contains(key);
+    }
+
+    @Override
+    public boolean put(Transaction transaction) {
+        Key key = new Key(transaction.getId());
+        return segments[key.hash & (SEGMENTS - 1)].put(key, transaction);
+    }
+
+    @Override
+    public Transaction remove(String id) {
+        Key key = new Key(id);
+        return segments[key.hash & (SEGMENTS - 1)].remove(key);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    @Override
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.allocatedBytes;
+        }
+        return bytes;
+    }
+
+    // Decodes one segment at a time, so at most a segment's worth of objects is live at once
+    @Override
+    public Iterator<Transaction> iterator() {
+        return new Iterator<>() {
+            private int nextSegment;
+            private Iterator<Transaction> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && nextSegment < SEGMENTS) {
+                    current = segments[nextSegment++].decodeAll().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * The id in the form records store it: two longs for a canonical lowercase UUID or a canonical
+     * ULID such as the time-ordered generator produces, UTF-8 bytes otherwise.
+     */
+    private static final class Key {
+        final String id;
+        final int hash;
+        final byte kind;
+        long msb;
+        long lsb;
+        byte[] bytes;
+
+        Key(String id) {
+            this.id = id;
+            int h = id.hashCode() * 0x9E3779B9;
+            this.hash = h ^ (h >>> 16);
+            if (isCanonicalUuid(id)) {
+                kind = KIND_UUID;
+                UUID parsed = UUID.fromString(id);
+                msb = parsed.getMostSignificantBits();
+                lsb = parsed.getLeastSignificantBits();
+            } else if (Ulid.isCanonical(id)) {
+                kind = KIND_ULID;
+                msb = Ulid.mostSignificantBits(id);
+                lsb = Ulid.leastSignificantBits(id);
+            } else {
+                kind = KIND_UTF8;
+                bytes = id.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > MAX_FIELD_BYTES) {
+                    throw new IllegalArgumentException("Transaction ID cannot exceed " + MAX_FIELD_BYTES + " bytes");
+                }
+            }
+        }
+
+        int encodedLength() {
+            return kind != KIND_UTF8 ? 1 + 2 * Long.BYTES : 1 + Short.BYTES + bytes.length;
+        }
+    }
+
+    // Only the exact form UUID.toString() produces, so packing round-trips to the same string
+    static boolean isCanonicalUuid(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Segment {
+        private static final long EMPTY = -1;
+        private static final double LOAD_FACTOR = 0.6;
+
+        private final StampedLock lock = new StampedLock();
+        // Slab index in the upper 32 bits and offset in the lower 32, or EMPTY
+        private long[] addresses = newTable(16);
+        private int[] hashes = new int[16];
+        private volatile int count;
+
+        private List<ByteBuffer> slabs = new ArrayList<>();
+        private ByteBuffer current;
+        private long liveBytes;
+        private long garbageBytes;
+        private volatile long allocatedBytes;
+
+        private static long[] newTable(int capacity) {
+            long[] table = new long[capacity];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+
+        Transaction get(Key key) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    Transaction found = lookup(key);
+                    if (lock.validate(stamp)) {
+                        return found;
+                    }
+                } catch (RuntimeException e) {
+                    // Read a table or slab mid-update; the locked retry below sees a consistent state
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return lookup(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        boolean contains(Key key) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    boolean found = find(key) >= 0;
+                    if (lock.validate(stamp)) {
+                        return found;
+                    }
+                } catch (RuntimeException e) {
+                    // As in get()
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(key) >= 0;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private Transaction lookup(Key key) {
+            int slot = find(key);
+            return slot < 0 ? null : decode(addresses[slot], key.id);
+        }
+
+        boolean put(Key key, Transaction transaction) {
+            byte[] description = transaction.getDescription().getBytes(StandardCharsets.UTF_8);
+            if (description.length > MAX_FIELD_BYTES) {
+                throw new IllegalArgumentException("Transaction description cannot exceed " + MAX_FIELD_BYTES + " bytes");
+            }
+            byte[] accountId = transaction.getAccountId() == null
+                    ? new byte[0] : transaction.getAccountId().getBytes(StandardCharsets.UTF_8);
+            if (accountId.length > MAX_FIELD_BYTES) {
+                throw new IllegalArgumentException("Account ID cannot exceed " + MAX_FIELD_BYTES + " bytes");
+            }
+            int length = key.encodedLength() + 2 * Long.BYTES + 2 * Short.BYTES + description.length + accountId.length;
+            long stamp = lock.writeLock();
+            try {
+                long address = append(key, transaction, description, accountId, length);
+                int slot = find(key);
+                if (slot >= 0) {
+                    garbageBytes += recordLength(addresses[slot]);
+                    liveBytes += length;
+                    addresses[slot] = address;
+                    compactIfNeeded();
+                    return false;
+                }
+                insert(key.hash, address);
+                liveBytes += length;
+                count++;
+                if (count > addresses.length * LOAD_FACTOR) {
+                    resize(addresses.length * 2);
+                }
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        Transaction remove(Key key) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = find(key);
+                if (slot < 0) {
+                    return null;
+                }
+                long address = addresses[slot];
+                Transaction removed = decode(address, key.id);
+                int length = recordLength(address);
+                liveBytes -= length;
+                garbageBytes += length;
+                deleteSlot(slot);
+                count--;
+                compactIfNeeded();
+                return removed;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        List<Transaction> decodeAll() {
+            long stamp = lock.readLock();
+            try {
+                List<Transaction> all = new ArrayList<>(count);
+                for (long address : addresses) {
+                    if (address != EMPTY) {
+                        all.add(decode(address, null));
+                    }
+                }
+                return all;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private int home(int hash, int capacity) {
+            return (hash >>> SEGMENT_SHIFT) & (capacity - 1);
+        }
+
+        private int find(Key key) {
+            int mask = addresses.length - 1;
+            for (int slot = home(key.hash, addresses.length); addresses[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (hashes[slot] == key.hash && matches(addresses[slot], key)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void insert(int hash, long address) {
+            int mask = addresses.length - 1;
+            int slot = home(hash, addresses.length);
+            while (addresses[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            addresses[slot] = address;
+            hashes[slot] = hash;
+        }
+
+        // Backward-shift deletion keeps probe sequences intact without tombstones
+        private void deleteSlot(int slot) {
+            int mask = addresses.length - 1;
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (addresses[next] == EMPTY) {
+                    break;
+                }
+                int home = home(hashes[next], addresses.length);
+                // Move the entry back if the hole lies on its probe path
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    addresses[hole] = addresses[next];
+                    hashes[hole] = hashes[next];
+                    hole = next;
+                }
+            }
+            addresses[hole] = EMPTY;
+        }
+
+        private void resize(int capacity) {
+            long[] oldAddresses = addresses;
+            int[] oldHashes = hashes;
+            addresses = newTable(capacity);
+            hashes = new int[capacity];
+            for (int i = 0; i < oldAddresses.length; i++) {
+                if (oldAddresses[i] != EMPTY) {
+                    insert(oldHashes[i], oldAddresses[i]);
+                }
+            }
+        }
+
+        private long append(Key key, Transaction transaction, byte[] description, byte[] accountId, int length) {
+            if (current == null || current.remaining() < length) {
+                current = ByteBuffer.allocateDirect(Math.max(SLAB_BYTES, length));
+                slabs.add(current);
+                allocatedBytes += current.capacity();
+            }
+            long address = ((long) (slabs.size() - 1) << 32) | current.position();
+            if (key.kind != KIND_UTF8) {
+                current.put(key.kind).putLong(key.msb).putLong(key.lsb);
+            } else {
+                current.put(KIND_UTF8).putShort((short) key.bytes.length).put(key.bytes);
+            }
+            current.putLong(Double.doubleToRawLongBits(transaction.getAmount()));
+            current.putLong(transaction.getVersion());
+            current.putShort((short) description.length).put(description);
+            current.putShort((short) accountId.length).put(accountId);
+            return address;
+        }
+
+        private ByteBuffer slab(long address) {
+            return slabs.get((int) (address >>> 32));
+        }
+
+        private boolean matches(long address, Key key) {
+            ByteBuffer slab = slab(address);
+            int offset = (int) address;
+            byte kind = slab.get(offset);
+            if (key.kind != KIND_UTF8) {
+                return kind == key.kind && slab.getLong(offset + 1) == key.msb && slab.getLong(offset + 9) == key.lsb;
+            }
+            if (kind != KIND_UTF8 || (slab.getShort(offset + 1) & 0xFFFF) != key.bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < key.bytes.length; i++) {
+                if (slab.get(offset + 3 + i) != key.bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int idLength(ByteBuffer slab, int offset) {
+            return slab.get(offset) != KIND_UTF8 ? 1 + 2 * Long.BYTES : 1 + Short.BYTES + (slab.getShort(offset + 1) & 0xFFFF);
+        }
+
+        private int recordLength(long address) {
+            return recordLength(slab(address), (int) address);
+        }
+
+        private int recordLength(ByteBuffer slab, int offset) {
+            int descriptionOffset = offset + idLength(slab, offset) + 2 * Long.BYTES;
+            int accountIdOffset = descriptionOffset + Short.BYTES + (slab.getShort(descriptionOffset) & 0xFFFF);
+            return accountIdOffset + Short.BYTES + (slab.getShort(accountIdOffset) & 0xFFFF) - offset;
+        }
+
+        // Uses the caller's id when it has one, which saves rebuilding the string
+        private Transaction decode(long address, String knownId) {
+            ByteBuffer slab = slab(address);
+            int offset = (int) address;
+            String id = knownId;
+            if (id == null) {
+                byte kind = slab.get(offset);
+                if (kind == KIND_UUID) {
+                    id = new UUID(slab.getLong(offset + 1), slab.getLong(offset + 9)).toString();
+                } else if (kind == KIND_ULID) {
+                    id = Ulid.format(slab.getLong(offset + 1), slab.getLong(offset + 9));
+                } else {
+                    id = readUtf8(slab, offset + 3, slab.getShort(offset + 1) & 0xFFFF);
+                }
+            }
+            int amountOffset = offset + idLength(slab, offset);
+            double amount = Double.longBitsToDouble(slab.getLong(amountOffset));
+            long version = slab.getLong(amountOffset + Long.BYTES);
+            int descriptionOffset = amountOffset + 2 * Long.BYTES;
+            int descriptionLength = slab.getShort(descriptionOffset) & 0xFFFF;
+            String description = readUtf8(slab, descriptionOffset + Short.BYTES, descriptionLength);
+            int accountIdOffset = descriptionOffset + Short.BYTES + descriptionLength;
+            int accountIdLength = slab.getShort(accountIdOffset) & 0xFFFF;
+            String accountId = accountIdLength == 0 ? null : readUtf8(slab, accountIdOffset + Short.BYTES, accountIdLength);
+            return new Transaction(id, accountId, description, amount, version);
+        }
+
+        private static String readUtf8(ByteBuffer slab, int offset, int length) {
+            byte[] bytes = new byte[length];
+            slab.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Copies live records into fresh slabs; the old direct buffers are released by the GC
+        private void compactIfNeeded() {
+            if (garbageBytes < SLAB_BYTES || garbageBytes < liveBytes) {
+                return;
+            }
+            List<ByteBuffer> oldSlabs = slabs;
+            slabs = new ArrayList<>();
+            current = null;
+            allocatedBytes = 0;
+            for (int i = 0; i < addresses.length; i++) {
+                long address = addresses[i];
+                if (address == EMPTY) {
+                    continue;
+                }
+                ByteBuffer from = oldSlabs.get((int) (address >>> 32));
+                int offset = (int) address;
+                int length = recordLength(from, offset);
+                if (current == null || current.remaining() < length) {
+                    current = ByteBuffer.allocateDirect(Math.max(SLAB_BYTES, length));
+                    slabs.add(current);
+                    allocatedBytes += current.capacity();
+                }
+                addresses[i] = ((long) (slabs.size() - 1) << 32) | current.position();
+                current.put(current.position(), from, offset, length);
+                current.position(current.position() + length);
+            }
+            garbageBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.transactionmanager.store;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "transactionmanager.store.tiered")
+public class TieredStoreProperties {
+
+    // Where cold segments are written; emptied at startup, since the journal is what survives restarts
+    private String directory = "tiered";
+
+    // Transactions kept on the heap; the least recently read beyond this are moved to disk
+    private int hotMaxTransactions = 100_000;
+
+    // Transactions not read or written for this long are moved to disk even under the limit
+    private Duration coldAfter = Duration.ofMinutes(10);
+
+    // How often the hot tier is checked for transactions to move
+    private Duration demotionInterval = Duration.ofSeconds(5);
+
+    // Uncompressed size of a segment block, the unit read from disk and cached
+    private DataSize blockSize = DataSize.ofKilobytes(4);
+
+    // Heap held by decompressed blocks
+    private DataSize blockCacheSize = DataSize.ofMegabytes(16);
+
+    // Segments allowed before they are merged into one
+    private int maxSegments = 16;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getHotMaxTransactions() {
+        return hotMaxTransactions;
+    }
+
+    public void setHotMaxTransactions(int hotMaxTransactions) {
+        this.hotMaxTransactions = hotMaxTransactions;
+    }
+
+    public Duration getColdAfter() {
+        return coldAfter;
+    }
+
+    public void setColdAfter(Duration coldAfter) {
+        this.coldAfter = coldAfter;
+    }
+
+    public Duration getDemotionInterval() {
+        return demotionInterval;
+    }
+
+    public void setDemotionInterval(Duration demotionInterval) {
+        this.demotionInterval = demotionInterval;
+    }
+
+    public DataSize getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(DataSize blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public DataSize getBlockCacheSize() {
+        return blockCacheSize;
+    }
+
+    public void setBlockCacheSize(DataSize blockCacheSize) {
+        this.blockCacheSize = blockCacheSize;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+}
@@ -0,0 +1,597 @@
+package com.example.transactionmanager.store;
+
+import com.example.transactionmanager.model.Transaction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Keeps recently used transactions on the heap and moves the rest to compressed segment files on
+ * local disk.
+ *
+ * Every write lands in the hot tier. A background task moves transactions that have not been used
+ * for {@code cold-after}, and the least recently used ones once the hot tier outgrows
+ * {@code hot-max-transactions}, into a new immutable {@link SegmentFile}. Reads try the hot tier,
+ * then the segments from newest to oldest; each segment's bloom filter rules most of them out
+ * without touching the disk, and the block that may hold the id is read once and kept in a block
+ * cache bounded in bytes.
+ *
+ * Segments are never modified. A delete of a cold transaction records a tombstone hiding the id
+ * in every segment up to the newest, and a hot transaction shadows its older copies. Once there
+ * are more than {@code max-segments} segments they are merged into one, dropping what is hidden.
+ *
+ * Writers take the shared side of a tier lock, and moving a batch to disk takes the exclusive side
+ * only to publish the segment and drop the moved entries, so no read or write sees a transaction
+ * in neither tier. Reads take no lock. Segments are scratch space: the journal is what survives a
+ * restart, so the directory is emptied when the store starts.
+ */
+public class TieredTransactionStore implements TransactionStore, MeterBinder, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(TieredTransactionStore.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // Once over the limit, move enough to get this far below it, so a busy hot tier isn't
+    // written out a handful of transactions at a time
+    private static final double HOT_LOW_WATERMARK = 0.9;
+    // Reads refresh an entry's access time at most this often, to keep reads from all writing
+    private static final long TOUCH_GRANULARITY_MILLIS = 1000;
+
+    private final TieredStoreProperties properties;
+    private final Path directory;
+    private final ConcurrentMap<String, HotEntry> hot = new ConcurrentHashMap<>();
+    // Newest first
+    private volatile List<SegmentFile> segments = List.of();
+    // A tombstone hides its id in every segment whose sequence is at most its value
+    private final ConcurrentMap<String, Long> deletedThrough = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock tierLock = new ReentrantReadWriteLock();
+    private final Cache<BlockKey, SegmentFile.Block> blocks;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong nextFileId = new AtomicLong();
+    private final LongAdder demoted = new LongAdder();
+    private final LongAdder coldReads = new LongAdder();
+    private final ScheduledExecutorService maintenance;
+    // Segments this store has published, for the next one's sequence; guarded by this
+    private long lastSequence;
+
+    public TieredTransactionStore(TieredStoreProperties properties) {
+        this.properties = properties;
+        this.directory = Paths.get(properties.getDirectory());
+        this.blocks = Caffeine.newBuilder()
+                .maximumWeight(properties.getBlockCacheSize().toBytes())
+                .weigher((BlockKey key, SegmentFile.Block block) -> block.weight())
+                .recordStats()
+                .build();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(TieredTransactionStore::isSegment).toList()) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare tiered store directory " + directory, e);
+        }
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tiered-store-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getDemotionInterval().toMillis();
+        maintenance.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Transaction get(String id) {
+        HotEntry entry = hot.get(id);
+        if (entry != null) {
+            entry.touch();
+            return entry.transaction;
+        }
+        return getCold(id);
+    }
+
+    @Override
+    public boolean containsKey(String id) {
+        return hot.containsKey(id) || getCold(id) != null;
+    }
+
+    @Override
+    public boolean put(Transaction transaction) {
+        String id = transaction.getId();
+        tierLock.readLock().lock();
+        try {
+            if (hot.put(id, new HotEntry(transaction)) != null || getCold(id) != null) {
+                return false;
+            }
+            count.incrementAndGet();
+            return true;
+        } finally {
+            tierLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Transaction remove(String id) {
+        tierLock.readLock().lock();
+        try {
+            HotEntry entry = hot.remove(id);
+            Transaction removed = entry != null ? entry.transaction : getCold(id);
+            List<SegmentFile> current = segments;
+            // A hot transaction may still have an older copy on disk
+            if (!current.isEmpty() && (entry == null ? removed != null : mightBeCold(current, id))) {
+                deletedThrough.merge(id, current.get(0).sequence(), Math::max);
+            }
+            if (removed != null) {
+                count.decrementAndGet();
+            }
+            return removed;
+        } finally {
+            tierLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        return count.get();
+    }
+
+    @Override
+    public boolean readsMayBlock() {
+        return true;
+    }
+
+    /**
+     * Returns the hot transactions, then the cold ones in id order. A transaction moved to disk
+     * while the hot tier is being walked is returned once, from whichever tier it was found in.
+     */
+    @Override
+    public Iterator<Transaction> iterator() {
+        Set<String> seen = new HashSet<>();
+        Iterator<HotEntry> hotEntries = hot.values().iterator();
+        return new Iterator<>() {
+            private Iterator<Transaction> cold;
+            private Transaction next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (cold == null) {
+                        if (hotEntries.hasNext()) {
+                            next = hotEntries.next().transaction;
+                            seen.add(next.getId());
+                            return true;
+                        }
+                        // Copied first: a merge clears tombstones only after replacing the segments they hid
+                        Map<String, Long> tombstones = new HashMap<>(deletedThrough);
+                        cold = visibleCold(retainSegments(), tombstones, seen);
+                    }
+                    if (!cold.hasNext()) {
+                        return false;
+                    }
+                    next = cold.next();
+                }
+                return true;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Transaction result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Moves cold transactions to disk and merges segments now, rather than at the next interval.
+     */
+    public synchronized void demoteNow() throws IOException {
+        demote();
+        if (segments.size() > properties.getMaxSegments()) {
+            compact();
+        }
+    }
+
+    public int hotSize() {
+        return hot.size();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long segmentBytes() {
+        long bytes = 0;
+        for (SegmentFile segment : segments) {
+            bytes += segment.fileBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        maintenance.shutdownNow();
+        synchronized (this) {
+            List<SegmentFile> closing = segments;
+            segments = List.of();
+            closing.forEach(SegmentFile::release);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transactions.store.hot", this, TieredTransactionStore::hotSize)
+                .description("Transactions held on the heap by the tiered store")
+                .register(registry);
+        Gauge.builder("transactions.store.segments", this, TieredTransactionStore::segmentCount)
+                .description("Segment files holding cold transactions")
+                .register(registry);
+        Gauge.builder("transactions.store.segment.size", this, TieredTransactionStore::segmentBytes)
+                .description("Disk used by segment files")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("transactions.store.demoted", demoted, LongAdder::sum)
+                .description("Transactions moved from the heap to segment files")
+                .register(registry);
+        FunctionCounter.builder("transactions.store.cold.reads", coldReads, LongAdder::sum)
+                .description("Reads answered from segment files")
+                .register(registry);
+        CaffeineCacheMetrics.monitor(registry, blocks, "coldBlocks");
+    }
+
+    private void maintain() {
+        try {
+            demoteNow();
+        } catch (IOException | RuntimeException e) {
+            // Everything stays where it was; the next run tries again
+            log.warn("Failed to move cold transactions to {}", directory, e);
+        }
+    }
+
+    private void demote() throws IOException {
+        long cutoff = System.currentTimeMillis() - properties.getColdAfter().toMillis();
+        int excess = hot.size() > properties.getHotMaxTransactions()
+                ? hot.size() - (int) (properties.getHotMaxTransactions() * HOT_LOW_WATERMARK) : 0;
+        List<Map.Entry<String, HotEntry>> candidates = new ArrayList<>();
+        if (excess > 0) {
+            List<Map.Entry<String, HotEntry>> all = new ArrayList<>(hot.entrySet());
+            all.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            int take = 0;
+            while (take < all.size() && (take < excess || all.get(take).getValue().lastAccess < cutoff)) {
+                take++;
+            }
+            candidates.addAll(all.subList(0, take));
+        } else {
+            for (Map.Entry<String, HotEntry> entry : hot.entrySet()) {
+                if (entry.getValue().lastAccess < cutoff) {
+                    candidates.add(entry);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        candidates.sort(Map.Entry.comparingByKey());
+
+        long sequence = lastSequence + 1;
+        SegmentFile segment = writeSegment(sequence, candidates.stream().map(e -> e.getValue().transaction).iterator(),
+                candidates.size());
+        tierLock.writeLock().lock();
+        try {
+            // Hide copies that were replaced or deleted while the segment was written, before
+            // readers can see the segment
+            for (Map.Entry<String, HotEntry> candidate : candidates) {
+                if (hot.get(candidate.getKey()) != candidate.getValue()) {
+                    deletedThrough.merge(candidate.getKey(), sequence, Math::max);
+                }
+            }
+            segments = prepend(segment, segments);
+            // Readers that miss the hot tier from here on find the segment
+            for (Map.Entry<String, HotEntry> candidate : candidates) {
+                hot.remove(candidate.getKey(), candidate.getValue());
+            }
+        } finally {
+            tierLock.writeLock().unlock();
+        }
+        lastSequence = sequence;
+        demoted.add(candidates.size());
+    }
+
+    // Merges every segment into one that takes the newest sequence
+    private void compact() throws IOException {
+        List<SegmentFile> merging = segments;
+        Map<String, Long> tombstones = new HashMap<>(deletedThrough);
+        long sequence = merging.get(0).sequence();
+        int expected = 0;
+        for (SegmentFile segment : merging) {
+            expected += segment.count();
+        }
+        Iterator<Transaction> kept = filter(new MergedSegments(merging), record -> !isDeleted(record.transaction.getId(),
+                record.sequence, tombstones) && !hot.containsKey(record.transaction.getId()));
+        SegmentFile merged = writeSegment(sequence, kept, expected);
+        tierLock.writeLock().lock();
+        try {
+            segments = merged.count() > 0 ? List.of(merged) : List.of();
+        } finally {
+            tierLock.writeLock().unlock();
+        }
+        // The merged segment holds nothing they hid; later tombstones stay
+        tombstones.forEach((id, through) -> {
+            if (through <= sequence) {
+                deletedThrough.remove(id, through);
+            }
+        });
+        merging.forEach(SegmentFile::release);
+        if (merged.count() == 0) {
+            merged.release();
+        }
+        log.debug("Merged {} segments into {} transactions", merging.size(), merged.count());
+    }
+
+    private SegmentFile writeSegment(long sequence, Iterator<Transaction> sorted, int expectedCount) throws IOException {
+        long fileId = nextFileId.incrementAndGet();
+        Path path = directory.resolve(SEGMENT_PREFIX + fileId + SEGMENT_SUFFIX);
+        return SegmentFile.write(path, fileId, sequence, sorted, expectedCount, (int) properties.getBlockSize().toBytes());
+    }
+
+    private Transaction getCold(String id) {
+        retry:
+        while (true) {
+            List<SegmentFile> current = segments;
+            Long deleted = deletedThrough.get(id);
+            for (SegmentFile segment : current) {
+                if (deleted != null && segment.sequence() <= deleted) {
+                    return null;
+                }
+                if (!segment.mightContain(id)) {
+                    continue;
+                }
+                if (!segment.retain()) {
+                    continue retry;
+                }
+                Transaction found;
+                try {
+                    found = find(segment, id);
+                } finally {
+                    segment.release();
+                }
+                if (found != null) {
+                    // A merge may have dropped it, and its tombstone, since we looked
+                    if (segments != current && !segments.contains(segment)) {
+                        continue retry;
+                    }
+                    coldReads.increment();
+                    return found;
+                }
+            }
+            return null;
+        }
+    }
+
+    private Transaction find(SegmentFile segment, String id) {
+        int index = segment.blockFor(id);
+        if (index < 0) {
+            return null;
+        }
+        return blocks.get(new BlockKey(segment.fileId(), index), key -> segment.readBlock(index)).find(id);
+    }
+
+    private static boolean mightBeCold(List<SegmentFile> current, String id) {
+        for (SegmentFile segment : current) {
+            if (segment.mightContain(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDeleted(String id, long sequence, Map<String, Long> tombstones) {
+        Long through = tombstones.get(id);
+        return through != null && sequence <= through;
+    }
+
+    private List<SegmentFile> retainSegments() {
+        while (true) {
+            List<SegmentFile> current = segments;
+            List<SegmentFile> retained = new ArrayList<>(current.size());
+            for (SegmentFile segment : current) {
+                if (!segment.retain()) {
+                    break;
+                }
+                retained.add(segment);
+            }
+            if (retained.size() == current.size()) {
+                return retained;
+            }
+            retained.forEach(SegmentFile::release);
+        }
+    }
+
+    // Cold transactions not shadowed by the hot tier or deleted; releases the segments when done
+    private Iterator<Transaction> visibleCold(List<SegmentFile> retained, Map<String, Long> tombstones, Set<String> seen) {
+        Iterator<Transaction> visible = filter(new MergedSegments(retained), record -> {
+            String id = record.transaction.getId();
+            return !seen.contains(id) && !hot.containsKey(id) && !isDeleted(id, record.sequence, tombstones);
+        });
+        return new Iterator<>() {
+            private boolean released;
+
+            @Override
+            public boolean hasNext() {
+                if (visible.hasNext()) {
+                    return true;
+                }
+                if (!released) {
+                    released = true;
+                    retained.forEach(SegmentFile::release);
+                }
+                return false;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return visible.next();
+            }
+        };
+    }
+
+    private static Iterator<Transaction> filter(Iterator<Record> records, Predicate<Record> keep) {
+        return new Iterator<>() {
+            private Transaction next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && records.hasNext()) {
+                    Record record = records.next();
+                    if (keep.test(record)) {
+                        next = record.transaction;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Transaction result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    private static List<SegmentFile> prepend(SegmentFile segment, List<SegmentFile> existing) {
+        List<SegmentFile> updated = new ArrayList<>(existing.size() + 1);
+        updated.add(segment);
+        updated.addAll(existing);
+        return Collections.unmodifiableList(updated);
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static final class HotEntry {
+        private final Transaction transaction;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        HotEntry(Transaction transaction) {
+            this.transaction = transaction;
+        }
+
+        void touch() {
+            long now = System.currentTimeMillis();
+            if (now - lastAccess > TOUCH_GRANULARITY_MILLIS) {
+                lastAccess = now;
+            }
+        }
+    }
+
+    private record BlockKey(long fileId, int block) {
+    }
+
+    // A transaction with the sequence of the segment it was read from
+    private record Record(Transaction transaction, long sequence) {
+    }
+
+    /**
+     * Merges the segments in id order, yielding only the newest copy of each id.
+     */
+    private static final class MergedSegments implements Iterator<Record> {
+        private final PriorityQueue<Cursor> cursors = new PriorityQueue<>(
+                Comparator.comparing((Cursor cursor) -> cursor.current.getId())
+                        .thenComparing(Comparator.comparingLong((Cursor cursor) -> cursor.sequence).reversed()));
+
+        MergedSegments(List<SegmentFile> segments) {
+            for (SegmentFile segment : segments) {
+                Cursor cursor = new Cursor(segment.iterator(), segment.sequence());
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public Record next() {
+            Cursor newest = cursors.poll();
+            if (newest == null) {
+                throw new NoSuchElementException();
+            }
+            Record record = new Record(newest.current, newest.sequence);
+            advance(newest);
+            // Older copies of the same id
+            while (!cursors.isEmpty() && cursors.peek().current.getId().equals(record.transaction.getId())) {
+                advance(cursors.poll());
+            }
+            return record;
+        }
+
+        private void advance(Cursor cursor) {
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+
+        private static final class Cursor {
+            private final Iterator<Transaction> transactions;
+            private final long sequence;
+            private Transaction current;
+
+            Cursor(Iterator<Transaction> transactions, long sequence) {
+                this.transactions = transactions;
+                this.sequence = sequence;
+            }
+
+            boolean advance() {
+                current = transactions.hasNext() ? transactions.next() : null;
+                return current != null;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.transactionmanager.store;
+
+import com.example.transactionmanager.model.Transaction;
+
+import java.util.Iterator;
+
+/**
+ * Storage for transactions by id. Implementations are safe for concurrent use, but callers
+ * serialize writers for the same id themselves so the journal and index stay in step.
+ */
+public interface TransactionStore {
+
+    Transaction get(String id);
+
+    boolean containsKey(String id);
+
+    /**
+     * Stores the transaction under its id and returns whether the id was new.
+     */
+    boolean put(Transaction transaction);
+
+    /**
+     * Removes the transaction and returns it, or {@code null} if there was none.
+     */
+    Transaction remove(String id);
+
+    long size();
+
+    /**
+     * Weakly consistent iteration over all transactions, as used for snapshots.
+     */
+    Iterator<Transaction> iterator();
+
+    // Memory held outside the Java heap, for the store gauge
+    default long offHeapBytes() {
+        return 0;
+    }
+
+    // Whether a read may wait on disk, so callers on an event loop must hand reads to another thread
+    default boolean readsMayBlock() {
+        return false;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.transactionmanager.account;
+
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.example.transactionmanager.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountPartitionsTest {
+    private AccountPartitions accounts;
+
+    @BeforeEach
+    public void setUp() {
+        accounts = new AccountPartitions(1000, 2);
+    }
+
+    @Test
+    public void testPartitionIsDroppedWithItsLastTransaction() {
+        accounts.onAdded("acct-a", "1");
+        accounts.onAdded("acct-a", "2");
+        assertEquals(2, accounts.get("acct-a").size());
+
+        accounts.onRemoved("acct-a", "1");
+        assertEquals(1, accounts.size());
+        accounts.onRemoved("acct-a", "2");
+        assertNull(accounts.get("acct-a"));
+        assertEquals(0, accounts.size());
+
+        // Removing from an account that is already gone doesn't bring it back
+        accounts.onRemoved("acct-a", "2");
+        assertEquals(0, accounts.size());
+    }
+
+    @Test
+    public void testWritesEvictOnlyTheirOwnAccountsPages() {
+        accounts.onAdded("acct-a", "1");
+        accounts.onAdded("acct-b", "2");
+        TransactionPageCache pagesA = accounts.pageCache("acct-a");
+        TransactionPageCache pagesB = accounts.pageCache("acct-b");
+        pagesA.put(0, 10, List.of(new Transaction("1", "A", 1.0)), pagesA.currentVersion());
+        pagesB.put(0, 10, List.of(new Transaction("2", "B", 1.0)), pagesB.currentVersion());
+
+        accounts.onAdded("acct-a", "3");
+
+        assertNull(accounts.pageCache("acct-a").get(0, 10));
+        assertNotNull(accounts.pageCache("acct-b").get(0, 10));
+    }
+}
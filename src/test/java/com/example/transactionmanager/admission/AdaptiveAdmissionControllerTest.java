@@ -0,0 +1,77 @@
+package com.example.transactionmanager.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveAdmissionControllerTest {
+
+    @Test
+    public void testRejectsOnceLimitIsReachedAndAdmitsAfterRelease() {
+        AdaptiveAdmissionController admission = AdaptiveAdmissionController.fixed(2);
+
+        AdmissionController.Permit first = admission.acquire(OperationClass.WRITE);
+        admission.acquire(OperationClass.WRITE);
+        assertThrows(ServiceOverloadedException.class, () -> admission.acquire(OperationClass.WRITE));
+        assertEquals(2, admission.getInflight(OperationClass.WRITE));
+        assertEquals(1, admission.getRejected(OperationClass.WRITE));
+
+        first.release();
+        assertNotNull(admission.acquire(OperationClass.WRITE));
+    }
+
+    @Test
+    public void testClassesHaveIndependentLimits() {
+        AdaptiveAdmissionController admission = new AdaptiveAdmissionController(Map.of(
+                OperationClass.READ, new FixedLimit(1),
+                OperationClass.WRITE, new FixedLimit(1)), Duration.ofMillis(250));
+
+        admission.acquire(OperationClass.WRITE);
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> admission.acquire(OperationClass.WRITE));
+        assertEquals(Duration.ofMillis(250), exception.getRetryAfter());
+        assertNotNull(admission.acquire(OperationClass.READ));
+    }
+
+    @Test
+    public void testGradientLimitShrinksWhenLatencyRisesAndGrowsWhenItHolds() {
+        GradientLimit limit = new GradientLimit(100, 10, 1000);
+        long fast = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(fast, 100, false);
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 100, "limit should grow while latency is flat: " + grown);
+
+        // Latency jumps well beyond the long-term average: requests are queueing
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(fast * 20, grown, false);
+        }
+        assertTrue(limit.getLimit() < grown, "limit should shrink under queueing: " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 10);
+    }
+
+    @Test
+    public void testGradientLimitIgnoresSamplesWhenUnderused() {
+        GradientLimit limit = new GradientLimit(100, 10, 1000);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), 5, false);
+        }
+        assertEquals(100, limit.getLimit());
+    }
+
+    @Test
+    public void testAimdLimitBacksOffOnSlowOrDroppedRequests() {
+        AimdLimit limit = new AimdLimit(100, 10, 1000, TimeUnit.MILLISECONDS.toNanos(50));
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), 100, false);
+        assertEquals(101, limit.getLimit());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(200), 100, false);
+        assertEquals(90, limit.getLimit());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), 90, true);
+        assertEquals(81, limit.getLimit());
+    }
+}
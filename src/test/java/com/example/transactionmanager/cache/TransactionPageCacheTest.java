@@ -0,0 +1,136 @@
+package com.example.transactionmanager.cache;
+
+import com.example.transactionmanager.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionPageCacheTest {
+    private TransactionPageCache pageCache;
+
+    @BeforeEach
+    public void setUp() {
+        pageCache = new TransactionPageCache(1000);
+    }
+
+    private List<Transaction> page(String... ids) {
+        List<Transaction> items = new ArrayList<>();
+        for (String id : ids) {
+            items.add(new Transaction(id, "Transaction " + id, 10.0));
+        }
+        return items;
+    }
+
+    @Test
+    public void testModifyEvictsOnlyPageHoldingId() {
+        pageCache.put(0, 2, page("a", "b"), pageCache.currentVersion());
+        pageCache.put(1, 2, page("c", "d"), pageCache.currentVersion());
+
+        pageCache.onModified("c");
+
+        assertNotNull(pageCache.get(0, 2));
+        assertNull(pageCache.get(1, 2));
+    }
+
+    @Test
+    public void testModifyEvictsPageHoldingIdInEachPageSize() {
+        pageCache.put(0, 2, page("a", "b"), pageCache.currentVersion());
+        pageCache.put(1, 2, page("c", "d"), pageCache.currentVersion());
+        pageCache.put(0, 3, page("a", "b", "c"), pageCache.currentVersion());
+        pageCache.put(1, 3, page("d"), pageCache.currentVersion());
+
+        pageCache.onModified("b");
+
+        assertNull(pageCache.get(0, 2));
+        assertNotNull(pageCache.get(1, 2));
+        assertNull(pageCache.get(0, 3));
+        assertNotNull(pageCache.get(1, 3));
+    }
+
+    @Test
+    public void testReplacedPageIsStillEvicted() {
+        pageCache.put(0, 2, page("a", "b"), pageCache.currentVersion());
+        pageCache.put(0, 2, page("a", "c"), pageCache.currentVersion());
+
+        pageCache.onModified("c");
+
+        assertNull(pageCache.get(0, 2));
+    }
+
+    @Test
+    public void testInsertEvictsPagesAtOrAfterPosition() {
+        pageCache.put(0, 2, page("a", "c"), pageCache.currentVersion());
+        pageCache.put(1, 2, page("e", "g"), pageCache.currentVersion());
+        pageCache.put(2, 2, page("i"), pageCache.currentVersion());
+
+        pageCache.onInsertedOrRemoved("d");
+
+        assertNotNull(pageCache.get(0, 2));
+        assertNull(pageCache.get(1, 2));
+        assertNull(pageCache.get(2, 2));
+    }
+
+    @Test
+    public void testInsertAfterLastIdEvictsTailPage() {
+        pageCache.put(0, 2, page("a", "b"), pageCache.currentVersion());
+        pageCache.put(1, 2, page("c"), pageCache.currentVersion());
+
+        pageCache.onInsertedOrRemoved("z");
+
+        assertNotNull(pageCache.get(0, 2));
+        assertNull(pageCache.get(1, 2));
+    }
+
+    @Test
+    public void testPutDiscardsPageReadBeforeConflictingMutation() {
+        long readVersion = pageCache.currentVersion();
+        pageCache.onInsertedOrRemoved("b");
+
+        List<Transaction> returned = pageCache.put(0, 2, page("a", "c"), readVersion);
+
+        assertEquals(2, returned.size());
+        assertNull(pageCache.get(0, 2));
+    }
+
+    @Test
+    public void testPutKeepsPageWhenRacingMutationDoesNotTouchIt() {
+        long readVersion = pageCache.currentVersion();
+        pageCache.onModified("x");
+
+        pageCache.put(0, 2, page("a", "c"), readVersion);
+
+        assertNotNull(pageCache.get(0, 2));
+    }
+
+    @Test
+    public void testStatsReportHitsAndMisses() {
+        pageCache.get(0, 2);
+        pageCache.put(0, 2, page("a", "b"), pageCache.currentVersion());
+        pageCache.get(0, 2);
+
+        TransactionPageCache.PageCacheStats stats = pageCache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    public void testBatchInvalidatesInOnePass() {
+        pageCache.put(0, 2, page("a", "b"), pageCache.currentVersion());
+        pageCache.put(1, 2, page("c", "d"), pageCache.currentVersion());
+        pageCache.put(2, 2, page("e", "f"), pageCache.currentVersion());
+        pageCache.put(3, 2, page("g", "h"), pageCache.currentVersion());
+
+        // Removing "g" shifts only the last page; modifying "c" touches only the second
+        pageCache.onBatch(List.of("g"), List.of("c"));
+
+        assertNotNull(pageCache.get(0, 2));
+        assertNull(pageCache.get(1, 2));
+        assertNotNull(pageCache.get(2, 2));
+        assertNull(pageCache.get(3, 2));
+    }
+}
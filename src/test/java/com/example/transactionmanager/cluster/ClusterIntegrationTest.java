@@ -0,0 +1,286 @@
+package com.example.transactionmanager.cluster;
+
+import com.example.transactionmanager.TransactionManagerApplication;
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.service.TransactionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three nodes with replication factor 2 running in this JVM on free localhost ports.
+ */
+public class ClusterIntegrationTest {
+    private static final int NODES = 3;
+    private static final String SECRET = "test-secret";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private final List<Integer> ports = new ArrayList<>();
+    private final List<String> members = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        for (int i = 0; i < NODES; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                ports.add(socket.getLocalPort());
+            }
+        }
+        for (int i = 0; i < NODES; i++) {
+            members.add("node-" + i + "=http://localhost:" + ports.get(i));
+        }
+        for (int i = 0; i < NODES; i++) {
+            contexts.add(start(i));
+        }
+    }
+
+    private ConfigurableApplicationContext start(int node, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=" + ports.get(node),
+                "--logging.level.root=warn",
+                "--transactionmanager.cluster.enabled=true",
+                "--transactionmanager.cluster.node-id=node-" + node,
+                "--transactionmanager.cluster.nodes=" + String.join(",", members),
+                "--transactionmanager.cluster.replication-factor=2",
+                "--transactionmanager.cluster.secret=" + SECRET));
+        args.addAll(List.of(extraArgs));
+        return SpringApplication.run(TransactionManagerApplication.class, args.toArray(String[]::new));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private HttpResponse<String> send(int node, String method, String path, String body, String... headers)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + ports.get(node) + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testWritesAreVisibleFromEveryNode() throws Exception {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            HttpResponse<String> created = send(i % NODES, "POST", "/transactions",
+                    "{\"description\": \"Cluster " + i + "\", \"amount\": " + (i + 1) + "}");
+            assertEquals(200, created.statusCode());
+            ids.add(objectMapper.readTree(created.body()).get("id").asText());
+        }
+        assertEquals(30, ids.size());
+
+        for (String id : ids) {
+            String etag = null;
+            for (int node = 0; node < NODES; node++) {
+                HttpResponse<String> read = send(node, "GET", "/transactions/" + id, null);
+                assertEquals(200, read.statusCode());
+                // Every replica holds the version the owner assigned
+                if (etag == null) {
+                    etag = read.headers().firstValue("ETag").orElseThrow();
+                }
+                assertEquals(etag, read.headers().firstValue("ETag").orElseThrow());
+            }
+        }
+    }
+
+    @Test
+    public void testConditionalModifyAndDeleteThroughAnyNode() throws Exception {
+        HttpResponse<String> created = send(0, "POST", "/transactions",
+                "{\"id\": \"tx-modify\", \"description\": \"Original\", \"amount\": 10}");
+        String etag = send(1, "GET", "/transactions/tx-modify", null).headers().firstValue("ETag").orElseThrow();
+        assertEquals(200, created.statusCode());
+
+        HttpResponse<String> modified = send(2, "PUT", "/transactions/tx-modify",
+                "{\"id\": \"tx-modify\", \"description\": \"Modified\", \"amount\": 20}", "If-Match", etag);
+        assertEquals(200, modified.statusCode());
+        HttpResponse<String> stale = send(1, "PUT", "/transactions/tx-modify",
+                "{\"id\": \"tx-modify\", \"description\": \"Stale\", \"amount\": 30}", "If-Match", etag);
+        assertEquals(412, stale.statusCode());
+
+        for (int node = 0; node < NODES; node++) {
+            JsonNode read = objectMapper.readTree(send(node, "GET", "/transactions/tx-modify", null).body());
+            assertEquals("Modified", read.get("description").asText());
+        }
+
+        assertEquals(200, send(1, "DELETE", "/transactions/tx-modify", null).statusCode());
+        for (int node = 0; node < NODES; node++) {
+            assertEquals(404, send(node, "GET", "/transactions/tx-modify", null).statusCode());
+        }
+    }
+
+    @Test
+    public void testBatchIsSplitByOwnerAndMergedInOrder() throws Exception {
+        StringBuilder items = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            items.append(i == 0 ? "" : ",")
+                    .append("{\"id\": \"batch-").append(i).append("\", \"description\": \"Batch\", \"amount\": 5}");
+        }
+        items.append(",{\"id\": \"batch-invalid\", \"description\": \"\", \"amount\": 5}]");
+
+        JsonNode results = objectMapper.readTree(send(0, "POST", "/transactions/batch", items.toString()).body());
+        assertEquals(21, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, results.get(i).get("index").asInt());
+            assertEquals("batch-" + i, results.get(i).get("id").asText());
+            assertEquals("CREATED", results.get(i).get("status").asText());
+        }
+        assertEquals("INVALID", results.get(20).get("status").asText());
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(200, send(2, "GET", "/transactions/batch-" + i, null).statusCode());
+        }
+    }
+
+    @Test
+    public void testReadsSurviveOneNodeDown() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add("survivor-" + i);
+            assertEquals(200, send(0, "POST", "/transactions",
+                    "{\"id\": \"survivor-" + i + "\", \"description\": \"Survivor\", \"amount\": 1}").statusCode());
+        }
+
+        contexts.get(2).close();
+
+        // Every id has a second replica on node 0 or 1
+        for (String id : ids) {
+            for (int node = 0; node < 2; node++) {
+                assertEquals(200, send(node, "GET", "/transactions/" + id, null).statusCode());
+            }
+        }
+        // Writes owned by the stopped node fail over to the next replica
+        for (String id : ids) {
+            assertEquals(200, send(1, "PUT", "/transactions/" + id,
+                    "{\"id\": \"" + id + "\", \"description\": \"After failover\", \"amount\": 2}").statusCode());
+        }
+    }
+
+    @Test
+    public void testClientsCannotPoseAsPeers() throws Exception {
+        String change = "[{\"id\": \"forged\", \"version\": 1, "
+                + "\"transaction\": {\"id\": \"forged\", \"description\": \"Forged\", \"amount\": 1}}]";
+        assertEquals(403, send(0, "POST", "/internal/cluster/replicas", change).statusCode());
+        assertEquals(403, send(0, "POST", "/internal/cluster/replicas", change,
+                PeerClient.SECRET_HEADER, "wrong").statusCode());
+        assertEquals(400, send(0, "POST", "/internal/cluster/replicas", "[{\"id\": \"forged\", \"version\": "
+                + Long.MAX_VALUE + ", \"transaction\": {\"id\": \"forged\", \"description\": \"Forged\", \"amount\": 1}}]",
+                PeerClient.SECRET_HEADER, SECRET).statusCode());
+
+        // A claimed forward is ignored, so the create is still routed to its owner and replicated
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, send(0, "POST", "/transactions",
+                    "{\"id\": \"claimed-" + i + "\", \"description\": \"Claimed\", \"amount\": 1}",
+                    PeerClient.FORWARDED_HEADER, "node-1").statusCode());
+            int holders = 0;
+            for (ConfigurableApplicationContext context : contexts) {
+                if (context.getBean(TransactionService.class).getTransaction("claimed-" + i).isPresent()) {
+                    holders++;
+                }
+            }
+            assertEquals(2, holders);
+        }
+    }
+
+    @Test
+    public void testIdempotencyKeyIsHonouredOnEveryNode() throws Exception {
+        String body = "{\"description\": \"Retried\", \"amount\": 1}";
+        HttpResponse<String> first = send(0, "POST", "/transactions", body, "Idempotency-Key", "retry-anywhere");
+        assertEquals(200, first.statusCode());
+        String id = objectMapper.readTree(first.body()).get("id").asText();
+
+        for (int node = 0; node < NODES; node++) {
+            HttpResponse<String> retried = send(node, "POST", "/transactions", body, "Idempotency-Key", "retry-anywhere");
+            assertEquals(200, retried.statusCode());
+            assertEquals(id, objectMapper.readTree(retried.body()).get("id").asText());
+            assertEquals("true", retried.headers().firstValue("Idempotent-Replayed").orElse(null));
+        }
+        long created = 0;
+        for (ConfigurableApplicationContext context : contexts) {
+            created += context.getBean(TransactionService.class).getTotalTransactions();
+        }
+        assertEquals(2, created);
+    }
+
+    @Test
+    public void testRestartedNodeCopiesItsShareBeforeReady() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            assertEquals(200, send(0, "POST", "/transactions",
+                    "{\"id\": \"before-" + i + "\", \"description\": \"Before\", \"amount\": 1}").statusCode());
+        }
+        contexts.get(2).close();
+        // Written while the node is down, so only a copy from the others can bring them back
+        for (int i = 0; i < 30; i++) {
+            assertEquals(200, send(0, "POST", "/transactions",
+                    "{\"id\": \"during-" + i + "\", \"description\": \"During\", \"amount\": 2}").statusCode());
+            assertEquals(200, send(1, "PUT", "/transactions/before-" + i,
+                    "{\"id\": \"before-" + i + "\", \"description\": \"Changed\", \"amount\": 3}").statusCode());
+        }
+
+        // Without persistence the node comes back empty, and has caught up by the time run returns
+        contexts.set(2, start(2));
+
+        Cluster cluster = contexts.get(2).getBean(Cluster.class);
+        TransactionService restarted = contexts.get(2).getBean(TransactionService.class);
+        long held = 0;
+        for (int i = 0; i < 30; i++) {
+            for (String id : List.of("before-" + i, "during-" + i)) {
+                if (!cluster.holdsReplica(id)) {
+                    continue;
+                }
+                held++;
+                Transaction expected = contexts.get(0).getBean(TransactionService.class).getTransaction(id)
+                        .or(() -> contexts.get(1).getBean(TransactionService.class).getTransaction(id))
+                        .orElseThrow();
+                Transaction copied = restarted.getTransaction(id).orElseThrow();
+                assertEquals(expected.getDescription(), copied.getDescription());
+                assertEquals(expected.getVersion(), copied.getVersion());
+            }
+        }
+        assertTrue(held > 0);
+        assertEquals(held, restarted.getTotalTransactions());
+        assertEquals(held, objectMapper.readTree(send(2, "GET", "/transactions?page=0&size=1", null).body())
+                .get("totalItems").asLong());
+    }
+
+    @Test
+    public void testRestartedReplicaWithoutBootstrapReadsFromTheOtherReplica() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add("restarted-" + i);
+            assertEquals(200, send(0, "POST", "/transactions",
+                    "{\"id\": \"restarted-" + i + "\", \"description\": \"Restarted\", \"amount\": 1}").statusCode());
+        }
+
+        // Without persistence or bootstrap the restarted node comes back empty
+        contexts.get(2).close();
+        contexts.set(2, start(2, "--transactionmanager.cluster.bootstrap=false"));
+
+        for (String id : ids) {
+            assertEquals(200, send(2, "GET", "/transactions/" + id, null).statusCode());
+        }
+        assertEquals(404, send(2, "GET", "/transactions/never-written", null).statusCode());
+    }
+}
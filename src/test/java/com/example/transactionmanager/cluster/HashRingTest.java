@@ -0,0 +1,69 @@
+package com.example.transactionmanager.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashRingTest {
+
+    private static List<ClusterNode> nodes(int count) {
+        List<ClusterNode> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            nodes.add(new ClusterNode("node-" + i, URI.create("http://localhost:" + (8080 + i))));
+        }
+        return nodes;
+    }
+
+    @Test
+    public void testKeysAreSpreadEvenly() {
+        HashRing ring = new HashRing(nodes(4), 128);
+        Map<String, Integer> owned = new HashMap<>();
+        int keys = 100_000;
+        for (int i = 0; i < keys; i++) {
+            owned.merge(ring.replicasFor("tx-" + i, 1).get(0).id(), 1, Integer::sum);
+        }
+
+        assertEquals(4, owned.size());
+        for (int count : owned.values()) {
+            assertEquals(keys / 4.0, count, keys / 4.0 * 0.15);
+        }
+    }
+
+    @Test
+    public void testReplicasAreDistinctAndStartWithOwner() {
+        HashRing ring = new HashRing(nodes(3), 128);
+        for (int i = 0; i < 1000; i++) {
+            List<ClusterNode> replicas = ring.replicasFor("tx-" + i, 2);
+            assertEquals(2, replicas.size());
+            assertEquals(2, new HashSet<>(replicas).size());
+            assertEquals(ring.replicasFor("tx-" + i, 1).get(0), replicas.get(0));
+        }
+        // Asking for more replicas than nodes returns every node once
+        assertEquals(3, ring.replicasFor("tx-0", 5).size());
+    }
+
+    @Test
+    public void testAddingNodeMovesOnlyItsShare() {
+        HashRing before = new HashRing(nodes(4), 128);
+        HashRing after = new HashRing(nodes(5), 128);
+        int keys = 100_000;
+        int moved = 0;
+        for (int i = 0; i < keys; i++) {
+            String oldOwner = before.replicasFor("tx-" + i, 1).get(0).id();
+            String newOwner = after.replicasFor("tx-" + i, 1).get(0).id();
+            if (!oldOwner.equals(newOwner)) {
+                // Keys only ever move to the new node
+                assertEquals("node-4", newOwner);
+                moved++;
+            }
+        }
+        assertEquals(keys / 5.0, moved, keys / 5.0 * 0.2);
+    }
+}
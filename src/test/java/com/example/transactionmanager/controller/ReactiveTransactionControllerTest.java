@@ -0,0 +1,196 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.TransactionManagerApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The reactive profile on Netty, with a journal so writes take the offloaded path.
+ */
+public class ReactiveTransactionControllerTest {
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private int start(String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.profiles.active=reactive",
+                "--server.port=0",
+                "--logging.level.root=warn",
+                "--transactionmanager.persistence.enabled=true",
+                "--transactionmanager.persistence.directory=" + directory.resolve("data" + contexts.size())));
+        arguments.addAll(List.of(args));
+        ConfigurableApplicationContext context = SpringApplication.run(TransactionManagerApplication.class,
+                arguments.toArray(String[]::new));
+        contexts.add(context);
+        WebServerApplicationContext server = (WebServerApplicationContext) context;
+        assertInstanceOf(NettyWebServer.class, server.getWebServer());
+        return server.getWebServer().getPort();
+    }
+
+    private HttpRequest.Builder request(int port, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpResponse<String> send(int port, String method, String path, String body, String... headers)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = request(port, path)
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testCrudWithVersions() throws Exception {
+        int port = start();
+        HttpResponse<String> created = send(port, "POST", "/transactions",
+                "{\"id\": \"tx-1\", \"description\": \"Coffee\", \"amount\": 3.5}");
+        assertEquals(200, created.statusCode());
+        assertEquals(400, send(port, "POST", "/transactions", "{\"id\": \"tx-2\", \"description\": \"\", \"amount\": 1}").statusCode());
+
+        HttpResponse<String> read = send(port, "GET", "/transactions/tx-1", null);
+        assertEquals(200, read.statusCode());
+        String etag = read.headers().firstValue("ETag").orElseThrow();
+        assertEquals("\"" + objectMapper.readTree(read.body()).get("version").asLong() + "\"", etag);
+
+        String update = "{\"id\": \"tx-1\", \"description\": \"Tea\", \"amount\": 4}";
+        HttpResponse<String> modified = send(port, "PUT", "/transactions/tx-1", update, "If-Match", etag);
+        assertEquals(200, modified.statusCode());
+        assertNotEquals(etag, modified.headers().firstValue("ETag").orElseThrow());
+        HttpResponse<String> stale = send(port, "PUT", "/transactions/tx-1", update, "If-Match", etag);
+        assertEquals(412, stale.statusCode());
+        assertEquals(modified.headers().firstValue("ETag"), stale.headers().firstValue("ETag"));
+        assertEquals(412, send(port, "PUT", "/transactions/missing", update, "If-Match", "*").statusCode());
+        assertEquals(404, send(port, "PUT", "/transactions/missing", update).statusCode());
+
+        assertEquals(200, send(port, "DELETE", "/transactions/tx-1", null).statusCode());
+        assertEquals(404, send(port, "DELETE", "/transactions/tx-1", null).statusCode());
+        assertEquals(404, send(port, "GET", "/transactions/tx-1", null).statusCode());
+    }
+
+    @Test
+    public void testListsPagesAsJsonAndCbor() throws Exception {
+        int port = start();
+        HttpResponse<String> batch = send(port, "POST", "/transactions/batch",
+                "[{\"description\": \"First\", \"amount\": 1}, {\"description\": \"Second\", \"amount\": 2},"
+                        + " {\"description\": \"Third\", \"amount\": 3}]");
+        assertEquals(200, batch.statusCode());
+
+        JsonNode json = objectMapper.readTree(send(port, "GET", "/transactions?page=0&size=2", null).body());
+        assertEquals(2, json.get("transactions").size());
+        assertEquals(3, json.get("totalItems").asLong());
+        assertEquals(2, json.get("totalPages").asLong());
+
+        HttpResponse<byte[]> cbor = client.send(request(port, "/transactions?page=0&size=2")
+                .header("Accept", "application/cbor").build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("application/cbor", cbor.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(json, new ObjectMapper(new CBORFactory()).readTree(cbor.body()));
+
+        JsonNode byAmount = objectMapper.readTree(send(port, "GET", "/transactions?sort=-amount&size=2", null).body());
+        assertEquals(3.0, byAmount.get("transactions").get(0).get("amount").asDouble());
+        assertEquals("2.0:", byAmount.get("nextCursor").asText().substring(0, 4));
+        assertEquals(400, send(port, "GET", "/transactions?sort=name", null).statusCode());
+
+        // The list writer is consulted before the Jackson encoders
+        List<HttpMessageWriter<?>> writers = contexts.get(0).getBean(ServerCodecConfigurer.class).getWriters();
+        int listWriter = -1;
+        for (int i = 0; i < writers.size() && listWriter < 0; i++) {
+            if (writers.get(i) instanceof TransactionListHttpMessageWriter) {
+                listWriter = i;
+            }
+        }
+        assertTrue(listWriter >= 0);
+        assertTrue(writers.subList(0, listWriter).stream().noneMatch(writer -> writer.getWritableMediaTypes()
+                .stream().anyMatch(type -> type.getSubtype().equals("json"))));
+    }
+
+    @Test
+    public void testExportsAndStreamsChanges() throws Exception {
+        int port = start();
+        // Its own client, shut down to drop the connection; otherwise shutdown waits for the stream to end
+        HttpClient streamClient = HttpClient.newHttpClient();
+        HttpResponse<InputStream> changes = streamClient.send(request(port, "/transactions/changes").build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, changes.statusCode());
+        assertTrue(changes.headers().firstValue("Content-Type").orElseThrow().startsWith("text/event-stream"));
+
+        send(port, "POST", "/transactions", "{\"id\": \"tx-1\", \"description\": \"Coffee\", \"amount\": 3.5}");
+        send(port, "POST", "/transactions", "{\"id\": \"tx-2\", \"description\": \"Tea\", \"amount\": 4}");
+
+        // The stream is flushed as changes happen, not when the response ends
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(changes.body(), StandardCharsets.UTF_8))) {
+            List<String> data = new ArrayList<>();
+            for (String line = events.readLine(); data.size() < 2 && line != null; line = events.readLine()) {
+                if (line.startsWith("data:")) {
+                    data.add(line);
+                }
+            }
+            assertTrue(data.get(0).contains("\"tx-1\""));
+            assertTrue(data.get(1).contains("\"tx-2\""));
+        } finally {
+            streamClient.shutdownNow();
+        }
+
+        String export = send(port, "GET", "/transactions/export", null).body();
+        assertEquals(2, export.lines().count());
+        HttpResponse<InputStream> compressed = client.send(request(port, "/transactions/export")
+                .header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals("gzip", compressed.headers().firstValue("Content-Encoding").orElseThrow());
+        try (InputStream in = new GZIPInputStream(compressed.body())) {
+            assertEquals(export, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testRejectsWithRetryAfterWhenOverloaded() throws Exception {
+        int port = start("--transactionmanager.admission.algorithm=fixed",
+                "--transactionmanager.admission.write.initial-limit=0",
+                "--transactionmanager.admission.read.initial-limit=0",
+                "--transactionmanager.feed.max-subscribers=0");
+
+        HttpResponse<String> create = send(port, "POST", "/transactions",
+                "{\"id\": \"tx-1\", \"description\": \"Coffee\", \"amount\": 3.5}");
+        assertEquals(429, create.statusCode());
+        assertTrue(create.headers().firstValue("Retry-After").isPresent());
+        assertEquals(429, send(port, "GET", "/transactions?page=0&size=10", null).statusCode());
+        assertEquals(429, send(port, "GET", "/transactions/export", null).statusCode());
+        assertEquals(429, send(port, "GET", "/transactions/changes", null).statusCode());
+    }
+}
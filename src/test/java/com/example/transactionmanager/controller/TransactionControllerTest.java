@@ -1,18 +1,31 @@
 package com.example.transactionmanager.controller;
 
+import com.example.transactionmanager.admission.OperationClass;
+import com.example.transactionmanager.admission.ServiceOverloadedException;
+import com.example.transactionmanager.cache.ListPage;
+import com.example.transactionmanager.model.BatchItemResult;
 import com.example.transactionmanager.model.Transaction;
 import com.example.transactionmanager.service.TransactionService;
+import com.example.transactionmanager.service.VersionConflictException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -75,7 +88,7 @@ public class TransactionControllerTest {
         Transaction modifiedTransaction = new Transaction("1", "Shopping - Updated", 200.0);
         when(transactionService.modifyTransaction("1", modifiedTransaction)).thenReturn(modifiedTransaction);
 
-        ResponseEntity<Transaction> response = transactionController.modifyTransaction("1", modifiedTransaction);
+        ResponseEntity<Transaction> response = transactionController.modifyTransaction("1", modifiedTransaction, null);
         assertNotNull(response);
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(modifiedTransaction, response.getBody());
@@ -88,7 +101,7 @@ public class TransactionControllerTest {
         Transaction modifiedTransaction = new Transaction("1", "Shopping - Updated", 200.0);
         when(transactionService.modifyTransaction("1", modifiedTransaction)).thenReturn(null);
 
-        ResponseEntity<Transaction> response = transactionController.modifyTransaction("1", modifiedTransaction);
+        ResponseEntity<Transaction> response = transactionController.modifyTransaction("1", modifiedTransaction, null);
         assertNotNull(response);
         assertEquals(404, response.getStatusCodeValue());
         assertNull(response.getBody());
@@ -105,49 +118,47 @@ public class TransactionControllerTest {
         }
 
         // Mock service behavior
-        when(transactionService.listTransactions(0, 10)).thenReturn(mockTransactions.subList(0, 10));
+        when(transactionService.listTransactionPage(0, 10)).thenReturn(ListPage.of(mockTransactions.subList(0, 10)));
         when(transactionService.getTotalTransactions()).thenReturn(15L);
 
         // Test first page
-        ResponseEntity<Map<String, Object>> response = transactionController.listTransactions(0, 10);
+        ResponseEntity<?> response = transactionController.listTransactions(0, 10, null, null, null, null);
         assertNotNull(response);
         assertEquals(200, response.getStatusCodeValue());
 
-        Map<String, Object> responseBody = response.getBody();
+        TransactionListResponse responseBody = (TransactionListResponse) response.getBody();
         assertNotNull(responseBody);
         
-        @SuppressWarnings("unchecked")
-        List<Transaction> transactions = (List<Transaction>) responseBody.get("transactions");
+        List<Transaction> transactions = responseBody.transactions();
         assertEquals(10, transactions.size());
-        assertEquals(0, responseBody.get("currentPage"));
-        assertEquals(15L, responseBody.get("totalItems"));
-        assertEquals(2L, responseBody.get("totalPages"));
+        assertEquals(0, responseBody.currentPage());
+        assertEquals(15L, responseBody.totalItems());
+        assertEquals(2L, responseBody.totalPages());
 
         // Verify service calls
-        verify(transactionService).listTransactions(0, 10);
+        verify(transactionService).listTransactionPage(0, 10);
         verify(transactionService).getTotalTransactions();
     }
 
     @Test
     public void testListTransactionsEmptyResult() {
         // Mock empty result
-        when(transactionService.listTransactions(anyInt(), anyInt())).thenReturn(new ArrayList<>());
+        when(transactionService.listTransactionPage(anyInt(), anyInt())).thenReturn(ListPage.EMPTY);
         when(transactionService.getTotalTransactions()).thenReturn(0L);
 
         // Test empty result
-        ResponseEntity<Map<String, Object>> response = transactionController.listTransactions(0, 10);
+        ResponseEntity<?> response = transactionController.listTransactions(0, 10, null, null, null, null);
         assertNotNull(response);
         assertEquals(200, response.getStatusCodeValue());
 
-        Map<String, Object> responseBody = response.getBody();
+        TransactionListResponse responseBody = (TransactionListResponse) response.getBody();
         assertNotNull(responseBody);
         
-        @SuppressWarnings("unchecked")
-        List<Transaction> transactions = (List<Transaction>) responseBody.get("transactions");
+        List<Transaction> transactions = responseBody.transactions();
         assertTrue(transactions.isEmpty());
-        assertEquals(0, responseBody.get("currentPage"));
-        assertEquals(0L, responseBody.get("totalItems"));
-        assertEquals(0L, responseBody.get("totalPages"));
+        assertEquals(0, responseBody.currentPage());
+        assertEquals(0L, responseBody.totalItems());
+        assertEquals(0L, responseBody.totalPages());
     }
 
     @Test
@@ -159,22 +170,224 @@ public class TransactionControllerTest {
         }
 
         // Mock service behavior
-        when(transactionService.listTransactions(1, 10)).thenReturn(mockTransactions);
+        when(transactionService.listTransactionPage(1, 10)).thenReturn(ListPage.of(mockTransactions));
         when(transactionService.getTotalTransactions()).thenReturn(15L);
 
         // Test last page
-        ResponseEntity<Map<String, Object>> response = transactionController.listTransactions(1, 10);
+        ResponseEntity<?> response = transactionController.listTransactions(1, 10, null, null, null, null);
         assertNotNull(response);
         assertEquals(200, response.getStatusCodeValue());
 
-        Map<String, Object> responseBody = response.getBody();
+        TransactionListResponse responseBody = (TransactionListResponse) response.getBody();
         assertNotNull(responseBody);
         
-        @SuppressWarnings("unchecked")
-        List<Transaction> transactions = (List<Transaction>) responseBody.get("transactions");
+        List<Transaction> transactions = responseBody.transactions();
         assertEquals(5, transactions.size());
-        assertEquals(1, responseBody.get("currentPage"));
-        assertEquals(15L, responseBody.get("totalItems"));
-        assertEquals(2L, responseBody.get("totalPages"));
+        assertEquals(1, responseBody.currentPage());
+        assertEquals(15L, responseBody.totalItems());
+        assertEquals(2L, responseBody.totalPages());
+    }
+
+    @Test
+    public void testListTransactionsAfterCursor() {
+        List<Transaction> mockTransactions = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            mockTransactions.add(new Transaction(String.valueOf(i), "Transaction " + i, i * 10.0));
+        }
+
+        when(transactionService.listTransactionsAfter("0", 2)).thenReturn(mockTransactions);
+        when(transactionService.getTotalTransactions()).thenReturn(5L);
+
+        ResponseEntity<Map<String, Object>> response = transactionController.listTransactionsAfter("0", 2);
+        assertNotNull(response);
+        assertEquals(200, response.getStatusCodeValue());
+
+        Map<String, Object> responseBody = response.getBody();
+        assertNotNull(responseBody);
+        assertEquals("2", responseBody.get("nextCursor"));
+        assertEquals(5L, responseBody.get("totalItems"));
+
+        verify(transactionService).listTransactionsAfter("0", 2);
+    }
+
+    @Test
+    public void testListTransactionsAfterLastCursor() {
+        when(transactionService.listTransactionsAfter("9", 10)).thenReturn(new ArrayList<>());
+        when(transactionService.getTotalTransactions()).thenReturn(15L);
+
+        ResponseEntity<Map<String, Object>> response = transactionController.listTransactionsAfter("9", 10);
+        Map<String, Object> responseBody = response.getBody();
+        assertNotNull(responseBody);
+        assertNull(responseBody.get("nextCursor"));
+    }
+
+    @Test
+    public void testCreateTransactionsInBatch() {
+        List<Transaction> batch = List.of(new Transaction("1", "Shopping", 150.0));
+        List<BatchItemResult> results = List.of(BatchItemResult.of(0, BatchItemResult.Status.CREATED, batch.get(0)));
+        when(transactionService.createTransactions(batch)).thenReturn(results);
+
+        ResponseEntity<List<BatchItemResult>> response = transactionController.createTransactions(batch);
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(results, response.getBody());
+
+        verify(transactionService).createTransactions(batch);
+    }
+
+    @Test
+    public void testRejectsEmptyAndOversizedBatches() {
+        assertEquals(400, transactionController.createTransactions(new ArrayList<>()).getStatusCodeValue());
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i <= TransactionController.MAX_BATCH_SIZE; i++) {
+            ids.add(String.valueOf(i));
+        }
+        assertEquals(400, transactionController.deleteTransactions(ids).getStatusCodeValue());
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    public void testOverloadMapsToTooManyRequestsWithRetryAfter() {
+        ServiceOverloadedException exception = new ServiceOverloadedException(OperationClass.WRITE, Duration.ofMillis(1500));
+
+        ResponseEntity<Map<String, String>> response = new ApiExceptionHandler().handleOverloaded(exception);
+        assertEquals(429, response.getStatusCode().value());
+        assertEquals("2", response.getHeaders().getFirst("Retry-After"));
+        assertEquals(exception.getMessage(), response.getBody().get("error"));
+    }
+
+    @Test
+    public void testGetTransactionSendsVersionAsEtag() {
+        when(transactionService.getTransaction("1")).thenReturn(Optional.of(new Transaction("1", "Shopping", 150.0, 7)));
+
+        ResponseEntity<Transaction> response = transactionController.getTransaction("1");
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"7\"", response.getHeaders().getETag());
+
+        when(transactionService.getTransaction("2")).thenReturn(Optional.empty());
+        assertEquals(404, transactionController.getTransaction("2").getStatusCode().value());
+    }
+
+    @Test
+    public void testModifyWithIfMatchPassesExpectedVersion() {
+        Transaction transaction = new Transaction("1", "Shopping - Updated", 200.0);
+        when(transactionService.modifyTransaction("1", transaction, 7)).thenReturn(transaction.withVersion(8));
+
+        ResponseEntity<Transaction> response = transactionController.modifyTransaction("1", transaction, "\"7\"");
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"8\"", response.getHeaders().getETag());
+
+        // Weak and malformed tags never match, so the update is not attempted
+        assertEquals(412, transactionController.modifyTransaction("1", transaction, "W/\"7\"").getStatusCode().value());
+        assertEquals(412, transactionController.modifyTransaction("1", transaction, "7").getStatusCode().value());
+        verify(transactionService, times(1)).modifyTransaction(eq("1"), any(Transaction.class), anyLong());
+    }
+
+    @Test
+    public void testIfMatchAnyRequiresExistingTransaction() {
+        Transaction transaction = new Transaction("1", "Shopping - Updated", 200.0);
+        when(transactionService.modifyTransaction("1", transaction, TransactionService.ANY_VERSION)).thenReturn(null);
+
+        assertEquals(412, transactionController.modifyTransaction("1", transaction, "*").getStatusCode().value());
+    }
+
+    @Test
+    public void testVersionConflictMapsToPreconditionFailedWithCurrentEtag() {
+        ResponseEntity<Map<String, String>> response =
+                new ApiExceptionHandler().handleVersionConflict(new VersionConflictException("1", 9));
+        assertEquals(412, response.getStatusCode().value());
+        assertEquals("\"9\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    public void testAmountRangeListingWithCursor() {
+        Transaction last = new Transaction("a:1", "Rent", 1500.0);
+        when(transactionService.listTransactionsByAmount(1000.0, Double.POSITIVE_INFINITY, true, 0, 1))
+                .thenReturn(new TransactionService.SearchPage(List.of(last), 3));
+        when(transactionService.listTransactionsByAmountAfter(1000.0, Double.POSITIVE_INFINITY, true, 1500.0, "a:1", 1))
+                .thenReturn(List.of());
+
+        ResponseEntity<?> first = transactionController.listTransactions(0, 1, 1000.0, null, "-amount", null);
+        assertEquals(200, first.getStatusCode().value());
+        Map<?, ?> firstBody = (Map<?, ?>) first.getBody();
+        assertEquals(3L, firstBody.get("totalItems"));
+        assertEquals(3L, firstBody.get("totalPages"));
+        assertEquals("1500.0:a:1", firstBody.get("nextCursor"));
+
+        ResponseEntity<?> next = transactionController.listTransactions(0, 1, 1000.0, null, "-amount", "1500.0:a:1");
+        Map<?, ?> nextBody = (Map<?, ?>) next.getBody();
+        assertNull(nextBody.get("nextCursor"));
+        assertFalse(nextBody.containsKey("currentPage"));
+        assertFalse(nextBody.containsKey("totalItems"));
+
+        assertEquals(400, transactionController.listTransactions(0, 1, null, null, "description", null).getStatusCode().value());
+        assertEquals(400, transactionController.listTransactions(0, 1, null, null, "amount", "oops").getStatusCode().value());
+        verify(transactionService, never()).listTransactionPage(anyInt(), anyInt());
+    }
+
+    @Test
+    public void testSearchReturnsPageAndTotals() {
+        Transaction transaction = new Transaction("1", "Coffee", 4.5);
+        when(transactionService.searchTransactions("coffee", 0, 10))
+                .thenReturn(new TransactionService.SearchPage(List.of(transaction), 11));
+
+        ResponseEntity<Map<String, Object>> response = transactionController.searchTransactions("coffee", 0, 10);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(List.of(transaction), response.getBody().get("transactions"));
+        assertEquals(11L, response.getBody().get("totalItems"));
+        assertEquals(2L, response.getBody().get("totalPages"));
+
+        assertEquals(400, transactionController.searchTransactions(" ", 0, 10).getStatusCode().value());
+        assertEquals(400, transactionController.searchTransactions("coffee", 1000, 10).getStatusCode().value());
+        verify(transactionService, times(1)).searchTransactions(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void testExportStreamsNdjsonAndCompressesWhenAccepted() throws Exception {
+        byte[] rows = "{\"id\":\"1\"}\n".getBytes(StandardCharsets.UTF_8);
+        when(transactionService.exportTransactions()).thenReturn(out -> {
+            out.write(rows);
+            return 1;
+        });
+
+        ResponseEntity<StreamingResponseBody> plain = transactionController.exportTransactions(null);
+        assertEquals(MediaType.APPLICATION_NDJSON, plain.getHeaders().getContentType());
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        ByteArrayOutputStream plainBody = new ByteArrayOutputStream();
+        plain.getBody().writeTo(plainBody);
+        assertArrayEquals(rows, plainBody.toByteArray());
+
+        ResponseEntity<StreamingResponseBody> gzip = transactionController.exportTransactions("gzip, deflate");
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        ByteArrayOutputStream gzipBody = new ByteArrayOutputStream();
+        gzip.getBody().writeTo(gzipBody);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipBody.toByteArray()))) {
+            assertArrayEquals(rows, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testAcceptsGzipHonoursQualityValues() {
+        assertTrue(TransactionController.acceptsGzip("gzip, deflate"));
+        assertTrue(TransactionController.acceptsGzip("deflate;q=1.0, GZIP;q=0.5"));
+        assertTrue(TransactionController.acceptsGzip("*"));
+        assertTrue(TransactionController.acceptsGzip("identity;q=0, *;q=0.1"));
+
+        assertFalse(TransactionController.acceptsGzip(null));
+        assertFalse(TransactionController.acceptsGzip("gzip;q=0"));
+        assertFalse(TransactionController.acceptsGzip("gzip ; q=0.000, deflate"));
+        assertFalse(TransactionController.acceptsGzip("*;q=0, identity"));
+        assertFalse(TransactionController.acceptsGzip("gzip;q=0.2, identity;q=0.8"));
+        assertFalse(TransactionController.acceptsGzip("br, deflate"));
+        assertFalse(TransactionController.acceptsGzip("gzip;q=0, *"));
+    }
+
+    @Test
+    public void testExportRejectedBeforeResponseStarts() {
+        when(transactionService.exportTransactions())
+                .thenThrow(new ServiceOverloadedException(OperationClass.READ, Duration.ofSeconds(1)));
+
+        assertThrows(ServiceOverloadedException.class, () -> transactionController.exportTransactions(null));
     }
-}
\ No newline at end of file
+}
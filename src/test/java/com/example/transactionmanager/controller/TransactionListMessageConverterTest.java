@@ -0,0 +1,70 @@
+package com.example.transactionmanager.controller;
+
+import com.example.transactionmanager.cache.ListPage;
+import com.example.transactionmanager.cache.PageEncoder;
+import com.example.transactionmanager.cache.PageFormat;
+import com.example.transactionmanager.model.Transaction;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionListMessageConverterTest {
+    private final PageEncoder encoder = new PageEncoder(new ObjectMapper(), new CBORMapper());
+    private final TransactionListMessageConverter converter = new TransactionListMessageConverter(encoder);
+
+    @Test
+    public void testWritesWhatJacksonWouldInBothFormats() throws Exception {
+        ListPage page = ListPage.of(List.of(
+                new Transaction("01JAB3Q9Y4N8C2W6F0H1K7M5TR", "Café ☕", 12.34, 7),
+                new Transaction("b", "Rent", 1500.0, 300_000)));
+        // Totals wide enough to need the longer CBOR integer forms
+        TransactionListResponse response = new TransactionListResponse(page, 3, 5_000_000_000L, 70_000);
+
+        for (ObjectMapper mapper : List.of(new ObjectMapper(), new CBORMapper())) {
+            MediaType mediaType = mapper instanceof CBORMapper ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+            MockHttpOutputMessage written = new MockHttpOutputMessage();
+            converter.write(response, mediaType, written);
+
+            assertEquals(mediaType, written.getHeaders().getContentType());
+            assertEquals(written.getBodyAsBytes().length, written.getHeaders().getContentLength());
+            assertEquals(mapper.readTree(mapper.writeValueAsBytes(response)), mapper.readTree(written.getBodyAsBytes()));
+        }
+    }
+
+    @Test
+    public void testReusesTheCachedEncoding() {
+        ListPage page = ListPage.of(List.of(new Transaction("a", "Coffee", 4.5)));
+        byte[] first = page.encoded(PageFormat.CBOR, encoder);
+        assertSame(first, page.encoded(PageFormat.CBOR, encoder));
+        assertNotSame(first, page.encoded(PageFormat.JSON, encoder));
+    }
+
+    @Test
+    public void testEncodesWithTheConfiguredMappers() throws Exception {
+        // As with spring.jackson.default-property-inclusion=non_null
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().serializationInclusion(JsonInclude.Include.NON_NULL).build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().serializationInclusion(JsonInclude.Include.NON_NULL)
+                .factory(new CBORFactory()).build();
+        TransactionListMessageConverter configured = new TransactionListMessageConverter(new PageEncoder(json, cbor));
+        TransactionListResponse response = new TransactionListResponse(
+                ListPage.of(List.of(new Transaction("a", "Coffee", 4.5))), 0, 1, 1);
+
+        for (ObjectMapper mapper : List.of(json, cbor)) {
+            MediaType mediaType = mapper == cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+            MockHttpOutputMessage written = new MockHttpOutputMessage();
+            configured.write(response, mediaType, written);
+
+            assertFalse(mapper.readTree(written.getBodyAsBytes()).get("transactions").get(0).has("accountId"));
+            assertEquals(mapper.readTree(mapper.writeValueAsBytes(response)), mapper.readTree(written.getBodyAsBytes()));
+        }
+    }
+}
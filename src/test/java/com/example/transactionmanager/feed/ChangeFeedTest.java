@@ -0,0 +1,89 @@
+package com.example.transactionmanager.feed;
+
+import com.example.transactionmanager.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeFeedTest {
+    private ChangeFeed feed;
+
+    @BeforeEach
+    public void setUp() {
+        feed = new ChangeFeed(8);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    public void testEventsAreReadInOrderWithTheirType() {
+        Transaction created = new Transaction("1", "Shopping", 10.0, 1);
+        Transaction updated = new Transaction("1", "Groceries", 20.0, 2);
+        long first = feed.lastSequence() + 1;
+        feed.publish("1", null, created);
+        feed.publish("1", created, updated);
+        feed.publish("1", updated, null);
+
+        List<ChangeFeed.Entry> read = new ArrayList<>();
+        assertEquals(3, feed.read(first, 10, read));
+        assertEquals(ChangeEvent.Type.CREATED, read.get(0).event().type());
+        assertEquals(ChangeEvent.Type.UPDATED, read.get(1).event().type());
+        assertEquals("Groceries", read.get(1).event().transaction().getDescription());
+        // A delete carries the transaction as it was
+        assertEquals(ChangeEvent.Type.DELETED, read.get(2).event().type());
+        assertEquals("Groceries", read.get(2).event().transaction().getDescription());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(first + i, read.get(i).event().sequence());
+        }
+        assertTrue(read.get(0).frame().startsWith("id: " + first + "\nevent: change\ndata: {"));
+        assertTrue(read.get(0).frame().endsWith("}\n\n"));
+
+        // Nothing further yet
+        assertEquals(0, feed.read(first + 3, 10, new ArrayList<>()));
+    }
+
+    @Test
+    public void testReaderThatFellOutOfTheRingIsTold() {
+        long first = feed.lastSequence() + 1;
+        for (int i = 0; i < 20; i++) {
+            feed.publish("id-" + i, null, new Transaction("id-" + i, "Shopping", i, i));
+        }
+
+        assertEquals(8, feed.capacity());
+        assertEquals(-1, feed.read(first, 10, new ArrayList<>()));
+        assertEquals(-1, feed.read(first - 1000, 10, new ArrayList<>()));
+        List<ChangeFeed.Entry> read = new ArrayList<>();
+        assertEquals(8, feed.read(feed.oldestSequence(), 10, read));
+        assertEquals("id-19", read.get(7).event().id());
+    }
+
+    @Test
+    public void testWaitingReaderIsWokenByPublish() throws Exception {
+        long next = feed.lastSequence() + 1;
+        CompletableFuture<Boolean> woken = CompletableFuture.supplyAsync(() -> {
+            try {
+                return feed.awaitPublished(next, Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(woken.isDone());
+
+        feed.publish("1", null, new Transaction("1", "Shopping", 10.0, 1));
+
+        assertTrue(woken.get(5, TimeUnit.SECONDS));
+        assertFalse(feed.awaitPublished(next + 1, Duration.ofMillis(50)));
+    }
+}
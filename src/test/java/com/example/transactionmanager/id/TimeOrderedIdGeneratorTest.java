@@ -0,0 +1,88 @@
+package com.example.transactionmanager.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeOrderedIdGeneratorTest {
+
+    @Test
+    public void testIdsAreUlidsThatSortInCreationOrder() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7);
+        long before = System.currentTimeMillis();
+        String previous = "";
+        // Far more than one millisecond's sequence, so some ids borrow from the next millisecond
+        for (int i = 0; i < 200_000; i++) {
+            String id = generator.nextId();
+            assertTrue(Ulid.isCanonical(id), id);
+            assertTrue(id.compareTo(previous) > 0, previous + " then " + id);
+            previous = id;
+        }
+        assertTrue(TimeOrderedIdGenerator.timestampOf(previous) >= before);
+        assertEquals(7, (int) (Ulid.leastSignificantBits(previous) >>> 48));
+    }
+
+    @Test
+    public void testConcurrentCallersGetDistinctOrderedIds() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        List<Future<List<String>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                    return ids;
+                }));
+            }
+        }
+        Set<String> all = new HashSet<>();
+        for (Future<List<String>> result : results) {
+            List<String> ids = result.get();
+            // Each thread's ids are in the order it generated them
+            for (int i = 1; i < ids.size(); i++) {
+                assertTrue(ids.get(i).compareTo(ids.get(i - 1)) > 0);
+            }
+            all.addAll(ids);
+        }
+        assertEquals(8 * 20_000, all.size());
+    }
+
+    @Test
+    public void testUlidTextRoundTripsAllBits() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[][] cases = {{0, 0}, {-1, -1}, {Long.MIN_VALUE, 1}, {1, Long.MIN_VALUE}};
+        for (long[] bits : cases) {
+            assertRoundTrips(bits[0], bits[1]);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertRoundTrips(random.nextLong(), random.nextLong());
+        }
+        assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", Ulid.format(-1, -1));
+        assertFalse(Ulid.isCanonical("8ZZZZZZZZZZZZZZZZZZZZZZZZZ"));
+        assertFalse(Ulid.isCanonical("01arz3ndektsv4rrffq69g5fav"));
+        assertFalse(Ulid.isCanonical("01ARZ3NDEKTSV4RRFFQ69G5FAU1"));
+    }
+
+    private static void assertRoundTrips(long msb, long lsb) {
+        String text = Ulid.format(msb, lsb);
+        assertTrue(Ulid.isCanonical(text));
+        assertEquals(msb, Ulid.mostSignificantBits(text));
+        assertEquals(lsb, Ulid.leastSignificantBits(text));
+        // Text order is unsigned bit order
+        String next = Ulid.format(msb, lsb + 1);
+        if (lsb != -1) {
+            assertTrue(next.compareTo(text) > 0);
+        }
+    }
+}
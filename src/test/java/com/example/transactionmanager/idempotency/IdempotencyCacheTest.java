@@ -0,0 +1,60 @@
+package com.example.transactionmanager.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyCacheTest {
+    private static final byte[] FINGERPRINT = {1, 2, 3};
+
+    @Test
+    public void testClaimsInFlightSurviveBytePressure() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxSize(DataSize.ofKilobytes(4));
+        IdempotencyCache cache = new IdempotencyCache(properties);
+
+        // Far more running requests than the stored responses may weigh
+        List<IdempotencyCache.Claim> running = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            IdempotencyCache.Claim claim = cache.claim("key-" + i, FINGERPRINT);
+            assertTrue(claim.owner());
+            running.add(claim);
+        }
+        // Stored responses are evicted to fit, and the requests still running keep their keys
+        for (int i = 0; i < 200; i++) {
+            IdempotencyCache.Claim stored = cache.claim("stored-" + i, FINGERPRINT);
+            cache.complete(stored, new IdempotencyCache.StoredResponse(201, Map.of(), new byte[512]));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            IdempotencyCache.Claim retry = cache.claim("key-" + i, FINGERPRINT);
+            assertFalse(retry.owner(), "key-" + i + " was freed while its request ran");
+            assertSame(running.get(i).entry(), retry.entry());
+        }
+    }
+
+    @Test
+    public void testCompletedResponsesAreReplayedAndReleasedKeysFreed() {
+        IdempotencyCache cache = new IdempotencyCache(new IdempotencyProperties());
+        IdempotencyCache.StoredResponse created = new IdempotencyCache.StoredResponse(201, Map.of(), new byte[]{42});
+
+        IdempotencyCache.Claim first = cache.claim("a", FINGERPRINT);
+        IdempotencyCache.Claim duplicate = cache.claim("a", FINGERPRINT);
+        cache.complete(first, created);
+        assertSame(created, duplicate.awaitResponse());
+        IdempotencyCache.Claim replay = cache.claim("a", FINGERPRINT);
+        assertFalse(replay.owner());
+        assertSame(created, replay.awaitResponse());
+
+        IdempotencyCache.Claim failed = cache.claim("b", FINGERPRINT);
+        IdempotencyCache.Claim waiting = cache.claim("b", FINGERPRINT);
+        cache.complete(failed, null);
+        assertNull(waiting.awaitResponse());
+        assertTrue(cache.claim("b", FINGERPRINT).owner());
+    }
+}
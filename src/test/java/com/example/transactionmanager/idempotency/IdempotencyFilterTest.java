@@ -0,0 +1,139 @@
+package com.example.transactionmanager.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyFilterTest {
+    private IdempotencyCache cache;
+    private IdempotencyFilter filter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        cache = new IdempotencyCache(properties);
+        filter = new IdempotencyFilter(cache, properties, new ObjectMapper());
+    }
+
+    // Echoes the body with a fresh execution number, as a create returning a new version would
+    private FilterChain creating(int status) {
+        return (request, response) -> {
+            int execution = executions.incrementAndGet();
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setContentType("application/json");
+            http.setHeader("ETag", "\"" + execution + "\"");
+            http.getWriter().write("{\"execution\":" + execution + ",\"request\":" + body + "}");
+        };
+    }
+
+    private MockHttpServletResponse post(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transactions");
+        request.setRequestURI("/transactions");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        }
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    public void testReplaysTheFirstResponseWithoutExecutingAgain() throws Exception {
+        MockHttpServletResponse first = post("k1", "{\"id\":\"a\"}", creating(200));
+        MockHttpServletResponse retry = post("k1", "{\"id\":\"a\"}", creating(200));
+
+        assertEquals(1, executions.get());
+        assertEquals(200, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("\"1\"", retry.getHeader("ETag"));
+        assertEquals("application/json", retry.getContentType());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+
+        // Without a key, or with another, the request runs
+        post(null, "{\"id\":\"a\"}", creating(200));
+        post("k2", "{\"id\":\"a\"}", creating(200));
+        assertEquals(3, executions.get());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        assertEquals(2, cache.size());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void testRejectsAKeyReusedWithADifferentBody() throws Exception {
+        post("k1", "{\"id\":\"a\"}", creating(200));
+        MockHttpServletResponse reused = post("k1", "{\"id\":\"b\"}", creating(200));
+
+        assertEquals(422, reused.getStatus());
+        assertEquals(1, executions.get());
+        assertEquals(400, post(" ", "{}", creating(200)).getStatus());
+    }
+
+    @Test
+    public void testRetryableFailuresReleaseTheKey() throws Exception {
+        assertEquals(429, post("k1", "{\"id\":\"a\"}", creating(429)).getStatus());
+        assertEquals(503, post("k1", "{\"id\":\"a\"}", creating(503)).getStatus());
+        MockHttpServletResponse settled = post("k1", "{\"id\":\"a\"}", creating(200));
+        assertEquals(400, post("k2", "{\"id\":\"a\"}", creating(400)).getStatus());
+
+        assertEquals(4, executions.get());
+        assertEquals(settled.getContentAsString(), post("k1", "{\"id\":\"a\"}", creating(200)).getContentAsString());
+        // A rejected request is settled too
+        assertEquals(400, post("k2", "{\"id\":\"a\"}", creating(200)).getStatus());
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    public void testConcurrentDuplicatesCollapseOntoOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            creating(200).doFilter(request, response);
+        };
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            responses.add(executor.submit(() -> post("k1", "{\"id\":\"a\"}", slow)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> post("k1", "{\"id\":\"a\"}", slow)));
+            }
+            // Let the duplicates reach the key before the first finishes
+            Thread.sleep(100);
+            release.countDown();
+        }
+        assertEquals(1, executions.get());
+        String first = responses.get(0).get().getContentAsString();
+        for (Future<MockHttpServletResponse> response : responses) {
+            assertEquals(first, response.get().getContentAsString());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.transactionmanager.importer;
+
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkImporterTest {
+    @TempDir
+    Path directory;
+
+    private TransactionService service;
+    private BulkImporter importer;
+
+    @BeforeEach
+    public void setUp() {
+        service = new TransactionService();
+        ImportProperties properties = new ImportProperties();
+        // Small chunks, so even these files are split and loaded in parallel
+        properties.setChunkSize(DataSize.ofBytes(64));
+        properties.setParallelism(4);
+        importer = new BulkImporter(service, properties);
+    }
+
+    @Test
+    public void testImportsCsvAndReportsRejectedRowsByLine() throws Exception {
+        StringBuilder csv = new StringBuilder("\uFEFFid,accountId,description,amount\r\n");
+        for (int i = 1; i <= 100; i++) {
+            csv.append(String.format("%03d,acct-%d,\"Row %d, \"\"quoted\"\"\",%d.5\r\n", i, i % 2, i, i));
+        }
+        csv.append("\n");
+        csv.append("bad-amount,,Row,abc\n");
+        csv.append("negative,,Row,-1\n");
+        csv.append("too,many,fields,1,2\n");
+        csv.append(",,Generated id,7\n");
+        Path file = Files.writeString(directory.resolve("transactions.csv"), csv.toString());
+
+        ImportReport report = importer.importFile(file);
+
+        assertEquals(104, report.rows());
+        assertEquals(101, report.created());
+        assertEquals(0, report.updated());
+        assertEquals(3, report.failed());
+        assertEquals(List.of(103L, 104L, 105L), report.errors().stream().map(ImportReport.RowError::line).toList());
+        assertEquals("Invalid amount: abc", report.errors().get(0).error());
+        assertEquals("Transaction amount cannot be negative", report.errors().get(1).error());
+
+        assertEquals(101, service.getTotalTransactions());
+        Transaction first = service.getTransaction("001").orElseThrow();
+        assertEquals("Row 1, \"quoted\"", first.getDescription());
+        assertEquals(1.5, first.getAmount());
+        assertEquals("acct-1", first.getAccountId());
+        assertEquals(50, service.getAccountTransactionCount("acct-0"));
+    }
+
+    @Test
+    public void testRejectsAmountsThatAreNotFinite() throws Exception {
+        Path csv = Files.writeString(directory.resolve("amounts.csv"),
+                "id,accountId,description,amount\nnan,,Row,NaN\ninf,,Row,Infinity\nhuge,,Row,1e400\nok,,Row,1e300\n");
+        Path ndjson = Files.writeString(directory.resolve("amounts.ndjson"),
+                "{\"id\":\"json-huge\",\"description\":\"Row\",\"amount\":1e400}\n");
+
+        ImportReport csvReport = importer.importFile(csv);
+        ImportReport ndjsonReport = importer.importFile(ndjson);
+
+        assertEquals(1, csvReport.created());
+        assertEquals(3, csvReport.failed());
+        assertTrue(csvReport.errors().stream()
+                .allMatch(error -> error.error().equals("Transaction amount must be a finite number")));
+        assertEquals(0, ndjsonReport.created());
+        assertEquals(1, ndjsonReport.failed());
+        assertEquals(List.of("ok"), service.listTransactionsAfter(null, 10).stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    public void testNdjsonExportImportsBack() throws Exception {
+        TransactionService source = new TransactionService();
+        for (int i = 0; i < 50; i++) {
+            source.createTransaction(new Transaction(String.format("%02d", i), i % 2 == 0 ? "acct" : null,
+                    "Transaction " + i, i));
+        }
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+        source.exportTransactions().writeTo(export);
+        Path file = Files.write(directory.resolve("export.ndjson"),
+                (export.toString(StandardCharsets.UTF_8) + "{\"id\":\"x\",\n").getBytes(StandardCharsets.UTF_8));
+
+        ImportReport report = importer.importFile(file);
+
+        assertEquals(50, report.created());
+        assertEquals(1, report.failed());
+        assertEquals(51, report.errors().get(0).line());
+        assertTrue(report.errors().get(0).error().startsWith("Invalid JSON"));
+        assertEquals(source.listTransactionsAfter(null, 100).stream().map(Transaction::getDescription).toList(),
+                service.listTransactionsAfter(null, 100).stream().map(Transaction::getDescription).toList());
+        assertEquals(25, service.getAccountTransactionCount("acct"));
+    }
+
+    @Test
+    public void testImportClearsCachedListPages() throws Exception {
+        service.createTransaction(new Transaction("5", "Existing", 5.0));
+        assertEquals(1, service.listTransactions(0, 10).size());
+        Path file = Files.writeString(directory.resolve("more.ndjson"),
+                "{\"id\":\"1\",\"description\":\"One\",\"amount\":1}\n{\"id\":\"5\",\"description\":\"Five\",\"amount\":5}\n");
+
+        ImportReport report = importer.importFile(file);
+
+        assertEquals(1, report.created());
+        assertEquals(1, report.updated());
+        List<Transaction> page = service.listTransactions(0, 10);
+        assertEquals(List.of("One", "Five"), page.stream().map(Transaction::getDescription).toList());
+    }
+
+    @Test
+    public void testRejectsUnknownColumnsAndFormats() throws Exception {
+        Path csv = Files.writeString(directory.resolve("columns.csv"), "id,colour,amount\n1,red,2\n");
+        assertThrows(IllegalArgumentException.class, () -> importer.importFile(csv));
+        Path text = Files.writeString(directory.resolve("rows.txt"), "1,Row,2\n");
+        assertThrows(IllegalArgumentException.class, () -> importer.importFile(text));
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.transactionmanager.persistence;
+
+import com.example.transactionmanager.admission.AdaptiveAdmissionController;
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.example.transactionmanager.metrics.TransactionMetrics;
+import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.service.TransactionService;
+import com.example.transactionmanager.store.HeapTransactionStore;
+import com.example.transactionmanager.store.SlabTransactionStore;
+import com.example.transactionmanager.store.TransactionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistenceEngineTest {
+    @TempDir
+    Path directory;
+
+    private final List<PersistenceEngine> engines = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        engines.forEach(PersistenceEngine::close);
+    }
+
+    private PersistenceEngine newEngine(DurabilityMode durability) {
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setDurability(durability);
+        properties.setSegmentSize(DataSize.ofKilobytes(4));
+        properties.setSnapshotThreshold(Long.MAX_VALUE);
+        properties.setRecoveryThreads(2);
+        PersistenceEngine engine = new PersistenceEngine(properties);
+        engines.add(engine);
+        return engine;
+    }
+
+    private TransactionService openService(PersistenceEngine engine) {
+        return openService(engine, new HeapTransactionStore());
+    }
+
+    private TransactionService openService(PersistenceEngine engine, TransactionStore store) {
+        TransactionService service = new TransactionService(store, new TransactionPageCache(1000), engine,
+                TransactionMetrics.unexported(), AdaptiveAdmissionController.fixed(1000));
+        service.openJournal();
+        return service;
+    }
+
+    @Test
+    public void testRecoversMutationsFromLog() {
+        PersistenceEngine engine = newEngine(DurabilityMode.GROUP);
+        TransactionService service = openService(engine);
+        service.createTransaction(new Transaction("1", "Shopping", 150.0));
+        service.createTransaction(new Transaction("2", "Dining", 100.0));
+        Transaction updated = service.modifyTransaction("1", new Transaction("1", "Shopping - Updated", 200.0));
+        service.deleteTransaction("2");
+        engine.close();
+
+        TransactionService recovered = openService(newEngine(DurabilityMode.GROUP));
+        List<Transaction> transactions = recovered.listTransactions(0, 10);
+        assertEquals(1, transactions.size());
+        assertEquals("Shopping - Updated", transactions.get(0).getDescription());
+        assertEquals(200.0, transactions.get(0).getAmount());
+        // Versions survive recovery and keep increasing afterwards
+        assertEquals(updated.getVersion(), transactions.get(0).getVersion());
+        assertTrue(recovered.createTransaction(new Transaction("3", "Travel", 300.0)).getVersion() > updated.getVersion());
+    }
+
+    @Test
+    public void testRecoversSnapshotPlusLogTailAcrossSegments() {
+        PersistenceEngine engine = newEngine(DurabilityMode.SYNC);
+        TransactionService service = openService(engine);
+        // Enough records to roll several 4 KB segments
+        for (int i = 0; i < 200; i++) {
+            service.createTransaction(new Transaction(String.format("%03d", i), "Transaction " + i, i));
+        }
+        engine.snapshot();
+        for (int i = 0; i < 50; i++) {
+            service.deleteTransaction(String.format("%03d", i));
+        }
+        service.createTransaction(new Transaction("999", "After snapshot", 1.0));
+        engine.close();
+
+        TransactionService recovered = openService(newEngine(DurabilityMode.SYNC));
+        assertEquals(151, recovered.getTotalTransactions());
+        assertEquals("050", recovered.listTransactions(0, 1).get(0).getId());
+        assertEquals("999", recovered.listTransactionsAfter("199", 10).get(0).getId());
+        // Statistics are rebuilt from the snapshot and the log tail alike
+        assertEquals(151, recovered.getStatistics().count());
+        assertEquals(1.0, recovered.getStatistics().min());
+        assertEquals(199.0, recovered.getStatistics().max());
+    }
+
+    @Test
+    public void testSlabStoreRecoversAndSnapshots() {
+        PersistenceEngine engine = newEngine(DurabilityMode.GROUP);
+        TransactionService service = openService(engine, new SlabTransactionStore());
+        for (int i = 0; i < 100; i++) {
+            service.createTransaction(new Transaction(String.format("%03d", i), "Transaction " + i, i));
+        }
+        engine.snapshot();
+        service.modifyTransaction("007", new Transaction("007", "Modified", 7.5));
+        service.deleteTransaction("008");
+        engine.close();
+
+        TransactionService recovered = openService(newEngine(DurabilityMode.GROUP), new SlabTransactionStore());
+        assertEquals(99, recovered.getTotalTransactions());
+        Transaction modified = recovered.listTransactionsAfter("006", 2).get(0);
+        assertEquals("Modified", modified.getDescription());
+        assertEquals(7.5, modified.getAmount());
+        assertEquals("009", recovered.listTransactionsAfter("007", 1).get(0).getId());
+    }
+
+    @Test
+    public void testRecoversAccountsFromSnapshotAndLog() {
+        PersistenceEngine engine = newEngine(DurabilityMode.GROUP);
+        TransactionService service = openService(engine);
+        service.createTransaction(new Transaction("1", "acct-a", "Shopping", 150.0));
+        service.createTransaction(new Transaction("2", "acct-a", "Dining", 100.0));
+        service.createTransaction(new Transaction("3", "No account", 50.0));
+        engine.snapshot();
+        service.createTransaction(new Transaction("4", "acct-b", "Travel", 300.0));
+        service.modifyTransaction("2", new Transaction("2", "acct-b", "Dining", 100.0));
+        engine.close();
+
+        TransactionService recovered = openService(newEngine(DurabilityMode.GROUP));
+        assertEquals(1, recovered.getAccountTransactionCount("acct-a"));
+        assertEquals(List.of("2", "4"), recovered.listAccountTransactionPage("acct-b", 0, 10).items().stream()
+                .map(Transaction::getId).toList());
+        assertNull(recovered.listTransactionsAfter("2", 1).get(0).getAccountId());
+    }
+
+    @Test
+    public void testIgnoresTornTailRecord() throws IOException {
+        PersistenceEngine engine = newEngine(DurabilityMode.ASYNC);
+        TransactionService service = openService(engine);
+        service.createTransaction(new Transaction("1", "Shopping", 150.0));
+        service.createTransaction(new Transaction("2", "Dining", 100.0));
+        engine.close();
+
+        // Corrupt the last byte of the second record
+        Path segment = WriteAheadLog.listSegments(directory).get(0);
+        int firstLength = LogRecord.HEADER_BYTES + LogRecord.put(1, new Transaction("1", "Shopping", 150.0)).encodePayload().length;
+        int secondLength = LogRecord.HEADER_BYTES + LogRecord.put(2, new Transaction("2", "Dining", 100.0)).encodePayload().length;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(firstLength + secondLength - 1);
+            file.write(0x7f);
+        }
+
+        TransactionService recovered = openService(newEngine(DurabilityMode.ASYNC));
+        assertEquals(1, recovered.getTotalTransactions());
+
+        // Appending after recovery continues in a fresh segment and survives another restart
+        recovered.createTransaction(new Transaction("3", "Travel", 300.0));
+        engines.get(1).close();
+        assertEquals(2, openService(newEngine(DurabilityMode.ASYNC)).getTotalTransactions());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.transactionmanager.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DescriptionIndexTest {
+    private DescriptionIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new DescriptionIndex();
+    }
+
+    private List<String> search(String query) {
+        return index.search(DescriptionIndex.queryTerms(query), 0, 10).ids();
+    }
+
+    @Test
+    public void testTokenizeLowercasesAndSplitsOnPunctuation() {
+        assertEquals(Set.of("purchase", "of", "apple", "iphone", "15"), DescriptionIndex.tokenize("Purchase of Apple iPhone-15!"));
+        assertEquals(Set.of("café", "münchen"), DescriptionIndex.tokenize("Café, München"));
+        assertTrue(DescriptionIndex.tokenize("  --  ").isEmpty());
+    }
+
+    @Test
+    public void testMatchesEveryTermByWordOrPrefix() {
+        index.add("1", "Coffee at the airport");
+        index.add("2", "Airport parking");
+        index.add("3", "Coffee beans");
+
+        assertEquals(List.of("1"), search("coffee airport"));
+        assertEquals(Set.of("1", "2"), Set.copyOf(search("AIRP")));
+        assertTrue(search("coffee parking").isEmpty());
+        assertTrue(search("tea").isEmpty());
+    }
+
+    @Test
+    public void testRanksRareAndWholeWordMatchesFirst() {
+        index.add("1", "Grocery shopping");
+        index.add("2", "Shopping mall");
+        index.add("3", "Shopping online");
+        index.add("4", "Shop rent");
+
+        // "shop" is a whole word only in 4 and a prefix of "shopping" in the rest
+        assertEquals("4", search("shop").get(0));
+        // Only 1 matches both terms
+        assertEquals(List.of("1"), search("grocery shop"));
+        assertEquals(3, search("shopping").size());
+    }
+
+    @Test
+    public void testPaginatesRankedHits() {
+        for (int i = 0; i < 25; i++) {
+            index.add(String.format("%02d", i), "Monthly rent");
+        }
+        DescriptionIndex.SearchResult first = index.search(List.of("rent"), 0, 10);
+        DescriptionIndex.SearchResult last = index.search(List.of("rent"), 2, 10);
+        assertEquals(25, first.totalMatches());
+        // Equal scores fall back to id order
+        assertEquals("00", first.ids().get(0));
+        assertEquals(List.of("20", "21", "22", "23", "24"), last.ids());
+    }
+
+    @Test
+    public void testBroadQueryRanksEveryMatch() {
+        int documents = 10_000;
+        for (int i = documents - 1; i >= 0; i--) {
+            index.add(String.format("%05d", i), i % 2 == 0 ? "Monthly rent paid" : "Monthly rent due");
+        }
+        // One rarer token late in the id order, which ranks above every other rent match
+        index.add("99999", "Monthly rent prepaid");
+
+        DescriptionIndex.SearchResult result = index.search(List.of("rent"), 0, 3);
+        assertEquals(documents + 1, result.totalMatches());
+        // Every score ties, so the page is the lowest ids rather than whichever were read first
+        assertEquals(List.of("00000", "00001", "00002"), result.ids());
+
+        DescriptionIndex.SearchResult prefix = index.search(List.of("rent", "p"), 0, 2);
+        assertEquals(documents / 2 + 1, prefix.totalMatches());
+        assertEquals(List.of("99999", "00000"), prefix.ids());
+    }
+
+    @Test
+    public void testReplaceAndRemoveReleasePostings() {
+        index.add("1", "Taxi to the airport");
+        long bytes = index.estimatedBytes();
+        assertTrue(bytes > 0);
+
+        index.replace("1", "Taxi to the airport", "Train to the airport");
+        assertTrue(search("taxi").isEmpty());
+        assertEquals(List.of("1"), search("train"));
+        assertEquals(4, index.postingCount());
+
+        index.remove("1", "Train to the airport");
+        assertEquals(0, index.tokenCount());
+        assertEquals(0, index.postingCount());
+        assertEquals(0, index.estimatedBytes());
+        assertEquals(0, index.documentCount());
+    }
+
+    @Test
+    public void testConcurrentWritersSharingTokens() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        String id = thread + "-" + i;
+                        index.add(id, "Shared words " + (i % 3 == 0 ? "fizz" : "buzz"));
+                        if (i % 2 == 0) {
+                            index.remove(id, "Shared words " + (i % 3 == 0 ? "fizz" : "buzz"));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(20_000, index.documentCount());
+        // Stopped early, but every candidate matches, so the estimate is exact
+        assertEquals(20_000, index.search(List.of("shared", "words"), 0, 1).totalMatches());
+        assertEquals(60_000, index.postingCount());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.transactionmanager.service;
+
+import com.example.transactionmanager.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactiveTransactionServiceTest {
+    private TransactionService service;
+    private ReactiveTransactionService reactive;
+
+    @BeforeEach
+    public void setUp() {
+        service = new TransactionService();
+        // A store and journal that never block, so everything else stays on the calling thread
+        reactive = new ReactiveTransactionService(service, false, false);
+        for (int i = 0; i < 100; i++) {
+            service.createTransaction(new Transaction(String.format("%03d", i), "Transaction " + i, i));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reactive.close();
+    }
+
+    @Test
+    public void testDeepOffsetPagesLeaveTheCallingThreadOnlyOnCacheMisses() {
+        String caller = Thread.currentThread().getName();
+
+        assertEquals(caller, reactive.listTransactionPage(0, 10).map(page -> threadName()).block());
+        assertNotEquals(caller, reactive.listTransactionPage(9, 10).map(page -> threadName()).block());
+        // Now cached, so answered where it was asked
+        assertEquals(caller, reactive.listTransactionPage(9, 10).map(page -> threadName()).block());
+        assertEquals("090", reactive.listTransactionPage(9, 10).block().items().get(0).getId());
+
+        assertEquals(caller, reactive.listTransactionsAfter("050", 10).map(page -> threadName()).block());
+        assertNotEquals(caller, reactive.listTransactionsByAmount(0, 100, false, 5, 10)
+                .map(page -> threadName()).block());
+    }
+
+    private static String threadName() {
+        return Thread.currentThread().getName();
+    }
+}
@@ -1,10 +1,36 @@
 package com.example.transactionmanager.service;
 
+import com.example.transactionmanager.admission.AdaptiveAdmissionController;
+import com.example.transactionmanager.admission.AdmissionController;
+import com.example.transactionmanager.admission.OperationClass;
+import com.example.transactionmanager.admission.ServiceOverloadedException;
+import com.example.transactionmanager.cache.TransactionPageCache;
+import com.example.transactionmanager.cluster.ReplicatedChange;
+import com.example.transactionmanager.cluster.TransactionReplicator;
+import com.example.transactionmanager.feed.ChangeEvent;
+import com.example.transactionmanager.feed.ChangeFeed;
+import com.example.transactionmanager.id.TimeOrderedIdGenerator;
+import com.example.transactionmanager.metrics.TransactionMetrics;
+import com.example.transactionmanager.model.BatchItemResult;
 import com.example.transactionmanager.model.Transaction;
+import com.example.transactionmanager.persistence.TransactionJournal;
+import com.example.transactionmanager.stats.AmountHistogram;
+import com.example.transactionmanager.stats.TransactionStatistics;
+import com.example.transactionmanager.store.HeapTransactionStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -98,4 +124,537 @@ public class TransactionServiceTest {
 
         assertEquals(5, transactionService.getTotalTransactions());
     }
+
+    @Test
+    public void testListTransactionsAfterCursor() {
+        for (int i = 1; i <= 15; i++) {
+            Transaction transaction = new Transaction(String.valueOf(i), "Transaction " + i, i * 10.0);
+            transactionService.createTransaction(transaction);
+        }
+
+        // First page from the start of the index
+        List<Transaction> page1 = transactionService.listTransactionsAfter(null, 10);
+        assertEquals(10, page1.size());
+        assertEquals("1", page1.get(0).getId());
+        assertEquals("4", page1.get(9).getId());
+
+        // Next page continues after the last id of the previous one
+        List<Transaction> page2 = transactionService.listTransactionsAfter("4", 10);
+        assertEquals(5, page2.size());
+        assertEquals("5", page2.get(0).getId());
+        assertEquals("9", page2.get(4).getId());
+
+        assertTrue(transactionService.listTransactionsAfter("9", 10).isEmpty());
+    }
+
+    @Test
+    public void testIndexFollowsDeletes() {
+        for (int i = 1; i <= 5; i++) {
+            transactionService.createTransaction(new Transaction(String.valueOf(i), "Transaction " + i, i * 10.0));
+        }
+        transactionService.deleteTransaction("2");
+        transactionService.deleteTransaction("missing");
+
+        List<Transaction> page = transactionService.listTransactions(0, 10);
+        assertEquals(4, page.size());
+        assertEquals("1", page.get(0).getId());
+        assertEquals("3", page.get(1).getId());
+
+        List<Transaction> afterCursor = transactionService.listTransactionsAfter("1", 10);
+        assertEquals("3", afterCursor.get(0).getId());
+    }
+
+    @Test
+    public void testListCacheKeepsPagesUntouchedByMutation() {
+        for (int i = 1; i <= 9; i++) {
+            transactionService.createTransaction(new Transaction(String.valueOf(i), "Transaction " + i, i * 10.0));
+        }
+        transactionService.listTransactions(0, 3);
+        transactionService.listTransactions(2, 3);
+
+        // "8" sits on the last page, so the first page stays cached
+        transactionService.modifyTransaction("8", new Transaction("8", "Updated", 1.0));
+        transactionService.listTransactions(0, 3);
+        List<Transaction> lastPage = transactionService.listTransactions(2, 3);
+
+        assertEquals("Updated", lastPage.get(1).getDescription());
+        assertEquals(1, transactionService.getListCacheStats().hitCount());
+    }
+
+    @Test
+    public void testAccountListsOnlyItsOwnTransactions() {
+        for (int i = 1; i <= 9; i++) {
+            String accountId = i % 3 == 0 ? "acct-a" : "acct-b";
+            transactionService.createTransaction(new Transaction(String.valueOf(i), accountId, "Transaction " + i, i * 10.0));
+        }
+        transactionService.createTransaction(new Transaction("10", "No account", 100.0));
+
+        assertEquals(3, transactionService.getAccountTransactionCount("acct-a"));
+        assertEquals(6, transactionService.getAccountTransactionCount("acct-b"));
+        assertEquals(0, transactionService.getAccountTransactionCount("missing"));
+        assertEquals(10, transactionService.getTotalTransactions());
+
+        List<Transaction> page = transactionService.listAccountTransactionPage("acct-a", 0, 10).items();
+        assertEquals(List.of("3", "6", "9"), page.stream().map(Transaction::getId).toList());
+        assertEquals(List.of("4", "5"), transactionService.listAccountTransactionPage("acct-b", 1, 2).items().stream()
+                .map(Transaction::getId).toList());
+        assertEquals(List.of("9"), transactionService.listAccountTransactionsAfter("acct-a", "6", 10).stream()
+                .map(Transaction::getId).toList());
+        assertTrue(transactionService.listAccountTransactionPage("missing", 0, 10).items().isEmpty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.createTransaction(new Transaction("11", " ", "Blank account", 1.0)));
+    }
+
+    @Test
+    public void testRejectsIdsTooLongToPersist() {
+        String id = "\u00e9".repeat(Transaction.MAX_ID_LENGTH + 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.createTransaction(new Transaction(id, "Long id", 1.0)));
+        assertEquals(0, transactionService.getTotalTransactions());
+    }
+
+    @Test
+    public void testAccountFollowsModifiesMovesAndDeletes() {
+        transactionService.createTransaction(new Transaction("1", "acct-a", "Shopping", 150.0));
+        transactionService.createTransaction(new Transaction("2", "acct-a", "Dining", 100.0));
+        transactionService.createTransaction(new Transaction("3", "acct-b", "Travel", 300.0));
+        transactionService.listAccountTransactionPage("acct-a", 0, 10);
+        transactionService.listAccountTransactionPage("acct-b", 0, 10);
+
+        // A modify without an account keeps the current one
+        Transaction modified = transactionService.modifyTransaction("1", new Transaction("1", "Shopping - Updated", 200.0));
+        assertEquals("acct-a", modified.getAccountId());
+        assertEquals("Shopping - Updated", transactionService.listAccountTransactionPage("acct-a", 0, 10).items().get(0).getDescription());
+
+        transactionService.modifyTransaction("2", new Transaction("2", "acct-b", "Dining", 100.0));
+        assertEquals(List.of("1"), transactionService.listAccountTransactionPage("acct-a", 0, 10).items().stream()
+                .map(Transaction::getId).toList());
+        assertEquals(List.of("2", "3"), transactionService.listAccountTransactionPage("acct-b", 0, 10).items().stream()
+                .map(Transaction::getId).toList());
+
+        transactionService.deleteTransaction("3");
+        assertEquals(1, transactionService.getAccountTransactionCount("acct-b"));
+        assertEquals(List.of("2"), transactionService.listAccountTransactionsAfter("acct-b", null, 10).stream()
+                .map(Transaction::getId).toList());
+    }
+
+    @Test
+    public void testBatchCreateReportsPerItemResults() {
+        transactionService.createTransaction(new Transaction("2", "Existing", 10.0));
+
+        List<BatchItemResult> results = transactionService.createTransactions(Arrays.asList(
+                new Transaction("1", "Shopping", 150.0),
+                new Transaction("2", "Dining", 100.0),
+                new Transaction("3", "", 100.0),
+                new Transaction(null, "Generated id", 5.0)));
+
+        assertEquals(4, results.size());
+        assertEquals(BatchItemResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.Status.UPDATED, results.get(1).getStatus());
+        assertEquals(BatchItemResult.Status.INVALID, results.get(2).getStatus());
+        assertEquals("Transaction description cannot be empty", results.get(2).getError());
+        assertNotNull(results.get(3).getId());
+        assertEquals(3, transactionService.getTotalTransactions());
+        // The generated id sorts before "1", so look the update up by id
+        assertEquals("Dining", transactionService.getTransaction("2").get().getDescription());
+    }
+
+    @Test
+    public void testGeneratedIdsListInCreationOrder() {
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            created.add(transactionService.createTransaction(new Transaction(null, "Generated " + i, i)).getId());
+        }
+        List<String> listed = transactionService.listTransactions(0, 50).stream().map(Transaction::getId).toList();
+        assertEquals(created, listed);
+    }
+
+    @Test
+    public void testBatchModifyAndDelete() {
+        for (int i = 1; i <= 3; i++) {
+            transactionService.createTransaction(new Transaction(String.valueOf(i), "Transaction " + i, i * 10.0));
+        }
+        // Cache the page so the batch has to evict it
+        transactionService.listTransactions(0, 10);
+
+        List<BatchItemResult> modified = transactionService.modifyTransactions(Arrays.asList(
+                new Transaction("1", "Updated", 1.0),
+                new Transaction("9", "Missing", 1.0)));
+        assertEquals(BatchItemResult.Status.UPDATED, modified.get(0).getStatus());
+        assertEquals(BatchItemResult.Status.NOT_FOUND, modified.get(1).getStatus());
+        assertEquals("Updated", transactionService.listTransactions(0, 10).get(0).getDescription());
+
+        List<BatchItemResult> deleted = transactionService.deleteTransactions(Arrays.asList("2", "3", "9"));
+        assertEquals(BatchItemResult.Status.DELETED, deleted.get(0).getStatus());
+        assertEquals(BatchItemResult.Status.DELETED, deleted.get(1).getStatus());
+        assertEquals(BatchItemResult.Status.NOT_FOUND, deleted.get(2).getStatus());
+        assertEquals(1, transactionService.listTransactions(0, 10).size());
+    }
+
+    @Test
+    public void testRecordsOperationMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveAdmissionController admission = AdaptiveAdmissionController.fixed(1000);
+        admission.bindTo(registry);
+        TransactionService service = new TransactionService(new HeapTransactionStore(), new TransactionPageCache(1000),
+                TransactionJournal.NONE, new TransactionMetrics(registry), admission);
+
+        service.createTransaction(new Transaction("1", "Shopping", 150.0));
+        service.listTransactions(0, 10);
+        service.listTransactions(0, 10);
+
+        assertEquals(1, registry.get("transactions.operation").tag("operation", "create").timer().count());
+        assertEquals(2, registry.get("transactions.operation").tag("operation", "list").timer().count());
+        // The second list call is a cache hit and never walks the index
+        assertEquals(1, registry.get("transactions.list.scan").timer().count());
+        assertEquals(1.0, registry.get("transactions.stored").gauge().value());
+        assertEquals(0.0, registry.get("transactions.admission.inflight").tag("class", "write").gauge().value());
+        assertEquals(0.0, registry.get("transactions.admission.rejected").tag("class", "read").functionCounter().count());
+    }
+
+    @Test
+    public void testExportWritesOneTransactionPerLineInIdOrder() throws Exception {
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        assertEquals(0, transactionService.exportTransactions().writeTo(empty));
+        assertEquals(0, empty.size());
+
+        transactionService.createTransaction(new Transaction("2", "Dining", 80.0));
+        transactionService.createTransaction(new Transaction("1", "Shopping", 150.0));
+        transactionService.createTransaction(new Transaction("3", "Travel", 900.0));
+        transactionService.deleteTransaction("3");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, transactionService.exportTransactions().writeTo(out));
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":\"1\",\"description\":\"Shopping\",\"amount\":150.0"));
+        assertTrue(lines[1].startsWith("{\"id\":\"2\","));
+        assertEquals("", lines[2]);
+    }
+
+    @Test
+    public void testStatisticsFollowEveryWrite() {
+        transactionService.createTransaction(new Transaction("1", "Shopping", 150.0));
+        transactionService.createTransaction(new Transaction("2", "Dining", 50.0));
+        transactionService.createTransactions(Arrays.asList(
+                new Transaction("3", "Travel", 900.0), new Transaction("2", "Dining", 60.0)));
+        transactionService.modifyTransaction("1", new Transaction("1", "Shopping", 10.0));
+        transactionService.deleteTransaction("3");
+        transactionService.deleteTransaction("missing");
+
+        TransactionStatistics.Snapshot stats = transactionService.getStatistics();
+        assertEquals(2, stats.count());
+        assertEquals(70.0, stats.sum(), 1e-9);
+        assertEquals(10.0, stats.min());
+        assertEquals(60.0, stats.max());
+        assertEquals(2, stats.histogram().stream().mapToLong(AmountHistogram.Bucket::count).sum());
+        // Deleting one of two equal amounts keeps the extreme
+        transactionService.createTransaction(new Transaction("4", "Snack", 10.0));
+        transactionService.deleteTransaction("1");
+        assertEquals(10.0, transactionService.getStatistics().min());
+        transactionService.deleteTransaction("4");
+        assertEquals(60.0, transactionService.getStatistics().min());
+    }
+
+    @Test
+    public void testSearchFollowsCreateModifyAndDelete() {
+        transactionService.createTransaction(new Transaction("1", "Coffee at the airport", 4.5));
+        transactionService.createTransactions(Arrays.asList(
+                new Transaction("2", "Airport parking", 30.0), new Transaction("3", "Coffee beans", 12.0)));
+        transactionService.modifyTransaction("3", new Transaction("3", "Tea leaves", 12.0));
+        transactionService.deleteTransaction("2");
+
+        TransactionService.SearchPage coffee = transactionService.searchTransactions("coffee", 0, 10);
+        assertEquals(1, coffee.totalMatches());
+        assertEquals("1", coffee.transactions().get(0).getId());
+        assertEquals("3", transactionService.searchTransactions("tea", 0, 10).transactions().get(0).getId());
+        assertEquals(1, transactionService.searchTransactions("air", 0, 10).totalMatches());
+        assertTrue(transactionService.searchTransactions("parking", 0, 10).transactions().isEmpty());
+        assertTrue(transactionService.searchTransactions("!!", 0, 10).transactions().isEmpty());
+    }
+
+    @Test
+    public void testAmountRangeFollowsModifiesAndDeletes() {
+        for (int i = 0; i < 10; i++) {
+            transactionService.createTransaction(new Transaction(Integer.toString(i), "Transaction " + i, i * 100.0));
+        }
+        transactionService.modifyTransaction("9", new Transaction("9", "Moved into range", 350.0));
+        transactionService.deleteTransaction("4");
+
+        TransactionService.SearchPage range = transactionService.listTransactionsByAmount(300.0, 500.0, false, 0, 10);
+        assertEquals(3, range.totalMatches());
+        assertFalse(range.totalApproximate());
+        assertEquals(List.of("3", "9", "5"), range.transactions().stream().map(Transaction::getId).toList());
+
+        TransactionService.SearchPage descending = transactionService.listTransactionsByAmount(
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true, 1, 3);
+        assertEquals(9, descending.totalMatches());
+        assertEquals(List.of("5", "9", "3"), descending.transactions().stream().map(Transaction::getId).toList());
+
+        List<Transaction> next = transactionService.listTransactionsByAmountAfter(
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false, 350.0, "9", 2);
+        assertEquals(List.of("5", "6"), next.stream().map(Transaction::getId).toList());
+        assertEquals(0, transactionService.listTransactionsByAmount(600.0, 500.0, false, 0, 10).totalMatches());
+    }
+
+    @Test
+    public void testAmountRangeTotalIsEstimatedWithoutWalkingTheRange() {
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            batch.add(new Transaction(Integer.toString(i), "Transaction " + i, i / 10.0));
+        }
+        transactionService.createTransactions(batch);
+
+        // 2,001 amounts from 100.0 to 300.0; the estimate is good to about a bucket at each end
+        TransactionService.SearchPage first = transactionService.listTransactionsByAmount(100.0, 300.0, false, 0, 10);
+        assertTrue(first.totalApproximate());
+        assertEquals(2_001, first.totalMatches(), 2_001 * 2 * AmountHistogram.RELATIVE_ACCURACY);
+
+        // The last page sees the end of the range, so its total is exact
+        TransactionService.SearchPage last = transactionService.listTransactionsByAmount(100.0, 300.0, false, 200, 10);
+        assertFalse(last.totalApproximate());
+        assertEquals(2_001, last.totalMatches());
+        assertEquals(1, last.transactions().size());
+
+        TransactionService.SearchPage everything = transactionService.listTransactionsByAmount(
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true, 0, 10);
+        assertFalse(everything.totalApproximate());
+        assertEquals(10_000, everything.totalMatches());
+    }
+
+    @Test
+    public void testAmountRangeNeverDuplicatesDuringConcurrentModifies() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            transactionService.createTransaction(new Transaction(String.format("%03d", i), "Transaction", i));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int round = 0; running.get(); round++) {
+                    String id = String.format("%03d", round % 100);
+                    double amount = transactionService.getTransaction(id).get().getAmount();
+                    transactionService.modifyTransaction(id, new Transaction(id, "Transaction", amount + 0.5));
+                }
+            });
+            for (int scan = 0; scan < 200; scan++) {
+                List<Transaction> all = transactionService.listTransactionsByAmount(
+                        Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false, 0, 1000).transactions();
+                assertEquals(all.size(), all.stream().map(Transaction::getId).distinct().count());
+                for (int i = 1; i < all.size(); i++) {
+                    assertTrue(all.get(i - 1).getAmount() <= all.get(i).getAmount());
+                }
+            }
+            running.set(false);
+            writer.get();
+        } finally {
+            running.set(false);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectsImmediatelyWhenAdmissionLimitReached() {
+        AdaptiveAdmissionController admission = AdaptiveAdmissionController.fixed(1);
+        TransactionService service = new TransactionService(new HeapTransactionStore(), new TransactionPageCache(1000),
+                TransactionJournal.NONE, TransactionMetrics.unexported(), admission);
+
+        AdmissionController.Permit held = admission.acquire(OperationClass.WRITE);
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> service.createTransaction(new Transaction("1", "Shopping", 150.0)));
+        assertEquals(1, exception.getRetryAfter().toSeconds());
+        // Reads have their own limit and are unaffected
+        assertTrue(service.listTransactionsAfter(null, 10).isEmpty());
+
+        held.release();
+        service.createTransaction(new Transaction("1", "Shopping", 150.0));
+        assertEquals(1, admission.getRejected(OperationClass.WRITE));
+        assertEquals(0, admission.getInflight(OperationClass.WRITE));
+    }
+
+    @Test
+    public void testReplicaTimeoutReleasesPermitAsDropped() {
+        List<Boolean> releases = new ArrayList<>();
+        AdmissionController admission = operationClass -> new AdmissionController.Permit() {
+            @Override
+            public void release() {
+                releases.add(false);
+            }
+
+            @Override
+            public void releaseDropped() {
+                releases.add(true);
+            }
+        };
+        AtomicBoolean replicaAnswers = new AtomicBoolean(true);
+        TransactionReplicator replicator = changes -> replicaAnswers.get();
+        TransactionService service = new TransactionService(new HeapTransactionStore(), new TransactionPageCache(1000),
+                TransactionJournal.NONE, TransactionMetrics.unexported(), admission, replicator,
+                new ChangeFeed(ChangeFeed.DEFAULT_CAPACITY), new TimeOrderedIdGenerator());
+
+        service.createTransaction(new Transaction("1", "Shopping", 150.0));
+        replicaAnswers.set(false);
+        service.modifyTransaction("1", new Transaction("1", "Updated", 200.0));
+        service.createTransactions(List.of(new Transaction("2", "Dinner", 50.0)));
+        // Nothing to replicate, so nothing to time out
+        service.deleteTransaction("missing");
+
+        assertEquals(List.of(false, true, true, false), releases);
+    }
+
+    @Test
+    public void testVersionsIncreaseAndConditionalModifyDetectsConflicts() {
+        Transaction created = transactionService.createTransaction(new Transaction("1", "Shopping", 150.0));
+        assertEquals(1, created.getVersion());
+
+        Transaction updated = transactionService.modifyTransaction("1", new Transaction("1", "Updated", 200.0), 1);
+        assertEquals(2, updated.getVersion());
+
+        // A writer still holding version 1 must not overwrite version 2
+        VersionConflictException conflict = assertThrows(VersionConflictException.class,
+                () -> transactionService.modifyTransaction("1", new Transaction("1", "Stale", 1.0), 1));
+        assertEquals(2, conflict.getCurrentVersion());
+        assertEquals("Updated", transactionService.getTransaction("1").get().getDescription());
+
+        // A recreated id never reuses an old version
+        transactionService.deleteTransaction("1");
+        assertTrue(transactionService.createTransaction(new Transaction("1", "Again", 1.0)).getVersion() > 2);
+        assertNull(transactionService.modifyTransaction("missing", new Transaction("missing", "x", 1.0), 1));
+    }
+
+    @Test
+    public void testEveryChangeIsPublishedToTheFeed() {
+        ChangeFeed feed = new ChangeFeed(ChangeFeed.DEFAULT_CAPACITY);
+        TransactionService service = new TransactionService(new HeapTransactionStore(),
+                new TransactionPageCache(TransactionPageCache.DEFAULT_MAX_CACHED_TRANSACTIONS), TransactionJournal.NONE,
+                TransactionMetrics.unexported(), AdaptiveAdmissionController.fixed(1000), TransactionReplicator.NONE, feed,
+                new TimeOrderedIdGenerator());
+        long first = feed.lastSequence() + 1;
+
+        service.createTransaction(new Transaction("1", "Shopping", 150.0));
+        service.modifyTransaction("1", new Transaction("1", "Updated", 200.0));
+        service.createTransactions(List.of(new Transaction("2", "Dinner", 50.0), new Transaction("3", "Taxi", 20.0)));
+        service.deleteTransaction("1");
+        // Not found, so no change
+        service.deleteTransaction("missing");
+
+        List<ChangeFeed.Entry> events = new ArrayList<>();
+        assertEquals(5, feed.read(first, 10, events));
+        assertEquals(List.of(ChangeEvent.Type.CREATED, ChangeEvent.Type.UPDATED, ChangeEvent.Type.CREATED,
+                        ChangeEvent.Type.CREATED, ChangeEvent.Type.DELETED),
+                events.stream().map(entry -> entry.event().type()).toList());
+        assertEquals(service.getTransaction("2").get().getVersion(), events.get(2).event().transaction().getVersion());
+        feed.close();
+    }
+
+    @Test
+    public void testReplicatedChangesApplyByVersion() {
+        Transaction v1 = new Transaction("1", "First", 10.0, 100);
+        Transaction v2 = new Transaction("1", "Second", 20.0, 200);
+
+        // Arriving out of order, the older change is skipped
+        transactionService.applyReplicas(List.of(ReplicatedChange.put(v2)));
+        transactionService.applyReplicas(List.of(ReplicatedChange.put(v1)));
+        assertEquals("Second", transactionService.getTransaction("1").get().getDescription());
+        assertEquals(200, transactionService.getTransaction("1").get().getVersion());
+        assertEquals(20.0, transactionService.getStatistics().sum());
+
+        // A write the owner made before the delete can't bring the transaction back
+        transactionService.applyReplicas(List.of(ReplicatedChange.delete(v2)));
+        transactionService.applyReplicas(List.of(ReplicatedChange.put(v1)));
+        assertTrue(transactionService.getTransaction("1").isEmpty());
+        assertEquals(0, transactionService.getStatistics().count());
+
+        // Recreated later, with a newer version
+        transactionService.applyReplicas(List.of(ReplicatedChange.put(new Transaction("1", "Third", 30.0, 300))));
+        assertEquals("Third", transactionService.getTransaction("1").get().getDescription());
+
+        // Local writes continue past the replicated versions
+        assertTrue(transactionService.createTransaction(new Transaction("2", "Local", 1.0)).getVersion() > 300);
+    }
+
+    @Test
+    public void testInvalidReplicatedChangesAreRejectedWhole() {
+        Transaction valid = new Transaction("1", "First", 10.0, 100);
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.applyReplicas(List.of(
+                ReplicatedChange.put(valid), ReplicatedChange.put(new Transaction("2", "Negative", -5.0, 100)))));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.applyReplicas(List.of(
+                ReplicatedChange.put(new Transaction("3", "Forged", 1.0, Long.MAX_VALUE)))));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.applyReplicas(List.of(
+                new ReplicatedChange("4", 0, null))));
+        assertEquals(0, transactionService.getTotalTransactions());
+
+        // The version clock is untouched, so local writes still get versions
+        Transaction local = transactionService.createTransaction(new Transaction("5", "Local", 1.0));
+        assertTrue(local.getVersion() > 0 && local.getVersion() < Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testStoredTransactionsAreNeverChangedInPlace() {
+        transactionService.createTransaction(new Transaction("1", "Shopping", 150.0));
+        List<Transaction> page = transactionService.listTransactions(0, 10);
+        Transaction read = transactionService.getTransaction("1").get();
+
+        transactionService.modifyTransaction("1", new Transaction("1", "Updated", 200.0));
+
+        // Earlier reads and cached pages keep the version they were given
+        assertEquals("Shopping", page.get(0).getDescription());
+        assertEquals(150.0, read.getAmount());
+        assertEquals("Updated", transactionService.listTransactions(0, 10).get(0).getDescription());
+    }
+
+    @Test
+    public void testConditionalUpdatesUnderContentionLoseNothing() throws Exception {
+        transactionService.createTransaction(new Transaction("counter", "n=0", 0));
+        int writers = 8;
+        int incrementsPerWriter = 500;
+        AtomicBoolean inconsistent = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < incrementsPerWriter; i++) {
+                    // Read-modify-write retried on conflict, as an If-Match client would
+                    while (true) {
+                        Transaction current = transactionService.getTransaction("counter").get();
+                        long next = (long) current.getAmount() + 1;
+                        try {
+                            transactionService.modifyTransaction("counter",
+                                    new Transaction("counter", "n=" + next, next), current.getVersion());
+                            break;
+                        } catch (VersionConflictException e) {
+                            // Someone else won; read again
+                        }
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            futures.add(pool.submit(() -> {
+                while (!done.get()) {
+                    // Description and amount are always written together, so they must always agree
+                    for (Transaction transaction : transactionService.listTransactions(0, 10)) {
+                        if (!transaction.getDescription().equals("n=" + (long) transaction.getAmount())) {
+                            inconsistent.set(true);
+                        }
+                    }
+                }
+            }));
+        }
+        for (int w = 0; w < writers; w++) {
+            futures.get(w).get(60, TimeUnit.SECONDS);
+        }
+        done.set(true);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        Transaction counter = transactionService.getTransaction("counter").get();
+        assertEquals(writers * incrementsPerWriter, (long) counter.getAmount());
+        assertEquals(1 + writers * incrementsPerWriter, counter.getVersion());
+        assertFalse(inconsistent.get());
+    }
 }
@@ -0,0 +1,110 @@
+package com.example.transactionmanager.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionStatisticsTest {
+    private TransactionStatistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = new TransactionStatistics();
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        TransactionStatistics.Snapshot snapshot = statistics.snapshot(null, null);
+        assertEquals(0, snapshot.count());
+        assertEquals(0.0, snapshot.sum());
+        assertNull(snapshot.mean());
+        assertNull(snapshot.min());
+        assertNull(snapshot.max());
+        assertTrue(snapshot.percentiles().isEmpty());
+        assertTrue(snapshot.histogram().isEmpty());
+    }
+
+    @Test
+    public void testAggregatesFollowRemovals() {
+        statistics.add(10.0);
+        statistics.add(10.0);
+        statistics.add(50.0);
+        statistics.add(90.0);
+
+        statistics.remove(10.0);
+        statistics.replace(90.0, 70.0);
+        TransactionStatistics.Snapshot snapshot = statistics.snapshot(10.0, 70.0);
+        assertEquals(10.0, snapshot.min());
+        assertEquals(70.0, snapshot.max());
+        assertEquals(3, snapshot.count());
+        assertEquals(130.0, snapshot.sum(), 1e-9);
+        assertEquals(130.0 / 3, snapshot.mean(), 1e-9);
+        // Percentiles never fall outside the extremes
+        assertTrue(snapshot.percentiles().values().stream().allMatch(value -> value >= 10.0 && value <= 70.0));
+    }
+
+    @Test
+    public void testPercentilesWithinRelativeAccuracy() {
+        double[] amounts = new double[100_000];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = i == 0 ? 0 : Math.exp(i % 1000 / 50.0) - 0.5;
+            statistics.add(amounts[i]);
+        }
+        Arrays.sort(amounts);
+        TransactionStatistics.Snapshot snapshot = statistics.snapshot(amounts[0], amounts[amounts.length - 1]);
+        for (double quantile : TransactionStatistics.QUANTILES) {
+            double exact = amounts[(int) Math.ceil(quantile * amounts.length) - 1];
+            double estimate = snapshot.percentiles().get("p" + Math.round(quantile * 100));
+            assertEquals(exact, estimate, exact * AmountHistogram.RELATIVE_ACCURACY + AmountHistogram.MIN_INDEXED_AMOUNT);
+        }
+        assertEquals(amounts.length, snapshot.histogram().stream().mapToLong(AmountHistogram.Bucket::count).sum());
+    }
+
+    @Test
+    public void testBucketsCoverTheirAmounts() {
+        for (double amount : new double[] {0, 0.005, 0.01, 0.02, 1, 999.99, 1e9, 1e300}) {
+            int index = AmountHistogram.indexOf(amount);
+            assertTrue(amount >= AmountHistogram.lowerBound(index), "lower bound of " + amount);
+            assertTrue(amount <= AmountHistogram.upperBound(index), "upper bound of " + amount);
+        }
+    }
+
+    @Test
+    public void testConcurrentUpdatesBalance() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        double amount = thread * 10_000 + i;
+                        statistics.add(amount);
+                        statistics.replace(amount, amount + 0.5);
+                        if (i % 2 == 0) {
+                            statistics.remove(amount + 0.5);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        TransactionStatistics.Snapshot snapshot = statistics.snapshot(1.5, 79_999.5);
+        assertEquals(40_000, snapshot.count());
+        // Each thread keeps its 5,000 odd amounts, each moved up by 0.5
+        assertEquals(1_600_020_000.0, snapshot.sum(), 1e-3);
+        assertEquals(40_000, snapshot.histogram().stream().mapToLong(AmountHistogram.Bucket::count).sum());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.transactionmanager.store;
+
+import com.example.transactionmanager.id.TimeOrderedIdGenerator;
+import com.example.transactionmanager.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlabTransactionStoreTest {
+    private SlabTransactionStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new SlabTransactionStore();
+    }
+
+    @Test
+    public void testRoundTripsUuidAndPlainIds() {
+        String uuid = UUID.randomUUID().toString();
+        assertTrue(store.put(new Transaction(uuid, "Café ☕", 12.34)));
+        assertTrue(store.put(new Transaction("ABC-1", "Shopping", 0.1 + 0.2)));
+        // Upper-case UUIDs are not canonical and must keep their exact spelling
+        String upper = uuid.toUpperCase();
+        assertTrue(store.put(new Transaction(upper, "Upper", 1.0)));
+
+        assertEquals("Café ☕", store.get(uuid).getDescription());
+        assertEquals(12.34, store.get(uuid).getAmount());
+        assertEquals(0.1 + 0.2, store.get("ABC-1").getAmount());
+        assertEquals("Upper", store.get(upper).getDescription());
+        assertNull(store.get("missing"));
+        assertEquals(3, store.size());
+
+        Map<String, String> iterated = new HashMap<>();
+        for (Iterator<Transaction> it = store.iterator(); it.hasNext(); ) {
+            Transaction transaction = it.next();
+            iterated.put(transaction.getId(), transaction.getDescription());
+        }
+        assertEquals(Map.of(uuid, "Café ☕", "ABC-1", "Shopping", upper, "Upper"), iterated);
+    }
+
+    @Test
+    public void testRoundTripsTimeOrderedIds() {
+        String generated = new TimeOrderedIdGenerator().nextId();
+        assertTrue(store.put(new Transaction(generated, "Generated", 1.0)));
+        // Lower case is not the canonical ULID form and must keep its exact spelling
+        String lower = generated.toLowerCase();
+        assertTrue(store.put(new Transaction(lower, "Lower", 2.0)));
+
+        assertEquals("Generated", store.get(generated).getDescription());
+        assertEquals("Lower", store.get(lower).getDescription());
+        Map<String, String> iterated = new HashMap<>();
+        store.iterator().forEachRemaining(transaction -> iterated.put(transaction.getId(), transaction.getDescription()));
+        assertEquals(Map.of(generated, "Generated", lower, "Lower"), iterated);
+    }
+
+    @Test
+    public void testRoundTripsAccountIds() {
+        assertTrue(store.put(new Transaction("1", "acct-ü", "Shopping", 150.0, 3)));
+        assertTrue(store.put(new Transaction("2", "No account", 100.0)));
+
+        assertEquals("acct-ü", store.get("1").getAccountId());
+        assertEquals(3, store.get("1").getVersion());
+        assertNull(store.get("2").getAccountId());
+        // Moving to another account rewrites the record
+        assertFalse(store.put(new Transaction("1", "acct-b", "Shopping", 150.0, 4)));
+        assertEquals("acct-b", store.get("1").getAccountId());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        assertTrue(store.put(new Transaction("1", "Shopping", 150.0)));
+        assertFalse(store.put(new Transaction("1", "Shopping - Updated", 200.0)));
+        assertEquals(1, store.size());
+        assertEquals("Shopping - Updated", store.get("1").getDescription());
+
+        Transaction removed = store.remove("1");
+        assertEquals(200.0, removed.getAmount());
+        assertFalse(store.containsKey("1"));
+        assertNull(store.remove("1"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testMatchesHashMapUnderRandomChurn() {
+        Map<String, Transaction> expected = new HashMap<>();
+        Random random = new Random(42);
+        // Enough churn to resize tables, shift deleted slots and compact slabs several times
+        for (int i = 0; i < 200_000; i++) {
+            String id = "id-" + random.nextInt(5_000);
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                assertEquals(expected.remove(id) != null, store.remove(id) != null);
+            } else {
+                Transaction transaction = new Transaction(id, "Description " + i + "x".repeat(random.nextInt(100)), i);
+                assertEquals(expected.put(id, transaction) == null, store.put(transaction));
+            }
+        }
+        assertEquals(expected.size(), store.size());
+        for (Transaction transaction : expected.values()) {
+            Transaction stored = store.get(transaction.getId());
+            assertEquals(transaction.getDescription(), stored.getDescription());
+            assertEquals(transaction.getAmount(), stored.getAmount());
+        }
+        // Compaction keeps direct memory proportional to live data
+        assertTrue(store.offHeapBytes() <= 4L * 64 * SlabTransactionStore.SLAB_BYTES, "off-heap bytes: " + store.offHeapBytes());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.transactionmanager.store;
+
+import com.example.transactionmanager.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TieredTransactionStoreTest {
+    @TempDir
+    Path directory;
+
+    private TieredTransactionStore store;
+
+    @AfterEach
+    public void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    // Demotes only when asked, so each test decides what is cold
+    private TieredTransactionStore open(int hotMax, int maxSegments) {
+        TieredStoreProperties properties = new TieredStoreProperties();
+        properties.setDirectory(directory.toString());
+        properties.setHotMaxTransactions(hotMax);
+        properties.setMaxSegments(maxSegments);
+        properties.setDemotionInterval(Duration.ofHours(1));
+        store = new TieredTransactionStore(properties);
+        return store;
+    }
+
+    @Test
+    public void testReadsDemotedTransactionsFromSegments() throws Exception {
+        open(100, 16);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(store.put(new Transaction(String.format("tx-%04d", i), "Description " + i, i / 100.0)));
+        }
+        store.demoteNow();
+
+        assertEquals(90, store.hotSize());
+        assertEquals(1, store.segmentCount());
+        assertTrue(store.segmentBytes() > 0);
+        assertEquals(1000, store.size());
+        for (int i = 0; i < 1000; i++) {
+            Transaction transaction = store.get(String.format("tx-%04d", i));
+            assertEquals("Description " + i, transaction.getDescription());
+            assertEquals(i / 100.0, transaction.getAmount());
+        }
+        assertTrue(store.containsKey("tx-0000"));
+        assertNull(store.get("tx-9999"));
+        assertFalse(store.containsKey("tx-9999"));
+    }
+
+    @Test
+    public void testUpdatesAndDeletesReachColdTransactions() throws Exception {
+        open(0, 16);
+        store.put(new Transaction("a", "First", 1.0));
+        store.put(new Transaction("b", "Second", 2.0));
+        store.put(new Transaction("c", "Third", 3.0));
+        store.demoteNow();
+        assertEquals(0, store.hotSize());
+
+        // An update of a cold transaction is not a new one, and shadows the copy on disk
+        assertFalse(store.put(new Transaction("a", "First updated", 1.5, 2)));
+        assertEquals("First updated", store.get("a").getDescription());
+
+        assertEquals("Second", store.remove("b").getDescription());
+        assertNull(store.get("b"));
+        assertNull(store.remove("b"));
+        // Deleting the hot copy must not uncover the one on disk
+        assertEquals("First updated", store.remove("a").getDescription());
+        assertNull(store.get("a"));
+        assertEquals(1, store.size());
+
+        store.demoteNow();
+        assertNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertEquals("Third", store.get("c").getDescription());
+
+        // A deleted id comes back as new
+        assertTrue(store.put(new Transaction("b", "Second again", 2.5)));
+        store.demoteNow();
+        assertEquals("Second again", store.get("b").getDescription());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testMergesSegmentsAndDropsHiddenCopies() throws Exception {
+        open(0, 2);
+        Map<String, String> expected = new HashMap<>();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                String id = "tx-" + (round * 20 + i);
+                String description = "Round " + round;
+                store.put(new Transaction(id, description, i));
+                expected.put(id, description);
+            }
+            String deleted = "tx-" + (round * 7);
+            if (store.remove(deleted) != null) {
+                expected.remove(deleted);
+            }
+            store.demoteNow();
+        }
+
+        assertTrue(store.segmentCount() <= 2);
+        assertEquals(expected.size(), store.size());
+        expected.forEach((id, description) -> assertEquals(description, store.get(id).getDescription()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(store.segmentCount(), files.count());
+        }
+    }
+
+    @Test
+    public void testIteratesEachTransactionOnceAcrossTiers() throws Exception {
+        open(0, 16);
+        for (int i = 0; i < 200; i++) {
+            store.put(new Transaction("tx-" + i, "Cold", i));
+        }
+        store.demoteNow();
+        for (int i = 100; i < 300; i++) {
+            store.put(new Transaction("tx-" + i, "Hot", i));
+        }
+        store.remove("tx-0");
+        store.remove("tx-150");
+
+        Map<String, String> iterated = new HashMap<>();
+        store.iterator().forEachRemaining(transaction ->
+                assertNull(iterated.put(transaction.getId(), transaction.getDescription()), transaction.getId()));
+        assertEquals(298, iterated.size());
+        assertEquals(store.size(), iterated.size());
+        assertEquals("Cold", iterated.get("tx-99"));
+        assertEquals("Hot", iterated.get("tx-100"));
+        assertFalse(iterated.containsKey("tx-0"));
+        assertFalse(iterated.containsKey("tx-150"));
+    }
+}